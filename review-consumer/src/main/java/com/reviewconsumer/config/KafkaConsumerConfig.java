@@ -3,23 +3,38 @@ package com.reviewconsumer.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.reviewcore.dto.ReviewMessage;
+import com.reviewconsumer.service.KeyOrderedExecutor;
+import com.reviewconsumer.service.ReviewRecordFilter;
+import com.reviewconsumer.service.ReviewRetryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -28,6 +43,8 @@ import java.util.Map;
 @Slf4j
 public class KafkaConsumerConfig {
 
+    private final ReviewRecordFilter reviewRecordFilter;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
@@ -43,6 +60,31 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.threads:2}")
     private int consumerThreads;
 
+    @Value("${spring.kafka.consumer.bulk-threads:1}")
+    private int bulkConsumerThreads;
+
+    @Value("${spring.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${kafka.consumer.retry.topic-partitions:3}")
+    private int retryTopicPartitions;
+
+    @Value("${kafka.consumer.retry.dlt-retention-ms:1209600000}") // 14 days default
+    private long dltRetentionMs;
+
+    @Value("${kafka.topic.latest-state:review_latest_state}")
+    private String latestStateTopic;
+
+    @Value("${review.consumer.latest-state.topic-partitions:6}")
+    private int latestStateTopicPartitions;
+
+    // Blocking redelivery, only used when a failed record cannot be published to its retry topic
+    @Value("${kafka.consumer.retry.publish-backoff-ms:5000}")
+    private long retryPublishBackoffMs;
+
+    @Value("${kafka.consumer.retry.publish-attempts:12}")
+    private long retryPublishAttempts;
+
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
@@ -67,7 +109,7 @@ public class KafkaConsumerConfig {
         // Performance tuning
         props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024);
         props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500);
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, 30000);
         props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, 10000);
 
@@ -77,21 +119,208 @@ public class KafkaConsumerConfig {
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
+    /**
+     * Producer used to move failed records onto the retry and dead letter topics
+     */
+    @Bean
+    public ProducerFactory<String, String> retryProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> retryKafkaTemplate() {
+        return new KafkaTemplate<>(retryProducerFactory());
+    }
+
+    /**
+     * One topic per retry tier and source topic, plus a dead letter topic per source topic
+     */
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(ReviewRetryService reviewRetryService) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : reviewRetryService.getAllRetryTopics()) {
+            topics.add(TopicBuilder.name(topic)
+                    .partitions(retryTopicPartitions)
+                    .replicas(1)
+                    .build());
+        }
+        for (String topic : reviewRetryService.getDeadLetterTopics()) {
+            topics.add(TopicBuilder.name(topic)
+                    .partitions(retryTopicPartitions)
+                    .replicas(1)
+                    .config("retention.ms", String.valueOf(dltRetentionMs))
+                    .build());
+        }
+        log.info("Declaring {} retry and dead letter topics", topics.size());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    /**
+     * Latest persisted state per review, keyed by review id and provider id. Compaction keeps only
+     * the newest value per key, so the topic stays about the size of the review tables.
+     */
+    @Bean
+    public NewTopic latestStateTopic() {
+        return TopicBuilder.name(latestStateTopic)
+                .partitions(latestStateTopicPartitions)
+                .replicas(1)
+                .compact()
+                .config("min.cleanable.dirty.ratio", "0.1")
+                .build();
+    }
+
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(consumerThreads);
+        log.info("Kafka listener container factory configured with {} concurrent consumers", consumerThreads);
+        return factory;
+    }
+
+    /**
+     * Container factory for the bulk (backfill) lane; kept small so replays cannot take
+     * database capacity away from the realtime listeners.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> bulkKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(bulkConsumerThreads);
+        log.info("Bulk Kafka listener container factory configured with {} concurrent consumers", bulkConsumerThreads);
+        return factory;
+    }
+
+    /**
+     * Batch listener factories, used when kafka.consumer.listener-mode is batch. Each poll
+     * (up to max.poll.records) is handed to the listener as one list.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(consumerThreads, true);
+        log.info("Batch Kafka listener container factory configured with {} concurrent consumers", consumerThreads);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> bulkBatchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(bulkConsumerThreads, true);
+        log.info("Bulk batch Kafka listener container factory configured with {} concurrent consumers", bulkConsumerThreads);
+        return factory;
+    }
+
+    /**
+     * Exactly-once listener factories: batch factories without the header filter. The listener
+     * takes the next offset of each partition from the whole poll before filtering, so records
+     * discarded at the end of a poll, or a poll discarded entirely, still advance the offsets
+     * stored in Postgres.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> exactlyOnceKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(consumerThreads, true);
+        factory.setRecordFilterStrategy(null);
+        log.info("Exactly-once Kafka listener container factory configured with {} concurrent consumers", consumerThreads);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> bulkExactlyOnceKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(bulkConsumerThreads, true);
+        factory.setRecordFilterStrategy(null);
+        log.info("Bulk exactly-once Kafka listener container factory configured with {} concurrent consumers", bulkConsumerThreads);
+        return factory;
+    }
+
+    /**
+     * Parallel listener factories, used when kafka.consumer.listener-mode is parallel. Records are
+     * acknowledged out of order by the worker pool; with async acks the container defers commits
+     * until the gap below an acknowledged offset is filled and pauses the consumer until the
+     * previous poll is fully acknowledged, which bounds the work in flight. A partition whose
+     * worker queue is full is paused on top of that until the workers drain.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> parallelKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(consumerThreads);
+        factory.getContainerProperties().setAsyncAcks(true);
+        log.info("Parallel Kafka listener container factory configured with {} concurrent consumers", consumerThreads);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> bulkParallelKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(bulkConsumerThreads);
+        factory.getContainerProperties().setAsyncAcks(true);
+        log.info("Bulk parallel Kafka listener container factory configured with {} concurrent consumers", bulkConsumerThreads);
+        return factory;
+    }
+
+    /**
+     * Bad review listener. Records are acknowledged by the batching sink once their batch commits,
+     * out of order with respect to the listener thread, so commits need async acks as well.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> badReviewKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(consumerThreads);
+        factory.getContainerProperties().setAsyncAcks(true);
+        log.info("Bad review Kafka listener container factory configured with {} concurrent consumers", consumerThreads);
+        return factory;
+    }
+
+    /**
+     * DLQ listener. The dlq topic carries records of every platform, and records without
+     * platform headers must be stored as well, so the header filter is left out.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> dlqKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = createListenerContainerFactory(1, true);
+        factory.setRecordFilterStrategy(null);
+        return factory;
+    }
+
+    /**
+     * Retry tier listeners. A record that is not due yet pauses its container with nack(), so each
+     * tier gets its own single-threaded container and a long delay never holds back a short one.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> retryKafkaListenerContainerFactory() {
+        return createListenerContainerFactory(1);
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, String> createListenerContainerFactory(int concurrency) {
+        return createListenerContainerFactory(concurrency, false);
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, String> createListenerContainerFactory(int concurrency, boolean batch) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory = 
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setConcurrency(consumerThreads);
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(batch);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler(
+        // Header-based filtering; discarded records are acknowledged so their offsets still advance
+        factory.setRecordFilterStrategy(reviewRecordFilter);
+        factory.setAckDiscarded(true);
+        // Processing failures are routed to the retry topics by the listeners; the error handler only
+        // sees records that could not be handed to the retry chain and redelivers them with a backoff
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
             (record, exception) -> {
-                log.error("Error processing record from topic: {}, partition: {}, offset: {}", 
+                log.error("Giving up on record from topic: {}, partition: {}, offset: {}", 
                          record.topic(), record.partition(), record.offset(), exception);
-            }
-        ));
-        
-        log.info("Kafka listener container factory configured with {} concurrent consumers", consumerThreads);
+            },
+            new FixedBackOff(retryPublishBackoffMs, retryPublishAttempts)
+        );
+        // A full parallel worker queue is backpressure, not a failure: the record's partition is
+        // paused, so it is redelivered when the workers drain and is never given up on
+        errorHandler.setBackOffFunction((record, exception) -> isQueueFull(exception)
+                ? new FixedBackOff(0L, FixedBackOff.UNLIMITED_ATTEMPTS) : null);
+        factory.setCommonErrorHandler(errorHandler);
         return factory;
     }
-} 
\ No newline at end of file
+
+    private static boolean isQueueFull(Exception exception) {
+        return exception instanceof KeyOrderedExecutor.QueueFullException
+                || exception.getCause() instanceof KeyOrderedExecutor.QueueFullException;
+    }
+}
@@ -0,0 +1,106 @@
+package com.reviewconsumer.controller;
+
+import com.reviewconsumer.service.BulkLoadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Admin endpoints for COPY-based bulk loads of historical review dumps
+ */
+@RestController
+@RequestMapping("/api/v1/bulk-load")
+public class BulkLoadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoadController.class);
+
+    private final BulkLoadService bulkLoadService;
+
+    @Autowired
+    public BulkLoadController(BulkLoadService bulkLoadService) {
+        this.bulkLoadService = bulkLoadService;
+    }
+
+    /**
+     * Start a background load of a .jl or .jl.gz file, relative to the bulk-load directory
+     */
+    @PostMapping
+    public ResponseEntity<?> startFileLoad(@RequestParam("path") String path) {
+        try {
+            BulkLoadService.BulkLoadJob job = bulkLoadService.submitFile(path);
+            logger.info("Started bulk load {} for file: {}", job.getId(), path);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected bulk load request for {}: {}", path, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Load JSONL sent as the request body; returns once the whole stream is merged
+     */
+    @PostMapping("/upload")
+    public ResponseEntity<BulkLoadService.BulkLoadJob> uploadLoad(
+            @RequestParam(value = "name", defaultValue = "upload") String name, InputStream body) {
+        BulkLoadService.BulkLoadJob job = bulkLoadService.loadStream(name, body);
+        HttpStatus status = "FAILED".equals(job.getStatus()) ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    /**
+     * Rebuild the review tables from the latest-state topic in the background, e.g. to seed a
+     * fresh database; listeners are stopped until the rebuild finishes, and the job fails while
+     * another review-consumer instance is consuming. Refused with 409 while Postgres holds reviews
+     * the topic is not known to contain.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> startRebuild() {
+        try {
+            BulkLoadService.BulkLoadJob job = bulkLoadService.submitRebuild();
+            logger.info("Started rebuild {} from {}", job.getId(), job.getSource());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected rebuild request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Publish every review in Postgres to the latest-state topic in the background and mark the
+     * topic complete; consumers keep running meanwhile
+     */
+    @PostMapping("/seed")
+    public ResponseEntity<?> startSeed() {
+        try {
+            BulkLoadService.BulkLoadJob job = bulkLoadService.submitSeed();
+            logger.info("Started latest-state seed {} from {}", job.getId(), job.getSource());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            logger.warn("Rejected latest-state seed request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<Collection<BulkLoadService.BulkLoadJob>> getJobs() {
+        return ResponseEntity.ok(bulkLoadService.getJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkLoadService.BulkLoadJob> getJob(@PathVariable String jobId) {
+        BulkLoadService.BulkLoadJob job = bulkLoadService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+}
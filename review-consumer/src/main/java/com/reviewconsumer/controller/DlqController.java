@@ -0,0 +1,100 @@
+package com.reviewconsumer.controller;
+
+import com.reviewconsumer.repository.DlqRecordRepository.DlqFilter;
+import com.reviewconsumer.service.DlqService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Admin endpoints for querying stored DLQ records and replaying them through validation
+ */
+@RestController
+@RequestMapping("/api/v1/dlq")
+public class DlqController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DlqController.class);
+
+    private final DlqService dlqService;
+
+    @Autowired
+    public DlqController(DlqService dlqService) {
+        this.dlqService = dlqService;
+    }
+
+    /**
+     * Newest records first; from/to are ISO-8601 instants bounding the Kafka record timestamp.
+     * Pass each response's nextCursor as cursor to get the following page.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getRecords(
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        DlqFilter filter = new DlqFilter(platform, reason, from, to);
+        try {
+            return ResponseEntity.ok(dlqService.findRecords(filter, cursor, Math.min(Math.max(size, 1), 1000)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected DLQ records request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Record counts by platform and by reason
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatistics(
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(dlqService.getStatistics(new DlqFilter(platform, reason, from, to)));
+    }
+
+    /**
+     * Replay the matching records in the background at the given rate (records per second)
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<?> startReplay(
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Double rate) {
+        try {
+            DlqService.ReplayJob job = dlqService.submitReplay(new DlqFilter(platform, reason, from, to), rate);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected DLQ replay request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/replay")
+    public ResponseEntity<Collection<DlqService.ReplayJob>> getReplayJobs() {
+        return ResponseEntity.ok(dlqService.getReplayJobs());
+    }
+
+    @GetMapping("/replay/{jobId}")
+    public ResponseEntity<DlqService.ReplayJob> getReplayJob(@PathVariable String jobId) {
+        DlqService.ReplayJob job = dlqService.getReplayJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.reviewconsumer.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kafka consumer offsets kept in Postgres, so they can be written in the same transaction as the
+ * rows they cover. Offsets are the next offset to consume, as with Kafka commits.
+ */
+@Repository
+public class ConsumerOffsetRepository {
+
+    private static final String UPSERT_OFFSETS_SQL =
+            "INSERT INTO consumer_offsets (group_id, topic, partition_id, next_offset, updated_at) " +
+            "SELECT ?, topic, partition_id, next_offset, CURRENT_TIMESTAMP " +
+            "FROM jsonb_to_recordset(?::jsonb) AS o(topic VARCHAR, partition_id INT, next_offset BIGINT) " +
+            "ON CONFLICT (group_id, topic, partition_id) DO UPDATE SET " +
+            "next_offset = EXCLUDED.next_offset, updated_at = EXCLUDED.updated_at";
+
+    private static final String SELECT_OFFSETS_SQL =
+            "SELECT o.topic, o.partition_id, o.next_offset FROM consumer_offsets o " +
+            "JOIN jsonb_to_recordset(?::jsonb) AS p(topic VARCHAR, partition_id INT) USING (topic, partition_id) " +
+            "WHERE o.group_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ConsumerOffsetRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void storeOffsets(String groupId, Map<TopicPartition, Long> nextOffsets) {
+        if (nextOffsets.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(nextOffsets.size());
+        nextOffsets.forEach((partition, offset) -> {
+            Map<String, Object> row = toRow(partition);
+            row.put("next_offset", offset);
+            rows.add(row);
+        });
+        jdbcTemplate.update(UPSERT_OFFSETS_SQL, groupId, toJson(rows));
+    }
+
+    /**
+     * Stored next offsets of the given partitions; partitions never stored are left out
+     */
+    public Map<TopicPartition, Long> findOffsets(String groupId, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        if (partitions.isEmpty()) {
+            return offsets;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(partitions.size());
+        partitions.forEach(partition -> rows.add(toRow(partition)));
+        jdbcTemplate.query(SELECT_OFFSETS_SQL, rs -> {
+            offsets.put(new TopicPartition(rs.getString("topic"), rs.getInt("partition_id")), rs.getLong("next_offset"));
+        }, toJson(rows), groupId);
+        return offsets;
+    }
+
+    private static Map<String, Object> toRow(TopicPartition partition) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("topic", partition.topic());
+        row.put("partition_id", partition.partition());
+        return row;
+    }
+
+    private String toJson(List<Map<String, Object>> rows) {
+        try {
+            return objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize consumer offsets", e);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.reviewconsumer.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DLQ records stored from the dlq topic, in the monthly-partitioned dlq_records table.
+ *
+ * Records are keyed by their Kafka position and timestamp, so a redelivered batch is skipped
+ * rather than stored twice. Queries always filter on received_at first where a range is given,
+ * which lets Postgres prune partitions outside it.
+ */
+@Repository
+public class DlqRecordRepository {
+
+    private static final String INSERT_RECORDS_SQL =
+            "INSERT INTO dlq_records (received_at, kafka_partition, kafka_offset, review_id, provider_id, platform, " +
+            "reason, original_json, source, file_key, line_number) " +
+            "SELECT to_timestamp(received_at_ms / 1000.0), kafka_partition, kafka_offset, review_id, provider_id, " +
+            "platform, reason, original_json, source, file_key, line_number " +
+            "FROM jsonb_to_recordset(?::jsonb) AS r(received_at_ms BIGINT, kafka_partition INT, kafka_offset BIGINT, " +
+            "review_id BIGINT, provider_id INT, platform VARCHAR, reason VARCHAR, original_json TEXT, source VARCHAR, " +
+            "file_key VARCHAR, line_number INT) " +
+            "ORDER BY received_at_ms, kafka_partition, kafka_offset " +
+            "ON CONFLICT DO NOTHING RETURNING TRUE";
+
+    private static final String MARK_REPLAYED_SQL =
+            "UPDATE dlq_records d SET replay_count = d.replay_count + 1, replayed_at = CURRENT_TIMESTAMP " +
+            "FROM jsonb_to_recordset(?::jsonb) AS k(received_at_ms BIGINT, kafka_partition INT, kafka_offset BIGINT) " +
+            "WHERE d.received_at = to_timestamp(k.received_at_ms / 1000.0) " +
+            "AND d.kafka_partition = k.kafka_partition AND d.kafka_offset = k.kafka_offset";
+
+    private static final String COLUMNS =
+            "received_at, kafka_partition, kafka_offset, review_id, provider_id, platform, reason, original_json, " +
+            "source, file_key, line_number, replay_count, replayed_at";
+
+    private static final RowMapper<DlqRecord> ROW_MAPPER = (rs, rowNum) -> {
+        DlqRecord record = new DlqRecord();
+        record.setReceivedAt(rs.getTimestamp("received_at").toInstant());
+        record.setKafkaPartition(rs.getInt("kafka_partition"));
+        record.setKafkaOffset(rs.getLong("kafka_offset"));
+        record.setReviewId(rs.getObject("review_id", Long.class));
+        record.setProviderId(rs.getObject("provider_id", Integer.class));
+        record.setPlatform(rs.getString("platform"));
+        record.setReason(rs.getString("reason"));
+        record.setOriginalJson(rs.getString("original_json"));
+        record.setSource(rs.getString("source"));
+        record.setFileKey(rs.getString("file_key"));
+        record.setLineNumber(rs.getObject("line_number", Integer.class));
+        record.setReplayCount(rs.getInt("replay_count"));
+        Timestamp replayedAt = rs.getTimestamp("replayed_at");
+        record.setReplayedAt(replayedAt != null ? replayedAt.toInstant() : null);
+        return record;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public DlqRecordRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Store a batch of records in one statement; records already stored are skipped
+     *
+     * @return number of records inserted
+     */
+    public int insertRecords(List<DlqRecord> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(records.size());
+        for (DlqRecord record : records) {
+            Map<String, Object> row = toKeyRow(record);
+            row.put("review_id", record.getReviewId());
+            row.put("provider_id", record.getProviderId());
+            row.put("platform", record.getPlatform());
+            row.put("reason", record.getReason());
+            row.put("original_json", record.getOriginalJson());
+            row.put("source", record.getSource());
+            row.put("file_key", record.getFileKey());
+            row.put("line_number", record.getLineNumber());
+            rows.add(row);
+        }
+        return jdbcTemplate.queryForList(INSERT_RECORDS_SQL, Boolean.class, toJson(rows)).size();
+    }
+
+    /**
+     * Newest records first, matching the optional filters, strictly before the given record (null
+     * for the first page). Seeks on the primary key instead of skipping rows, so a deep page costs
+     * as much as the first one.
+     */
+    public List<DlqRecord> findRecordsBefore(DlqFilter filter, DlqRecord before, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM dlq_records" + where(filter, args));
+        if (before != null) {
+            sql.append(args.isEmpty() ? " WHERE " : " AND ")
+               .append("(received_at, kafka_partition, kafka_offset) < (?, ?, ?)");
+            args.add(Timestamp.from(before.getReceivedAt()));
+            args.add(before.getKafkaPartition());
+            args.add(before.getKafkaOffset());
+        }
+        sql.append(" ORDER BY received_at DESC, kafka_partition DESC, kafka_offset DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    public long countRecords(DlqFilter filter) {
+        List<Object> args = new ArrayList<>();
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dlq_records" + where(filter, args),
+                Long.class, args.toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Record counts grouped by the given column (platform or reason)
+     */
+    public Map<String, Long> countBy(String column, DlqFilter filter) {
+        if (!"platform".equals(column) && !"reason".equals(column)) {
+            throw new IllegalArgumentException("Unsupported DLQ grouping: " + column);
+        }
+        List<Object> args = new ArrayList<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT " + column + " AS grouping, COUNT(*) AS records FROM dlq_records" + where(filter, args) +
+                " GROUP BY " + column + " ORDER BY records DESC", rs -> {
+            counts.put(rs.getString("grouping"), rs.getLong("records"));
+        }, args.toArray());
+        return counts;
+    }
+
+    /**
+     * Oldest first, strictly after the given record (null for the start), for paging through a replay
+     */
+    public List<DlqRecord> findReplayBatch(DlqFilter filter, DlqRecord after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM dlq_records" + where(filter, args));
+        if (after != null) {
+            sql.append(args.isEmpty() ? " WHERE " : " AND ")
+               .append("(received_at, kafka_partition, kafka_offset) > (?, ?, ?)");
+            args.add(Timestamp.from(after.getReceivedAt()));
+            args.add(after.getKafkaPartition());
+            args.add(after.getKafkaOffset());
+        }
+        sql.append(" ORDER BY received_at, kafka_partition, kafka_offset LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    public void markReplayed(List<DlqRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> keys = new ArrayList<>(records.size());
+        records.forEach(record -> keys.add(toKeyRow(record)));
+        jdbcTemplate.update(MARK_REPLAYED_SQL, toJson(keys));
+    }
+
+    /**
+     * Create the monthly partitions from the current month to months ahead
+     */
+    public void createPartitions(int monthsAhead) {
+        jdbcTemplate.queryForList("SELECT create_dlq_partitions(?)", monthsAhead);
+    }
+
+    private static String where(DlqFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getFrom() != null) {
+            conditions.add("received_at >= ?");
+            args.add(Timestamp.from(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            conditions.add("received_at < ?");
+            args.add(Timestamp.from(filter.getTo()));
+        }
+        if (filter.getPlatform() != null && !filter.getPlatform().isEmpty()) {
+            conditions.add("platform = ?");
+            args.add(filter.getPlatform());
+        }
+        if (filter.getReason() != null && !filter.getReason().isEmpty()) {
+            conditions.add("reason = ?");
+            args.add(filter.getReason());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static Map<String, Object> toKeyRow(DlqRecord record) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("received_at_ms", record.getReceivedAt().toEpochMilli());
+        row.put("kafka_partition", record.getKafkaPartition());
+        row.put("kafka_offset", record.getKafkaOffset());
+        return row;
+    }
+
+    private String toJson(List<Map<String, Object>> rows) {
+        try {
+            return objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize DLQ records", e);
+        }
+    }
+
+    /**
+     * Optional filters of DLQ queries and replays; null fields match everything
+     */
+    public static class DlqFilter {
+        private final String platform;
+        private final String reason;
+        private final Instant from;
+        private final Instant to;
+
+        public DlqFilter(String platform, String reason, Instant from, Instant to) {
+            this.platform = platform;
+            this.reason = reason;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getPlatform() { return platform; }
+        public String getReason() { return reason; }
+        public Instant getFrom() { return from; }
+        public Instant getTo() { return to; }
+    }
+
+    /**
+     * One stored DLQ record
+     */
+    public static class DlqRecord {
+        private Instant receivedAt;
+        private int kafkaPartition;
+        private long kafkaOffset;
+        private Long reviewId;
+        private Integer providerId;
+        private String platform;
+        private String reason;
+        private String originalJson;
+        private String source;
+        private String fileKey;
+        private Integer lineNumber;
+        private int replayCount;
+        private Instant replayedAt;
+
+        public Instant getReceivedAt() { return receivedAt; }
+        public void setReceivedAt(Instant receivedAt) { this.receivedAt = receivedAt; }
+        public int getKafkaPartition() { return kafkaPartition; }
+        public void setKafkaPartition(int kafkaPartition) { this.kafkaPartition = kafkaPartition; }
+        public long getKafkaOffset() { return kafkaOffset; }
+        public void setKafkaOffset(long kafkaOffset) { this.kafkaOffset = kafkaOffset; }
+        public Long getReviewId() { return reviewId; }
+        public void setReviewId(Long reviewId) { this.reviewId = reviewId; }
+        public Integer getProviderId() { return providerId; }
+        public void setProviderId(Integer providerId) { this.providerId = providerId; }
+        public String getPlatform() { return platform; }
+        public void setPlatform(String platform) { this.platform = platform; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+        public String getOriginalJson() { return originalJson; }
+        public void setOriginalJson(String originalJson) { this.originalJson = originalJson; }
+        public String getSource() { return source; }
+        public void setSource(String source) { this.source = source; }
+        public String getFileKey() { return fileKey; }
+        public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+        public Integer getLineNumber() { return lineNumber; }
+        public void setLineNumber(Integer lineNumber) { this.lineNumber = lineNumber; }
+        public int getReplayCount() { return replayCount; }
+        public void setReplayCount(int replayCount) { this.replayCount = replayCount; }
+        public Instant getReplayedAt() { return replayedAt; }
+        public void setReplayedAt(Instant replayedAt) { this.replayedAt = replayedAt; }
+    }
+}
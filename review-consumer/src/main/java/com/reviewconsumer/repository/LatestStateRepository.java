@@ -0,0 +1,277 @@
+package com.reviewconsumer.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Postgres side of the latest-state topic: the completeness marker per topic, the outbox of states
+ * not yet relayed to it, and the persisted reviews read back as review messages so a topic can be
+ * seeded from the database.
+ *
+ * A review message rebuilt from its rows maps back to exactly the same rows, which is all a
+ * rebuild from the topic needs; message fields the consumer never stores are left empty.
+ */
+@Repository
+public class LatestStateRepository {
+
+    // The pattern ReviewProcessingService parses review dates with
+    private static final DateTimeFormatter REVIEW_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSXXX");
+
+    private static final String SELECT_REVIEW_STATES_SQL =
+            "SELECT r.review_id, r.provider_id, r.entity_id, e.entity_name, r.platform, r.rating, r.rating_text, " +
+            "r.review_title, r.review_comments, r.review_positives, r.review_negatives, r.check_in_date, " +
+            "r.review_date, r.responder_name, r.response_date, r.response_text, r.review_provider_text, " +
+            "r.review_provider_logo, r.encrypted_review_data, r.original_title, r.original_comment, " +
+            "i.review_id AS info_review_id, i.country_id, i.country_name, i.flag_name, i.review_group_id, " +
+            "i.review_group_name, i.room_type_id, i.room_type_name, i.length_of_stay, i.reviewer_reviewed_count, " +
+            "i.is_expert_reviewer, i.is_show_global_icon, i.is_show_reviewed_count, " +
+            "s.review_id AS score_review_id, s.provider, s.overall_score, s.review_count, s.cleanliness, " +
+            "s.facilities, s.location, s.room_comfort_quality, s.service, s.value_for_money " +
+            "FROM entity_reviews r " +
+            "JOIN entities e ON e.entity_id = r.entity_id " +
+            "LEFT JOIN reviewer_info i ON i.review_id = r.review_id AND i.provider_id = r.provider_id " +
+            "LEFT JOIN overall_provider_scores_resolved s ON s.review_id = r.review_id AND s.provider_id = r.provider_id " +
+            "WHERE (r.review_id, r.provider_id) > (?, ?) " +
+            "ORDER BY r.review_id, r.provider_id " +
+            "LIMIT ? " +
+            "FOR SHARE OF r";
+
+    // Callers pass one state per review: a statement cannot update the same row twice
+    private static final String UPSERT_OUTBOX_SQL =
+            "INSERT INTO latest_state_outbox (review_id, provider_id, state) " +
+            "SELECT review_id, provider_id, state " +
+            "FROM jsonb_to_recordset(?::jsonb) AS r(review_id BIGINT, provider_id INT, state TEXT) " +
+            "ORDER BY review_id, provider_id " +
+            "ON CONFLICT (review_id, provider_id) DO UPDATE SET state = EXCLUDED.state, " +
+            "seq = nextval('latest_state_outbox_seq')";
+
+    // A row written again since it was read keeps its new state for the next relay
+    private static final String DELETE_OUTBOX_SQL =
+            "DELETE FROM latest_state_outbox o " +
+            "USING jsonb_to_recordset(?::jsonb) AS k(review_id BIGINT, provider_id INT, seq BIGINT) " +
+            "WHERE o.review_id = k.review_id AND o.provider_id = k.provider_id AND o.seq = k.seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public LatestStateRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isSeeded(String topic) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM latest_state_seeds WHERE topic = ?)", Boolean.class, topic));
+    }
+
+    public void markSeeded(String topic, long reviews) {
+        jdbcTemplate.update("INSERT INTO latest_state_seeds (topic, reviews, seeded_at) VALUES (?, ?, CURRENT_TIMESTAMP) " +
+                "ON CONFLICT (topic) DO UPDATE SET reviews = EXCLUDED.reviews, seeded_at = EXCLUDED.seeded_at", topic, reviews);
+    }
+
+    /**
+     * Forget that a topic is complete; returns whether it was marked
+     */
+    public boolean clearSeeded(String topic) {
+        return jdbcTemplate.update("DELETE FROM latest_state_seeds WHERE topic = ?", topic) > 0;
+    }
+
+    public boolean hasReviews() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM entity_reviews)", Boolean.class));
+    }
+
+    /**
+     * Write states to the outbox in the surrounding transaction, replacing older states of the same reviews
+     */
+    public void upsertOutbox(Collection<OutboxEntry> entries) {
+        if (!entries.isEmpty()) {
+            jdbcTemplate.update(UPSERT_OUTBOX_SQL, toOutboxJson(entries, false));
+        }
+    }
+
+    /**
+     * Same as {@link #upsertOutbox(Collection)} on a connection whose transaction the caller manages
+     */
+    public void upsertOutbox(Connection connection, Collection<OutboxEntry> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_OUTBOX_SQL)) {
+            statement.setString(1, toOutboxJson(entries, false));
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Take the relay lock until the surrounding transaction ends, so one relay at a time sends
+     * states across all consumer instances; returns false if another relay holds it
+     */
+    public boolean tryLockOutbox() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('latest_state_outbox'))", Boolean.class));
+    }
+
+    /**
+     * Oldest outbox states first
+     */
+    public List<OutboxEntry> findOutbox(int limit) {
+        return jdbcTemplate.query("SELECT review_id, provider_id, seq, state FROM latest_state_outbox ORDER BY seq LIMIT ?",
+                (rs, rowNum) -> new OutboxEntry(rs.getLong("review_id"), rs.getInt("provider_id"), rs.getLong("seq"),
+                        rs.getString("state")), limit);
+    }
+
+    /**
+     * Delete relayed states, unless their review was written again since they were read
+     */
+    public void deleteOutbox(Collection<OutboxEntry> entries) {
+        if (!entries.isEmpty()) {
+            jdbcTemplate.update(DELETE_OUTBOX_SQL, toOutboxJson(entries, true));
+        }
+    }
+
+    public long findLastOutboxSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM latest_state_outbox", Long.class);
+        return seq != null ? seq : 0;
+    }
+
+    public boolean hasOutboxUpTo(long seq) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM latest_state_outbox WHERE seq <= ?)", Boolean.class, seq));
+    }
+
+    /**
+     * Next page of persisted reviews in primary key order, after the given key. The review rows
+     * stay share-locked until the surrounding transaction ends, so concurrent writes of them wait.
+     */
+    public List<ReviewMessage> findReviewStatesAfter(long reviewId, int providerId, int limit) {
+        return jdbcTemplate.query(SELECT_REVIEW_STATES_SQL, (rs, rowNum) -> toReviewMessage(rs), reviewId, providerId, limit);
+    }
+
+    private static ReviewMessage toReviewMessage(ResultSet rs) throws SQLException {
+        ReviewMessage.ReviewComment comment = new ReviewMessage.ReviewComment();
+        comment.setHotelReviewId(rs.getLong("review_id"));
+        comment.setProviderId(rs.getInt("provider_id"));
+        comment.setRating(getDouble(rs, "rating"));
+        comment.setRatingText(rs.getString("rating_text"));
+        comment.setReviewTitle(rs.getString("review_title"));
+        comment.setReviewComments(rs.getString("review_comments"));
+        comment.setReviewPositives(rs.getString("review_positives"));
+        comment.setReviewNegatives(rs.getString("review_negatives"));
+        comment.setCheckInDateMonthAndYear(rs.getString("check_in_date"));
+        Timestamp reviewDate = rs.getTimestamp("review_date");
+        if (reviewDate != null) {
+            comment.setReviewDate(reviewDate.toLocalDateTime().atOffset(ZoneOffset.UTC).format(REVIEW_DATE_FORMATTER));
+        }
+        comment.setResponderName(rs.getString("responder_name"));
+        comment.setResponseDateText(rs.getString("response_date"));
+        comment.setResponseTranslateSource(rs.getString("response_text"));
+        comment.setReviewProviderText(rs.getString("review_provider_text"));
+        comment.setReviewProviderLogo(rs.getString("review_provider_logo"));
+        comment.setEncryptedReviewData(rs.getString("encrypted_review_data"));
+        comment.setOriginalTitle(rs.getString("original_title"));
+        comment.setOriginalComment(rs.getString("original_comment"));
+
+        if (rs.getObject("info_review_id") != null) {
+            ReviewMessage.ReviewerInfoDto info = new ReviewMessage.ReviewerInfoDto();
+            info.setCountryId(rs.getObject("country_id", Integer.class));
+            info.setCountryName(rs.getString("country_name"));
+            info.setFlagName(rs.getString("flag_name"));
+            info.setReviewGroupId(rs.getObject("review_group_id", Integer.class));
+            info.setReviewGroupName(rs.getString("review_group_name"));
+            info.setRoomTypeId(rs.getObject("room_type_id", Integer.class));
+            info.setRoomTypeName(rs.getString("room_type_name"));
+            info.setLengthOfStay(rs.getObject("length_of_stay", Integer.class));
+            info.setReviewerReviewedCount(rs.getObject("reviewer_reviewed_count", Integer.class));
+            info.setIsExpertReviewer(rs.getObject("is_expert_reviewer", Boolean.class));
+            info.setIsShowGlobalIcon(rs.getObject("is_show_global_icon", Boolean.class));
+            info.setIsShowReviewedCount(rs.getObject("is_show_reviewed_count", Boolean.class));
+            comment.setReviewerInfo(info);
+        }
+
+        ReviewMessage reviewMessage = new ReviewMessage();
+        reviewMessage.setHotelId((long) rs.getInt("entity_id"));
+        reviewMessage.setHotelName(rs.getString("entity_name"));
+        reviewMessage.setPlatform(rs.getString("platform"));
+        reviewMessage.setComment(comment);
+
+        // Only the last provider score of a review is stored, always under the review's provider id
+        if (rs.getObject("score_review_id") != null) {
+            ReviewMessage.Grades grades = new ReviewMessage.Grades(getDouble(rs, "cleanliness"),
+                    getDouble(rs, "facilities"), getDouble(rs, "location"), getDouble(rs, "room_comfort_quality"),
+                    getDouble(rs, "service"), getDouble(rs, "value_for_money"));
+            reviewMessage.setOverallByProviders(List.of(new ReviewMessage.OverallProvider(comment.getProviderId(),
+                    rs.getString("provider"), getDouble(rs, "overall_score"), rs.getObject("review_count", Integer.class),
+                    grades)));
+        }
+        return reviewMessage;
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value.doubleValue() : null;
+    }
+
+    private String toOutboxJson(Collection<OutboxEntry> entries, boolean keysOnly) {
+        List<Map<String, Object>> rows = new ArrayList<>(entries.size());
+        for (OutboxEntry entry : entries) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("review_id", entry.getReviewId());
+            row.put("provider_id", entry.getProviderId());
+            if (keysOnly) {
+                row.put("seq", entry.getSeq());
+            } else {
+                row.put("state", entry.getState());
+            }
+            rows.add(row);
+        }
+        try {
+            return objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize latest-state outbox entries", e);
+        }
+    }
+
+    /**
+     * One review state in the outbox; seq is only known for entries read back from it
+     */
+    public static class OutboxEntry {
+        private final long reviewId;
+        private final int providerId;
+        private final long seq;
+        private final String state;
+
+        public OutboxEntry(long reviewId, int providerId, String state) {
+            this(reviewId, providerId, 0, state);
+        }
+
+        public OutboxEntry(long reviewId, int providerId, long seq, String state) {
+            this.reviewId = reviewId;
+            this.providerId = providerId;
+            this.seq = seq;
+            this.state = state;
+        }
+
+        public long getReviewId() { return reviewId; }
+        public int getProviderId() { return providerId; }
+        public long getSeq() { return seq; }
+        public String getState() { return state; }
+    }
+}
@@ -0,0 +1,307 @@
+package com.reviewconsumer.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.model.BadReviewRecord;
+import com.reviewcore.model.EntityReview;
+import com.reviewcore.model.OverallProviderScore;
+import com.reviewcore.model.ReviewEntity;
+import com.reviewcore.model.ReviewerInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Native upserts for the review tables, replacing JPA save() which issues a SELECT before every
+ * INSERT or UPDATE of an assigned composite key.
+ *
+ * Rows are sent as one JSON array per statement and upserted with INSERT ... SELECT FROM a jsonb
+ * recordset ... ON CONFLICT, in key order. Updates only touch rows whose content actually changed,
+ * and RETURNING (xmax = 0) tells inserted rows from updated ones. Callers must pass rows with
+ * unique keys, because one statement cannot affect the same row twice.
+ */
+@Repository
+public class ReviewJdbcRepository {
+
+    private static final String INSERT_ENTITY_SQL =
+            "INSERT INTO entities (entity_id, entity_type, entity_name) " +
+            "SELECT s.entity_id, s.entity_type, s.entity_name FROM " + recordsetOf("entities") + " " +
+            "ORDER BY s.entity_id ON CONFLICT (entity_id) DO NOTHING RETURNING (xmax = 0) AS inserted";
+
+    private static final String UPSERT_ENTITY_REVIEW_SQL = buildUpsertSql("entity_reviews",
+            recordsetOf("entity_reviews"),
+            List.of("review_id", "provider_id"),
+            List.of("entity_id", "platform", "rating", "rating_text", "review_title", "review_comments",
+                    "review_positives", "review_negatives", "check_in_date", "review_date", "responder_name",
+                    "response_date", "response_text", "review_provider_text", "review_provider_logo",
+                    "encrypted_review_data", "original_title", "original_comment"));
+
+    private static final String UPSERT_REVIEWER_INFO_SQL = buildUpsertSql("reviewer_info",
+            recordsetOf("reviewer_info"),
+            List.of("review_id", "provider_id"),
+            List.of("country_id", "country_name", "flag_name", "review_group_id", "review_group_name",
+                    "room_type_id", "room_type_name", "length_of_stay", "reviewer_reviewed_count",
+                    "is_expert_reviewer", "is_show_global_icon", "is_show_reviewed_count"));
+
+    private static final String UPSERT_OVERALL_PROVIDER_SCORE_SQL = buildUpsertSql("overall_provider_scores",
+            recordsetOf("overall_provider_scores"),
+            List.of("provider_id", "review_id"),
+            List.of("entity_id", "provider", "overall_score", "review_count", "cleanliness", "facilities",
+                    "location", "room_comfort_quality", "service", "value_for_money"));
+
+    private static final String PROVIDER_SCORE_VALUES =
+            "provider, overall_score, review_count, cleanliness, facilities, location, room_comfort_quality, " +
+            "service, value_for_money";
+
+    private static final String PROVIDER_SCORES_SOURCE =
+            "jsonb_populate_recordset(NULL::overall_provider_scores, ?::jsonb)";
+
+    private static final String INSERT_PROVIDER_SCORE_SNAPSHOTS_SQL =
+            buildInsertProviderScoreSnapshotsSql(PROVIDER_SCORES_SOURCE);
+
+    private static final String UPSERT_REVIEW_PROVIDER_SCORES_SQL =
+            buildUpsertReviewProviderScoresSql(PROVIDER_SCORES_SOURCE) + " RETURNING (xmax = 0) AS inserted";
+
+    private static final String DELETE_OVERALL_PROVIDER_SCORES_SQL =
+            buildDeleteOverallProviderScoresSql(PROVIDER_SCORES_SOURCE);
+
+    // created_at keeps the time the record first failed; json_data is read as text and parsed once
+    private static final String UPSERT_BAD_REVIEW_RECORD_SQL = buildUpsertSql("bad_review_records",
+            "(SELECT r.review_id, r.provider_id, r.json_data::jsonb AS json_data, r.platform, r.reason " +
+            "FROM jsonb_to_recordset(?::jsonb) AS r(review_id BIGINT, provider_id INT, json_data TEXT, " +
+            "platform VARCHAR, reason VARCHAR)) s",
+            List.of("review_id", "provider_id"),
+            List.of("json_data", "platform", "reason"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public ReviewJdbcRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                @Value("${kafka.consumer.batch.jdbc-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Insert entities that do not exist yet; existing entities are never modified
+     */
+    public UpsertResult insertEntities(List<ReviewEntity> entities) {
+        return upsert(INSERT_ENTITY_SQL, entities, entity -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("entity_id", entity.getEntityId());
+            row.put("entity_type", entity.getEntityType().name());
+            row.put("entity_name", entity.getEntityName());
+            return row;
+        });
+    }
+
+    public UpsertResult upsertEntityReviews(List<EntityReview> reviews) {
+        return upsert(UPSERT_ENTITY_REVIEW_SQL, reviews, review -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("review_id", review.getId().getReviewId());
+            row.put("provider_id", review.getId().getProviderId());
+            row.put("entity_id", review.getEntityId());
+            row.put("platform", review.getPlatform());
+            row.put("rating", review.getRating());
+            row.put("rating_text", review.getRatingText());
+            row.put("review_title", review.getReviewTitle());
+            row.put("review_comments", review.getReviewComments());
+            row.put("review_positives", review.getReviewPositives());
+            row.put("review_negatives", review.getReviewNegatives());
+            row.put("check_in_date", review.getCheckInDate());
+            // ISO local date-time, which Postgres reads as a timestamp
+            row.put("review_date", review.getReviewDate() != null ? review.getReviewDate().toString() : null);
+            row.put("responder_name", review.getResponderName());
+            row.put("response_date", review.getResponseDate());
+            row.put("response_text", review.getResponseText());
+            row.put("review_provider_text", review.getReviewProviderText());
+            row.put("review_provider_logo", review.getReviewProviderLogo());
+            row.put("encrypted_review_data", review.getEncryptedReviewData());
+            row.put("original_title", review.getOriginalTitle());
+            row.put("original_comment", review.getOriginalComment());
+            return row;
+        });
+    }
+
+    public UpsertResult upsertReviewerInfos(List<ReviewerInfo> reviewerInfos) {
+        return upsert(UPSERT_REVIEWER_INFO_SQL, reviewerInfos, info -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("review_id", info.getId().getReviewId());
+            row.put("provider_id", info.getId().getProviderId());
+            row.put("country_id", info.getCountryId());
+            row.put("country_name", info.getCountryName());
+            row.put("flag_name", info.getFlagName());
+            row.put("review_group_id", info.getReviewGroupId());
+            row.put("review_group_name", info.getReviewGroupName());
+            row.put("room_type_id", info.getRoomTypeId());
+            row.put("room_type_name", info.getRoomTypeName());
+            row.put("length_of_stay", info.getLengthOfStay());
+            row.put("reviewer_reviewed_count", info.getReviewerReviewedCount());
+            row.put("is_expert_reviewer", info.getIsExpertReviewer());
+            row.put("is_show_global_icon", info.getIsShowGlobalIcon());
+            row.put("is_show_reviewed_count", info.getIsShowReviewedCount());
+            return row;
+        });
+    }
+
+    public UpsertResult upsertOverallProviderScores(List<OverallProviderScore> scores) {
+        return upsert(UPSERT_OVERALL_PROVIDER_SCORE_SQL, scores, ReviewJdbcRepository::toProviderScoreRow);
+    }
+
+    /**
+     * Snapshot storage, step 1: store each distinct score snapshot once per entity and provider.
+     * Must run before {@link #upsertReviewProviderScores(List)} in a separate statement, so the
+     * references see snapshots inserted concurrently by other consumers.
+     */
+    public UpsertResult insertProviderScoreSnapshots(List<OverallProviderScore> scores) {
+        if (scores.isEmpty()) {
+            return UpsertResult.EMPTY;
+        }
+        int inserted = jdbcTemplate.update(INSERT_PROVIDER_SCORE_SNAPSHOTS_SQL,
+                toJson(scores, ReviewJdbcRepository::toProviderScoreRow));
+        return new UpsertResult(inserted, 0, scores.size() - inserted);
+    }
+
+    /**
+     * Snapshot storage, step 2: point each review at its snapshot and drop the review's legacy
+     * overall_provider_scores row, if any
+     */
+    public UpsertResult upsertReviewProviderScores(List<OverallProviderScore> scores) {
+        if (scores.isEmpty()) {
+            return UpsertResult.EMPTY;
+        }
+        String json = toJson(scores, ReviewJdbcRepository::toProviderScoreRow);
+        List<Boolean> written = jdbcTemplate.queryForList(UPSERT_REVIEW_PROVIDER_SCORES_SQL, Boolean.class, json);
+        jdbcTemplate.update(DELETE_OVERALL_PROVIDER_SCORES_SQL, json);
+        int inserted = (int) written.stream().filter(Boolean.TRUE::equals).count();
+        return new UpsertResult(inserted, written.size() - inserted, scores.size() - written.size());
+    }
+
+    public UpsertResult upsertBadReviewRecords(List<BadReviewRecord> records) {
+        return upsert(UPSERT_BAD_REVIEW_RECORD_SQL, records, record -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("review_id", record.getId().getReviewId());
+            row.put("provider_id", record.getId().getProviderId());
+            row.put("json_data", record.getJsonData());
+            row.put("platform", record.getPlatform());
+            row.put("reason", record.getReason());
+            return row;
+        });
+    }
+
+    /**
+     * Run a set-based upsert over chunks of batchSize rows. Every row the statement inserted or
+     * changed comes back with its (xmax = 0) flag, true for a fresh insert; rows that are not
+     * returned were left as is.
+     */
+    private <T> UpsertResult upsert(String sql, List<T> rows, Function<T, Map<String, Object>> mapper) {
+        if (rows.isEmpty()) {
+            return UpsertResult.EMPTY;
+        }
+        int inserted = 0;
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<T> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            for (Boolean fresh : jdbcTemplate.queryForList(sql, Boolean.class, toJson(chunk, mapper))) {
+                if (Boolean.TRUE.equals(fresh)) {
+                    inserted++;
+                } else {
+                    updated++;
+                }
+            }
+        }
+        return new UpsertResult(inserted, updated, rows.size() - inserted - updated);
+    }
+
+    private static Map<String, Object> toProviderScoreRow(OverallProviderScore score) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("provider_id", score.getId().getProviderId());
+        row.put("review_id", score.getId().getReviewId());
+        row.put("entity_id", score.getEntityId());
+        row.put("provider", score.getProvider());
+        row.put("overall_score", score.getOverallScore());
+        row.put("review_count", score.getReviewCount());
+        row.put("cleanliness", score.getCleanliness());
+        row.put("facilities", score.getFacilities());
+        row.put("location", score.getLocation());
+        row.put("room_comfort_quality", score.getRoomComfortQuality());
+        row.put("service", score.getService());
+        row.put("value_for_money", score.getValueForMoney());
+        return row;
+    }
+
+    private <T> String toJson(List<T> rows, Function<T, Map<String, Object>> mapper) {
+        List<Map<String, Object>> json = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            json.add(mapper.apply(row));
+        }
+        try {
+            return objectMapper.writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize rows for upsert", e);
+        }
+    }
+
+    private static String recordsetOf(String table) {
+        return "jsonb_populate_recordset(NULL::" + table + ", ?::jsonb) s";
+    }
+
+    private static String buildUpsertSql(String table, String source, List<String> keyColumns, List<String> valueColumns) {
+        List<String> columns = Stream.concat(keyColumns.stream(), valueColumns.stream()).toList();
+        return "INSERT INTO " + table + " AS t (" + String.join(", ", columns) + ") " +
+               "SELECT " + columns.stream().map(column -> "s." + column).collect(Collectors.joining(", ")) +
+               " FROM " + source +
+               " ORDER BY " + keyColumns.stream().map(column -> "s." + column).collect(Collectors.joining(", ")) +
+               " ON CONFLICT (" + String.join(", ", keyColumns) + ") DO UPDATE SET " +
+               valueColumns.stream().map(column -> column + " = EXCLUDED." + column).collect(Collectors.joining(", ")) +
+               " WHERE (" + valueColumns.stream().map(column -> "t." + column).collect(Collectors.joining(", ")) + ")" +
+               " IS DISTINCT FROM (" + valueColumns.stream().map(column -> "EXCLUDED." + column).collect(Collectors.joining(", ")) + ")" +
+               " RETURNING (xmax = 0) AS inserted";
+    }
+
+    /**
+     * Insert the distinct snapshots of an overall_provider_scores shaped source; new snapshots
+     * are written in key order and existing ones are left untouched
+     */
+    public static String buildInsertProviderScoreSnapshotsSql(String source) {
+        return "INSERT INTO provider_score_snapshots (entity_id, provider_id, content_hash, " + PROVIDER_SCORE_VALUES + ") " +
+               "SELECT DISTINCT ON (entity_id, provider_id, content_hash) entity_id, provider_id, content_hash, " +
+               PROVIDER_SCORE_VALUES + " FROM (SELECT s.*, " + providerScoreHash("s") + " AS content_hash FROM " +
+               source + " s) x ORDER BY entity_id, provider_id, content_hash " +
+               "ON CONFLICT (entity_id, provider_id, content_hash) DO NOTHING";
+    }
+
+    /**
+     * Point the reviews of an overall_provider_scores shaped source at their snapshots; references
+     * that already point at the right snapshot are not rewritten
+     */
+    public static String buildUpsertReviewProviderScoresSql(String source) {
+        return "INSERT INTO review_provider_scores AS t (provider_id, review_id, snapshot_id) " +
+               "SELECT s.provider_id, s.review_id, p.snapshot_id FROM " + source + " s " +
+               "JOIN provider_score_snapshots p ON p.entity_id = s.entity_id AND p.provider_id = s.provider_id " +
+               "AND p.content_hash = " + providerScoreHash("s") + " " +
+               "ORDER BY s.provider_id, s.review_id " +
+               "ON CONFLICT (provider_id, review_id) DO UPDATE SET snapshot_id = EXCLUDED.snapshot_id " +
+               "WHERE t.snapshot_id IS DISTINCT FROM EXCLUDED.snapshot_id";
+    }
+
+    public static String buildDeleteOverallProviderScoresSql(String source) {
+        return "DELETE FROM overall_provider_scores o USING " + source + " s " +
+               "WHERE o.provider_id = s.provider_id AND o.review_id = s.review_id";
+    }
+
+    private static String providerScoreHash(String alias) {
+        return "provider_score_hash(" + Stream.of(PROVIDER_SCORE_VALUES.split(", "))
+                .map(column -> alias + "." + column).collect(Collectors.joining(", ")) + ")";
+    }
+}
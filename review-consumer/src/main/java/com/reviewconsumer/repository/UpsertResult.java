@@ -0,0 +1,43 @@
+package com.reviewconsumer.repository;
+
+/**
+ * Row counts of a native upsert: rows inserted, existing rows changed, and rows left untouched
+ */
+public class UpsertResult {
+
+    public static final UpsertResult EMPTY = new UpsertResult(0, 0, 0);
+
+    private final int inserted;
+    private final int updated;
+    private final int unchanged;
+
+    public UpsertResult(int inserted, int updated, int unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * True when at least one row was inserted or changed
+     */
+    public boolean hasChanges() {
+        return inserted + updated > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "inserted=" + inserted + ", updated=" + updated + ", unchanged=" + unchanged;
+    }
+}
@@ -0,0 +1,219 @@
+package com.reviewconsumer.service;
+
+import com.reviewcore.model.BadReviewRecord;
+import com.reviewconsumer.repository.ReviewJdbcRepository;
+import com.reviewconsumer.repository.UpsertResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers bad review records and writes them in batches, one upsert statement and transaction
+ * per batch, instead of one single-row jsonb insert per record.
+ *
+ * A batch is flushed once it reaches batch-size records or max-wait-ms after its first record,
+ * whichever comes first. The buffer is bounded: submit blocks while it is full, which pushes back
+ * on the listener. Each submit returns a future completed once the record is committed, so the
+ * caller acknowledges only persisted records. If a batch fails, its records are retried one by
+ * one and only the failing ones complete exceptionally. Pending records are flushed on shutdown.
+ */
+@Component
+public class BadReviewSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(BadReviewSink.class);
+
+    private static final Comparator<BadReviewRecord.BadReviewRecordId> KEY_ORDER =
+            Comparator.comparing(BadReviewRecord.BadReviewRecordId::getReviewId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(BadReviewRecord.BadReviewRecordId::getProviderId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ReviewJdbcRepository reviewJdbcRepository;
+    private final MetricsService metricsService;
+    private final ReviewChangePublisher reviewChangePublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingRecord> queue;
+    private final Thread flusher;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final int batchSize;
+    private final long maxWaitMs;
+    private final long shutdownTimeoutMs;
+
+    private volatile boolean running = true;
+
+    public BadReviewSink(ReviewJdbcRepository reviewJdbcRepository, MetricsService metricsService,
+                         ReviewChangePublisher reviewChangePublisher, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${review.consumer.bad-record-sink.batch-size:500}") int batchSize,
+                         @Value("${review.consumer.bad-record-sink.max-wait-ms:200}") long maxWaitMs,
+                         @Value("${review.consumer.bad-record-sink.capacity:10000}") int capacity,
+                         @Value("${review.consumer.bad-record-sink.shutdown-timeout-ms:30000}") long shutdownTimeoutMs) {
+        this.reviewJdbcRepository = reviewJdbcRepository;
+        this.metricsService = metricsService;
+        this.reviewChangePublisher = reviewChangePublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxWaitMs = maxWaitMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushedCounter = Counter.builder("review_consumer_bad_record_sink_records_total")
+            .description("Bad review records written by the batching sink")
+            .tag("outcome", "flushed")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("review_consumer_bad_record_sink_records_total")
+            .description("Bad review records written by the batching sink")
+            .tag("outcome", "failed")
+            .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("review_consumer_bad_record_sink_batch_size")
+            .description("Bad review records per flushed batch")
+            .register(meterRegistry);
+        Gauge.builder("review_consumer_bad_record_sink_queue_size", queue, BlockingQueue::size)
+            .description("Bad review records waiting to be flushed")
+            .register(meterRegistry);
+
+        this.flusher = new Thread(this::run, "bad-record-sink");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        logger.info("Started bad record sink - batch size: {}, max wait: {} ms, capacity: {}",
+                batchSize, maxWaitMs, capacity);
+    }
+
+    /**
+     * Queue a record for the next batch, blocking while the buffer is full
+     *
+     * @return future completed once the record is committed, or exceptionally if it could not be written
+     */
+    public CompletableFuture<Void> submit(BadReviewRecord record) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Bad record sink is shut down");
+        }
+        PendingRecord pending = new PendingRecord(record);
+        queue.put(pending);
+        return pending.future;
+    }
+
+    public int getQueuedRecords() {
+        return queue.size();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingRecord> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0 || !running) {
+                        break;
+                    }
+                    PendingRecord next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Unexpected error in bad record sink", e);
+            }
+        }
+    }
+
+    private void flush(List<PendingRecord> batch) {
+        // Last record per key wins; rows are written in key order so concurrent writers lock in the same order
+        Map<BadReviewRecord.BadReviewRecordId, BadReviewRecord> latest = new TreeMap<>(KEY_ORDER);
+        for (PendingRecord pending : batch) {
+            latest.put(pending.record.getId(), pending.record);
+        }
+        try {
+            write(new ArrayList<>(latest.values()));
+            batch.forEach(pending -> pending.future.complete(null));
+            flushedCounter.increment(batch.size());
+            batchSizeSummary.record(batch.size());
+            logger.debug("Flushed batch of {} bad review records ({} distinct)", batch.size(), latest.size());
+        } catch (Exception e) {
+            logger.warn("Failed to flush batch of {} bad review records, retrying one by one: {}",
+                    batch.size(), e.getMessage());
+            for (PendingRecord pending : batch) {
+                try {
+                    write(List.of(pending.record));
+                    pending.future.complete(null);
+                    flushedCounter.increment();
+                } catch (Exception recordError) {
+                    failedCounter.increment();
+                    pending.future.completeExceptionally(recordError);
+                }
+            }
+        }
+    }
+
+    private void write(List<BadReviewRecord> records) {
+        // One transaction, so the change events of the whole batch go out as a single message after commit
+        transactionTemplate.executeWithoutResult(status -> {
+            UpsertResult result = reviewJdbcRepository.upsertBadReviewRecords(records);
+            metricsService.recordUpsert("bad_review_records", result);
+            if (result.hasChanges()) {
+                for (BadReviewRecord record : records) {
+                    reviewChangePublisher.badReviewChanged(record.getPlatform(), record.getReason(),
+                            record.getId().getReviewId(), record.getId().getProviderId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop accepting records and flush what is buffered. Listener containers are stopped before
+     * beans are destroyed, so no new records arrive while draining.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive() || !queue.isEmpty()) {
+            logger.warn("Bad record sink did not drain within {} ms, {} records left unwritten and will be redelivered",
+                    shutdownTimeoutMs, queue.size());
+        } else {
+            logger.info("Bad record sink drained");
+        }
+    }
+
+    private static class PendingRecord {
+        private final BadReviewRecord record;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingRecord(BadReviewRecord record) {
+            this.record = record;
+        }
+    }
+}
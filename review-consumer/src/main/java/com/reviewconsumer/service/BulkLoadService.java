@@ -0,0 +1,688 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewMessage;
+import com.reviewcore.model.EntityReview;
+import com.reviewcore.model.EntityType;
+import com.reviewcore.model.OverallProviderScore;
+import com.reviewcore.model.ReviewerInfo;
+import com.reviewconsumer.repository.LatestStateRepository;
+import com.reviewconsumer.repository.ReviewJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads historical JSONL review dumps straight into PostgreSQL, bypassing Kafka and JPA.
+ *
+ * Lines are mapped with the regular ReviewMessage DTO and the same row builders as the
+ * consumer, written as CSV into temporary staging tables with COPY, and merged into the
+ * review tables with one set-based upsert per table. Each chunk is its own transaction, so
+ * an interrupted load keeps the chunks already merged and can simply be rerun. Every merged
+ * chunk publishes one review change event, like a consumed batch.
+ *
+ * The same pipeline rebuilds a database from the compacted latest-state topic: the topic is read
+ * from the beginning up to the end offsets seen at start. A rebuild is a restore and runs on a
+ * single instance: the listener containers here are stopped, and the job fails unless the consumer
+ * group has no other members, checked before the first chunk and again before every chunk, so a
+ * live update is never overwritten by an older state from the topic. A rebuild is refused while
+ * the topic is not known to hold every review in Postgres; a seed job publishes them all first.
+ *
+ * A seed runs alongside live consumers on any number of instances. Each page of reviews is read
+ * FOR SHARE and written to the latest-state outbox in one transaction, so a concurrent write of
+ * one of those reviews commits after the page and reaches the topic after the seeded state.
+ */
+@Service
+public class BulkLoadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkLoadService.class);
+
+    private static final List<String> ENTITY_COLUMNS = List.of("entity_id", "entity_type", "entity_name");
+
+    private static final List<String> ENTITY_REVIEW_KEYS = List.of("review_id", "provider_id");
+    private static final List<String> ENTITY_REVIEW_VALUES = List.of("entity_id", "platform", "rating", "rating_text",
+            "review_title", "review_comments", "review_positives", "review_negatives", "check_in_date", "review_date",
+            "responder_name", "response_date", "response_text", "review_provider_text", "review_provider_logo",
+            "encrypted_review_data", "original_title", "original_comment");
+
+    private static final List<String> REVIEWER_INFO_KEYS = List.of("review_id", "provider_id");
+    private static final List<String> REVIEWER_INFO_VALUES = List.of("country_id", "country_name", "flag_name",
+            "review_group_id", "review_group_name", "room_type_id", "room_type_name", "length_of_stay",
+            "reviewer_reviewed_count", "is_expert_reviewer", "is_show_global_icon", "is_show_reviewed_count");
+
+    private static final List<String> PROVIDER_SCORE_KEYS = List.of("provider_id", "review_id");
+    private static final List<String> PROVIDER_SCORE_VALUES = List.of("entity_id", "provider", "overall_score",
+            "review_count", "cleanliness", "facilities", "location", "room_comfort_quality", "service",
+            "value_for_money");
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ReviewProcessingService reviewProcessingService;
+    private final ReviewLatestStatePublisher reviewLatestStatePublisher;
+    private final LatestStateRepository latestStateRepository;
+    private final ReviewChangePublisher reviewChangePublisher;
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KafkaAdmin kafkaAdmin;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Value("${review.consumer.bulk-load.directory:/data/bulk-load}")
+    private String loadDirectory;
+
+    @Value("${review.consumer.bulk-load.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${review.consumer.latest-state.rebuild-poll-ms:1000}")
+    private long rebuildPollMs;
+
+    @Value("${review.consumer.latest-state.seed-relay-timeout-ms:600000}")
+    private long seedRelayTimeoutMs;
+
+    // One load at a time; further requests wait in line
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-load");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, BulkLoadJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkLoadService(DataSource dataSource, ObjectMapper objectMapper,
+                           ReviewProcessingService reviewProcessingService,
+                           ReviewLatestStatePublisher reviewLatestStatePublisher,
+                           LatestStateRepository latestStateRepository,
+                           ReviewChangePublisher reviewChangePublisher,
+                           ConsumerFactory<String, String> consumerFactory,
+                           KafkaListenerEndpointRegistry listenerRegistry,
+                           KafkaAdmin kafkaAdmin,
+                           PlatformTransactionManager transactionManager) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.reviewProcessingService = reviewProcessingService;
+        this.reviewLatestStatePublisher = reviewLatestStatePublisher;
+        this.latestStateRepository = latestStateRepository;
+        this.reviewChangePublisher = reviewChangePublisher;
+        this.consumerFactory = consumerFactory;
+        this.listenerRegistry = listenerRegistry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Start loading a .jl / .jl.gz file from the bulk-load directory in the background
+     */
+    public BulkLoadJob submitFile(String relativePath) {
+        Path baseDirectory = Paths.get(loadDirectory).toAbsolutePath().normalize();
+        Path file = baseDirectory.resolve(relativePath).normalize();
+        if (!file.startsWith(baseDirectory)) {
+            throw new IllegalArgumentException("Bulk load file must be inside " + baseDirectory);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Bulk load file not found: " + relativePath);
+        }
+
+        BulkLoadJob job = createJob(file.toString(), true);
+        executor.submit(() -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                load(job, file.toString().endsWith(".gz") ? new GZIPInputStream(in) : in);
+            } catch (IOException e) {
+                job.fail(e);
+                logger.error("Bulk load {} failed to read {}", job.getId(), file, e);
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Load a JSONL stream in the calling thread, e.g. a request body
+     */
+    public BulkLoadJob loadStream(String sourceName, InputStream in) {
+        BulkLoadJob job = createJob(sourceName, true);
+        load(job, in);
+        return job;
+    }
+
+    /**
+     * Start rebuilding the review tables from the latest-state topic in the background.
+     * Listener containers are stopped for the duration of the rebuild and started again afterwards;
+     * every other review-consumer instance must be stopped by the operator.
+     *
+     * @throws IllegalStateException if Postgres holds reviews while the topic is not marked complete,
+     *         since the rebuild would silently leave those reviews out
+     */
+    public BulkLoadJob submitRebuild() {
+        String topic = reviewLatestStatePublisher.getTopic();
+        if (!latestStateRepository.isSeeded(topic) && latestStateRepository.hasReviews()) {
+            throw new IllegalStateException("Topic " + topic + " is not known to hold every review; " +
+                    "seed it from Postgres before rebuilding");
+        }
+        // The states come from the topic, so they are not published back to it
+        BulkLoadJob job = createJob("kafka:" + topic, false);
+        executor.submit(() -> runWithListenersStopped(job, () -> {
+            Properties overrides = new Properties();
+            overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+                 Consumer<String, String> consumer = consumerFactory.createConsumer(
+                    "review-latest-state-rebuild", "rebuild", job.getId(), overrides)) {
+                assertNoOtherConsumers(admin);
+                load(job, new TopicLineSource(consumer, topic, rebuildPollMs), () -> assertNoOtherConsumers(admin));
+            } catch (Exception e) {
+                job.fail(e);
+                logger.error("Rebuild {} failed to read {}", job.getId(), topic, e);
+            }
+            // Postgres now holds exactly the topic, which is therefore complete
+            if ("COMPLETED".equals(job.getStatus())) {
+                latestStateRepository.markSeeded(topic, job.getReviewsLoaded());
+            }
+        }));
+        return job;
+    }
+
+    /**
+     * Start publishing every review in Postgres to the latest-state topic in the background, then
+     * mark the topic complete. Consumers keep running: see the class comment.
+     */
+    public BulkLoadJob submitSeed() {
+        if (!reviewLatestStatePublisher.isEnabled()) {
+            throw new IllegalStateException("Latest-state publishing is disabled");
+        }
+        String topic = reviewLatestStatePublisher.getTopic();
+        BulkLoadJob job = createJob("postgres:entity_reviews", false);
+        executor.submit(() -> seed(job, topic));
+        return job;
+    }
+
+    private void seed(BulkLoadJob job, String topic) {
+        job.start();
+        try {
+            long lastReviewId = Long.MIN_VALUE;
+            int lastProviderId = Integer.MIN_VALUE;
+            List<ReviewMessage> states;
+            do {
+                long afterReviewId = lastReviewId;
+                int afterProviderId = lastProviderId;
+                states = transactionTemplate.execute(status -> {
+                    List<ReviewMessage> page = latestStateRepository.findReviewStatesAfter(afterReviewId,
+                            afterProviderId, chunkSize);
+                    reviewLatestStatePublisher.publish(page);
+                    return page;
+                });
+                if (states == null || states.isEmpty()) {
+                    break;
+                }
+                // The relay keeps up with the seed, which would otherwise copy the table into the outbox
+                awaitRelayed(topic);
+                ReviewMessage.ReviewComment last = states.get(states.size() - 1).getComment();
+                lastReviewId = last.getHotelReviewId();
+                lastProviderId = last.getProviderId();
+                job.reviewsLoaded.addAndGet(states.size());
+                job.chunksMerged.incrementAndGet();
+                logger.info("Seed {} progress - {} reviews published to {}", job.getId(), job.getReviewsLoaded(), topic);
+            } while (states.size() == chunkSize);
+
+            latestStateRepository.markSeeded(topic, job.getReviewsLoaded());
+            job.complete();
+            logger.info("Seed {} completed - {} reviews published to {} in {} s", job.getId(),
+                    job.getReviewsLoaded(), topic, job.getElapsedSeconds());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            job.fail(e);
+            logger.error("Seed {} failed after {} reviews: {}", job.getId(), job.getReviewsLoaded(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Wait until the outbox holds nothing written before now
+     *
+     * @throws IllegalStateException if the relay does not get there within the seed relay timeout
+     */
+    private void awaitRelayed(String topic) throws InterruptedException {
+        long lastSeq = latestStateRepository.findLastOutboxSeq();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(seedRelayTimeoutMs);
+        while (latestStateRepository.hasOutboxUpTo(lastSeq)) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Latest states were not relayed to " + topic + " within " +
+                        seedRelayTimeoutMs + " ms; the seed can be rerun once the topic is available");
+            }
+            Thread.sleep(rebuildPollMs);
+        }
+    }
+
+    /**
+     * A rebuild overwrites rows with states from the topic, which would undo live updates made by
+     * another instance meanwhile; this instance's own containers are stopped already
+     */
+    private void assertNoOtherConsumers(AdminClient admin) {
+        ConsumerGroupDescription group;
+        try {
+            group = admin.describeConsumerGroups(List.of(groupId)).all().get(10, TimeUnit.SECONDS).get(groupId);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to describe consumer group " + groupId, e);
+        }
+        if (group != null && !group.members().isEmpty()) {
+            throw new IllegalStateException("Consumer group " + groupId + " has " + group.members().size() +
+                    " active members; stop every other review-consumer instance before a rebuild");
+        }
+    }
+
+    private void runWithListenersStopped(BulkLoadJob job, Runnable task) {
+        List<MessageListenerContainer> stopped = new ArrayList<>();
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.stop();
+                stopped.add(container);
+            }
+        }
+        logger.info("Bulk load {} stopped {} listener containers", job.getId(), stopped.size());
+        try {
+            task.run();
+        } finally {
+            stopped.forEach(MessageListenerContainer::start);
+            logger.info("Bulk load {} restarted {} listener containers", job.getId(), stopped.size());
+        }
+    }
+
+    public Collection<BulkLoadJob> getJobs() {
+        return jobs.values();
+    }
+
+    public BulkLoadJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private BulkLoadJob createJob(String sourceName, boolean publishLatestState) {
+        BulkLoadJob job = new BulkLoadJob(UUID.randomUUID().toString(), sourceName,
+                publishLatestState && reviewLatestStatePublisher.isEnabled());
+        jobs.put(job.getId(), job);
+        logger.info("Created bulk load {} for {}", job.getId(), sourceName);
+        return job;
+    }
+
+    private void load(BulkLoadJob job, InputStream in) {
+        load(job, new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))::readLine, () -> { });
+    }
+
+    /**
+     * @param beforeMerge run before every chunk is merged; an exception fails the job instead
+     */
+    private void load(BulkLoadJob job, LineSource lines, Runnable beforeMerge) {
+        job.start();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            StagedChunk chunk = new StagedChunk();
+            String line;
+            while ((line = lines.nextLine()) != null) {
+                job.linesRead.incrementAndGet();
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (!stageLine(chunk, line, job)) {
+                    job.linesSkipped.incrementAndGet();
+                }
+                if (chunk.reviews >= chunkSize) {
+                    beforeMerge.run();
+                    mergeChunk(connection, copyManager, chunk, job);
+                    chunk = new StagedChunk();
+                }
+            }
+            if (chunk.reviews > 0) {
+                beforeMerge.run();
+                mergeChunk(connection, copyManager, chunk, job);
+            }
+
+            job.complete();
+            logger.info("Bulk load {} completed - {} reviews from {} lines ({} skipped) in {} s, {} rows/s",
+                    job.getId(), job.getReviewsLoaded(), job.getLinesRead(), job.getLinesSkipped(),
+                    job.getElapsedSeconds(), job.getRowsPerSecond());
+        } catch (Exception e) {
+            job.fail(e);
+            logger.error("Bulk load {} failed after {} reviews: {}", job.getId(), job.getReviewsLoaded(), e.getMessage(), e);
+        }
+    }
+
+    private boolean stageLine(StagedChunk chunk, String line, BulkLoadJob job) {
+        ReviewMessage reviewMessage;
+        try {
+            reviewMessage = objectMapper.readValue(line, ReviewMessage.class);
+        } catch (Exception e) {
+            if (job.getLinesSkipped() < 10) {
+                logger.warn("Bulk load {} skipping unparseable line {}: {}", job.getId(), job.getLinesRead(), e.getMessage());
+            }
+            return false;
+        }
+        ReviewMessage.ReviewComment comment = reviewMessage.getComment();
+        if (reviewMessage.getHotelId() == null || comment == null
+                || comment.getHotelReviewId() == null || comment.getProviderId() == null) {
+            return false;
+        }
+
+        Integer entityId = reviewMessage.getHotelId().intValue();
+        long seq = ++chunk.sequence;
+        appendCsv(chunk.entities, seq, entityId, EntityType.fromId("hotelId").name(), reviewMessage.getHotelName());
+
+        EntityReview review = reviewProcessingService.buildEntityReview(reviewMessage, entityId);
+        appendCsv(chunk.entityReviews, seq, review.getId().getReviewId(), review.getId().getProviderId(),
+                review.getEntityId(), review.getPlatform(), review.getRating(), review.getRatingText(),
+                review.getReviewTitle(), review.getReviewComments(), review.getReviewPositives(),
+                review.getReviewNegatives(), review.getCheckInDate(), review.getReviewDate(),
+                review.getResponderName(), review.getResponseDate(), review.getResponseText(),
+                review.getReviewProviderText(), review.getReviewProviderLogo(), review.getEncryptedReviewData(),
+                review.getOriginalTitle(), review.getOriginalComment());
+
+        if (comment.getReviewerInfo() != null) {
+            ReviewerInfo info = reviewProcessingService.buildReviewerInfo(comment.getReviewerInfo(),
+                    comment.getHotelReviewId(), comment.getProviderId());
+            appendCsv(chunk.reviewerInfos, seq, info.getId().getReviewId(), info.getId().getProviderId(),
+                    info.getCountryId(), info.getCountryName(), info.getFlagName(), info.getReviewGroupId(),
+                    info.getReviewGroupName(), info.getRoomTypeId(), info.getRoomTypeName(), info.getLengthOfStay(),
+                    info.getReviewerReviewedCount(), info.getIsExpertReviewer(), info.getIsShowGlobalIcon(),
+                    info.getIsShowReviewedCount());
+        }
+        chunk.messages.add(reviewMessage);
+
+        if (reviewMessage.getOverallByProviders() != null) {
+            for (OverallProviderScore score : reviewProcessingService.buildOverallProviderScores(
+                    reviewMessage.getOverallByProviders(), entityId, comment.getHotelReviewId(), comment.getProviderId())) {
+                appendCsv(chunk.providerScores, ++chunk.sequence, score.getId().getProviderId(),
+                        score.getId().getReviewId(), score.getEntityId(), score.getProvider(), score.getOverallScore(),
+                        score.getReviewCount(), score.getCleanliness(), score.getFacilities(), score.getLocation(),
+                        score.getRoomComfortQuality(), score.getService(), score.getValueForMoney());
+            }
+        }
+        chunk.reviews++;
+        return true;
+    }
+
+    private void mergeChunk(Connection connection, CopyManager copyManager, StagedChunk chunk, BulkLoadJob job)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            createStagingTable(statement, "entities", ENTITY_COLUMNS);
+            createStagingTable(statement, "entity_reviews", concat(ENTITY_REVIEW_KEYS, ENTITY_REVIEW_VALUES));
+            createStagingTable(statement, "reviewer_info", concat(REVIEWER_INFO_KEYS, REVIEWER_INFO_VALUES));
+            createStagingTable(statement, "overall_provider_scores", concat(PROVIDER_SCORE_KEYS, PROVIDER_SCORE_VALUES));
+
+            copy(copyManager, "entities", ENTITY_COLUMNS, chunk.entities);
+            copy(copyManager, "entity_reviews", concat(ENTITY_REVIEW_KEYS, ENTITY_REVIEW_VALUES), chunk.entityReviews);
+            copy(copyManager, "reviewer_info", concat(REVIEWER_INFO_KEYS, REVIEWER_INFO_VALUES), chunk.reviewerInfos);
+            copy(copyManager, "overall_provider_scores", concat(PROVIDER_SCORE_KEYS, PROVIDER_SCORE_VALUES),
+                    chunk.providerScores);
+
+            // Parents first so foreign keys hold
+            statement.executeUpdate("INSERT INTO entities (" + String.join(", ", ENTITY_COLUMNS) + ") " +
+                    "SELECT DISTINCT ON (entity_id) " + String.join(", ", ENTITY_COLUMNS) + " FROM bulk_entities " +
+                    "ORDER BY entity_id, seq ON CONFLICT (entity_id) DO NOTHING");
+            statement.executeUpdate(buildMergeSql("entity_reviews", ENTITY_REVIEW_KEYS, ENTITY_REVIEW_VALUES));
+            statement.executeUpdate(buildMergeSql("reviewer_info", REVIEWER_INFO_KEYS, REVIEWER_INFO_VALUES));
+            if (reviewProcessingService.isSnapshotStorage()) {
+                String latestScores = "(SELECT DISTINCT ON (provider_id, review_id) * FROM bulk_overall_provider_scores " +
+                        "ORDER BY provider_id, review_id, seq DESC)";
+                statement.executeUpdate(ReviewJdbcRepository.buildInsertProviderScoreSnapshotsSql(latestScores));
+                statement.executeUpdate(ReviewJdbcRepository.buildUpsertReviewProviderScoresSql(latestScores));
+                statement.executeUpdate(ReviewJdbcRepository.buildDeleteOverallProviderScoresSql(latestScores));
+            } else {
+                statement.executeUpdate(buildMergeSql("overall_provider_scores", PROVIDER_SCORE_KEYS, PROVIDER_SCORE_VALUES));
+            }
+
+            // Into the outbox in the chunk's transaction, relayed to the topic once it commits
+            if (job.publishLatestState) {
+                reviewLatestStatePublisher.publish(connection, chunk.messages);
+            }
+            connection.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+        if (job.publishLatestState) {
+            reviewLatestStatePublisher.relay();
+        }
+
+        // Cache eviction and near-real-time search indexing, as for consumed reviews
+        reviewChangePublisher.reviewsChanged(chunk.messages);
+        job.reviewsLoaded.addAndGet(chunk.reviews);
+        job.chunksMerged.incrementAndGet();
+        logger.info("Bulk load {} progress - {} reviews loaded, {} lines read, {} skipped, {} rows/s",
+                job.getId(), job.getReviewsLoaded(), job.getLinesRead(), job.getLinesSkipped(), job.getRowsPerSecond());
+    }
+
+    private void createStagingTable(Statement statement, String table, List<String> columns) throws SQLException {
+        statement.execute("CREATE TEMP TABLE bulk_" + table + " ON COMMIT DROP AS " +
+                "SELECT 0::BIGINT AS seq, " + String.join(", ", columns) + " FROM " + table + " WITH NO DATA");
+    }
+
+    private void copy(CopyManager copyManager, String table, List<String> columns, StringBuilder rows)
+            throws SQLException, IOException {
+        if (rows.length() == 0) {
+            return;
+        }
+        copyManager.copyIn("COPY bulk_" + table + " (seq, " + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)",
+                new StringReader(rows.toString()));
+    }
+
+    /**
+     * Last staged row per key wins, matching the order the lines appeared in the file
+     */
+    static String buildMergeSql(String table, List<String> keyColumns, List<String> valueColumns) {
+        String keys = String.join(", ", keyColumns);
+        String columns = String.join(", ", concat(keyColumns, valueColumns));
+        return "INSERT INTO " + table + " AS t (" + columns + ") " +
+               "SELECT DISTINCT ON (" + keys + ") " + columns + " FROM bulk_" + table + " " +
+               "ORDER BY " + keys + ", seq DESC " +
+               "ON CONFLICT (" + keys + ") DO UPDATE SET " +
+               valueColumns.stream().map(column -> column + " = EXCLUDED." + column).collect(Collectors.joining(", ")) +
+               " WHERE (" + valueColumns.stream().map(column -> "t." + column).collect(Collectors.joining(", ")) + ")" +
+               " IS DISTINCT FROM (" + valueColumns.stream().map(column -> "EXCLUDED." + column).collect(Collectors.joining(", ")) + ")";
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        return Stream.concat(first.stream(), second.stream()).toList();
+    }
+
+    /**
+     * Append one CSV record; null becomes an unquoted empty field, which COPY reads as NULL
+     */
+    static void appendCsv(StringBuilder out, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof String text) {
+                out.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                out.append(value);
+            }
+        }
+        out.append('\n');
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Rows of one chunk, staged as CSV per table
+    private static class StagedChunk {
+        private final StringBuilder entities = new StringBuilder();
+        private final StringBuilder entityReviews = new StringBuilder();
+        private final StringBuilder reviewerInfos = new StringBuilder();
+        private final StringBuilder providerScores = new StringBuilder();
+        private final List<ReviewMessage> messages = new ArrayList<>();
+        private long sequence;
+        private int reviews;
+    }
+
+    // Next line of input, or null at the end
+    @FunctionalInterface
+    private interface LineSource {
+        String nextLine() throws IOException;
+    }
+
+    /**
+     * Values of a topic from the beginning up to the end offsets seen when the read starts;
+     * tombstones are skipped
+     */
+    private static class TopicLineSource implements LineSource {
+        private final Consumer<String, String> consumer;
+        private final Duration pollTimeout;
+        private final Map<TopicPartition, Long> endOffsets;
+        private final Deque<String> buffered = new ArrayDeque<>();
+
+        TopicLineSource(Consumer<String, String> consumer, String topic, long pollMs) {
+            this.consumer = consumer;
+            this.pollTimeout = Duration.ofMillis(pollMs);
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(info -> new TopicPartition(topic, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            this.endOffsets = new HashMap<>(consumer.endOffsets(partitions));
+            this.endOffsets.values().removeIf(offset -> offset == 0);
+        }
+
+        @Override
+        public String nextLine() {
+            while (buffered.isEmpty()) {
+                List<TopicPartition> completed = endOffsets.keySet().stream()
+                        .filter(partition -> consumer.position(partition) >= endOffsets.get(partition))
+                        .toList();
+                if (!completed.isEmpty()) {
+                    consumer.pause(completed);
+                    completed.forEach(endOffsets::remove);
+                }
+                if (endOffsets.isEmpty()) {
+                    return null;
+                }
+                for (ConsumerRecord<String, String> record : consumer.poll(pollTimeout)) {
+                    Long endOffset = endOffsets.get(new TopicPartition(record.topic(), record.partition()));
+                    if (endOffset != null && record.offset() < endOffset && record.value() != null) {
+                        buffered.add(record.value());
+                    }
+                }
+            }
+            return buffered.poll();
+        }
+    }
+
+    /**
+     * Progress of a single bulk load, exposed through the admin endpoint
+     */
+    public static class BulkLoadJob {
+        private final String id;
+        private final String source;
+        private final boolean publishLatestState;
+        private volatile String status = "QUEUED";
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private final AtomicLong linesRead = new AtomicLong();
+        private final AtomicLong linesSkipped = new AtomicLong();
+        private final AtomicLong reviewsLoaded = new AtomicLong();
+        private final AtomicLong chunksMerged = new AtomicLong();
+
+        BulkLoadJob(String id, String source, boolean publishLatestState) {
+            this.id = id;
+            this.source = source;
+            this.publishLatestState = publishLatestState;
+        }
+
+        void start() {
+            startedAt = Instant.now();
+            status = "RUNNING";
+        }
+
+        void complete() {
+            finishedAt = Instant.now();
+            status = "COMPLETED";
+        }
+
+        void fail(Exception e) {
+            finishedAt = Instant.now();
+            error = e.getMessage();
+            status = "FAILED";
+        }
+
+        public String getId() { return id; }
+        public String getSource() { return source; }
+        public String getStatus() { return status; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public String getError() { return error; }
+        public long getLinesRead() { return linesRead.get(); }
+        public long getLinesSkipped() { return linesSkipped.get(); }
+        public long getReviewsLoaded() { return reviewsLoaded.get(); }
+        public long getChunksMerged() { return chunksMerged.get(); }
+
+        public long getElapsedSeconds() {
+            if (startedAt == null) {
+                return 0;
+            }
+            return Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toSeconds();
+        }
+
+        public long getRowsPerSecond() {
+            if (startedAt == null) {
+                return 0;
+            }
+            long elapsedMs = Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toMillis();
+            return elapsedMs > 0 ? reviewsLoaded.get() * 1000 / elapsedMs : 0;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.reviewconsumer.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the concurrency of the review listener containers to the consumer-group lag, within
+ * configured bounds, instead of running a fixed number of consumers.
+ *
+ * Every interval the realtime and bulk lanes are evaluated: a lane scales up one consumer at a
+ * time while its lag is above the scale-up threshold and per-record latency is healthy, and scales
+ * down when the lag drains, with a cooldown between changes since every change rebalances the
+ * group. When the Hikari pool has threads waiting for a connection, more consumers would only
+ * queue on Postgres: the bulk lane is paused first, then the realtime lane if the pool stays
+ * saturated, and both resume once it recovers.
+ */
+@Component
+public class ConsumerAutoscaler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumerAutoscaler.class);
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final KafkaAdmin kafkaAdmin;
+    private final DataSource dataSource;
+    private final MetricsService metricsService;
+    private final MeterRegistry meterRegistry;
+    private final Lane realtimeLane;
+    private final Lane bulkLane;
+
+    @Value("${review.consumer.autoscaler.enabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Value("${kafka.consumer.listener-mode:record}")
+    private String listenerMode;
+
+    @Value("${review.consumer.autoscaler.min-concurrency:1}")
+    private int minConcurrency;
+
+    @Value("${review.consumer.autoscaler.max-concurrency:6}")
+    private int maxConcurrency;
+
+    @Value("${review.consumer.autoscaler.scale-up-lag:5000}")
+    private long scaleUpLag;
+
+    @Value("${review.consumer.autoscaler.scale-down-lag:500}")
+    private long scaleDownLag;
+
+    // Above this mean per-record latency the database is the bottleneck; more consumers would not help
+    @Value("${review.consumer.autoscaler.max-latency-ms:250}")
+    private double maxLatencyMs;
+
+    @Value("${review.consumer.autoscaler.cooldown-ms:60000}")
+    private long cooldownMs;
+
+    private AdminClient adminClient;
+    private volatile int threadsAwaitingConnection;
+    private volatile double intervalLatencyMs;
+    private long lastTimerCount;
+    private double lastTimerTotalMs;
+
+    public ConsumerAutoscaler(KafkaListenerEndpointRegistry listenerRegistry, KafkaAdmin kafkaAdmin,
+                              DataSource dataSource, MetricsService metricsService, MeterRegistry meterRegistry,
+                              @Value("${kafka.topic.reviews}") String reviewsTopic,
+                              @Value("${kafka.topic.reviews-bulk}") String bulkReviewsTopic) {
+        this.listenerRegistry = listenerRegistry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.dataSource = dataSource;
+        this.metricsService = metricsService;
+        this.meterRegistry = meterRegistry;
+        this.realtimeLane = new Lane("realtime", reviewsTopic, "reviews");
+        this.bulkLane = new Lane("bulk", bulkReviewsTopic, "reviews-bulk");
+
+        Gauge.builder("review_consumer_autoscaler_db_threads_awaiting", this, autoscaler -> autoscaler.threadsAwaitingConnection)
+            .description("Threads waiting for a Hikari connection at the last evaluation")
+            .register(meterRegistry);
+        Gauge.builder("review_consumer_autoscaler_latency_ms", this, autoscaler -> autoscaler.intervalLatencyMs)
+            .description("Mean per-record processing latency over the last evaluation interval")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${review.consumer.autoscaler.interval-ms:15000}",
+               initialDelayString = "${review.consumer.autoscaler.interval-ms:15000}")
+    public void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            updateLatency();
+            boolean saturated = updateConnectionPoolState();
+            Map<String, Map<TopicPartition, Long>> lag = fetchLag();
+            // Bulk lane yields first: it is paused on the first saturated evaluation, realtime on the next
+            boolean bulkAlreadyPaused = bulkLane.paused;
+            evaluateLane(bulkLane, lag.get(bulkLane.topic), saturated);
+            evaluateLane(realtimeLane, lag.get(realtimeLane.topic), saturated && bulkAlreadyPaused);
+        } catch (Exception e) {
+            logger.warn("Consumer autoscaler evaluation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void evaluateLane(Lane lane, Map<TopicPartition, Long> partitionLag, boolean pause) {
+        ConcurrentMessageListenerContainer<?, ?> container = lane.container();
+        if (container == null || !container.isRunning()) {
+            return;
+        }
+        lane.concurrency = container.getConcurrency();
+        lane.lag = partitionLag != null ? partitionLag.values().stream().mapToLong(Long::longValue).sum() : 0;
+
+        if (pause) {
+            if (!lane.paused) {
+                container.pause();
+                lane.paused = true;
+                lane.decision("pause").increment();
+                logger.warn("Paused {} lane: {} threads waiting for a database connection",
+                        lane.name, threadsAwaitingConnection);
+            }
+            return;
+        }
+        if (lane.paused) {
+            container.resume();
+            lane.paused = false;
+            lane.decision("resume").increment();
+            logger.info("Resumed {} lane, database pool recovered", lane.name);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lane.lastScaledAt < cooldownMs) {
+            return;
+        }
+        // A consumer beyond the partition count would sit idle
+        int upperBound = partitionLag != null && !partitionLag.isEmpty()
+                ? Math.min(maxConcurrency, partitionLag.size()) : maxConcurrency;
+        int target = lane.concurrency;
+        if (lane.lag > scaleUpLag && intervalLatencyMs <= maxLatencyMs && threadsAwaitingConnection == 0) {
+            target = Math.min(lane.concurrency + 1, upperBound);
+        } else if (lane.lag < scaleDownLag) {
+            target = Math.max(lane.concurrency - 1, minConcurrency);
+        }
+        if (target != lane.concurrency) {
+            rescale(lane, container, target);
+            lane.lastScaledAt = now;
+        }
+    }
+
+    /**
+     * Concurrency is only applied when the container starts, so it is restarted; this rebalances
+     * the group, which is why changes are one step at a time with a cooldown
+     */
+    private void rescale(Lane lane, ConcurrentMessageListenerContainer<?, ?> container, int target) {
+        logger.info("Scaling {} lane from {} to {} consumers (lag: {}, latency: {} ms)",
+                lane.name, lane.concurrency, target, lane.lag, String.format("%.1f", intervalLatencyMs));
+        container.stop();
+        container.setConcurrency(target);
+        container.start();
+        lane.decision(target > lane.concurrency ? "scale_up" : "scale_down").increment();
+        lane.concurrency = target;
+    }
+
+    private void updateLatency() {
+        Timer timer = metricsService.getProcessingTimer();
+        long count = timer.count();
+        double totalMs = timer.totalTime(TimeUnit.MILLISECONDS);
+        long records = count - lastTimerCount;
+        intervalLatencyMs = records > 0 ? (totalMs - lastTimerTotalMs) / records : 0;
+        lastTimerCount = count;
+        lastTimerTotalMs = totalMs;
+    }
+
+    /**
+     * @return true when callers are queueing for a database connection
+     */
+    private boolean updateConnectionPoolState() {
+        if (!(dataSource instanceof HikariDataSource hikariDataSource)) {
+            return false;
+        }
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        threadsAwaitingConnection = pool != null ? pool.getThreadsAwaitingConnection() : 0;
+        return threadsAwaitingConnection > 0;
+    }
+
+    /**
+     * Lag per partition of the review topics: log end offset minus the group's committed offset
+     */
+    private Map<String, Map<TopicPartition, Long>> fetchLag() throws Exception {
+        AdminClient admin = adminClient();
+        Map<TopicPartition, OffsetSpec> latestRequest = new HashMap<>();
+        Map<String, TopicDescription> topics = admin.describeTopics(List.of(realtimeLane.topic, bulkLane.topic))
+                .allTopicNames().get(10, TimeUnit.SECONDS);
+        for (TopicDescription topic : topics.values()) {
+            for (TopicPartitionInfo partition : topic.partitions()) {
+                latestRequest.put(new TopicPartition(topic.name(), partition.partition()), OffsetSpec.latest());
+            }
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets =
+                admin.listOffsets(latestRequest).all().get(10, TimeUnit.SECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed =
+                admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get(10, TimeUnit.SECONDS);
+
+        Map<String, Map<TopicPartition, Long>> lag = new HashMap<>();
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry : endOffsets.entrySet()) {
+            OffsetAndMetadata committedOffset = committed.get(entry.getKey());
+            long partitionLag = entry.getValue().offset() - (committedOffset != null ? committedOffset.offset() : 0);
+            lag.computeIfAbsent(entry.getKey().topic(), topic -> new HashMap<>())
+                .put(entry.getKey(), Math.max(0, partitionLag));
+        }
+        return lag;
+    }
+
+    private AdminClient adminClient() {
+        if (adminClient == null) {
+            adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return adminClient;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+
+    /**
+     * Autoscaler state for one topic lane; the container follows the active listener mode
+     */
+    private class Lane {
+
+        private final String name;
+        private final String topic;
+        private final String listenerIdPrefix;
+        private volatile int concurrency;
+        private volatile long lag;
+        private volatile boolean paused;
+        private long lastScaledAt;
+
+        Lane(String name, String topic, String listenerIdPrefix) {
+            this.name = name;
+            this.topic = topic;
+            this.listenerIdPrefix = listenerIdPrefix;
+            Gauge.builder("review_consumer_autoscaler_concurrency", this, lane -> lane.concurrency)
+                .description("Listener consumers currently assigned to the lane")
+                .tag("lane", name)
+                .register(meterRegistry);
+            Gauge.builder("review_consumer_autoscaler_lag", this, lane -> lane.lag)
+                .description("Consumer group lag of the lane at the last evaluation")
+                .tag("lane", name)
+                .register(meterRegistry);
+            Gauge.builder("review_consumer_autoscaler_paused", this, lane -> lane.paused ? 1 : 0)
+                .description("1 while the lane is paused because the database pool is saturated")
+                .tag("lane", name)
+                .register(meterRegistry);
+        }
+
+        ConcurrentMessageListenerContainer<?, ?> container() {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerIdPrefix + "-" + listenerMode);
+            return container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent : null;
+        }
+
+        Counter decision(String action) {
+            return Counter.builder("review_consumer_autoscaler_decisions_total")
+                .description("Scaling and pause decisions taken by the consumer autoscaler")
+                .tag("lane", name)
+                .tag("action", action)
+                .register(meterRegistry);
+        }
+    }
+}
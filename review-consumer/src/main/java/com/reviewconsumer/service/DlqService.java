@@ -0,0 +1,379 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.DlqMessage;
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import com.reviewconsumer.repository.DlqRecordRepository;
+import com.reviewconsumer.repository.DlqRecordRepository.DlqFilter;
+import com.reviewconsumer.repository.DlqRecordRepository.DlqRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists the dlq topic, where the producer parks review lines missing critical ids, and replays
+ * stored records through the producer's validation once the cause is fixed.
+ *
+ * Each poll is stored with one insert into the monthly-partitioned dlq_records table. A replay
+ * publishes the original lines of the matching records to the replay topic, which the producer
+ * consumes and validates like a fresh line; lines that still fail come back through the dlq topic
+ * as new records. Replays run one at a time at a configurable rate so they cannot flood the
+ * producer or the review topics.
+ */
+@Service
+public class DlqService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DlqService.class);
+
+    private static final String UNPARSEABLE_REASON = "UNPARSEABLE_DLQ_RECORD";
+    private static final int REPLAY_BATCH_SIZE = 500;
+
+    private final DlqRecordRepository dlqRecordRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter storedCounter;
+    private final Counter duplicateCounter;
+    private final Counter replayedCounter;
+
+    @Value("${kafka.topic.dlq-replay:dlq_replay}")
+    private String replayTopic;
+
+    @Value("${review.consumer.dlq.replay.rate-per-second:100}")
+    private double defaultReplayRate;
+
+    @Value("${review.consumer.dlq.replay.max-records:100000}")
+    private int maxReplayRecords;
+
+    @Value("${review.consumer.dlq.partition-months-ahead:2}")
+    private int partitionMonthsAhead;
+
+    @Value("${kafka.consumer.retry.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    // One replay at a time; further requests wait in line
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dlq-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, ReplayJob> replayJobs = new ConcurrentHashMap<>();
+
+    public DlqService(DlqRecordRepository dlqRecordRepository, KafkaTemplate<String, String> kafkaTemplate,
+                      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.dlqRecordRepository = dlqRecordRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.storedCounter = Counter.builder("review_consumer_dlq_records_total")
+            .description("DLQ records read from the dlq topic")
+            .tag("outcome", "stored")
+            .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("review_consumer_dlq_records_total")
+            .description("DLQ records read from the dlq topic")
+            .tag("outcome", "duplicate")
+            .register(meterRegistry);
+        this.replayedCounter = Counter.builder("review_consumer_dlq_replayed_records_total")
+            .description("DLQ records republished for validation by a replay")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Store a poll of DLQ records. A database failure is rethrown so the container redelivers
+     * the poll; records stored before the failure are skipped on redelivery.
+     */
+    @KafkaListener(
+        id = "dlq-records",
+        topics = "${kafka.topic.dlq:dlq}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "dlqKafkaListenerContainerFactory"
+    )
+    public void consumeDlq(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        List<DlqRecord> dlqRecords = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            dlqRecords.add(toDlqRecord(record));
+        }
+        int stored = dlqRecordRepository.insertRecords(dlqRecords);
+        storedCounter.increment(stored);
+        duplicateCounter.increment(dlqRecords.size() - stored);
+        acknowledgment.acknowledge();
+        logger.info("Stored {} DLQ records ({} already stored)", stored, dlqRecords.size() - stored);
+    }
+
+    private DlqRecord toDlqRecord(ConsumerRecord<String, String> record) {
+        DlqRecord dlqRecord = new DlqRecord();
+        dlqRecord.setReceivedAt(Instant.ofEpochMilli(record.timestamp()));
+        dlqRecord.setKafkaPartition(record.partition());
+        dlqRecord.setKafkaOffset(record.offset());
+        dlqRecord.setSource(header(record, ReviewKafkaHeaders.SOURCE));
+        dlqRecord.setFileKey(header(record, ReviewKafkaHeaders.FILE_KEY));
+        Long lineNumber = ReviewKafkaHeaders.decodeLong(headerBytes(record, ReviewKafkaHeaders.LINE_NUMBER));
+        dlqRecord.setLineNumber(lineNumber != null ? lineNumber.intValue() : null);
+        try {
+            DlqMessage message = objectMapper.readValue(record.value(), DlqMessage.class);
+            dlqRecord.setReviewId(message.getReviewId());
+            dlqRecord.setProviderId(message.getProviderId());
+            dlqRecord.setPlatform(message.getPlatform());
+            dlqRecord.setReason(message.getReason());
+            dlqRecord.setOriginalJson(message.getOriginalJson() != null ? message.getOriginalJson() : record.value());
+        } catch (Exception e) {
+            // Keep the raw payload so nothing on the DLQ goes unaccounted for
+            logger.warn("Storing unparseable DLQ record at partition {}, offset {}: {}",
+                    record.partition(), record.offset(), e.getMessage());
+            dlqRecord.setPlatform(header(record, ReviewKafkaHeaders.PLATFORM));
+            dlqRecord.setReason(UNPARSEABLE_REASON);
+            dlqRecord.setOriginalJson(record.value() != null ? record.value() : "");
+        }
+        return dlqRecord;
+    }
+
+    /**
+     * Keep monthly partitions created ahead of time, so records never pile up in the default partition
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${review.consumer.dlq.partition-cron:0 0 3 * * *}")
+    public void createPartitions() {
+        try {
+            dlqRecordRepository.createPartitions(partitionMonthsAhead);
+            logger.debug("Ensured DLQ partitions {} months ahead", partitionMonthsAhead);
+        } catch (Exception e) {
+            logger.warn("Failed to create DLQ partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One page of records, newest first. There are no totals: counting every matching record
+     * would scan all partitions in range on each page; the stats endpoint has the counts.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException when the cursor is malformed
+     */
+    public Map<String, Object> findRecords(DlqFilter filter, String cursor, int size) {
+        DlqRecord before = cursor != null && !cursor.isEmpty() ? decodeCursor(cursor) : null;
+        // One extra row tells whether another page follows
+        List<DlqRecord> records = dlqRecordRepository.findRecordsBefore(filter, before, size + 1);
+        boolean hasNext = records.size() > size;
+        if (hasNext) {
+            records = records.subList(0, size);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("records", records);
+        response.put("size", size);
+        response.put("hasNext", hasNext);
+        response.put("nextCursor", hasNext ? encodeCursor(records.get(records.size() - 1)) : null);
+        return response;
+    }
+
+    /**
+     * Opaque URL-safe token holding the position of a record: received_at millis, partition, offset
+     */
+    static String encodeCursor(DlqRecord record) {
+        String raw = record.getReceivedAt().toEpochMilli() + "|" + record.getKafkaPartition() + "|" + record.getKafkaOffset();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static DlqRecord decodeCursor(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            DlqRecord position = new DlqRecord();
+            position.setReceivedAt(Instant.ofEpochMilli(Long.parseLong(parts[0])));
+            position.setKafkaPartition(Integer.parseInt(parts[1]));
+            position.setKafkaOffset(Long.parseLong(parts[2]));
+            return position;
+        } catch (IllegalArgumentException e) {
+            // Also covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public Map<String, Object> getStatistics(DlqFilter filter) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalRecords", dlqRecordRepository.countRecords(filter));
+        stats.put("byPlatform", dlqRecordRepository.countBy("platform", filter));
+        stats.put("byReason", dlqRecordRepository.countBy("reason", filter));
+        return stats;
+    }
+
+    /**
+     * Start replaying the records matching the filter in the background.
+     *
+     * The replay only covers records received before it was submitted: a replayed line that fails
+     * validation again comes back as a new, later record, and reading on past the submit time would
+     * replay it again and again until max-records.
+     *
+     * @param ratePerSecond records per second, or null for the configured default
+     */
+    public ReplayJob submitReplay(DlqFilter filter, Double ratePerSecond) {
+        double rate = ratePerSecond != null ? ratePerSecond : defaultReplayRate;
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Replay rate must be positive");
+        }
+        Instant submittedAt = Instant.now();
+        Instant to = filter.getTo() != null && filter.getTo().isBefore(submittedAt) ? filter.getTo() : submittedAt;
+        DlqFilter replayFilter = new DlqFilter(filter.getPlatform(), filter.getReason(), filter.getFrom(), to);
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), rate);
+        replayJobs.put(job.getId(), job);
+        replayExecutor.submit(() -> replay(job, replayFilter));
+        logger.info("Submitted DLQ replay {} - platform: {}, reason: {}, from: {}, to: {}, rate: {}/s",
+                job.getId(), replayFilter.getPlatform(), replayFilter.getReason(), replayFilter.getFrom(),
+                replayFilter.getTo(), rate);
+        return job;
+    }
+
+    public Collection<ReplayJob> getReplayJobs() {
+        return replayJobs.values();
+    }
+
+    public ReplayJob getReplayJob(String jobId) {
+        return replayJobs.get(jobId);
+    }
+
+    private void replay(ReplayJob job, DlqFilter filter) {
+        job.start();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / job.getRatePerSecond());
+        long nextSendNanos = System.nanoTime();
+        try {
+            DlqRecord last = null;
+            while (job.getRecordsReplayed() < maxReplayRecords) {
+                int limit = (int) Math.min(REPLAY_BATCH_SIZE, maxReplayRecords - job.getRecordsReplayed());
+                List<DlqRecord> batch = dlqRecordRepository.findReplayBatch(filter, last, limit);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (DlqRecord record : batch) {
+                    long waitNanos = nextSendNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    nextSendNanos = Math.max(nextSendNanos, System.nanoTime() - intervalNanos) + intervalNanos;
+                    publish(record);
+                    job.recordsReplayed.incrementAndGet();
+                    replayedCounter.increment();
+                }
+                dlqRecordRepository.markReplayed(batch);
+                last = batch.get(batch.size() - 1);
+            }
+            job.complete();
+            logger.info("DLQ replay {} completed - {} records in {} s", job.getId(), job.getRecordsReplayed(),
+                    job.getElapsedSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail(e);
+            logger.warn("DLQ replay {} interrupted after {} records", job.getId(), job.getRecordsReplayed());
+        } catch (Exception e) {
+            job.fail(e);
+            logger.error("DLQ replay {} failed after {} records: {}", job.getId(), job.getRecordsReplayed(), e.getMessage(), e);
+        }
+    }
+
+    private void publish(DlqRecord record) throws Exception {
+        RecordHeaders headers = new RecordHeaders();
+        addHeader(headers, ReviewKafkaHeaders.SOURCE, "dlq-replay");
+        addHeader(headers, ReviewKafkaHeaders.FILE_KEY, record.getFileKey());
+        addHeader(headers, ReviewKafkaHeaders.LINE_NUMBER, record.getLineNumber());
+        addHeader(headers, ReviewKafkaHeaders.PLATFORM, record.getPlatform());
+        kafkaTemplate.send(new ProducerRecord<>(replayTopic, null, null, record.getOriginalJson(), headers))
+                .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static void addHeader(RecordHeaders headers, String name, Object value) {
+        byte[] encoded = ReviewKafkaHeaders.encode(value);
+        if (encoded != null) {
+            headers.add(name, encoded);
+        }
+    }
+
+    private static byte[] headerBytes(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? header.value() : null;
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String name) {
+        return ReviewKafkaHeaders.decodeString(headerBytes(record, name));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    /**
+     * Progress of a single replay, exposed through the DLQ endpoints
+     */
+    public static class ReplayJob {
+        private final String id;
+        private final double ratePerSecond;
+        private volatile String status = "QUEUED";
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private final AtomicLong recordsReplayed = new AtomicLong();
+
+        ReplayJob(String id, double ratePerSecond) {
+            this.id = id;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        void start() {
+            startedAt = Instant.now();
+            status = "RUNNING";
+        }
+
+        void complete() {
+            finishedAt = Instant.now();
+            status = "COMPLETED";
+        }
+
+        void fail(Exception e) {
+            finishedAt = Instant.now();
+            error = e.getMessage();
+            status = "FAILED";
+        }
+
+        public String getId() { return id; }
+        public double getRatePerSecond() { return ratePerSecond; }
+        public String getStatus() { return status; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public String getError() { return error; }
+        public long getRecordsReplayed() { return recordsReplayed.get(); }
+
+        public long getElapsedSeconds() {
+            if (startedAt == null) {
+                return 0;
+            }
+            return Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toSeconds();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.reviewconsumer.service;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed set of single-threaded workers where tasks with the same key always run on the same
+ * worker, in submission order. Tasks with different keys run in parallel.
+ *
+ * Each worker has a bounded queue. offer waits a bounded time for room in the target worker and
+ * then gives up, so the caller can pause its partition instead of blocking the Kafka listener
+ * thread past max.poll.interval.ms. Tasks carry the partition of their record, so the tasks of
+ * revoked partitions can be discarded before they run.
+ */
+public class KeyOrderedExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyOrderedExecutor.class);
+
+    private final String name;
+    private final int queueCapacity;
+    private final List<BlockingQueue<PartitionTask>> queues;
+    private final List<Thread> workers;
+    private volatile boolean running = true;
+
+    public KeyOrderedExecutor(String name, int workerCount, int queueCapacity) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.queues = new ArrayList<>(workerCount);
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<PartitionTask> queue = new LinkedBlockingQueue<>(queueCapacity);
+            Thread worker = new Thread(() -> runWorker(queue), name + "-worker-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+        logger.info("Started key-ordered executor {} with {} workers, queue capacity {} each",
+                name, workerCount, queueCapacity);
+    }
+
+    /**
+     * Queue a task on the worker owning the key, waiting up to the timeout while that worker's
+     * queue is full
+     *
+     * @return false when the worker stayed full for the whole timeout
+     */
+    public boolean offer(Object key, TopicPartition partition, Runnable task, long timeoutMs) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("Executor " + name + " is shut down");
+        }
+        int index = Math.floorMod(key != null ? key.hashCode() : 0, queues.size());
+        return queues.get(index).offer(new PartitionTask(partition, task), timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drop the queued tasks of the given partitions; tasks already running are not affected
+     *
+     * @return the number of tasks dropped
+     */
+    public int discard(Collection<TopicPartition> partitions) {
+        AtomicInteger discarded = new AtomicInteger();
+        for (BlockingQueue<PartitionTask> queue : queues) {
+            queue.removeIf(task -> {
+                boolean revoked = partitions.contains(task.partition);
+                if (revoked) {
+                    discarded.incrementAndGet();
+                }
+                return revoked;
+            });
+        }
+        return discarded.get();
+    }
+
+    /**
+     * True when no worker queue is more than half full, the point at which paused partitions
+     * can resume without immediately filling a queue again
+     */
+    public boolean isDrained() {
+        return queues.stream().allMatch(queue -> queue.size() <= queueCapacity / 2);
+    }
+
+    public int getQueuedTasks() {
+        return queues.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    private void runWorker(BlockingQueue<PartitionTask> queue) {
+        while (running || !queue.isEmpty()) {
+            try {
+                PartitionTask task = queue.poll(1, TimeUnit.SECONDS);
+                if (task != null) {
+                    task.task.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Tasks handle their own failures; never let one kill the worker
+                logger.error("Unhandled error in {} worker: {}", name, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Stop accepting tasks and let the workers drain what is queued, up to the timeout
+     */
+    public void shutdown(long timeoutMs) {
+        running = false;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+        logger.info("Key-ordered executor {} stopped with {} tasks left", name, getQueuedTasks());
+    }
+
+    private static class PartitionTask {
+        private final TopicPartition partition;
+        private final Runnable task;
+
+        PartitionTask(TopicPartition partition, Runnable task) {
+            this.partition = partition;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Thrown by a listener whose record found its worker queue full. The error handler redelivers
+     * the record without counting it as a failed attempt, once its paused partition resumes.
+     */
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.reviewconsumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of entity ids known to exist in the entities table, so the hot path can skip
+ * the entity insert for hotels it has already seen.
+ *
+ * Ids are only added once the transaction that wrote them has committed; a rolled back insert
+ * must not be remembered, or later reviews would fail the foreign key. An optional TTL lets
+ * entities deleted out of band be recreated.
+ */
+@Component
+public class KnownEntityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownEntityCache.class);
+
+    private final Map<Integer, Long> knownEntities;
+    private final long ttlMillis;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public KnownEntityCache(MeterRegistry meterRegistry,
+                            @Value("${review.consumer.entity-cache.max-size:10000}") int maxSize,
+                            @Value("${review.consumer.entity-cache.ttl-seconds:0}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.knownEntities = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.hitCounter = Counter.builder("review_consumer_entity_cache_requests_total")
+            .description("Entity cache lookups on the review hot path")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.missCounter = Counter.builder("review_consumer_entity_cache_requests_total")
+            .description("Entity cache lookups on the review hot path")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("review_consumer_entity_cache_size", knownEntities, Map::size)
+            .description("Number of entity ids in the known entity cache")
+            .register(meterRegistry);
+
+        logger.info("Known entity cache configured - max size: {}, ttl: {}",
+                maxSize, ttlSeconds > 0 ? ttlSeconds + "s" : "none");
+    }
+
+    public boolean isKnown(Integer entityId) {
+        Long cachedAt = knownEntities.get(entityId);
+        if (cachedAt != null && (ttlMillis <= 0 || System.currentTimeMillis() - cachedAt < ttlMillis)) {
+            hitCounter.increment();
+            return true;
+        }
+        if (cachedAt != null) {
+            knownEntities.remove(entityId);
+        }
+        missCounter.increment();
+        return false;
+    }
+
+    /**
+     * Remember an entity id, deferred until the surrounding transaction commits
+     */
+    public void markKnown(Integer entityId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    knownEntities.put(entityId, System.currentTimeMillis());
+                }
+            });
+        } else {
+            knownEntities.put(entityId, System.currentTimeMillis());
+        }
+    }
+
+    public void clear() {
+        knownEntities.clear();
+    }
+}
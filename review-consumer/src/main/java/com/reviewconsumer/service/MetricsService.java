@@ -1,6 +1,9 @@
 package com.reviewconsumer.service;
 
+import com.reviewconsumer.repository.UpsertResult;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
@@ -8,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Service
@@ -19,11 +23,18 @@ public class MetricsService {
     private final Counter badReviewsCounter;
     private final Counter errorCounter;
     private final Timer processingTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter batchFallbackCounter;
+    private final Timer batchTimer;
     private final AtomicLong totalProcessingTime = new AtomicLong(0);
     
     private final Instant startTime = Instant.now();
     
+    private final MeterRegistry meterRegistry;
+    
     public MetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        
         this.processedReviewsCounter = Counter.builder("review_consumer_processed_reviews_total")
             .description("Total number of reviews processed successfully")
             .register(meterRegistry);
@@ -39,6 +50,18 @@ public class MetricsService {
         this.processingTimer = Timer.builder("review_consumer_processing_duration")
             .description("Time taken to process reviews")
             .register(meterRegistry);
+            
+        this.batchSizeSummary = DistributionSummary.builder("review_consumer_batch_size")
+            .description("Number of reviews persisted per listener batch")
+            .register(meterRegistry);
+            
+        this.batchFallbackCounter = Counter.builder("review_consumer_batch_fallback_records_total")
+            .description("Reviews retried one by one after their batch failed")
+            .register(meterRegistry);
+            
+        this.batchTimer = Timer.builder("review_consumer_batch_duration")
+            .description("Time taken to persist a listener batch")
+            .register(meterRegistry);
     }
     
     public void incrementProcessedReviews() {
@@ -56,6 +79,41 @@ public class MetricsService {
         logger.debug("Incremented error counter");
     }
     
+    public void recordBatch(int batchSize, int fallbackRecords, long durationMs) {
+        batchSizeSummary.record(batchSize);
+        batchFallbackCounter.increment(fallbackRecords);
+        batchTimer.record(durationMs, TimeUnit.MILLISECONDS);
+        addProcessingTime(durationMs);
+    }
+    
+    /**
+     * Record the outcome of a native upsert per table: inserted, updated or unchanged rows
+     */
+    public void recordUpsert(String table, UpsertResult result) {
+        upsertCounter(table, "inserted").increment(result.getInserted());
+        upsertCounter(table, "updated").increment(result.getUpdated());
+        upsertCounter(table, "unchanged").increment(result.getUnchanged());
+    }
+    
+    private Counter upsertCounter(String table, String outcome) {
+        return Counter.builder("review_consumer_upserted_rows_total")
+            .description("Rows written by native upserts, by table and outcome")
+            .tag("table", table)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+    
+    public void registerParallelWorkers(String lane, KeyOrderedExecutor workers) {
+        Gauge.builder("review_consumer_parallel_queued_records", workers, KeyOrderedExecutor::getQueuedTasks)
+            .description("Records waiting in the key-ordered worker queues")
+            .tag("lane", lane)
+            .register(meterRegistry);
+        Gauge.builder("review_consumer_parallel_workers", workers, KeyOrderedExecutor::getWorkerCount)
+            .description("Number of key-ordered workers")
+            .tag("lane", lane)
+            .register(meterRegistry);
+    }
+    
     public Timer.Sample startProcessingTimer() {
         return Timer.start();
     }
@@ -64,6 +122,24 @@ public class MetricsService {
         sample.stop(processingTimer);
     }
     
+    /**
+     * Record a batch in the processing timer as its mean latency per record, so the timer's count
+     * and mean stay per record in the batch listener modes as well
+     */
+    public void recordBatchProcessingTime(int records, long durationMs) {
+        if (records <= 0) {
+            return;
+        }
+        long perRecordNanos = TimeUnit.MILLISECONDS.toNanos(durationMs) / records;
+        for (int i = 0; i < records; i++) {
+            processingTimer.record(perRecordNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public Timer getProcessingTimer() {
+        return processingTimer;
+    }
+    
     public void addProcessingTime(long processingTimeMs) {
         totalProcessingTime.addAndGet(processingTimeMs);
         logger.debug("Added processing time: {}ms, total: {}ms", processingTimeMs, totalProcessingTime.get());
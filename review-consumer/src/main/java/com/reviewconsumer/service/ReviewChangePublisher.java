@@ -0,0 +1,123 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewChangeEvent;
+import com.reviewcore.dto.ReviewMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Publishes a {@link ReviewChangeEvent} on Redis pub/sub for every committed write, so
+ * review-service can evict just the cached views that changed instead of waiting for TTLs.
+ *
+ * Changes made inside a transaction are collected and sent once, after commit; a rolled back
+ * transaction publishes nothing. Publishing is best effort: a failure is logged and counted,
+ * and the affected cache entries fall back to their TTL.
+ */
+@Component
+public class ReviewChangePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewChangePublisher.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    @Value("${review.consumer.change-events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${review.change-events.channel:review-changes}")
+    private String channel;
+
+    public ReviewChangePublisher(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.publishedCounter = Counter.builder("review_consumer_change_events_total")
+            .description("Review change events published for cache invalidation")
+            .tag("outcome", "published")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("review_consumer_change_events_total")
+            .description("Review change events published for cache invalidation")
+            .tag("outcome", "failed")
+            .register(meterRegistry);
+    }
+
+    public void reviewChanged(Integer entityId, String platform, Long reviewId, Integer providerId) {
+        record(event -> event.addReview(entityId, platform, reviewId, providerId));
+    }
+
+    /**
+     * Publish the reviews of a write committed outside a Spring transaction, e.g. a bulk load
+     * chunk, as one event
+     */
+    public void reviewsChanged(Collection<ReviewMessage> reviewMessages) {
+        record(event -> reviewMessages.forEach(reviewMessage -> {
+            ReviewMessage.ReviewComment comment = reviewMessage.getComment();
+            event.addReview(reviewMessage.getHotelId().intValue(), reviewMessage.getPlatform(),
+                    comment != null ? comment.getHotelReviewId() : null, comment != null ? comment.getProviderId() : null);
+        }));
+    }
+
+    public void badReviewChanged(String platform, String reason, Long reviewId, Integer providerId) {
+        record(event -> event.addBadReview(platform, reason, reviewId, providerId));
+    }
+
+    private void record(Consumer<ReviewChangeEvent> change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ReviewChangeEvent event = new ReviewChangeEvent();
+            change.accept(event);
+            publish(event);
+            return;
+        }
+
+        ReviewChangeEvent event = (ReviewChangeEvent) TransactionSynchronizationManager.getResource(this);
+        if (event == null) {
+            ReviewChangeEvent pending = new ReviewChangeEvent();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReviewChangePublisher.this);
+                }
+            });
+            event = pending;
+        }
+        change.accept(event);
+    }
+
+    private void publish(ReviewChangeEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        try {
+            event.setTimestamp(System.currentTimeMillis());
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+            publishedCounter.increment();
+            logger.debug("Published review change event - entities: {}, platforms: {}, reviews: {}, bad reviews: {}",
+                    event.getEntityIds().size(), event.getPlatforms(), event.getReviewKeys().size(),
+                    event.getBadReviewKeys().size());
+        } catch (Exception e) {
+            failedCounter.increment();
+            logger.warn("Failed to publish review change event, caches will refresh by TTL: {}", e.getMessage());
+        }
+    }
+}
@@ -4,117 +4,677 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reviewcore.dto.ReviewMessage;
 import com.reviewcore.model.BadReviewRecord;
 import com.reviewcore.dto.BadReviewMessage;
-import com.reviewconsumer.repository.BadReviewRecordRepository;
+import com.reviewconsumer.repository.ConsumerOffsetRepository;
+import com.reviewconsumer.repository.ReviewJdbcRepository;
+import com.reviewconsumer.repository.UpsertResult;
+import io.micrometer.core.instrument.Timer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Service
-public class ReviewConsumerService {
+public class ReviewConsumerService implements ConsumerSeekAware {
     
     private static final Logger logger = LoggerFactory.getLogger(ReviewConsumerService.class);
     
     private final ObjectMapper objectMapper;
     private final MetricsService metricsService;
-    private final BadReviewRecordRepository badReviewRecordRepository;
+    private final ReviewJdbcRepository reviewJdbcRepository;
     private final ReviewProcessingService reviewProcessingService;
+    private final ReviewRecordFilter reviewRecordFilter;
+    private final ReviewRetryService reviewRetryService;
+    private final ReviewChangePublisher reviewChangePublisher;
+    private final ConsumerOffsetRepository consumerOffsetRepository;
+    private final BadReviewSink badReviewSink;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
     
     private final AtomicLong processedCount = new AtomicLong(0);
     private final AtomicLong errorCount = new AtomicLong(0);
     
+    @Value("${kafka.consumer.listener-mode:record}")
+    private String listenerMode;
+    
+    @Value("${review.consumer.bad-record-sink.enabled:true}")
+    private boolean badRecordSinkEnabled;
+    
+    @Value("${kafka.consumer.parallel.workers:8}")
+    private int parallelWorkers;
+    
+    @Value("${kafka.consumer.parallel.bulk-workers:2}")
+    private int bulkParallelWorkers;
+    
+    @Value("${kafka.consumer.parallel.queue-capacity:500}")
+    private int parallelQueueCapacity;
+    
+    // Must stay well below max.poll.interval.ms, since the listener thread waits this long per full worker
+    @Value("${kafka.consumer.parallel.offer-timeout-ms:1000}")
+    private long parallelOfferTimeoutMs;
+    
+    @Value("${kafka.topic.reviews}")
+    private String reviewsTopic;
+    
+    @Value("${kafka.topic.reviews-bulk}")
+    private String bulkReviewsTopic;
+    
+    @Value("${kafka.topic.bad-reviews}")
+    private String badReviewsTopic;
+    
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+    
+    // Longest a retry listener sleeps on a record that is not due yet; must stay well below max.poll.interval.ms
+    @Value("${kafka.consumer.retry.max-pause-ms:30000}")
+    private long retryMaxPauseMs;
+    
+    // Wait before a parallel worker tries again to park a record whose retry publish failed
+    @Value("${kafka.consumer.retry.publish-backoff-ms:5000}")
+    private long retryPublishBackoffMs;
+    
+    @Value("${kafka.consumer.retry.publish-attempts:12}")
+    private long retryPublishAttempts;
+    
+    // Key-ordered worker pools for parallel mode, one per lane so backfills cannot starve realtime
+    private KeyOrderedExecutor reviewWorkers;
+    private KeyOrderedExecutor bulkReviewWorkers;
+    
+    // Publishes bad reviews the sink failed to write to the retry chain, off the sink's flusher thread
+    private final ExecutorService badReviewRetryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bad-review-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Partitions paused because their worker queue was full, by listener id
+    private final Map<TopicPartition, String> backpressuredPartitions = new ConcurrentHashMap<>();
+    
+    // Bumped when a partition is revoked, so queued and running tasks of the old assignment do not ack
+    private final Map<TopicPartition, Long> partitionEpochs = new ConcurrentHashMap<>();
+    
     @Autowired
     public ReviewConsumerService(ObjectMapper objectMapper, MetricsService metricsService, 
-                               BadReviewRecordRepository badReviewRecordRepository,
-                               ReviewProcessingService reviewProcessingService) {
+                               ReviewJdbcRepository reviewJdbcRepository,
+                               ReviewProcessingService reviewProcessingService,
+                               ReviewRecordFilter reviewRecordFilter,
+                               ReviewRetryService reviewRetryService,
+                               ReviewChangePublisher reviewChangePublisher,
+                               ConsumerOffsetRepository consumerOffsetRepository,
+                               BadReviewSink badReviewSink,
+                               KafkaListenerEndpointRegistry listenerRegistry) {
         this.objectMapper = objectMapper;
         this.metricsService = metricsService;
-        this.badReviewRecordRepository = badReviewRecordRepository;
+        this.reviewJdbcRepository = reviewJdbcRepository;
         this.reviewProcessingService = reviewProcessingService;
+        this.reviewRecordFilter = reviewRecordFilter;
+        this.reviewRetryService = reviewRetryService;
+        this.reviewChangePublisher = reviewChangePublisher;
+        this.consumerOffsetRepository = consumerOffsetRepository;
+        this.badReviewSink = badReviewSink;
+        this.listenerRegistry = listenerRegistry;
+    }
+    
+    @PostConstruct
+    public void initParallelWorkers() {
+        if (!"parallel".equals(listenerMode)) {
+            return;
+        }
+        reviewWorkers = new KeyOrderedExecutor("review", parallelWorkers, parallelQueueCapacity);
+        bulkReviewWorkers = new KeyOrderedExecutor("bulk-review", bulkParallelWorkers, parallelQueueCapacity);
+        metricsService.registerParallelWorkers("realtime", reviewWorkers);
+        metricsService.registerParallelWorkers("bulk", bulkReviewWorkers);
+    }
+    
+    @PreDestroy
+    public void shutdownWorkers() {
+        badReviewRetryExecutor.shutdownNow();
+        if (reviewWorkers != null) {
+            reviewWorkers.shutdown(10000);
+        }
+        if (bulkReviewWorkers != null) {
+            bulkReviewWorkers.shutdown(10000);
+        }
+    }
+    
+    @KafkaListener(
+        id = "reviews-record",
+        topics = "${kafka.topic.reviews}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "kafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'record'}"
+    )
+    public void consumeReview(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        handleReview(record);
+        acknowledgment.acknowledge();
+    }
+    
+    /**
+     * Bulk lane: replays and backfills, consumed with its own (smaller) concurrency
+     */
+    @KafkaListener(
+        id = "reviews-bulk-record",
+        topics = "${kafka.topic.reviews-bulk}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "bulkKafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'record'}"
+    )
+    public void consumeBulkReview(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        handleReview(record);
+        acknowledgment.acknowledge();
+    }
+    
+    /**
+     * Batch mode: a whole poll is written in one transaction and acknowledged once
+     */
+    @KafkaListener(
+        id = "reviews-batch",
+        topics = "${kafka.topic.reviews}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'batch'}"
+    )
+    public void consumeReviewBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        handleReviewBatch(records);
+        acknowledgment.acknowledge();
+    }
+    
+    @KafkaListener(
+        id = "reviews-bulk-batch",
+        topics = "${kafka.topic.reviews-bulk}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "bulkBatchKafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'batch'}"
+    )
+    public void consumeBulkReviewBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        handleReviewBatch(records);
+        acknowledgment.acknowledge();
+    }
+    
+    /**
+     * Parallel mode: records are handed to a key-ordered worker pool so reviews of the same hotel
+     * stay in order while different hotels are processed concurrently. Acks arrive out of order;
+     * the container (asyncAcks) only commits the contiguous prefix of completed offsets. A record
+     * whose worker stays full pauses its partition and is redelivered once the workers catch up.
+     */
+    @KafkaListener(
+        id = "reviews-parallel",
+        topics = "${kafka.topic.reviews}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "parallelKafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'parallel'}"
+    )
+    public void consumeReviewParallel(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) 
+            throws InterruptedException {
+        dispatchReview("reviews-parallel", reviewWorkers, record, acknowledgment);
+    }
+    
+    @KafkaListener(
+        id = "reviews-bulk-parallel",
+        topics = "${kafka.topic.reviews-bulk}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "bulkParallelKafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'parallel'}"
+    )
+    public void consumeBulkReviewParallel(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) 
+            throws InterruptedException {
+        dispatchReview("reviews-bulk-parallel", bulkReviewWorkers, record, acknowledgment);
     }
     
+    /**
+     * Exactly-once mode: each poll is written in one transaction together with the next offset of
+     * every partition it covers, and on assignment the consumer seeks to the offsets stored in
+     * Postgres. A crash at any point leaves rows and position consistent, so nothing is replayed
+     * or lost; the Kafka commit that follows only keeps lag monitoring accurate. The header filter
+     * runs here rather than in the container, after the offsets are taken from the whole poll.
+     */
     @KafkaListener(
+        id = "reviews-exactly-once",
         topics = "${kafka.topic.reviews}",
         groupId = "${spring.kafka.consumer.group-id}",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "exactlyOnceKafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'exactly-once'}"
     )
-    public void consumeReview(
-            @Payload String reviewJson,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
-            Acknowledgment acknowledgment) {
+    public void consumeReviewExactlyOnce(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        handleReviewBatchExactlyOnce(records);
+        acknowledgment.acknowledge();
+    }
+    
+    @KafkaListener(
+        id = "reviews-bulk-exactly-once",
+        topics = "${kafka.topic.reviews-bulk}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "bulkExactlyOnceKafkaListenerContainerFactory",
+        autoStartup = "#{'${kafka.consumer.listener-mode:record}' == 'exactly-once'}"
+    )
+    public void consumeBulkReviewExactlyOnce(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        handleReviewBatchExactlyOnce(records);
+        acknowledgment.acknowledge();
+    }
+    
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (!"exactly-once".equals(listenerMode)) {
+            return;
+        }
+        List<TopicPartition> reviewPartitions = assignments.keySet().stream()
+                .filter(partition -> partition.topic().equals(reviewsTopic) || partition.topic().equals(bulkReviewsTopic))
+                .toList();
+        // Partitions without a stored offset (first start in this mode) keep the Kafka committed position
+        consumerOffsetRepository.findOffsets(groupId, reviewPartitions).forEach((partition, offset) -> {
+            logger.info("Seeking {} to stored offset {}", partition, offset);
+            callback.seek(partition.topic(), partition.partition(), offset);
+        });
+    }
+    
+    /**
+     * Parallel mode: drop the queued work of revoked partitions. Tasks already running finish, but
+     * do not ack, so the new owner redelivers their records.
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitions.forEach(partition -> {
+            partitionEpochs.merge(partition, 1L, Long::sum);
+            backpressuredPartitions.remove(partition);
+        });
+        int discarded = (reviewWorkers != null ? reviewWorkers.discard(partitions) : 0)
+                + (bulkReviewWorkers != null ? bulkReviewWorkers.discard(partitions) : 0);
+        if (discarded > 0) {
+            logger.info("Discarded {} queued reviews of revoked partitions {}", discarded, partitions);
+        }
+    }
+    
+    private void dispatchReview(String listenerId, KeyOrderedExecutor workers, ConsumerRecord<String, String> record, 
+                                Acknowledgment acknowledgment) throws InterruptedException {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        long epoch = partitionEpochs.getOrDefault(partition, 0L);
+        // Records are keyed by hotel id; unkeyed records fall back to partition order
+        Object orderingKey = record.key() != null ? record.key() : record.partition();
+        boolean queued = workers.offer(orderingKey, partition, () -> {
+            try {
+                handleReviewOnWorker(record, partition, epoch, acknowledgment);
+            } finally {
+                resumeIfDrained(listenerId, workers);
+            }
+        }, parallelOfferTimeoutMs);
+        
+        if (!queued) {
+            // Throwing hands the record back to the container's error handler, which seeks to it
+            // again; the paused partition is only fetched again after its workers have drained
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+            if (container != null) {
+                backpressuredPartitions.put(partition, listenerId);
+                container.pausePartition(partition);
+            }
+            logger.warn("Worker queue full for {} offset {}, pausing the partition", partition, record.offset());
+            throw new KeyOrderedExecutor.QueueFullException("Worker queue full for " + partition);
+        }
+    }
+    
+    /**
+     * Acks only once the review is stored or parked on the retry chain. When the retry publish
+     * fails the container's error handler never sees it, so the worker keeps the record and tries
+     * again after a backoff; the worker's queue fills up meanwhile and pauses the partitions
+     * feeding it. The loop ends without an ack if the partition is revoked or the worker stops.
+     */
+    private void handleReviewOnWorker(ConsumerRecord<String, String> record, TopicPartition partition, long epoch,
+                                      Acknowledgment acknowledgment) {
+        while (isCurrentAssignment(partition, epoch)) {
+            try {
+                handleReview(record);
+                if (isCurrentAssignment(partition, epoch)) {
+                    acknowledgment.acknowledge();
+                }
+                return;
+            } catch (Exception e) {
+                logger.error("Could not park review from {} offset {} on the retry chain, trying again in {} ms", 
+                            partition, record.offset(), retryPublishBackoffMs, e);
+                try {
+                    Thread.sleep(retryPublishBackoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private boolean isCurrentAssignment(TopicPartition partition, long epoch) {
+        return partitionEpochs.getOrDefault(partition, 0L) == epoch;
+    }
+    
+    private void resumeIfDrained(String listenerId, KeyOrderedExecutor workers) {
+        if (backpressuredPartitions.isEmpty() || !workers.isDrained()) {
+            return;
+        }
+        backpressuredPartitions.forEach((partition, pausedBy) -> {
+            if (pausedBy.equals(listenerId) && backpressuredPartitions.remove(partition, pausedBy)) {
+                MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId);
+                if (container != null) {
+                    container.resumePartition(partition);
+                    logger.info("Workers drained, resumed {}", partition);
+                }
+            }
+        });
+    }
+    
+    private void handleReviewBatch(List<ConsumerRecord<String, String>> records) {
+        long batchStartTime = System.currentTimeMillis();
+        logger.info("Received batch of {} reviews", records.size());
+        
+        List<ConsumerRecord<String, String>> parsedRecords = new ArrayList<>(records.size());
+        List<ReviewMessage> reviews = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                reviews.add(objectMapper.readValue(record.value(), ReviewMessage.class));
+                parsedRecords.add(record);
+            } catch (Exception e) {
+                recordFailure(record, e);
+                reviewRetryService.scheduleRetry(record, e);
+            }
+        }
+        
+        if (reviews.isEmpty()) {
+            return;
+        }
         
         try {
-            logger.info("Received review from topic: {}, partition: {}, offset: {}", 
-                       topic, partition, offset);
-            logger.debug("Processing review JSON: {}", reviewJson);
-            
-            // Parse the JSON review
-            ReviewMessage review = objectMapper.readValue(reviewJson, ReviewMessage.class);
-            
-            // Process the review
-            processReview(review);
-            
-            // Update metrics
-            long currentCount = processedCount.incrementAndGet();
-            metricsService.incrementProcessedReviews();
-            
-            // Acknowledge the message
-            acknowledgment.acknowledge();
-            
-            logger.info("Successfully processed review. Total processed: {}", currentCount);
-            
+            reviewProcessingService.processReviewBatch(reviews);
+            parsedRecords.forEach(this::recordSuccess);
+            long batchDurationMs = System.currentTimeMillis() - batchStartTime;
+            metricsService.recordBatch(reviews.size(), 0, batchDurationMs);
+            metricsService.recordBatchProcessingTime(reviews.size(), batchDurationMs);
+            logger.info("Successfully processed batch of {} reviews in {} ms. Total processed: {}", 
+                       reviews.size(), System.currentTimeMillis() - batchStartTime, processedCount.get());
         } catch (Exception e) {
-            long currentErrorCount = errorCount.incrementAndGet();
-            metricsService.incrementErrorCount();
-            
-            logger.error("Error processing review from topic: {}, partition: {}, offset: {}. " +
-                        "Error count: {}", topic, partition, offset, currentErrorCount, e);
-            
-            // In a real application, you might want to send to a dead letter queue
-            // For now, we'll just log the error and acknowledge to avoid infinite retries
-            acknowledgment.acknowledge();
+            // The batch transaction rolled back; retry record by record so only the bad ones fail
+            logger.warn("Batch of {} reviews failed, falling back to per-record processing: {}", 
+                       reviews.size(), e.getMessage());
+            parsedRecords.forEach(this::handleReview);
+            metricsService.recordBatch(reviews.size(), reviews.size(), System.currentTimeMillis() - batchStartTime);
+        }
+    }
+    
+    private void handleReviewBatchExactlyOnce(List<ConsumerRecord<String, String>> records) {
+        long batchStartTime = System.currentTimeMillis();
+        
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        List<ConsumerRecord<String, String>> parsedRecords = new ArrayList<>(records.size());
+        List<ReviewMessage> reviews = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            nextOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+            if (reviewRecordFilter.filter(record)) {
+                continue;
+            }
+            try {
+                reviews.add(objectMapper.readValue(record.value(), ReviewMessage.class));
+                parsedRecords.add(record);
+            } catch (Exception e) {
+                // Parked before the offsets covering it are committed; a crash in between only duplicates the retry
+                recordFailure(record, e);
+                reviewRetryService.scheduleRetry(record, e);
+            }
+        }
+        
+        if (reviews.isEmpty()) {
+            // Everything was filtered out or parked; only the position moves
+            consumerOffsetRepository.storeOffsets(groupId, nextOffsets);
+            return;
+        }
+        try {
+            reviewProcessingService.processReviewBatch(reviews, nextOffsets);
+            parsedRecords.forEach(this::recordSuccess);
+            long batchDurationMs = System.currentTimeMillis() - batchStartTime;
+            metricsService.recordBatch(reviews.size(), 0, batchDurationMs);
+            metricsService.recordBatchProcessingTime(reviews.size(), batchDurationMs);
+            logger.info("Committed batch of {} reviews with offsets in {} ms", 
+                       reviews.size(), System.currentTimeMillis() - batchStartTime);
+        } catch (Exception e) {
+            logger.warn("Batch of {} reviews failed, falling back to per-record processing: {}", 
+                       reviews.size(), e.getMessage());
+            for (int i = 0; i < parsedRecords.size(); i++) {
+                ConsumerRecord<String, String> record = parsedRecords.get(i);
+                Map<TopicPartition, Long> recordOffset = Map.of(
+                        new TopicPartition(record.topic(), record.partition()), record.offset() + 1);
+                Timer.Sample sample = metricsService.startProcessingTimer();
+                try {
+                    reviewProcessingService.processReviewMessage(reviews.get(i), recordOffset);
+                    recordSuccess(record);
+                    metricsService.stopProcessingTimer(sample);
+                } catch (Exception recordError) {
+                    recordFailure(record, recordError);
+                    reviewRetryService.scheduleRetry(record, recordError);
+                    consumerOffsetRepository.storeOffsets(groupId, recordOffset);
+                }
+            }
+            // Covers records that failed to parse after the last stored one
+            consumerOffsetRepository.storeOffsets(groupId, nextOffsets);
+            metricsService.recordBatch(reviews.size(), reviews.size(), System.currentTimeMillis() - batchStartTime);
         }
     }
     
+    /**
+     * Process one review; on failure the record is parked on the retry chain so the caller can
+     * acknowledge it without losing it. Only a failure to publish to the retry topic propagates.
+     */
+    private void handleReview(ConsumerRecord<String, String> record) {
+        try {
+            processReviewRecord(record);
+        } catch (Exception e) {
+            recordFailure(record, e);
+            reviewRetryService.scheduleRetry(record, e);
+        }
+    }
+    
+    private void processReviewRecord(ConsumerRecord<String, String> record) throws Exception {
+        Timer.Sample sample = metricsService.startProcessingTimer();
+        logger.info("Received review from topic: {}, partition: {}, offset: {}", 
+                   record.topic(), record.partition(), record.offset());
+        logger.debug("Processing review JSON: {}", record.value());
+        
+        // Parse the JSON review
+        ReviewMessage review = objectMapper.readValue(record.value(), ReviewMessage.class);
+        
+        // Process the review
+        processReview(review);
+        recordSuccess(record);
+        metricsService.stopProcessingTimer(sample);
+        
+        logger.info("Successfully processed review. Total processed: {}", processedCount.get());
+    }
+    
+    private void recordSuccess(ConsumerRecord<String, String> record) {
+        reviewRecordFilter.remember(record);
+        processedCount.incrementAndGet();
+        metricsService.incrementProcessedReviews();
+    }
+    
+    private void recordFailure(ConsumerRecord<String, String> record, Exception e) {
+        long currentErrorCount = errorCount.incrementAndGet();
+        metricsService.incrementErrorCount();
+        
+        logger.error("Error processing review from topic: {}, partition: {}, offset: {}. " +
+                    "Error count: {}", record.topic(), record.partition(), record.offset(), currentErrorCount, e);
+    }
+    
+    /**
+     * Bad reviews go through the batching sink; each record is acknowledged once its batch is
+     * committed (or handed to the retry chain), and the container (asyncAcks) commits offsets in order.
+     */
     @KafkaListener(
         topics = "${kafka.topic.bad-reviews}",
         groupId = "${spring.kafka.consumer.group-id}",
-        containerFactory = "kafkaListenerContainerFactory"
+        containerFactory = "badReviewKafkaListenerContainerFactory"
     )
-    public void consumeBadReview(
-            @Payload String payload,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
-            Acknowledgment acknowledgment) {
-        try {
-            logger.info("Received bad review from topic: {}, partition: {}, offset: {}", 
-                       topic, partition, offset);
-            logger.debug("Processing bad review payload: {}", payload);
-
-            BadReviewMessage badReviewMessage = objectMapper.readValue(payload, BadReviewMessage.class);
-            processBadReview(badReviewMessage);
-            metricsService.incrementBadReviews();
+    public void consumeBadReview(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) 
+            throws InterruptedException {
+        if (!badRecordSinkEnabled) {
+            try {
+                processBadReviewRecord(record);
+            } catch (Exception e) {
+                recordFailure(record, e);
+                reviewRetryService.scheduleRetry(record, e);
+            }
             acknowledgment.acknowledge();
-            logger.info("Successfully processed bad review");
+            return;
+        }
+        
+        BadReviewMessage badReviewMessage;
+        BadReviewRecord badReviewRecord;
+        try {
+            badReviewMessage = objectMapper.readValue(record.value(), BadReviewMessage.class);
+            badReviewRecord = buildBadReviewRecord(badReviewMessage);
         } catch (Exception e) {
-            long currentErrorCount = errorCount.incrementAndGet();
-            metricsService.incrementErrorCount();
-            logger.error("Error processing bad review from topic: {}, partition: {}, offset: {}. " +
-                        "Error count: {}", topic, partition, offset, currentErrorCount, e);
+            recordFailure(record, e);
+            reviewRetryService.scheduleRetry(record, e);
             acknowledgment.acknowledge();
+            return;
         }
+        badReviewSink.submit(badReviewRecord).whenComplete((ignored, error) -> {
+            if (error == null) {
+                metricsService.incrementBadReviews();
+                logger.debug("Stored bad review record with review ID: {} and provider ID: {} and reason: {}", 
+                           badReviewMessage.getReviewId(), badReviewMessage.getProviderId(), badReviewMessage.getReason());
+                acknowledgment.acknowledge();
+                return;
+            }
+            Exception cause = error instanceof Exception exception ? exception : new RuntimeException(error);
+            recordFailure(record, cause);
+            try {
+                // The retry publish blocks on the broker; keep it off the sink's only flusher thread
+                badReviewRetryExecutor.execute(() -> parkBadReview(record, cause, acknowledgment));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Shutting down, bad review from partition: {}, offset: {} will be redelivered", 
+                           record.partition(), record.offset());
+            }
+        });
+    }
+    
+    /**
+     * Publish a bad review the sink could not write to the retry chain, then ack it. The publish is
+     * retried with the same backoff and attempts as the container's error handler and, like it,
+     * gives up once they are used up: an offset that is never acked would hold back every later
+     * commit of the partition (asyncAcks) until the next rebalance.
+     */
+    private void parkBadReview(ConsumerRecord<String, String> record, Exception cause, Acknowledgment acknowledgment) {
+        boolean acknowledge = true;
+        try {
+            for (long attempt = 1; ; attempt++) {
+                try {
+                    reviewRetryService.scheduleRetry(record, cause);
+                    break;
+                } catch (Exception e) {
+                    if (attempt > retryPublishAttempts) {
+                        throw e;
+                    }
+                    logger.warn("Retry publish of bad review from partition: {}, offset: {} failed, attempt {}: {}", 
+                               record.partition(), record.offset(), attempt, e.getMessage());
+                    Thread.sleep(retryPublishBackoffMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down; left unacked so it is redelivered
+            Thread.currentThread().interrupt();
+            acknowledge = false;
+        } catch (Exception e) {
+            logger.error("Giving up on bad review from topic: {}, partition: {}, offset: {}", 
+                        record.topic(), record.partition(), record.offset(), e);
+        } finally {
+            if (acknowledge) {
+                acknowledgment.acknowledge();
+            }
+        }
+    }
+    
+    private void processBadReviewRecord(ConsumerRecord<String, String> record) throws Exception {
+        logger.info("Received bad review from topic: {}, partition: {}, offset: {}", 
+                   record.topic(), record.partition(), record.offset());
+        logger.debug("Processing bad review payload: {}", record.value());
+
+        BadReviewMessage badReviewMessage = objectMapper.readValue(record.value(), BadReviewMessage.class);
+        processBadReview(badReviewMessage);
+        metricsService.incrementBadReviews();
+        logger.info("Successfully processed bad review");
+    }
+    
+    /**
+     * Retry tiers, one listener (and container) per tier. A record that is not due yet is nacked,
+     * which pauses the container and redelivers it after the sleep; records on a tier topic are
+     * in due order, so nothing behind it could run earlier anyway.
+     */
+    @KafkaListener(
+        id = "review-retry-0",
+        topics = "#{@reviewRetryService.getRetryTopics(0)}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "retryKafkaListenerContainerFactory"
+    )
+    public void consumeRetryTier0(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        handleRetry(record, acknowledgment);
+    }
+    
+    @KafkaListener(
+        id = "review-retry-1",
+        topics = "#{@reviewRetryService.tierCount > 1 ? @reviewRetryService.getRetryTopics(1) : @reviewRetryService.getRetryTopics(0)}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "retryKafkaListenerContainerFactory",
+        autoStartup = "#{@reviewRetryService.tierCount > 1}"
+    )
+    public void consumeRetryTier1(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        handleRetry(record, acknowledgment);
+    }
+    
+    @KafkaListener(
+        id = "review-retry-2",
+        topics = "#{@reviewRetryService.tierCount > 2 ? @reviewRetryService.getRetryTopics(2) : @reviewRetryService.getRetryTopics(0)}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "retryKafkaListenerContainerFactory",
+        autoStartup = "#{@reviewRetryService.tierCount > 2}"
+    )
+    public void consumeRetryTier2(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        handleRetry(record, acknowledgment);
+    }
+    
+    private void handleRetry(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        long remainingDelayMs = reviewRetryService.getRemainingDelayMs(record);
+        if (remainingDelayMs > 0) {
+            acknowledgment.nack(Duration.ofMillis(Math.min(remainingDelayMs, retryMaxPauseMs)));
+            return;
+        }
+        
+        try {
+            if (badReviewsTopic.equals(reviewRetryService.getOriginalTopic(record))) {
+                processBadReviewRecord(record);
+            } else {
+                processReviewRecord(record);
+            }
+            reviewRetryService.recordRetryResult(record, true);
+        } catch (Exception e) {
+            recordFailure(record, e);
+            reviewRetryService.recordRetryResult(record, false);
+            reviewRetryService.scheduleRetry(record, e);
+        }
+        acknowledgment.acknowledge();
     }
     
     private void processReview(ReviewMessage review) {
@@ -128,31 +688,42 @@ public class ReviewConsumerService {
     }
     
     void processBadReview(BadReviewMessage badReviewMessage) {
+        try {
+            BadReviewRecord badReviewRecord = buildBadReviewRecord(badReviewMessage);
+            
+            // Upsert into database; redeliveries of an identical record leave the row untouched
+            UpsertResult result = reviewJdbcRepository.upsertBadReviewRecords(List.of(badReviewRecord));
+            metricsService.recordUpsert("bad_review_records", result);
+            if (result.hasChanges()) {
+                reviewChangePublisher.badReviewChanged(badReviewMessage.getPlatform(), badReviewMessage.getReason(),
+                        badReviewMessage.getReviewId(), badReviewMessage.getProviderId());
+            }
+            
+            logger.info("Stored bad review record in database with review ID: {} and provider ID: {} and reason: {} ({})", 
+                       badReviewMessage.getReviewId(), badReviewMessage.getProviderId(), badReviewMessage.getReason(), result);
+            
+        } catch (Exception e) {
+            logger.error("Failed to store bad review record in database: {}", badReviewMessage, e);
+            throw e; // Re-throw to trigger error handling
+        }
+    }
+    
+    private BadReviewRecord buildBadReviewRecord(BadReviewMessage badReviewMessage) {
         try {
             // Convert the BadReviewMessage to JSON string
             String jsonData = objectMapper.writeValueAsString(badReviewMessage);
             
             // Create BadReviewRecord entity with composite primary key
-            BadReviewRecord badReviewRecord = new BadReviewRecord(
+            return new BadReviewRecord(
                 badReviewMessage.getReviewId(), // review_id
                 badReviewMessage.getProviderId(), // provider_id
                 jsonData,
                 badReviewMessage.getPlatform(),
                 badReviewMessage.getReason()
             );
-            
-            // Save to database
-            BadReviewRecord savedRecord = badReviewRecordRepository.save(badReviewRecord);
-            
-            logger.info("Stored bad review record in database with review ID: {} and provider ID: {} and reason: {}", 
-                       savedRecord.getId().getReviewId(), savedRecord.getId().getProviderId(), badReviewMessage.getReason());
-            
         } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
             logger.error("Failed to serialize bad review message to JSON: {}", badReviewMessage, e);
             throw new RuntimeException("Failed to serialize bad review message", e);
-        } catch (Exception e) {
-            logger.error("Failed to store bad review record in database: {}", badReviewMessage, e);
-            throw e; // Re-throw to trigger error handling
         }
     }
     
@@ -0,0 +1,240 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewMessage;
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Idempotency layer for review writes: remembers the content hash of the last message persisted
+ * per review (hotelReviewId + providerId), so redeliveries and partner re-exports of an unchanged
+ * review skip the entity, review, reviewer and score writes entirely.
+ *
+ * Hashes are stored in review_content_hashes in the same transaction as the review rows, and
+ * fronted by an LRU warmed at startup with the most recently written reviews. Cache misses are
+ * looked up in the table. Cache entries are only updated once the transaction has committed.
+ */
+@Component
+public class ReviewIdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewIdempotencyStore.class);
+
+    private static final String SELECT_HASHES_SQL =
+            "SELECT h.review_id, h.provider_id, h.content_hash FROM review_content_hashes h " +
+            "JOIN jsonb_to_recordset(?::jsonb) AS k(review_id BIGINT, provider_id INT) " +
+            "USING (review_id, provider_id)";
+
+    private static final String UPSERT_HASHES_SQL =
+            "INSERT INTO review_content_hashes AS t (review_id, provider_id, content_hash, updated_at) " +
+            "SELECT review_id, provider_id, content_hash, CURRENT_TIMESTAMP " +
+            "FROM jsonb_to_recordset(?::jsonb) AS r(review_id BIGINT, provider_id INT, content_hash CHAR(64)) " +
+            "ON CONFLICT (review_id, provider_id) DO UPDATE SET content_hash = EXCLUDED.content_hash, " +
+            "updated_at = EXCLUDED.updated_at WHERE t.content_hash IS DISTINCT FROM EXCLUDED.content_hash";
+
+    private static final String WARM_SQL =
+            "SELECT review_id, provider_id, content_hash FROM review_content_hashes ORDER BY updated_at DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> recentHashes;
+    private final Counter skippedCounter;
+    private final Counter writtenCounter;
+    private final Counter cacheMissCounter;
+    private final int cacheSize;
+
+    @Value("${review.consumer.idempotency.enabled:true}")
+    private boolean enabled;
+
+    public ReviewIdempotencyStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                  @Value("${review.consumer.idempotency.cache-size:100000}") int cacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.cacheSize = cacheSize;
+        this.recentHashes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.skippedCounter = Counter.builder("review_consumer_idempotency_checks_total")
+            .description("Review messages checked against the idempotency store")
+            .tag("result", "skipped")
+            .register(meterRegistry);
+        this.writtenCounter = Counter.builder("review_consumer_idempotency_checks_total")
+            .description("Review messages checked against the idempotency store")
+            .tag("result", "written")
+            .register(meterRegistry);
+        this.cacheMissCounter = Counter.builder("review_consumer_idempotency_cache_misses_total")
+            .description("Idempotency checks that had to read the review_content_hashes table")
+            .register(meterRegistry);
+        Gauge.builder("review_consumer_idempotency_skip_ratio", this, ReviewIdempotencyStore::getSkipRatio)
+            .description("Share of checked review messages whose writes were skipped as unchanged")
+            .register(meterRegistry);
+        Gauge.builder("review_consumer_idempotency_cache_size", recentHashes, Map::size)
+            .description("Review content hashes held in the idempotency cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Load the most recently written hashes so a restart does not start with a cold cache
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCache() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(WARM_SQL, cacheSize);
+            // Oldest first, so the most recent entries end up at the young end of the LRU
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Map<String, Object> row = rows.get(i);
+                recentHashes.put(key(((Number) row.get("review_id")).longValue(), ((Number) row.get("provider_id")).intValue()),
+                        (String) row.get("content_hash"));
+            }
+            logger.info("Warmed review idempotency cache with {} content hashes", rows.size());
+        } catch (Exception e) {
+            logger.warn("Failed to warm review idempotency cache, continuing cold: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hash of the message as the consumer serializes it, so the check does not depend on producer headers
+     */
+    public String contentHash(ReviewMessage reviewMessage) {
+        try {
+            return ReviewKafkaHeaders.contentHash(objectMapper.writeValueAsString(reviewMessage));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize review message for hashing", e);
+        }
+    }
+
+    /**
+     * Return the keys of the given reviews whose stored hash equals the given hash, counting
+     * every review as either skipped or written
+     *
+     * @param hashes content hash by review key, see {@link #key(Long, Integer)}
+     */
+    public Collection<String> findUnchanged(Map<String, String> hashes) {
+        Map<String, String> stored = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String reviewKey : hashes.keySet()) {
+            String cached = recentHashes.get(reviewKey);
+            if (cached != null) {
+                stored.put(reviewKey, cached);
+            } else {
+                misses.add(reviewKey);
+            }
+        }
+        if (!misses.isEmpty()) {
+            cacheMissCounter.increment(misses.size());
+            stored.putAll(loadHashes(misses));
+        }
+
+        List<String> unchanged = new ArrayList<>();
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            if (entry.getValue().equals(stored.get(entry.getKey()))) {
+                unchanged.add(entry.getKey());
+            }
+        }
+        skippedCounter.increment(unchanged.size());
+        writtenCounter.increment(hashes.size() - unchanged.size());
+        return unchanged;
+    }
+
+    public boolean isUnchanged(Long reviewId, Integer providerId, String contentHash) {
+        return !findUnchanged(Map.of(key(reviewId, providerId), contentHash)).isEmpty();
+    }
+
+    /**
+     * Store hashes of reviews written in the current transaction; the cache follows on commit
+     */
+    public void remember(Map<String, String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(hashes.size());
+        hashes.forEach((reviewKey, hash) -> {
+            Map<String, Object> row = toRow(reviewKey);
+            row.put("content_hash", hash);
+            rows.add(row);
+        });
+        jdbcTemplate.update(UPSERT_HASHES_SQL, toJson(rows));
+
+        Map<String, String> committed = new HashMap<>(hashes);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentHashes.putAll(committed);
+                }
+            });
+        } else {
+            recentHashes.putAll(committed);
+        }
+    }
+
+    public void remember(Long reviewId, Integer providerId, String contentHash) {
+        remember(Map.of(key(reviewId, providerId), contentHash));
+    }
+
+    public double getSkipRatio() {
+        double checked = skippedCounter.count() + writtenCounter.count();
+        return checked > 0 ? skippedCounter.count() / checked : 0.0;
+    }
+
+    public static String key(Long reviewId, Integer providerId) {
+        return reviewId + ":" + providerId;
+    }
+
+    private Map<String, String> loadHashes(List<String> reviewKeys) {
+        List<Map<String, Object>> keys = new ArrayList<>(reviewKeys.size());
+        for (String reviewKey : reviewKeys) {
+            keys.add(toRow(reviewKey));
+        }
+        Map<String, String> hashes = new HashMap<>();
+        jdbcTemplate.query(SELECT_HASHES_SQL, rs -> {
+            hashes.put(key(rs.getLong("review_id"), rs.getInt("provider_id")), rs.getString("content_hash"));
+        }, toJson(keys));
+        return hashes;
+    }
+
+    private static Map<String, Object> toRow(String reviewKey) {
+        int separator = reviewKey.indexOf(':');
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("review_id", Long.parseLong(reviewKey.substring(0, separator)));
+        row.put("provider_id", Integer.parseInt(reviewKey.substring(separator + 1)));
+        return row;
+    }
+
+    private String toJson(List<Map<String, Object>> rows) {
+        try {
+            return objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize review keys", e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewMessage;
+import com.reviewconsumer.repository.LatestStateRepository;
+import com.reviewconsumer.repository.LatestStateRepository.OutboxEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the latest persisted state of every review to the log-compacted latest-state topic,
+ * keyed by review id and provider id, so a database can be rebuilt from the topic alone.
+ *
+ * States go through an outbox table: they are written in the transaction that persists the
+ * review, so a committed review always has its state on the way to the topic and a rolled back
+ * one never does, and the review's content hash is only remembered alongside it. After commit a
+ * relay sends the outbox to the topic and deletes what the broker acknowledged; whatever fails is
+ * retried on the next relay run. Kafka is never waited for inside a review transaction, and an
+ * unavailable topic only lets the outbox grow.
+ *
+ * One relay runs at a time across all consumer instances, holding a Postgres advisory lock, and
+ * sends the oldest states first, so the last state of a review is also the last one on the topic.
+ *
+ * The topic only counts as complete once Postgres marks it seeded (see LatestStateRepository);
+ * running with publishing disabled clears that mark.
+ */
+@Component
+public class ReviewLatestStatePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewLatestStatePublisher.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final LatestStateRepository latestStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    @Value("${review.consumer.latest-state.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kafka.topic.latest-state:review_latest_state}")
+    private String topic;
+
+    @Value("${review.consumer.latest-state.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${review.consumer.latest-state.relay-batch-size:500}")
+    private int relayBatchSize;
+
+    // One relay at a time in this instance; commits arriving meanwhile only queue one more run
+    private final ExecutorService relayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "latest-state-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean relayQueued = new AtomicBoolean();
+
+    public ReviewLatestStatePublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                                      LatestStateRepository latestStateRepository,
+                                      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.latestStateRepository = latestStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = Counter.builder("review_consumer_latest_state_records_total")
+            .description("Review states published to the latest-state topic")
+            .tag("outcome", "published")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("review_consumer_latest_state_records_total")
+            .description("Review states published to the latest-state topic")
+            .tag("outcome", "failed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Reviews written while publishing is disabled never reach the topic, so it is no longer complete
+     */
+    @PostConstruct
+    public void clearSeedIfDisabled() {
+        if (!enabled && latestStateRepository.clearSeeded(topic)) {
+            logger.warn("Latest-state publishing is disabled; {} is no longer complete and must be seeded again " +
+                    "before a rebuild", topic);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * Record key of a review on the latest-state topic
+     */
+    public static String key(Long reviewId, Integer providerId) {
+        return reviewId + ":" + providerId;
+    }
+
+    /**
+     * Publish a persisted review once the surrounding transaction commits
+     */
+    public void publish(ReviewMessage reviewMessage) {
+        publish(List.of(reviewMessage));
+    }
+
+    /**
+     * Write the states of persisted reviews to the outbox in the surrounding transaction, and relay
+     * them once it commits. The last state of a review written twice wins.
+     */
+    public void publish(Collection<ReviewMessage> reviewMessages) {
+        List<OutboxEntry> entries = toOutboxEntries(reviewMessages);
+        if (entries.isEmpty()) {
+            return;
+        }
+        latestStateRepository.upsertOutbox(entries);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    relay();
+                }
+            });
+        } else {
+            relay();
+        }
+    }
+
+    /**
+     * Write the states to the outbox on a connection whose transaction the caller commits; the
+     * caller then calls {@link #relay()}
+     */
+    public void publish(Connection connection, Collection<ReviewMessage> reviewMessages) throws SQLException {
+        latestStateRepository.upsertOutbox(connection, toOutboxEntries(reviewMessages));
+    }
+
+    /**
+     * Relay the outbox in the background; also runs on a schedule to retry failed sends
+     */
+    @Scheduled(fixedDelayString = "${review.consumer.latest-state.relay-interval-ms:1000}")
+    public void relay() {
+        if (enabled && relayQueued.compareAndSet(false, true)) {
+            relayExecutor.submit(this::relayOutbox);
+        }
+    }
+
+    private void relayOutbox() {
+        relayQueued.set(false);
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == relayBatchSize);
+        } catch (Exception e) {
+            logger.warn("Failed to relay latest states to {}: {}", topic, e.getMessage());
+        }
+    }
+
+    /**
+     * Send one batch of the outbox and delete what was acknowledged
+     *
+     * @return number of states acknowledged
+     */
+    private int relayBatch() {
+        if (!latestStateRepository.tryLockOutbox()) {
+            // Another instance is relaying
+            return 0;
+        }
+        List<OutboxEntry> acknowledged = send(latestStateRepository.findOutbox(relayBatchSize));
+        latestStateRepository.deleteOutbox(acknowledged);
+        return acknowledged.size();
+    }
+
+    /**
+     * Send states together, in order, and wait for them up to the send timeout
+     *
+     * @return the states the broker acknowledged
+     */
+    private List<OutboxEntry> send(List<OutboxEntry> entries) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(entries.size());
+        for (OutboxEntry entry : entries) {
+            sends.add(kafkaTemplate.send(topic, key(entry.getReviewId(), entry.getProviderId()), entry.getState()));
+        }
+
+        List<OutboxEntry> acknowledged = new ArrayList<>(entries.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (int i = 0; i < entries.size(); i++) {
+            OutboxEntry entry = entries.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                acknowledged.add(entry);
+                publishedCounter.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedCounter.increment(entries.size() - i);
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                failedCounter.increment();
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                logger.warn("Failed to publish latest state of review {}: {}",
+                        key(entry.getReviewId(), entry.getProviderId()), cause.toString());
+            }
+        }
+        return acknowledged;
+    }
+
+    private List<OutboxEntry> toOutboxEntries(Collection<ReviewMessage> reviewMessages) {
+        if (!enabled) {
+            return List.of();
+        }
+        Map<String, OutboxEntry> entries = new LinkedHashMap<>();
+        for (ReviewMessage reviewMessage : reviewMessages) {
+            ReviewMessage.ReviewComment comment = reviewMessage.getComment();
+            if (comment == null) {
+                continue;
+            }
+            String key = key(comment.getHotelReviewId(), comment.getProviderId());
+            // Re-inserted so the map keeps the order of the last states
+            entries.remove(key);
+            entries.put(key, new OutboxEntry(comment.getHotelReviewId(), comment.getProviderId(),
+                    toJson(key, reviewMessage)));
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    private String toJson(String key, ReviewMessage reviewMessage) {
+        try {
+            return objectMapper.writeValueAsString(reviewMessage);
+        } catch (JsonProcessingException e) {
+            failedCounter.increment();
+            throw new IllegalStateException("Failed to serialize latest state of review " + key, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdownNow();
+    }
+}
@@ -6,25 +6,45 @@ import com.reviewcore.model.EntityType;
 import com.reviewcore.model.EntityReview;
 import com.reviewcore.model.ReviewerInfo;
 import com.reviewcore.model.OverallProviderScore;
-import com.reviewconsumer.repository.*;
+import com.reviewconsumer.repository.ConsumerOffsetRepository;
+import com.reviewconsumer.repository.ReviewJdbcRepository;
+import com.reviewconsumer.repository.UpsertResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReviewProcessingService {
     
-    private final EntityRepository entityRepository;
-    private final EntityReviewRepository entityReviewRepository;
-    private final ReviewerInfoRepository reviewerInfoRepository;
-    private final OverallProviderScoreRepository overallProviderScoreRepository;
+    private final ReviewJdbcRepository reviewJdbcRepository;
+    private final MetricsService metricsService;
+    private final KnownEntityCache knownEntityCache;
+    private final ReviewIdempotencyStore reviewIdempotencyStore;
+    private final ReviewChangePublisher reviewChangePublisher;
+    private final ReviewLatestStatePublisher reviewLatestStatePublisher;
+    private final ConsumerOffsetRepository consumerOffsetRepository;
+    
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+    
+    // rows: one overall_provider_scores row per review; snapshots: distinct snapshots referenced by reviews
+    @Value("${review.consumer.provider-scores.storage:rows}")
+    private String providerScoreStorage;
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSXXX");
     
@@ -37,6 +57,18 @@ public class ReviewProcessingService {
             log.debug("Processing review message for hotelId: {}, platform: {}", 
                      reviewMessage.getHotelId(), reviewMessage.getPlatform());
             
+            // Step 0: Skip all writes when this exact review was already persisted
+            ReviewMessage.ReviewComment comment = reviewMessage.getComment();
+            String contentHash = null;
+            if (comment != null && reviewIdempotencyStore.isEnabled()) {
+                contentHash = reviewIdempotencyStore.contentHash(reviewMessage);
+                if (reviewIdempotencyStore.isUnchanged(comment.getHotelReviewId(), comment.getProviderId(), contentHash)) {
+                    log.debug("Skipping unchanged review ID: {} and provider ID: {}", 
+                             comment.getHotelReviewId(), comment.getProviderId());
+                    return;
+                }
+            }
+            
             // Extract entity type from hotelId
             EntityType entityType = EntityType.fromId("hotelId");
             
@@ -53,6 +85,14 @@ public class ReviewProcessingService {
                 processOverallProviderScores(reviewMessage.getOverallByProviders(), entity.getEntityId(), reviewMessage.getComment().getHotelReviewId(), reviewMessage.getComment().getProviderId());
             }
             
+            // Queued for the topic in this transaction, so a remembered hash always has its state on the way
+            reviewLatestStatePublisher.publish(reviewMessage);
+            if (contentHash != null) {
+                reviewIdempotencyStore.remember(comment.getHotelReviewId(), comment.getProviderId(), contentHash);
+            }
+            reviewChangePublisher.reviewChanged(entity.getEntityId(), reviewMessage.getPlatform(),
+                    comment != null ? comment.getHotelReviewId() : null, comment != null ? comment.getProviderId() : null);
+            
             log.debug("Successfully processed review message for entity: {}", entity.getEntityName());
             
         } catch (Exception e) {
@@ -62,27 +102,135 @@ public class ReviewProcessingService {
     }
     
     /**
-     * Find or create an entity (Step 1)
+     * Persist a whole poll of review messages in one transaction, one upsert statement per table.
+     * Rows are de-duplicated by primary key (last message wins, as with sequential saves) and
+     * written in key order so concurrent consumers lock rows in the same order.
+     * Any failure rolls back the whole batch; the caller then retries the records one by one.
+     * Reviews whose content is unchanged since they were last written are left out entirely.
      */
-    private ReviewEntity findOrCreateEntity(Integer hotelId, String entityName, EntityType entityType) {
-        // First try to find by entity_id (hotelId)
-        Optional<ReviewEntity> existingEntity = entityRepository.findById(hotelId);
+    @Transactional
+    public void processReviewBatch(List<ReviewMessage> reviewMessages) {
+        EntityType entityType = EntityType.fromId("hotelId");
         
-        if (existingEntity.isPresent()) {
-            log.debug("Found existing entity with ID: {} ({})", hotelId, entityName);
-            return existingEntity.get();
+        // Last message per review wins, as for the rows themselves
+        Map<String, String> contentHashes = new LinkedHashMap<>();
+        Set<String> unchangedReviews = Set.of();
+        if (reviewIdempotencyStore.isEnabled()) {
+            for (ReviewMessage reviewMessage : reviewMessages) {
+                ReviewMessage.ReviewComment comment = reviewMessage.getComment();
+                if (comment != null) {
+                    contentHashes.put(ReviewIdempotencyStore.key(comment.getHotelReviewId(), comment.getProviderId()), 
+                            reviewIdempotencyStore.contentHash(reviewMessage));
+                }
+            }
+            unchangedReviews = new HashSet<>(reviewIdempotencyStore.findUnchanged(contentHashes));
+            contentHashes.keySet().removeAll(unchangedReviews);
         }
         
-        // Create new entity with hotelId as entity_id
-        ReviewEntity newEntity = new ReviewEntity();
-        newEntity.setEntityId(hotelId);
-        newEntity.setEntityName(entityName);
-        newEntity.setEntityType(entityType);
+        Map<Integer, ReviewEntity> entities = new TreeMap<>();
+        Map<String, EntityReview> entityReviews = new TreeMap<>();
+        Map<String, ReviewerInfo> reviewerInfos = new TreeMap<>();
+        Map<String, OverallProviderScore> overallProviderScores = new TreeMap<>();
+        List<ReviewMessage> persistedReviews = new ArrayList<>();
+        
+        for (ReviewMessage reviewMessage : reviewMessages) {
+            ReviewMessage.ReviewComment comment = reviewMessage.getComment();
+            if (comment != null && unchangedReviews.contains(
+                    ReviewIdempotencyStore.key(comment.getHotelReviewId(), comment.getProviderId()))) {
+                continue;
+            }
+            Integer entityId = reviewMessage.getHotelId().intValue();
+            reviewChangePublisher.reviewChanged(entityId, reviewMessage.getPlatform(),
+                    comment != null ? comment.getHotelReviewId() : null, comment != null ? comment.getProviderId() : null);
+            if (!entities.containsKey(entityId) && !knownEntityCache.isKnown(entityId)) {
+                ReviewEntity entity = new ReviewEntity();
+                entity.setEntityId(entityId);
+                entity.setEntityName(reviewMessage.getHotelName());
+                entity.setEntityType(entityType);
+                entities.put(entityId, entity);
+            }
+            
+            if (comment == null) {
+                continue;
+            }
+            persistedReviews.add(reviewMessage);
+            String reviewKey = rowKey(comment.getHotelReviewId(), comment.getProviderId());
+            entityReviews.put(reviewKey, buildEntityReview(reviewMessage, entityId));
+            if (comment.getReviewerInfo() != null) {
+                reviewerInfos.put(reviewKey, 
+                        buildReviewerInfo(comment.getReviewerInfo(), comment.getHotelReviewId(), comment.getProviderId()));
+            }
+            if (reviewMessage.getOverallByProviders() != null) {
+                for (OverallProviderScore score : buildOverallProviderScores(reviewMessage.getOverallByProviders(), 
+                        entityId, comment.getHotelReviewId(), comment.getProviderId())) {
+                    overallProviderScores.put(rowKey(score.getId().getReviewId(), score.getId().getProviderId()), score);
+                }
+            }
+        }
         
-        ReviewEntity savedEntity = entityRepository.save(newEntity);
-        log.info("Created new entity: {} ({}) with ID: {}", entityName, entityType, savedEntity.getEntityId());
+        // Same order as the per-record path so foreign keys are always satisfied; cached entities are skipped
+        metricsService.recordUpsert("entities", 
+                reviewJdbcRepository.insertEntities(new ArrayList<>(entities.values())));
+        entities.keySet().forEach(knownEntityCache::markKnown);
+        metricsService.recordUpsert("entity_reviews", 
+                reviewJdbcRepository.upsertEntityReviews(new ArrayList<>(entityReviews.values())));
+        metricsService.recordUpsert("reviewer_info", 
+                reviewJdbcRepository.upsertReviewerInfos(new ArrayList<>(reviewerInfos.values())));
+        writeOverallProviderScores(new ArrayList<>(overallProviderScores.values()));
+        reviewLatestStatePublisher.publish(persistedReviews);
+        reviewIdempotencyStore.remember(contentHashes);
         
-        return savedEntity;
+        log.debug("Persisted batch of {} review messages - entities: {}, reviews: {}, reviewer info: {}, provider scores: {}, unchanged: {}", 
+                 reviewMessages.size(), entities.size(), entityReviews.size(), reviewerInfos.size(), 
+                 overallProviderScores.size(), unchangedReviews.size());
+    }
+    
+    /**
+     * Exactly-once mode: persist a poll together with the next offsets of its partitions, so the
+     * rows and the consumer position are committed or rolled back as one
+     */
+    @Transactional
+    public void processReviewBatch(List<ReviewMessage> reviewMessages, Map<TopicPartition, Long> nextOffsets) {
+        processReviewBatch(reviewMessages);
+        consumerOffsetRepository.storeOffsets(groupId, nextOffsets);
+    }
+    
+    @Transactional
+    public void processReviewMessage(ReviewMessage reviewMessage, Map<TopicPartition, Long> nextOffsets) {
+        processReviewMessage(reviewMessage);
+        consumerOffsetRepository.storeOffsets(groupId, nextOffsets);
+    }
+    
+    private static String rowKey(Long reviewId, Integer providerId) {
+        // Zero-padded so the TreeMap orders keys numerically
+        return String.format("%020d:%011d", reviewId, providerId);
+    }
+    
+    /**
+     * Find or create an entity (Step 1). Conflict-safe, so concurrent consumers creating the
+     * same entity do not fail on a duplicate key; known entities are served from the cache.
+     */
+    private ReviewEntity findOrCreateEntity(Integer hotelId, String entityName, EntityType entityType) {
+        ReviewEntity entity = new ReviewEntity();
+        entity.setEntityId(hotelId);
+        entity.setEntityName(entityName);
+        entity.setEntityType(entityType);
+        
+        // Entities almost never change, so a cached id skips the database round trip entirely
+        if (knownEntityCache.isKnown(hotelId)) {
+            log.debug("Entity with ID: {} ({}) found in cache", hotelId, entityName);
+            return entity;
+        }
+        
+        UpsertResult result = reviewJdbcRepository.insertEntities(List.of(entity));
+        metricsService.recordUpsert("entities", result);
+        knownEntityCache.markKnown(hotelId);
+        if (result.getInserted() > 0) {
+            log.info("Created new entity: {} ({}) with ID: {}", entityName, entityType, hotelId);
+        } else {
+            log.debug("Found existing entity with ID: {} ({})", hotelId, entityName);
+        }
+        return entity;
     }
     
     /**
@@ -91,14 +239,28 @@ public class ReviewProcessingService {
     private void processReview(ReviewMessage reviewMessage, ReviewEntity entity) {
         ReviewMessage.ReviewComment comment = reviewMessage.getComment();
         
-        // Step 2a: Create and save entity review with composite primary key
+        // Step 2a: Upsert entity review with composite primary key
+        EntityReview entityReview = buildEntityReview(reviewMessage, entity.getEntityId());
+        UpsertResult result = reviewJdbcRepository.upsertEntityReviews(List.of(entityReview));
+        metricsService.recordUpsert("entity_reviews", result);
+        log.debug("Upserted entity review with ID: {} and provider ID: {} ({})", 
+                 entityReview.getId().getReviewId(), entityReview.getId().getProviderId(), result);
+        
+        // Step 2b: Process reviewer info (after entity review is saved)
+        if (comment.getReviewerInfo() != null) {
+            processReviewerInfo(comment.getReviewerInfo(), comment.getHotelReviewId(), comment.getProviderId());
+        }
+    }
+    
+    EntityReview buildEntityReview(ReviewMessage reviewMessage, Integer entityId) {
+        ReviewMessage.ReviewComment comment = reviewMessage.getComment();
         EntityReview entityReview = new EntityReview();
         EntityReview.EntityReviewId reviewId = new EntityReview.EntityReviewId();
         reviewId.setReviewId(comment.getHotelReviewId());
         reviewId.setProviderId(comment.getProviderId());
         entityReview.setId(reviewId);
         
-        entityReview.setEntityId(entity.getEntityId());
+        entityReview.setEntityId(entityId);
         entityReview.setPlatform(reviewMessage.getPlatform());
         entityReview.setRating(comment.getRating());
         entityReview.setRatingText(comment.getRatingText());
@@ -116,22 +278,20 @@ public class ReviewProcessingService {
         entityReview.setEncryptedReviewData(comment.getEncryptedReviewData());
         entityReview.setOriginalTitle(comment.getOriginalTitle());
         entityReview.setOriginalComment(comment.getOriginalComment());
-        
-        // Save entity review first
-        EntityReview savedEntityReview = entityReviewRepository.save(entityReview);
-        log.debug("Saved entity review with ID: {} and provider ID: {}", 
-                 savedEntityReview.getId().getReviewId(), savedEntityReview.getId().getProviderId());
-        
-        // Step 2b: Process reviewer info (after entity review is saved)
-        if (comment.getReviewerInfo() != null) {
-            processReviewerInfo(comment.getReviewerInfo(), comment.getHotelReviewId(), comment.getProviderId());
-        }
+        return entityReview;
     }
     
     /**
      * Process reviewer information (Step 2b - after entity review is saved)
      */
     private void processReviewerInfo(ReviewMessage.ReviewerInfoDto reviewerInfoDto, Long reviewId, Integer providerId) {
+        UpsertResult result = reviewJdbcRepository.upsertReviewerInfos(
+                List.of(buildReviewerInfo(reviewerInfoDto, reviewId, providerId)));
+        metricsService.recordUpsert("reviewer_info", result);
+        log.debug("Upserted reviewer info for review ID: {} ({})", reviewId, result);
+    }
+    
+    ReviewerInfo buildReviewerInfo(ReviewMessage.ReviewerInfoDto reviewerInfoDto, Long reviewId, Integer providerId) {
         ReviewerInfo reviewerInfo = new ReviewerInfo();
         ReviewerInfo.ReviewerInfoId infoId = new ReviewerInfo.ReviewerInfoId();
         infoId.setReviewId(reviewId);
@@ -150,17 +310,48 @@ public class ReviewProcessingService {
         reviewerInfo.setIsExpertReviewer(reviewerInfoDto.getIsExpertReviewer());
         reviewerInfo.setIsShowGlobalIcon(reviewerInfoDto.getIsShowGlobalIcon());
         reviewerInfo.setIsShowReviewedCount(reviewerInfoDto.getIsShowReviewedCount());
-        
-        reviewerInfoRepository.save(reviewerInfo);
-        log.debug("Saved reviewer info for review ID: {}", reviewId);
+        return reviewerInfo;
     }
     
     /**
      * Process overall provider scores (Step 3 - after entity review is saved)
      */
-    private void processOverallProviderScores(java.util.List<ReviewMessage.OverallProvider> providers, Integer entityId, Long reviewId, Integer reviewProviderId) {
+    private void processOverallProviderScores(List<ReviewMessage.OverallProvider> providers, Integer entityId, Long reviewId, Integer reviewProviderId) {
         log.debug("Processing overall provider scores for entity: {}, review: {}, review provider: {}", entityId, reviewId, reviewProviderId);
         
+        // All scores of a review share its key, so only the last one is stored (as with sequential saves)
+        List<OverallProviderScore> scores = buildOverallProviderScores(providers, entityId, reviewId, reviewProviderId);
+        if (scores.isEmpty()) {
+            return;
+        }
+        UpsertResult result = writeOverallProviderScores(List.of(scores.get(scores.size() - 1)));
+        
+        log.debug("Completed processing overall provider scores for entity: {}, review: {} ({})", entityId, reviewId, result);
+    }
+    
+    /**
+     * Write provider scores in the configured storage mode. In snapshot mode the hotel-level
+     * snapshot shared by many reviews is stored once and each review only references it.
+     */
+    private UpsertResult writeOverallProviderScores(List<OverallProviderScore> scores) {
+        if (!isSnapshotStorage()) {
+            UpsertResult result = reviewJdbcRepository.upsertOverallProviderScores(scores);
+            metricsService.recordUpsert("overall_provider_scores", result);
+            return result;
+        }
+        metricsService.recordUpsert("provider_score_snapshots", reviewJdbcRepository.insertProviderScoreSnapshots(scores));
+        UpsertResult result = reviewJdbcRepository.upsertReviewProviderScores(scores);
+        metricsService.recordUpsert("review_provider_scores", result);
+        return result;
+    }
+    
+    boolean isSnapshotStorage() {
+        return "snapshots".equalsIgnoreCase(providerScoreStorage);
+    }
+    
+    List<OverallProviderScore> buildOverallProviderScores(List<ReviewMessage.OverallProvider> providers, 
+                                                                  Integer entityId, Long reviewId, Integer reviewProviderId) {
+        List<OverallProviderScore> scores = new ArrayList<>();
         for (ReviewMessage.OverallProvider provider : providers) {
             OverallProviderScore.OverallProviderScoreId scoreId = new OverallProviderScore.OverallProviderScoreId();
             // Use the review's provider_id, not the overall provider's provider_id
@@ -183,12 +374,9 @@ public class ReviewProcessingService {
                 score.setValueForMoney(provider.getGrades().getValueForMoney());
             }
             
-            OverallProviderScore savedScore = overallProviderScoreRepository.save(score);
-            log.debug("Saved overall provider score for entity: {}, provider: {}, review: {}, using review provider_id: {}", 
-                     entityId, provider.getProvider(), reviewId, reviewProviderId);
+            scores.add(score);
         }
-        
-        log.debug("Completed processing overall provider scores for entity: {}, review: {}", entityId, reviewId);
+        return scores;
     }
     
     /**
@@ -0,0 +1,112 @@
+package com.reviewconsumer.service;
+
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Drops review records using only their Kafka headers, before the payload is deserialized.
+ *
+ * Records are discarded when their platform is not in the configured allow-list, or when
+ * the same review (review id + provider id) was already processed with an identical content
+ * hash. Records without headers always pass, so older producers keep working.
+ */
+@Component
+public class ReviewRecordFilter implements RecordFilterStrategy<String, String> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewRecordFilter.class);
+
+    private final Set<String> allowedPlatforms;
+    private final Map<String, String> recentContentHashes;
+    private final Counter platformFilteredCounter;
+    private final Counter duplicateFilteredCounter;
+
+    public ReviewRecordFilter(MeterRegistry meterRegistry,
+                              @Value("${kafka.consumer.filter.platforms:}") String platforms,
+                              @Value("${kafka.consumer.filter.dedup-cache-size:100000}") int dedupCacheSize) {
+        this.allowedPlatforms = Arrays.stream(platforms.split(","))
+                .map(String::trim)
+                .filter(platform -> !platform.isEmpty())
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+        this.recentContentHashes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > dedupCacheSize;
+            }
+        });
+        this.platformFilteredCounter = Counter.builder("review_consumer_filtered_records_total")
+            .description("Records discarded from headers before deserialization")
+            .tag("reason", "platform")
+            .register(meterRegistry);
+        this.duplicateFilteredCounter = Counter.builder("review_consumer_filtered_records_total")
+            .description("Records discarded from headers before deserialization")
+            .tag("reason", "unchanged")
+            .register(meterRegistry);
+
+        logger.info("Review record filter configured - platforms: {}, dedup cache size: {}",
+                allowedPlatforms.isEmpty() ? "all" : allowedPlatforms, dedupCacheSize);
+    }
+
+    /**
+     * @return true to discard the record
+     */
+    @Override
+    public boolean filter(ConsumerRecord<String, String> record) {
+        String platform = header(record, ReviewKafkaHeaders.PLATFORM);
+        if (!allowedPlatforms.isEmpty() && platform != null && !allowedPlatforms.contains(platform.toLowerCase())) {
+            platformFilteredCounter.increment();
+            logger.debug("Skipping record for platform {} at offset {}", platform, record.offset());
+            return true;
+        }
+
+        String reviewKey = reviewKey(record);
+        String contentHash = header(record, ReviewKafkaHeaders.CONTENT_HASH);
+        if (reviewKey != null && contentHash != null && contentHash.equals(recentContentHashes.get(reviewKey))) {
+            duplicateFilteredCounter.increment();
+            logger.debug("Skipping unchanged review {} at offset {}", reviewKey, record.offset());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remember the content hash of a successfully processed record so identical redeliveries are skipped
+     */
+    public void remember(ConsumerRecord<String, String> record) {
+        String reviewKey = reviewKey(record);
+        String contentHash = header(record, ReviewKafkaHeaders.CONTENT_HASH);
+        if (reviewKey != null && contentHash != null) {
+            recentContentHashes.put(reviewKey, contentHash);
+        }
+    }
+
+    private String reviewKey(ConsumerRecord<String, String> record) {
+        // Bad and DLQ records carry a validation reason and are never deduplicated
+        if (header(record, ReviewKafkaHeaders.VALIDATION_REASON) != null) {
+            return null;
+        }
+        String reviewId = header(record, ReviewKafkaHeaders.REVIEW_ID);
+        String providerId = header(record, ReviewKafkaHeaders.PROVIDER_ID);
+        return reviewId != null && providerId != null ? reviewId + ":" + providerId : null;
+    }
+
+    private String header(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? ReviewKafkaHeaders.decodeString(header.value()) : null;
+    }
+}
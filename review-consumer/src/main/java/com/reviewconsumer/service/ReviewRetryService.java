@@ -0,0 +1,230 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks records that failed processing on a chain of delayed retry topics instead of dropping
+ * them, so the main partitions keep moving while a transient failure (e.g. a database outage)
+ * clears up.
+ *
+ * Every source topic gets one retry topic per configured delay ({@code <topic>-retry-<delay>})
+ * and a terminal {@code <topic>-dlt}. Each failure moves the record one tier further; records
+ * that can never succeed (unparseable payloads) go straight to the DLT. The attempt number,
+ * source topic, due time and last error travel in headers, next to the producer's headers.
+ */
+@Service
+public class ReviewRetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewRetryService.class);
+
+    private static final Set<String> RETRY_HEADERS = Set.of(
+            ReviewKafkaHeaders.RETRY_ATTEMPT,
+            ReviewKafkaHeaders.RETRY_ORIGINAL_TOPIC,
+            ReviewKafkaHeaders.RETRY_DUE_TIMESTAMP,
+            ReviewKafkaHeaders.RETRY_REASON);
+
+    // ReviewConsumerService declares one retry listener per tier
+    static final int MAX_TIERS = 3;
+
+    // Keep the reason header small; the full stack trace is in the consumer log
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final KafkaTemplate<String, String> retryKafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final List<String> sourceTopics;
+    private final List<String> tierLabels = new ArrayList<>();
+    private final List<Duration> tierDelays = new ArrayList<>();
+    private final long sendTimeoutMs;
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ReviewRetryService(KafkaTemplate<String, String> retryKafkaTemplate, MeterRegistry meterRegistry,
+                              @Value("${kafka.topic.reviews}") String reviewsTopic,
+                              @Value("${kafka.topic.reviews-bulk}") String bulkReviewsTopic,
+                              @Value("${kafka.topic.bad-reviews}") String badReviewsTopic,
+                              @Value("${kafka.consumer.retry.delays:10s,1m,10m}") String delays,
+                              @Value("${kafka.consumer.retry.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.retryKafkaTemplate = retryKafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.sourceTopics = List.of(reviewsTopic, bulkReviewsTopic, badReviewsTopic);
+        this.sendTimeoutMs = sendTimeoutMs;
+        Arrays.stream(delays.split(","))
+                .map(String::trim)
+                .filter(delay -> !delay.isEmpty())
+                .forEach(delay -> {
+                    tierLabels.add(delay);
+                    tierDelays.add(DurationStyle.detectAndParse(delay));
+                });
+        if (tierDelays.isEmpty() || tierDelays.size() > MAX_TIERS) {
+            throw new IllegalArgumentException("kafka.consumer.retry.delays must list 1 to " + MAX_TIERS +
+                    " delays, got: " + delays);
+        }
+
+        logger.info("Review retry chain configured - tiers: {}, source topics: {}", tierLabels, sourceTopics);
+    }
+
+    public int getTierCount() {
+        return tierDelays.size();
+    }
+
+    public Duration getTierDelay(int tier) {
+        return tierDelays.get(tier);
+    }
+
+    /**
+     * Retry topics of one tier, for all source topics; used by the retry listeners
+     */
+    public String[] getRetryTopics(int tier) {
+        return sourceTopics.stream().map(topic -> retryTopic(topic, tier)).toArray(String[]::new);
+    }
+
+    public List<String> getAllRetryTopics() {
+        List<String> topics = new ArrayList<>();
+        for (int tier = 0; tier < tierDelays.size(); tier++) {
+            topics.addAll(Arrays.asList(getRetryTopics(tier)));
+        }
+        return topics;
+    }
+
+    public List<String> getDeadLetterTopics() {
+        return sourceTopics.stream().map(this::deadLetterTopic).toList();
+    }
+
+    public String retryTopic(String sourceTopic, int tier) {
+        return sourceTopic + "-retry-" + tierLabels.get(tier);
+    }
+
+    public String deadLetterTopic(String sourceTopic) {
+        return sourceTopic + "-dlt";
+    }
+
+    /**
+     * Topic the record was first consumed from, before any retry hops
+     */
+    public String getOriginalTopic(ConsumerRecord<String, String> record) {
+        String originalTopic = header(record, ReviewKafkaHeaders.RETRY_ORIGINAL_TOPIC);
+        return originalTopic != null ? originalTopic : record.topic();
+    }
+
+    public int getAttempt(ConsumerRecord<String, String> record) {
+        String attempt = header(record, ReviewKafkaHeaders.RETRY_ATTEMPT);
+        return attempt != null ? Integer.parseInt(attempt) : 0;
+    }
+
+    /**
+     * Milliseconds until a retry record is due; zero or negative once it may be processed
+     */
+    public long getRemainingDelayMs(ConsumerRecord<String, String> record) {
+        String dueTimestamp = header(record, ReviewKafkaHeaders.RETRY_DUE_TIMESTAMP);
+        return dueTimestamp != null ? Long.parseLong(dueTimestamp) - System.currentTimeMillis() : 0;
+    }
+
+    /**
+     * Publish a failed record to its next retry tier, or to the DLT once the tiers are used up.
+     * The send is synchronous: if it fails the exception propagates, so the caller does not
+     * acknowledge a record that was never parked anywhere.
+     */
+    public void scheduleRetry(ConsumerRecord<String, String> record, Exception error) {
+        String originalTopic = getOriginalTopic(record);
+        int attempt = getAttempt(record) + 1;
+        boolean retryable = isRetryable(error);
+        boolean deadLetter = !retryable || attempt > tierDelays.size();
+        int tier = attempt - 1;
+        String targetTopic = deadLetter ? deadLetterTopic(originalTopic) : retryTopic(originalTopic, tier);
+        long dueTimestamp = deadLetter ? System.currentTimeMillis()
+                : System.currentTimeMillis() + tierDelays.get(tier).toMillis();
+
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!RETRY_HEADERS.contains(header.key())) {
+                headers.add(header);
+            }
+        }
+        headers.add(ReviewKafkaHeaders.RETRY_ATTEMPT, ReviewKafkaHeaders.encode(attempt));
+        headers.add(ReviewKafkaHeaders.RETRY_ORIGINAL_TOPIC, ReviewKafkaHeaders.encode(originalTopic));
+        headers.add(ReviewKafkaHeaders.RETRY_DUE_TIMESTAMP, ReviewKafkaHeaders.encode(dueTimestamp));
+        headers.add(ReviewKafkaHeaders.RETRY_REASON, ReviewKafkaHeaders.encode(reason(error)));
+
+        try {
+            retryKafkaTemplate.send(new ProducerRecord<>(targetTopic, null, record.key(), record.value(), headers))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            counter(deadLetter ? "dlt" : tierLabels.get(tier), "publish_failed").increment();
+            throw new IllegalStateException("Failed to publish record from " + record.topic() + "-" +
+                    record.partition() + "@" + record.offset() + " to " + targetTopic, e);
+        }
+
+        if (deadLetter) {
+            counter("dlt", retryable ? "exhausted" : "not_retryable").increment();
+            logger.warn("Sent record from {}-{}@{} to dead letter topic {} after {} attempt(s): {}",
+                    record.topic(), record.partition(), record.offset(), targetTopic, attempt, reason(error));
+        } else {
+            counter(tierLabels.get(tier), "scheduled").increment();
+            logger.info("Scheduled retry {} of record from {}-{}@{} on {} in {}",
+                    attempt, record.topic(), record.partition(), record.offset(), targetTopic, tierDelays.get(tier));
+        }
+    }
+
+    /**
+     * Count the result of processing a record taken off a retry tier
+     */
+    public void recordRetryResult(ConsumerRecord<String, String> record, boolean succeeded) {
+        int tier = getAttempt(record) - 1;
+        String label = tier >= 0 && tier < tierLabels.size() ? tierLabels.get(tier) : "unknown";
+        counter(label, succeeded ? "succeeded" : "failed").increment();
+    }
+
+    /**
+     * Payloads that cannot be parsed fail the same way on every attempt
+     */
+    private boolean isRetryable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonProcessingException) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Counter counter(String tier, String outcome) {
+        return counters.computeIfAbsent(tier + ":" + outcome, key -> Counter.builder("review_consumer_retry_records_total")
+                .description("Failed records moved through the retry tiers and dead letter topics")
+                .tag("tier", tier)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String reason(Throwable error) {
+        String reason = error.getClass().getSimpleName() + ": " + error.getMessage();
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header != null ? ReviewKafkaHeaders.decodeString(header.value()) : null;
+    }
+}
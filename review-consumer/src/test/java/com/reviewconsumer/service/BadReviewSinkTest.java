@@ -0,0 +1,170 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewconsumer.repository.ReviewJdbcRepository;
+import com.reviewconsumer.repository.UpsertResult;
+import com.reviewcore.model.BadReviewRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BadReviewSinkTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingRepository repository = new RecordingRepository();
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private final RecordingChangePublisher changePublisher = new RecordingChangePublisher(meterRegistry);
+    private BadReviewSink sink;
+
+    @AfterEach
+    void tearDown() {
+        if (sink != null) {
+            sink.shutdown();
+        }
+    }
+
+    @Test
+    void testFullBatchIsWrittenInOneTransactionInKeyOrder() throws Exception {
+        sink = newSink(3, 60000);
+
+        CompletableFuture<Void> third = sink.submit(badReview(3L, 1, "first"));
+        CompletableFuture<Void> first = sink.submit(badReview(1L, 1, "first"));
+        CompletableFuture<Void> duplicate = sink.submit(badReview(3L, 1, "second"));
+        CompletableFuture.allOf(third, first, duplicate).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, repository.writes.size());
+        List<BadReviewRecord> written = repository.writes.get(0);
+        assertEquals(List.of(1L, 3L), written.stream().map(record -> record.getId().getReviewId()).toList());
+        // The last record per key wins
+        assertEquals("second", written.get(1).getReason());
+        assertEquals(1, transactionManager.commits.get());
+        assertEquals(2, changePublisher.changes.size());
+    }
+
+    @Test
+    void testPartialBatchIsFlushedAfterMaxWait() throws Exception {
+        sink = newSink(100, 200);
+
+        long startMs = System.currentTimeMillis();
+        sink.submit(badReview(1L, 1, "invalid rating")).get(5, TimeUnit.SECONDS);
+
+        assertTrue(System.currentTimeMillis() - startMs >= 200);
+        assertEquals(1, repository.writes.size());
+        assertEquals(1, repository.writes.get(0).size());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedOneRecordAtATime() throws Exception {
+        sink = newSink(3, 60000);
+        repository.failBatches = true;
+        repository.failingReviewId = 2L;
+
+        CompletableFuture<Void> first = sink.submit(badReview(1L, 1, "invalid rating"));
+        CompletableFuture<Void> failing = sink.submit(badReview(2L, 1, "invalid rating"));
+        CompletableFuture<Void> third = sink.submit(badReview(3L, 1, "invalid rating"));
+
+        first.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalStateException);
+        // Counters are bumped after the futures complete; shutting down waits for the flusher
+        sink.shutdown();
+        assertEquals(2, transactionManager.commits.get());
+        assertEquals(2, transactionManager.rollbacks.get());
+        assertEquals(2.0, meterRegistry.get("review_consumer_bad_record_sink_records_total")
+                .tag("outcome", "flushed").counter().count());
+        assertEquals(1.0, meterRegistry.get("review_consumer_bad_record_sink_records_total")
+                .tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void testShutdownFlushesBufferedRecordsAndRejectsNewOnes() throws Exception {
+        sink = newSink(100, 1000);
+
+        CompletableFuture<Void> first = sink.submit(badReview(1L, 1, "invalid rating"));
+        CompletableFuture<Void> second = sink.submit(badReview(2L, 1, "invalid rating"));
+        sink.shutdown();
+
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        assertEquals(0, sink.getQueuedRecords());
+        assertThrows(IllegalStateException.class, () -> sink.submit(badReview(3L, 1, "invalid rating")));
+    }
+
+    private BadReviewSink newSink(int batchSize, long maxWaitMs) {
+        return new BadReviewSink(repository, new MetricsService(meterRegistry), changePublisher, transactionManager,
+                meterRegistry, batchSize, maxWaitMs, 100, 5000);
+    }
+
+    private static BadReviewRecord badReview(Long reviewId, Integer providerId, String reason) {
+        return new BadReviewRecord(reviewId, providerId, "{\"hotelId\":1}", "Agoda", reason);
+    }
+
+    private static class RecordingRepository extends ReviewJdbcRepository {
+        final List<List<BadReviewRecord>> writes = new CopyOnWriteArrayList<>();
+        volatile boolean failBatches;
+        volatile Long failingReviewId;
+
+        RecordingRepository() {
+            super(null, new ObjectMapper(), 500);
+        }
+
+        @Override
+        public UpsertResult upsertBadReviewRecords(List<BadReviewRecord> records) {
+            if (failBatches && records.size() > 1) {
+                throw new IllegalStateException("batch rejected");
+            }
+            if (records.stream().anyMatch(record -> record.getId().getReviewId().equals(failingReviewId))) {
+                throw new IllegalStateException("record rejected");
+            }
+            writes.add(List.copyOf(records));
+            return new UpsertResult(records.size(), 0, 0);
+        }
+    }
+
+    private static class RecordingChangePublisher extends ReviewChangePublisher {
+        final List<Long> changes = new CopyOnWriteArrayList<>();
+
+        RecordingChangePublisher(SimpleMeterRegistry meterRegistry) {
+            super(null, new ObjectMapper(), meterRegistry);
+        }
+
+        @Override
+        public void badReviewChanged(String platform, String reason, Long reviewId, Integer providerId) {
+            changes.add(reviewId);
+        }
+    }
+
+    private static class CountingTransactionManager implements PlatformTransactionManager {
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.reviewconsumer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkLoadServiceTest {
+
+    @Test
+    void testTextIsQuotedWithEmbeddedQuotesDoubled() {
+        StringBuilder out = new StringBuilder();
+        BulkLoadService.appendCsv(out, 1L, "Said \"great\", would return", "two\nlines");
+
+        assertEquals("1,\"Said \"\"great\"\", would return\",\"two\nlines\"\n", out.toString());
+    }
+
+    @Test
+    void testNullIsAnUnquotedEmptyFieldAndEmptyTextStaysQuoted() {
+        StringBuilder out = new StringBuilder();
+        BulkLoadService.appendCsv(out, 1L, null, "", null);
+
+        // COPY reads an unquoted empty field as NULL and a quoted one as an empty string
+        assertEquals("1,,\"\",\n", out.toString());
+    }
+
+    @Test
+    void testNonTextValuesAreWrittenAsIs() {
+        StringBuilder out = new StringBuilder();
+        BulkLoadService.appendCsv(out, 7L, 42, new BigDecimal("8.5"), true,
+                LocalDateTime.of(2024, 5, 1, 10, 30));
+        BulkLoadService.appendCsv(out, 8L);
+
+        assertEquals("7,42,8.5,true,2024-05-01T10:30\n8\n", out.toString());
+    }
+
+    @Test
+    void testMergeSqlKeepsLastStagedRowPerKeyAndSkipsUnchangedRows() {
+        String sql = BulkLoadService.buildMergeSql("reviewer_info", List.of("review_id", "provider_id"),
+                List.of("country_id", "country_name"));
+
+        assertEquals("INSERT INTO reviewer_info AS t (review_id, provider_id, country_id, country_name) " +
+                "SELECT DISTINCT ON (review_id, provider_id) review_id, provider_id, country_id, country_name " +
+                "FROM bulk_reviewer_info ORDER BY review_id, provider_id, seq DESC " +
+                "ON CONFLICT (review_id, provider_id) DO UPDATE SET " +
+                "country_id = EXCLUDED.country_id, country_name = EXCLUDED.country_name " +
+                "WHERE (t.country_id, t.country_name) IS DISTINCT FROM (EXCLUDED.country_id, EXCLUDED.country_name)",
+                sql);
+    }
+}
@@ -0,0 +1,180 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewconsumer.repository.DlqRecordRepository;
+import com.reviewconsumer.repository.DlqRecordRepository.DlqFilter;
+import com.reviewconsumer.repository.DlqRecordRepository.DlqRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DlqServiceTest {
+
+    private InMemoryDlqRecordRepository repository;
+    private RefailingKafkaTemplate kafkaTemplate;
+    private DlqService dlqService;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryDlqRecordRepository();
+        kafkaTemplate = new RefailingKafkaTemplate(repository);
+        dlqService = new DlqService(repository, kafkaTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dlqService, "replayTopic", "dlq_replay");
+        ReflectionTestUtils.setField(dlqService, "defaultReplayRate", 10000.0);
+        ReflectionTestUtils.setField(dlqService, "maxReplayRecords", 100);
+        ReflectionTestUtils.setField(dlqService, "sendTimeoutMs", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dlqService.shutdown();
+    }
+
+    @Test
+    void testReplayedLineThatFailsAgainIsNotReplayedAgain() throws Exception {
+        Instant received = Instant.now().minus(1, ChronoUnit.HOURS);
+        repository.add(record(received, 0, 1, "{\"line\":1}"));
+        repository.add(record(received, 0, 2, "{\"line\":2}"));
+
+        DlqService.ReplayJob job = dlqService.submitReplay(new DlqFilter(null, null, null, null), null);
+        awaitFinished(job);
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(2, job.getRecordsReplayed());
+        assertEquals(List.of("{\"line\":1}", "{\"line\":2}"), kafkaTemplate.sent);
+        // Both lines failed again and are stored, waiting for the next replay
+        assertEquals(4, repository.records.size());
+    }
+
+    @Test
+    void testReplayKeepsAnEarlierUpperBound() throws Exception {
+        Instant received = Instant.now().minus(1, ChronoUnit.HOURS);
+        repository.add(record(received, 0, 1, "{\"line\":1}"));
+        repository.add(record(received.plusSeconds(60), 0, 2, "{\"line\":2}"));
+
+        DlqService.ReplayJob job = dlqService.submitReplay(
+                new DlqFilter(null, null, null, received.plusSeconds(30)), null);
+        awaitFinished(job);
+
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(List.of("{\"line\":1}"), kafkaTemplate.sent);
+    }
+
+    @Test
+    void testReplayRejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> dlqService.submitReplay(new DlqFilter(null, null, null, null), 0.0));
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        DlqRecord record = record(Instant.ofEpochMilli(1700000000123L), 3, 42, "{}");
+
+        DlqRecord position = DlqService.decodeCursor(DlqService.encodeCursor(record));
+
+        assertEquals(record.getReceivedAt(), position.getReceivedAt());
+        assertEquals(3, position.getKafkaPartition());
+        assertEquals(42, position.getKafkaOffset());
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DlqService.decodeCursor("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> DlqService.decodeCursor("MXwy"));
+        assertThrows(IllegalArgumentException.class, () -> DlqService.decodeCursor("YXwxfDI"));
+    }
+
+    private static void awaitFinished(DlqService.ReplayJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(job.getFinishedAt(), "replay did not finish");
+    }
+
+    private static DlqRecord record(Instant receivedAt, int partition, long offset, String originalJson) {
+        DlqRecord record = new DlqRecord();
+        record.setReceivedAt(receivedAt);
+        record.setKafkaPartition(partition);
+        record.setKafkaOffset(offset);
+        record.setReason("MISSING_REVIEW_ID");
+        record.setOriginalJson(originalJson);
+        return record;
+    }
+
+    /**
+     * dlq_records in memory, queried in key order like the table
+     */
+    private static class InMemoryDlqRecordRepository extends DlqRecordRepository {
+        private static final Comparator<DlqRecord> KEY_ORDER = Comparator.comparing(DlqRecord::getReceivedAt)
+                .thenComparingInt(DlqRecord::getKafkaPartition)
+                .thenComparingLong(DlqRecord::getKafkaOffset);
+
+        final List<DlqRecord> records = new CopyOnWriteArrayList<>();
+
+        InMemoryDlqRecordRepository() {
+            super(null, new ObjectMapper());
+        }
+
+        void add(DlqRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public List<DlqRecord> findReplayBatch(DlqFilter filter, DlqRecord after, int limit) {
+            List<DlqRecord> batch = new ArrayList<>();
+            records.stream()
+                    .filter(record -> filter.getFrom() == null || !record.getReceivedAt().isBefore(filter.getFrom()))
+                    .filter(record -> filter.getTo() == null || record.getReceivedAt().isBefore(filter.getTo()))
+                    .filter(record -> after == null || KEY_ORDER.compare(record, after) > 0)
+                    .sorted(KEY_ORDER)
+                    .limit(limit)
+                    .forEach(batch::add);
+            return batch;
+        }
+
+        @Override
+        public void markReplayed(List<DlqRecord> batch) {
+            batch.forEach(record -> record.setReplayCount(record.getReplayCount() + 1));
+        }
+    }
+
+    /**
+     * Stands in for the producer: every replayed line fails validation again and lands back in
+     * the DLQ as a new record
+     */
+    private static class RefailingKafkaTemplate extends KafkaTemplate<String, String> {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        private final InMemoryDlqRecordRepository repository;
+        private long nextOffset = 1000;
+
+        RefailingKafkaTemplate(InMemoryDlqRecordRepository repository) {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+            this.repository = repository;
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, String>> send(ProducerRecord<String, String> record) {
+            sent.add(record.value());
+            repository.add(record(Instant.now(), 0, nextOffset++, record.value()));
+            return CompletableFuture.completedFuture(new SendResult<>(record, null));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.reviewconsumer.service;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyOrderedExecutorTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("reviews", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("reviews", 1);
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private KeyOrderedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdown(5000);
+        }
+    }
+
+    @Test
+    void testTasksWithSameKeyRunInSubmissionOrder() throws Exception {
+        executor = new KeyOrderedExecutor("test", 4, 200);
+        List<Integer> hotelOne = new CopyOnWriteArrayList<>();
+        List<Integer> hotelTwo = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            int sequence = i;
+            assertTrue(executor.offer("hotel-1", PARTITION_0, () -> hotelOne.add(sequence), 1000));
+            assertTrue(executor.offer("hotel-2", PARTITION_1, () -> hotelTwo.add(sequence), 1000));
+        }
+        executor.shutdown(5000);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, hotelOne);
+        assertEquals(expected, hotelTwo);
+    }
+
+    @Test
+    void testDiscardDropsOnlyQueuedTasksOfRevokedPartitions() throws Exception {
+        executor = new KeyOrderedExecutor("test", 1, 10);
+        List<String> ran = new CopyOnWriteArrayList<>();
+        executor.offer("hotel-1", PARTITION_0, this::block, 1000);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        executor.offer("hotel-1", PARTITION_0, () -> ran.add("revoked-1"), 1000);
+        executor.offer("hotel-2", PARTITION_1, () -> ran.add("kept"), 1000);
+        executor.offer("hotel-1", PARTITION_0, () -> ran.add("revoked-2"), 1000);
+
+        assertEquals(2, executor.discard(List.of(PARTITION_0)));
+        assertEquals(1, executor.getQueuedTasks());
+
+        release.countDown();
+        executor.shutdown(5000);
+        assertEquals(List.of("kept"), ran);
+    }
+
+    @Test
+    void testOfferGivesUpWhileWorkerQueueIsFull() throws Exception {
+        executor = new KeyOrderedExecutor("test", 1, 2);
+        executor.offer("hotel-1", PARTITION_0, this::block, 1000);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.offer("hotel-1", PARTITION_0, () -> { }, 1000));
+        assertTrue(executor.offer("hotel-1", PARTITION_0, () -> { }, 1000));
+
+        long startMs = System.currentTimeMillis();
+        assertFalse(executor.offer("hotel-1", PARTITION_0, () -> { }, 100));
+        assertTrue(System.currentTimeMillis() - startMs >= 100);
+        assertFalse(executor.isDrained());
+
+        release.countDown();
+        executor.shutdown(5000);
+        assertTrue(executor.isDrained());
+        assertEquals(0, executor.getQueuedTasks());
+    }
+
+    @Test
+    void testOfferAfterShutdownIsRejected() {
+        executor = new KeyOrderedExecutor("test", 1, 2);
+        executor.shutdown(5000);
+
+        assertThrows(IllegalStateException.class,
+                () -> executor.offer("hotel-1", PARTITION_0, () -> { }, 100));
+    }
+
+    private void block() {
+        started.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
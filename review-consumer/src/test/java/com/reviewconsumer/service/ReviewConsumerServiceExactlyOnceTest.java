@@ -0,0 +1,192 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewconsumer.repository.ConsumerOffsetRepository;
+import com.reviewcore.dto.ReviewMessage;
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewConsumerServiceExactlyOnceTest {
+
+    private static final String GROUP_ID = "review-consumer-group";
+    private static final TopicPartition REVIEWS_0 = new TopicPartition("reviews", 0);
+    private static final TopicPartition REVIEWS_1 = new TopicPartition("reviews", 1);
+    private static final TopicPartition BULK_0 = new TopicPartition("reviews-bulk", 0);
+
+    private InMemoryOffsetRepository offsetRepository;
+    private RecordingProcessingService processingService;
+    private ReviewConsumerService reviewConsumerService;
+    private int acknowledged;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        offsetRepository = new InMemoryOffsetRepository();
+        processingService = new RecordingProcessingService();
+        reviewConsumerService = new ReviewConsumerService(new ObjectMapper(), new MetricsService(meterRegistry), null,
+                processingService, new ReviewRecordFilter(meterRegistry, "agoda", 1000), null, null,
+                offsetRepository, null, null);
+        ReflectionTestUtils.setField(reviewConsumerService, "listenerMode", "exactly-once");
+        ReflectionTestUtils.setField(reviewConsumerService, "reviewsTopic", "reviews");
+        ReflectionTestUtils.setField(reviewConsumerService, "bulkReviewsTopic", "reviews-bulk");
+        ReflectionTestUtils.setField(reviewConsumerService, "badReviewsTopic", "bad-reviews");
+        ReflectionTestUtils.setField(reviewConsumerService, "groupId", GROUP_ID);
+    }
+
+    @Test
+    void testOffsetsCoverRecordsDiscardedByTheFilter() {
+        List<ConsumerRecord<String, String>> poll = List.of(
+                review(REVIEWS_0, 10, "Agoda"),
+                review(REVIEWS_0, 11, "Booking"),
+                review(REVIEWS_1, 4, "Agoda"),
+                review(REVIEWS_1, 5, "Booking"));
+
+        reviewConsumerService.consumeReviewExactlyOnce(poll, () -> acknowledged++);
+
+        assertEquals(1, processingService.batches.size());
+        assertEquals(2, processingService.batches.get(0).size());
+        assertEquals(Map.of(REVIEWS_0, 12L, REVIEWS_1, 6L), processingService.batchOffsets.get(0));
+        assertTrue(offsetRepository.stored.isEmpty());
+        assertEquals(1, acknowledged);
+    }
+
+    @Test
+    void testFullyFilteredPollOnlyStoresOffsets() {
+        List<ConsumerRecord<String, String>> poll = List.of(
+                review(BULK_0, 20, "Booking"),
+                review(BULK_0, 21, "Expedia"));
+
+        reviewConsumerService.consumeBulkReviewExactlyOnce(poll, () -> acknowledged++);
+
+        assertTrue(processingService.batches.isEmpty());
+        assertEquals(List.of(Map.of(BULK_0, 22L)), offsetRepository.stored);
+        assertEquals(1, acknowledged);
+    }
+
+    @Test
+    void testAssignedReviewPartitionsSeekToStoredOffsets() {
+        offsetRepository.offsets.put(REVIEWS_0, 12L);
+        offsetRepository.offsets.put(BULK_0, 22L);
+        RecordingSeekCallback callback = new RecordingSeekCallback();
+
+        Map<TopicPartition, Long> assignments = new HashMap<>();
+        assignments.put(REVIEWS_0, 0L);
+        assignments.put(REVIEWS_1, 0L);
+        assignments.put(BULK_0, 0L);
+        assignments.put(new TopicPartition("bad-reviews", 0), 0L);
+        reviewConsumerService.onPartitionsAssigned(assignments, callback);
+
+        assertEquals(Set.of(REVIEWS_0, REVIEWS_1, BULK_0), new HashSet<>(offsetRepository.requested));
+        // reviews-1 has no stored offset yet and keeps its Kafka committed position
+        assertEquals(Map.of(REVIEWS_0, 12L, BULK_0, 22L), callback.seeks);
+    }
+
+    @Test
+    void testAssignmentDoesNotSeekOutsideExactlyOnceMode() {
+        ReflectionTestUtils.setField(reviewConsumerService, "listenerMode", "batch");
+        offsetRepository.offsets.put(REVIEWS_0, 12L);
+        RecordingSeekCallback callback = new RecordingSeekCallback();
+
+        reviewConsumerService.onPartitionsAssigned(Map.of(REVIEWS_0, 0L), callback);
+
+        assertTrue(offsetRepository.requested.isEmpty());
+        assertTrue(callback.seeks.isEmpty());
+    }
+
+    private static ConsumerRecord<String, String> review(TopicPartition partition, long offset, String platform) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(partition.topic(), partition.partition(), offset,
+                "hotel-" + offset, "{\"hotelId\":" + offset + "}");
+        record.headers().add(ReviewKafkaHeaders.PLATFORM, ReviewKafkaHeaders.encode(platform));
+        return record;
+    }
+
+    private static class InMemoryOffsetRepository extends ConsumerOffsetRepository {
+        final Map<TopicPartition, Long> offsets = new HashMap<>();
+        final List<Map<TopicPartition, Long>> stored = new ArrayList<>();
+        final List<TopicPartition> requested = new ArrayList<>();
+
+        InMemoryOffsetRepository() {
+            super(null, new ObjectMapper());
+        }
+
+        @Override
+        public void storeOffsets(String groupId, Map<TopicPartition, Long> nextOffsets) {
+            assertEquals(GROUP_ID, groupId);
+            stored.add(Map.copyOf(nextOffsets));
+        }
+
+        @Override
+        public Map<TopicPartition, Long> findOffsets(String groupId, Collection<TopicPartition> partitions) {
+            assertEquals(GROUP_ID, groupId);
+            requested.addAll(partitions);
+            Map<TopicPartition, Long> found = new HashMap<>();
+            partitions.stream().filter(offsets::containsKey).forEach(partition -> found.put(partition, offsets.get(partition)));
+            return found;
+        }
+    }
+
+    private static class RecordingProcessingService extends ReviewProcessingService {
+        final List<List<ReviewMessage>> batches = new ArrayList<>();
+        final List<Map<TopicPartition, Long>> batchOffsets = new ArrayList<>();
+
+        RecordingProcessingService() {
+            super(null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public void processReviewBatch(List<ReviewMessage> reviewMessages, Map<TopicPartition, Long> nextOffsets) {
+            batches.add(List.copyOf(reviewMessages));
+            batchOffsets.add(Map.copyOf(nextOffsets));
+        }
+    }
+
+    private static class RecordingSeekCallback implements ConsumerSeekCallback {
+        final Map<TopicPartition, Long> seeks = new HashMap<>();
+
+        @Override
+        public void seek(String topic, int partition, long offset) {
+            seeks.put(new TopicPartition(topic, partition), offset);
+        }
+
+        @Override
+        public void seekToBeginning(String topic, int partition) {
+            fail("Unexpected seek to beginning of " + topic + "-" + partition);
+        }
+
+        @Override
+        public void seekToEnd(String topic, int partition) {
+            fail("Unexpected seek to end of " + topic + "-" + partition);
+        }
+
+        @Override
+        public void seekRelative(String topic, int partition, long offset, boolean toCurrent) {
+            fail("Unexpected relative seek of " + topic + "-" + partition);
+        }
+
+        @Override
+        public void seekToTimestamp(String topic, int partition, long timestamp) {
+            fail("Unexpected timestamp seek of " + topic + "-" + partition);
+        }
+
+        @Override
+        public void seekToTimestamp(Collection<TopicPartition> partitions, long timestamp) {
+            fail("Unexpected timestamp seek of " + partitions);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.reviewconsumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewMessage;
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewRetryServiceTest {
+
+    private CapturingKafkaTemplate kafkaTemplate;
+    private ReviewRetryService reviewRetryService;
+
+    @BeforeEach
+    void setUp() {
+        kafkaTemplate = new CapturingKafkaTemplate();
+        reviewRetryService = new ReviewRetryService(kafkaTemplate, new SimpleMeterRegistry(),
+                "reviews", "reviews-bulk", "bad-reviews", "10s,1m,10m", 1000);
+    }
+
+    @Test
+    void testFirstFailureGoesToFirstTierWithRetryHeaders() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("reviews", 2, 41, "hotel-1", "{\"hotelId\":1}");
+        record.headers().add(ReviewKafkaHeaders.PLATFORM, ReviewKafkaHeaders.encode("Agoda"));
+
+        long before = System.currentTimeMillis();
+        reviewRetryService.scheduleRetry(record, new IllegalStateException("database unavailable"));
+
+        ProducerRecord<String, String> sent = kafkaTemplate.single();
+        assertEquals("reviews-retry-10s", sent.topic());
+        assertEquals("hotel-1", sent.key());
+        assertEquals("{\"hotelId\":1}", sent.value());
+        assertEquals("Agoda", header(sent, ReviewKafkaHeaders.PLATFORM));
+        assertEquals("1", header(sent, ReviewKafkaHeaders.RETRY_ATTEMPT));
+        assertEquals("reviews", header(sent, ReviewKafkaHeaders.RETRY_ORIGINAL_TOPIC));
+        assertEquals("IllegalStateException: database unavailable", header(sent, ReviewKafkaHeaders.RETRY_REASON));
+        long due = Long.parseLong(header(sent, ReviewKafkaHeaders.RETRY_DUE_TIMESTAMP));
+        assertTrue(due >= before + 10000 && due <= System.currentTimeMillis() + 10000);
+    }
+
+    @Test
+    void testRetryRecordMovesToNextTierAndReplacesRetryHeaders() {
+        ConsumerRecord<String, String> record = retryRecord("reviews-bulk-retry-10s", "reviews-bulk", 1);
+
+        reviewRetryService.scheduleRetry(record, new IllegalStateException("still down"));
+
+        ProducerRecord<String, String> sent = kafkaTemplate.single();
+        assertEquals("reviews-bulk-retry-1m", sent.topic());
+        assertEquals("2", header(sent, ReviewKafkaHeaders.RETRY_ATTEMPT));
+        assertEquals("reviews-bulk", header(sent, ReviewKafkaHeaders.RETRY_ORIGINAL_TOPIC));
+        assertEquals(1, count(sent, ReviewKafkaHeaders.RETRY_ATTEMPT));
+        assertEquals(1, count(sent, ReviewKafkaHeaders.RETRY_REASON));
+        assertEquals("IllegalStateException: still down", header(sent, ReviewKafkaHeaders.RETRY_REASON));
+    }
+
+    @Test
+    void testRecordGoesToDeadLetterTopicOnceTiersAreUsedUp() {
+        ConsumerRecord<String, String> record = retryRecord("reviews-retry-10m", "reviews", 3);
+
+        reviewRetryService.scheduleRetry(record, new IllegalStateException("still down"));
+
+        ProducerRecord<String, String> sent = kafkaTemplate.single();
+        assertEquals("reviews-dlt", sent.topic());
+        assertEquals("4", header(sent, ReviewKafkaHeaders.RETRY_ATTEMPT));
+    }
+
+    @Test
+    void testUnparseablePayloadGoesStraightToDeadLetterTopic() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("reviews", 0, 7, "hotel-1", "not json");
+        Exception parseError = assertThrows(Exception.class,
+                () -> new ObjectMapper().readValue(record.value(), ReviewMessage.class));
+
+        reviewRetryService.scheduleRetry(record, new IllegalArgumentException("Invalid review", parseError));
+
+        ProducerRecord<String, String> sent = kafkaTemplate.single();
+        assertEquals("reviews-dlt", sent.topic());
+        assertEquals("1", header(sent, ReviewKafkaHeaders.RETRY_ATTEMPT));
+    }
+
+    @Test
+    void testFailedPublishPropagates() {
+        kafkaTemplate.failure = new IllegalStateException("broker unavailable");
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("reviews", 0, 7, "hotel-1", "{}");
+
+        assertThrows(IllegalStateException.class,
+                () -> reviewRetryService.scheduleRetry(record, new IllegalStateException("database unavailable")));
+    }
+
+    @Test
+    void testRetryTopicsPerTier() {
+        assertEquals(3, reviewRetryService.getTierCount());
+        assertArrayEquals(new String[]{"reviews-retry-1m", "reviews-bulk-retry-1m", "bad-reviews-retry-1m"},
+                reviewRetryService.getRetryTopics(1));
+        assertEquals(List.of("reviews-dlt", "reviews-bulk-dlt", "bad-reviews-dlt"), reviewRetryService.getDeadLetterTopics());
+    }
+
+    @Test
+    void testTooManyDelaysAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ReviewRetryService(kafkaTemplate,
+                new SimpleMeterRegistry(), "reviews", "reviews-bulk", "bad-reviews", "1s,10s,1m,10m", 1000));
+    }
+
+    private static ConsumerRecord<String, String> retryRecord(String topic, String originalTopic, int attempt) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(topic, 0, 3, "hotel-1", "{}");
+        record.headers().add(ReviewKafkaHeaders.RETRY_ATTEMPT, ReviewKafkaHeaders.encode(attempt));
+        record.headers().add(ReviewKafkaHeaders.RETRY_ORIGINAL_TOPIC, ReviewKafkaHeaders.encode(originalTopic));
+        record.headers().add(ReviewKafkaHeaders.RETRY_DUE_TIMESTAMP, ReviewKafkaHeaders.encode(0));
+        record.headers().add(ReviewKafkaHeaders.RETRY_REASON, ReviewKafkaHeaders.encode("IllegalStateException: down"));
+        return record;
+    }
+
+    private static String header(ProducerRecord<String, String> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header != null ? ReviewKafkaHeaders.decodeString(header.value()) : null;
+    }
+
+    private static int count(ProducerRecord<String, String> record, String key) {
+        int count = 0;
+        for (Header header : record.headers()) {
+            if (header.key().equals(key)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static class CapturingKafkaTemplate extends KafkaTemplate<String, String> {
+        final List<ProducerRecord<String, String>> sent = new ArrayList<>();
+        Exception failure;
+
+        CapturingKafkaTemplate() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, String>> send(ProducerRecord<String, String> record) {
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            sent.add(record);
+            return CompletableFuture.completedFuture(new SendResult<>(record, null));
+        }
+
+        ProducerRecord<String, String> single() {
+            assertEquals(1, sent.size());
+            return sent.get(0);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.reviewcore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * DTO representing a DLQ message from Kafka: a review line the producer could not route because
+ * critical ids were missing. This matches the DLQRecord structure sent by the producer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DlqMessage {
+    
+    @JsonProperty("reviewId")
+    private Long reviewId;
+    
+    @JsonProperty("providerId")
+    private Integer providerId;
+    
+    @JsonProperty("originalJson")
+    private String originalJson;
+    
+    @JsonProperty("platform")
+    private String platform;
+    
+    @JsonProperty("reason")
+    private String reason;
+    
+    @JsonProperty("timestamp")
+    private Long timestamp;
+}
@@ -0,0 +1,74 @@
+package com.reviewcore.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Compact summary of what one committed consumer transaction changed, published by the
+ * consumer so readers can evict exactly the cached views that are affected.
+ * Review keys have the form {@code <reviewId>_<providerId>}, as in the service cache keys.
+ */
+@Data
+@NoArgsConstructor
+public class ReviewChangeEvent {
+
+    @JsonProperty("entityIds")
+    private Set<Integer> entityIds = new LinkedHashSet<>();
+
+    @JsonProperty("platforms")
+    private Set<String> platforms = new LinkedHashSet<>();
+
+    @JsonProperty("reviewKeys")
+    private Set<String> reviewKeys = new LinkedHashSet<>();
+
+    @JsonProperty("badPlatforms")
+    private Set<String> badPlatforms = new LinkedHashSet<>();
+
+    @JsonProperty("badReasons")
+    private Set<String> badReasons = new LinkedHashSet<>();
+
+    @JsonProperty("badReviewKeys")
+    private Set<String> badReviewKeys = new LinkedHashSet<>();
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+
+    public static String reviewKey(Long reviewId, Integer providerId) {
+        return reviewId + "_" + providerId;
+    }
+
+    public void addReview(Integer entityId, String platform, Long reviewId, Integer providerId) {
+        if (entityId != null) {
+            entityIds.add(entityId);
+        }
+        if (platform != null) {
+            platforms.add(platform);
+        }
+        if (reviewId != null && providerId != null) {
+            reviewKeys.add(reviewKey(reviewId, providerId));
+        }
+    }
+
+    public void addBadReview(String platform, String reason, Long reviewId, Integer providerId) {
+        if (platform != null) {
+            badPlatforms.add(platform);
+        }
+        if (reason != null) {
+            badReasons.add(reason);
+        }
+        if (reviewId != null && providerId != null) {
+            badReviewKeys.add(reviewKey(reviewId, providerId));
+        }
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return entityIds.isEmpty() && platforms.isEmpty() && reviewKeys.isEmpty()
+                && badPlatforms.isEmpty() && badReasons.isEmpty() && badReviewKeys.isEmpty();
+    }
+}
@@ -0,0 +1,75 @@
+package com.reviewcore.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Names and encoding of the Kafka headers attached to review records.
+ *
+ * The producer sets these alongside the JSON payload so consumers and tooling can
+ * filter, route and deduplicate records without deserializing the body. All values
+ * are UTF-8 strings; numeric headers hold the decimal representation and
+ * timestamps are epoch milliseconds.
+ */
+public final class ReviewKafkaHeaders {
+
+    public static final String PLATFORM = "review-platform";
+    public static final String HOTEL_ID = "review-hotel-id";
+    public static final String REVIEW_ID = "review-id";
+    public static final String PROVIDER_ID = "review-provider-id";
+    public static final String SOURCE = "review-source";
+    public static final String FILE_KEY = "review-file-key";
+    public static final String LINE_NUMBER = "review-line-number";
+    public static final String INGEST_TIMESTAMP = "review-ingest-ts";
+    public static final String CONTENT_HASH = "review-content-hash";
+    public static final String VALIDATION_REASON = "review-validation-reason";
+
+    // Set by the consumer when a failed record is parked on a retry topic or the DLT
+    public static final String RETRY_ATTEMPT = "review-retry-attempt";
+    public static final String RETRY_ORIGINAL_TOPIC = "review-retry-original-topic";
+    public static final String RETRY_DUE_TIMESTAMP = "review-retry-due-ts";
+    public static final String RETRY_REASON = "review-retry-reason";
+
+    private ReviewKafkaHeaders() {
+    }
+
+    /**
+     * Encode a header value, returning null for null so the header can be skipped
+     */
+    public static byte[] encode(Object value) {
+        return value != null ? String.valueOf(value).getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    public static String decodeString(byte[] value) {
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Decode a numeric header, returning null when it is missing or malformed
+     */
+    public static Long decodeLong(byte[] value) {
+        String text = decodeString(value);
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * SHA-256 hex digest of a review line, used as the content hash header
+     */
+    public static String contentHash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
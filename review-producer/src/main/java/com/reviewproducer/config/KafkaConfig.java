@@ -23,12 +23,18 @@ public class KafkaConfig {
     @Value("${kafka.topic.reviews:reviews}")
     private String reviewsTopic;
     
+    @Value("${kafka.topic.reviews-bulk:good_review_records_bulk}")
+    private String bulkReviewsTopic;
+    
     @Value("${kafka.topic.bad-reviews:bad_review_records}")
     private String badReviewsTopic;
     
     @Value("${kafka.topic.dlq:dlq}")
     private String dlqTopic;
     
+    @Value("${kafka.topic.dlq-replay:dlq_replay}")
+    private String dlqReplayTopic;
+    
     @Value("${kafka.dlq.retention.ms:604800000}") // 7 days default
     private long dlqRetentionMs;
     
@@ -70,6 +76,17 @@ public class KafkaConfig {
                 .build();
     }
     
+    /**
+     * Separate topic for the bulk (backfill) lane so replays never queue behind fresh reviews
+     */
+    @Bean
+    public org.apache.kafka.clients.admin.NewTopic bulkReviewsTopic() {
+        return TopicBuilder.name(bulkReviewsTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+    
     @Bean
     public org.apache.kafka.clients.admin.NewTopic badReviewsTopic() {
         return TopicBuilder.name(badReviewsTopic)
@@ -93,4 +110,15 @@ public class KafkaConfig {
                 ))
                 .build();
     }
+    
+    /**
+     * DLQ lines replayed by review-consumer, consumed back here for validation
+     */
+    @Bean
+    public org.apache.kafka.clients.admin.NewTopic dlqReplayTopic() {
+        return TopicBuilder.name(dlqReplayTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
 } 
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.reviewproducer.service.ReviewKafkaProducerService;
 import com.reviewproducer.service.MetricsService;
 import com.reviewproducer.service.MinIOEventService;
 import com.reviewproducer.service.StorageEventService;
+import com.reviewproducer.service.ReviewSourceService;
 import com.reviewproducer.model.MinIOEvent;
 import com.reviewproducer.model.StorageEvent;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.Map;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/producer")
@@ -21,6 +25,7 @@ public class ReviewProducerController {
     private final MetricsService metricsService;
     private final MinIOEventService minIOEventService;
     private final StorageEventService storageEventService;
+    private final ReviewSourceService reviewSourceService;
     
     /**
      * Send a review to Kafka with validation
@@ -144,6 +149,27 @@ public class ReviewProducerController {
         }
     }
     
+    /**
+     * Replay a source's files created in [from, to) through the throttled bulk lane
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<Object> backfill(@RequestParam Integer sourceId,
+                                           @RequestParam(required = false) Instant from,
+                                           @RequestParam(required = false) Instant to) {
+        log.info("Received backfill request for source: {} from {} to {}", sourceId, from, to);
+        
+        try {
+            int queuedFiles = reviewSourceService.backfillSource(sourceId, from, to);
+            return ResponseEntity.accepted().body(Map.of("sourceId", sourceId, "filesQueued", queuedFiles));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected backfill request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to start backfill for source {}: {}", sourceId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body("Failed to start backfill: " + e.getMessage());
+        }
+    }
+    
     /**
      * Health check endpoint
      */
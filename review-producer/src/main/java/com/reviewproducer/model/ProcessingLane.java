@@ -0,0 +1,26 @@
+package com.reviewproducer.model;
+
+/**
+ * Priority lane a review file is processed in.
+ *
+ * REALTIME carries webhook events and recently uploaded files, BULK carries
+ * historical replays and backfills. Each lane has its own queue, worker pool
+ * and Kafka topic so a large backfill cannot delay fresh reviews.
+ */
+public enum ProcessingLane {
+    REALTIME("realtime"),
+    BULK("bulk");
+
+    private final String tag;
+
+    ProcessingLane(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Lower-case name used in logs and metric tags
+     */
+    public String getTag() {
+        return tag;
+    }
+}
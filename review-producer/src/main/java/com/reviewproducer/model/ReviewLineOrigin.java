@@ -0,0 +1,35 @@
+package com.reviewproducer.model;
+
+/**
+ * Where a review line was read from; carried into the Kafka record headers
+ */
+public class ReviewLineOrigin {
+    private final String sourceName;
+    private final String fileKey;
+    private final Integer lineNumber;
+
+    public ReviewLineOrigin(String sourceName, String fileKey, Integer lineNumber) {
+        this.sourceName = sourceName;
+        this.fileKey = fileKey;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Origin for reviews submitted directly through the API rather than read from a file
+     */
+    public static ReviewLineOrigin api() {
+        return new ReviewLineOrigin("api", null, null);
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public String getFileKey() {
+        return fileKey;
+    }
+
+    public Integer getLineNumber() {
+        return lineNumber;
+    }
+}
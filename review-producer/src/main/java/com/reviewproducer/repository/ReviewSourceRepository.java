@@ -2,10 +2,23 @@ package com.reviewproducer.repository;
 
 import com.reviewcore.model.ReviewSource;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ReviewSourceRepository extends JpaRepository<ReviewSource, Long> {
     @Query("SELECT rs FROM ReviewSource rs WHERE rs.active = true")
     List<ReviewSource> findAllActive();
+
+    /**
+     * Move the watermark forward only, in one statement, without writing any other column
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE review_sources SET last_processed_timestamp = GREATEST(last_processed_timestamp, :timestamp) WHERE id = :id", nativeQuery = true)
+    int advanceLastProcessedTimestamp(@Param("id") Integer id, @Param("timestamp") LocalDateTime timestamp);
 } 
\ No newline at end of file
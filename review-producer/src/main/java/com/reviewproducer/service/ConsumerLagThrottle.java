@@ -0,0 +1,207 @@
+package com.reviewproducer.service;
+
+import com.reviewproducer.model.ProcessingLane;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slows file dispatch while review-consumer falls behind, so backfills cannot grow its lag
+ * without bound.
+ *
+ * The lag of the consumer group is read with the AdminClient across both review topics, since
+ * both lanes are written to the same database. The bulk lane is slowed first and paused at a
+ * higher lag; the realtime lane is only slowed, and only at a much higher lag, to keep fresh
+ * reviews flowing. A lane leaves a state once the lag drops below resume-ratio times its
+ * threshold. When the lag cannot be read for a few intervals, the throttle fails open.
+ */
+@Slf4j
+@Component
+public class ConsumerLagThrottle {
+
+    public enum State {
+        NORMAL, SLOWED, PAUSED
+    }
+
+    private final KafkaAdmin kafkaAdmin;
+    private final List<String> topics;
+    private final Map<ProcessingLane, State> states = new ConcurrentHashMap<>();
+
+    @Value("${review.producer.lag-throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${review.producer.lag-throttle.consumer-group:review-consumer-group}")
+    private String consumerGroup;
+
+    @Value("${review.producer.lag-throttle.interval-ms:10000}")
+    private long intervalMs;
+
+    @Value("${review.producer.lag-throttle.bulk.slow-lag:50000}")
+    private long bulkSlowLag;
+
+    @Value("${review.producer.lag-throttle.bulk.pause-lag:200000}")
+    private long bulkPauseLag;
+
+    @Value("${review.producer.lag-throttle.bulk.slow-factor:0.25}")
+    private double bulkSlowFactor;
+
+    @Value("${review.producer.lag-throttle.realtime.slow-lag:500000}")
+    private long realtimeSlowLag;
+
+    // Also the slowed rate of a bulk lane configured without a limit
+    @Value("${review.producer.lag-throttle.realtime.slowed-lines-per-second:1000}")
+    private int realtimeSlowedLinesPerSecond;
+
+    @Value("${review.producer.lag-throttle.resume-ratio:0.8}")
+    private double resumeRatio;
+
+    private AdminClient adminClient;
+    private volatile long lag;
+    private volatile long lastReadAt;
+
+    public ConsumerLagThrottle(KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry,
+                               @Value("${kafka.topic.reviews:reviews}") String reviewsTopic,
+                               @Value("${kafka.topic.reviews-bulk:good_review_records_bulk}") String bulkReviewsTopic) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.topics = List.of(reviewsTopic, bulkReviewsTopic);
+        for (ProcessingLane lane : ProcessingLane.values()) {
+            states.put(lane, State.NORMAL);
+            Gauge.builder("review_producer_lag_throttle_state", this, throttle -> throttle.getState(lane).ordinal())
+                .description("Dispatch throttle of the lane: 0 normal, 1 slowed, 2 paused")
+                .tag("lane", lane.getTag())
+                .register(meterRegistry);
+        }
+        Gauge.builder("review_producer_consumer_lag", this, throttle -> throttle.lag)
+            .description("Review consumer group lag across the review topics at the last read")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${review.producer.lag-throttle.interval-ms:10000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            applyLag(fetchLag());
+        } catch (Exception e) {
+            log.warn("Failed to read lag of consumer group {}: {}", consumerGroup, e.getMessage());
+        }
+    }
+
+    void applyLag(long currentLag) {
+        lag = currentLag;
+        lastReadAt = System.currentTimeMillis();
+        update(ProcessingLane.BULK, nextState(getState(ProcessingLane.BULK), bulkSlowLag, bulkPauseLag));
+        update(ProcessingLane.REALTIME, nextState(getState(ProcessingLane.REALTIME), realtimeSlowLag, Long.MAX_VALUE));
+    }
+
+    private State nextState(State current, long slowLag, long pauseLag) {
+        if (lag >= pauseLag) {
+            return State.PAUSED;
+        }
+        if (current == State.PAUSED && lag >= pauseLag * resumeRatio) {
+            return State.PAUSED;
+        }
+        if (lag >= slowLag) {
+            return State.SLOWED;
+        }
+        if (current != State.NORMAL && lag >= slowLag * resumeRatio) {
+            return State.SLOWED;
+        }
+        return State.NORMAL;
+    }
+
+    private void update(ProcessingLane lane, State next) {
+        State previous = states.put(lane, next);
+        if (previous != next) {
+            log.info("Dispatch throttle of {} lane changed from {} to {} (consumer lag: {})",
+                    lane.getTag(), previous, next, lag);
+        }
+    }
+
+    /**
+     * Current state of a lane; NORMAL when disabled or when the lag has not been read recently
+     */
+    public State getState(ProcessingLane lane) {
+        if (!enabled || System.currentTimeMillis() - lastReadAt > intervalMs * 3) {
+            return State.NORMAL;
+        }
+        return states.get(lane);
+    }
+
+    /**
+     * Lines per second a lane may dispatch given its configured limit (0 = unlimited).
+     * Callers wait while the lane is PAUSED instead of asking for a rate.
+     */
+    public int getLinesPerSecond(ProcessingLane lane, int configuredLinesPerSecond) {
+        if (getState(lane) != State.SLOWED) {
+            return configuredLinesPerSecond;
+        }
+        if (lane == ProcessingLane.BULK && configuredLinesPerSecond > 0) {
+            return Math.max(1, (int) (configuredLinesPerSecond * bulkSlowFactor));
+        }
+        return configuredLinesPerSecond > 0
+                ? Math.min(configuredLinesPerSecond, realtimeSlowedLinesPerSecond) : realtimeSlowedLinesPerSecond;
+    }
+
+    public long getLag() {
+        return lag;
+    }
+
+    /**
+     * Log end offset minus the group's committed offset, summed over the review topics
+     */
+    private long fetchLag() throws Exception {
+        AdminClient admin = adminClient();
+        Map<TopicPartition, OffsetSpec> latestRequest = new HashMap<>();
+        Map<String, TopicDescription> descriptions = admin.describeTopics(topics).allTopicNames().get(10, TimeUnit.SECONDS);
+        for (TopicDescription topic : descriptions.values()) {
+            for (TopicPartitionInfo partition : topic.partitions()) {
+                latestRequest.put(new TopicPartition(topic.name(), partition.partition()), OffsetSpec.latest());
+            }
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets =
+                admin.listOffsets(latestRequest).all().get(10, TimeUnit.SECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed =
+                admin.listConsumerGroupOffsets(consumerGroup).partitionsToOffsetAndMetadata().get(10, TimeUnit.SECONDS);
+
+        long total = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry : endOffsets.entrySet()) {
+            OffsetAndMetadata committedOffset = committed.get(entry.getKey());
+            total += Math.max(0, entry.getValue().offset() - (committedOffset != null ? committedOffset.offset() : 0));
+        }
+        return total;
+    }
+
+    private AdminClient adminClient() {
+        if (adminClient == null) {
+            adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return adminClient;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+}
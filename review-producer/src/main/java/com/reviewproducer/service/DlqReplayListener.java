@@ -0,0 +1,40 @@
+package com.reviewproducer.service;
+
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import com.reviewproducer.model.ProcessingLane;
+import com.reviewproducer.model.ReviewLineOrigin;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates review lines replayed from the stored DLQ records by review-consumer.
+ *
+ * Replays go through the same validation as lines read from files, on the bulk lane so they never
+ * delay fresh reviews. Lines that still miss critical ids land on the dlq topic again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DlqReplayListener {
+
+    private final ReviewKafkaProducerService kafkaProducerService;
+
+    @KafkaListener(topics = "${kafka.topic.dlq-replay:dlq_replay}", groupId = "${spring.kafka.consumer.group-id}")
+    public void onReplay(ConsumerRecord<String, String> record) {
+        Long lineNumber = ReviewKafkaHeaders.decodeLong(header(record, ReviewKafkaHeaders.LINE_NUMBER));
+        ReviewLineOrigin origin = new ReviewLineOrigin("dlq-replay",
+                ReviewKafkaHeaders.decodeString(header(record, ReviewKafkaHeaders.FILE_KEY)),
+                lineNumber != null ? lineNumber.intValue() : null);
+        kafkaProducerService.processReviewLine(record.value(), ProcessingLane.BULK, origin);
+        log.debug("Replayed DLQ line from partition {}, offset {}", record.partition(), record.offset());
+    }
+
+    private static byte[] header(ConsumerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? header.value() : null;
+    }
+}
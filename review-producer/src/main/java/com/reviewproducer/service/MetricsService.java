@@ -8,12 +8,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 public class MetricsService {
     
+    private final MeterRegistry meterRegistry;
+    
     // Micrometer counters and timers
     private final Counter filesProcessedCounter;
     private final Counter linesProcessedCounter;
@@ -35,6 +39,18 @@ public class MetricsService {
     private final AtomicLong activeThreads = new AtomicLong(0);
     private final AtomicLong queueDepth = new AtomicLong(0);
     
+    // Per-lane gauges, registered lazily the first time a lane reports
+    private final Map<String, AtomicLong> laneActiveThreads = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> laneQueueDepth = new ConcurrentHashMap<>();
+    
+    // Source lease distribution across producer instances
+    private final AtomicLong ownedSources = new AtomicLong(0);
+    private final AtomicLong fairShareSources = new AtomicLong(0);
+    private final AtomicLong liveInstances = new AtomicLong(0);
+    
+    // MinIO bucket-notification listeners
+    private final AtomicLong notificationListeners = new AtomicLong(0);
+    
     // Legacy counters for backward compatibility
     private final AtomicLong totalFilesProcessed = new AtomicLong(0);
     private final AtomicLong totalLinesProcessed = new AtomicLong(0);
@@ -43,6 +59,8 @@ public class MetricsService {
     private final AtomicLong totalProcessingErrors = new AtomicLong(0);
     
     public MetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        
         // Initialize counters
         this.filesProcessedCounter = Counter.builder("review_producer_files_processed_total")
             .description("Total number of files processed")
@@ -109,6 +127,22 @@ public class MetricsService {
         Gauge.builder("review_producer_queue_depth", queueDepth, AtomicLong::get)
             .description("Current depth of the processing queue")
             .register(meterRegistry);
+            
+        Gauge.builder("review_producer_owned_sources", ownedSources, AtomicLong::get)
+            .description("Number of review sources leased to this instance")
+            .register(meterRegistry);
+            
+        Gauge.builder("review_producer_fair_share_sources", fairShareSources, AtomicLong::get)
+            .description("Number of sources this instance should own for an even split")
+            .register(meterRegistry);
+            
+        Gauge.builder("review_producer_live_instances", liveInstances, AtomicLong::get)
+            .description("Number of producer instances with a recent heartbeat")
+            .register(meterRegistry);
+            
+        Gauge.builder("review_producer_notification_listeners", notificationListeners, AtomicLong::get)
+            .description("Number of MinIO bucket-notification listeners running")
+            .register(meterRegistry);
     }
     
     /**
@@ -190,6 +224,68 @@ public class MetricsService {
                 activeThreads, maxThreads, queueDepth, queueCapacity);
     }
     
+    /**
+     * Record queue and thread metrics for a single processing lane
+     */
+    public void recordLaneQueueMetrics(String lane, int activeThreads, int maxThreads, int queueDepth, int queueCapacity) {
+        laneGauge(laneActiveThreads, "review_producer_lane_active_threads", 
+                "Number of active processing threads per lane", lane).set(activeThreads);
+        laneGauge(laneQueueDepth, "review_producer_lane_queue_depth", 
+                "Current depth of the processing queue per lane", lane).set(queueDepth);
+        
+        log.info("Lane queue metrics recorded - Lane: {}, Threads: {}/{}, Queue: {}/{}", 
+                lane, activeThreads, maxThreads, queueDepth, queueCapacity);
+    }
+    
+    private AtomicLong laneGauge(Map<String, AtomicLong> gauges, String name, String description, String lane) {
+        return gauges.computeIfAbsent(lane, key -> {
+            AtomicLong value = new AtomicLong(0);
+            Gauge.builder(name, value, AtomicLong::get)
+                .description(description)
+                .tag("lane", key)
+                .register(meterRegistry);
+            return value;
+        });
+    }
+    
+    /**
+     * Record source lease distribution metrics
+     */
+    public void recordSourceLeases(int owned, int fairShare, int instances) {
+        this.ownedSources.set(owned);
+        this.fairShareSources.set(fairShare);
+        this.liveInstances.set(instances);
+    }
+    
+    /**
+     * Record the number of running MinIO notification listeners
+     */
+    public void recordNotificationListeners(int listeners) {
+        this.notificationListeners.set(listeners);
+    }
+    
+    /**
+     * Record a file discovered through a MinIO bucket notification
+     */
+    public void recordNotificationEvent(String sourceName) {
+        Counter.builder("review_producer_notification_events_total")
+            .description("Files discovered through MinIO bucket notifications")
+            .tag("source", sourceName)
+            .register(meterRegistry)
+            .increment();
+    }
+    
+    /**
+     * Record a reconnect of a MinIO notification stream
+     */
+    public void recordNotificationReconnect(String sourceName) {
+        Counter.builder("review_producer_notification_reconnects_total")
+            .description("Reconnects of MinIO bucket-notification streams")
+            .tag("source", sourceName)
+            .register(meterRegistry)
+            .increment();
+    }
+    
     /**
      * Get current metrics summary
      */
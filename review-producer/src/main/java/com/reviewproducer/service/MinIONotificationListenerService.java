@@ -0,0 +1,251 @@
+package com.reviewproducer.service;
+
+import com.reviewcore.model.Credential;
+import com.reviewcore.model.ReviewSource;
+import com.reviewproducer.model.FileMetadata;
+import com.reviewproducer.model.ProcessingLane;
+import io.minio.CloseableIterator;
+import io.minio.Result;
+import io.minio.messages.Event;
+import io.minio.messages.NotificationRecords;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Subscribes to MinIO bucket notifications so new .jl files reach the realtime lane within seconds.
+ *
+ * One listener thread runs per active MinIO source owned by this instance. Each thread holds a
+ * listenBucketNotification stream open for s3:ObjectCreated:* events on .jl keys and feeds every
+ * new object straight into the file pipeline, reconnecting with exponential backoff when the
+ * stream breaks. While a source has a live listener the scheduled poll only sweeps it at the
+ * slow reconciliation interval to pick up anything missed during reconnects. Notified files do not
+ * move the source's watermark; only the sweep does, so a file whose notification was lost is still
+ * newer than the watermark when the sweep runs.
+ */
+@Slf4j
+@Service
+public class MinIONotificationListenerService {
+
+    private final ReviewSourceService reviewSourceService;
+    private final StorageServiceFactory storageServiceFactory;
+    private final CredentialService credentialService;
+    private final SourceLeaseService sourceLeaseService;
+    private final MetricsService metricsService;
+
+    @Value("${review.producer.minio-notifications.enabled:false}")
+    private boolean notificationsEnabled;
+
+    @Value("${review.producer.minio-notifications.initial-reconnect-delay-ms:1000}")
+    private long initialReconnectDelayMs;
+
+    @Value("${review.producer.minio-notifications.max-reconnect-delay-ms:60000}")
+    private long maxReconnectDelayMs;
+
+    private final Map<Integer, NotificationListener> listeners = new ConcurrentHashMap<>();
+
+    public MinIONotificationListenerService(ReviewSourceService reviewSourceService,
+                                            StorageServiceFactory storageServiceFactory,
+                                            CredentialService credentialService,
+                                            SourceLeaseService sourceLeaseService,
+                                            MetricsService metricsService) {
+        this.reviewSourceService = reviewSourceService;
+        this.storageServiceFactory = storageServiceFactory;
+        this.credentialService = credentialService;
+        this.sourceLeaseService = sourceLeaseService;
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Start listeners for new or newly owned MinIO sources and stop the ones no longer needed
+     */
+    @Scheduled(initialDelayString = "${review.producer.minio-notifications.initial-delay:5000}",
+               fixedDelayString = "${review.producer.minio-notifications.refresh-interval:60000}")
+    public synchronized void refreshListeners() {
+        if (!notificationsEnabled) {
+            return;
+        }
+
+        Map<Integer, ReviewSource> wanted = reviewSourceService.getActiveSources().stream()
+                .filter(source -> "minio".equals(storageServiceFactory.getStorageType(source.getUri())))
+                .filter(source -> sourceLeaseService.ownsSource(source.getId()))
+                .collect(Collectors.toMap(ReviewSource::getId, source -> source));
+
+        for (Integer sourceId : Set.copyOf(listeners.keySet())) {
+            ReviewSource source = wanted.get(sourceId);
+            NotificationListener listener = listeners.get(sourceId);
+            if (source == null || !source.getUri().equals(listener.uri)) {
+                log.info("Stopping MinIO notification listener for source id: {}", sourceId);
+                stopListener(sourceId);
+            }
+        }
+
+        for (ReviewSource source : wanted.values()) {
+            listeners.computeIfAbsent(source.getId(), id -> startListener(source));
+        }
+
+        metricsService.recordNotificationListeners(listeners.size());
+    }
+
+    private NotificationListener startListener(ReviewSource source) {
+        NotificationListener listener = new NotificationListener(source);
+        Thread thread = new Thread(listener, "minio-listener-" + source.getId());
+        thread.setDaemon(true);
+        listener.thread = thread;
+        thread.start();
+        log.info("Started MinIO notification listener for source: {} (URI: {})", source.getName(), source.getUri());
+        return listener;
+    }
+
+    private void stopListener(Integer sourceId) {
+        NotificationListener listener = listeners.remove(sourceId);
+        if (listener != null) {
+            listener.stop();
+        }
+        reviewSourceService.setNotificationListenerActive(sourceId, false);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        for (Integer sourceId : Set.copyOf(listeners.keySet())) {
+            stopListener(sourceId);
+        }
+        log.info("Stopped all MinIO notification listeners");
+    }
+
+    /**
+     * Turn a notification event into the metadata the file pipeline expects. Prefer a stat of the
+     * object so etag and timestamps match what the reconciliation sweep lists.
+     */
+    private FileMetadata toFileMetadata(Event event, MinIOStorageService storageService) {
+        String key = event.objectName();
+        try {
+            return storageService.getFileMetadata(key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to stat notified MinIO object {}, using event data - {}", key, e.getMessage());
+            Instant eventTime = event.eventTime() != null ? event.eventTime().toInstant() : Instant.now();
+            return new FileMetadata(
+                    key.substring(key.lastIndexOf('/') + 1),
+                    key,
+                    event.objectSize(),
+                    eventTime,
+                    eventTime,
+                    event.etag(),
+                    "application/jsonl"
+            );
+        }
+    }
+
+    // Inner class running the notification stream of a single source
+    private class NotificationListener implements Runnable {
+        private final ReviewSource source;
+        private final String uri;
+        private volatile boolean running = true;
+        private volatile CloseableIterator<Result<NotificationRecords>> stream;
+        private Thread thread;
+
+        NotificationListener(ReviewSource source) {
+            this.source = source;
+            this.uri = source.getUri();
+        }
+
+        @Override
+        public void run() {
+            long reconnectDelayMs = initialReconnectDelayMs;
+            while (running && !Thread.currentThread().isInterrupted()) {
+                try {
+                    MinIOStorageService storageService = connect();
+                    stream = storageService.listenForReviewFiles("");
+                    reviewSourceService.setNotificationListenerActive(source.getId(), true);
+                    log.info("Listening for new .jl files in MinIO bucket: {} for source: {}",
+                            storageService.getBucketName(), source.getName());
+
+                    while (running && stream.hasNext()) {
+                        List<Event> events = stream.next().get().events();
+                        reconnectDelayMs = initialReconnectDelayMs;
+                        if (events == null) {
+                            continue;
+                        }
+                        for (Event event : events) {
+                            if (event.objectName() == null || !event.objectName().endsWith(".jl")) {
+                                continue;
+                            }
+                            log.info("Received MinIO {} notification for file: {} in source: {}",
+                                    event.eventType(), event.objectName(), source.getName());
+                            metricsService.recordNotificationEvent(source.getName());
+                            reviewSourceService.submitFile(source, toFileMetadata(event, storageService),
+                                    storageService, ProcessingLane.REALTIME, false);
+                        }
+                    }
+                    if (running) {
+                        log.warn("MinIO notification stream ended for source: {}, reconnecting", source.getName());
+                    }
+                } catch (Exception e) {
+                    if (!running) {
+                        break;
+                    }
+                    log.error("MinIO notification listener failed for source: {} - {}, reconnecting in {} ms",
+                            source.getName(), e.getMessage(), reconnectDelayMs, e);
+                } finally {
+                    // Fall back to regular polling for this source until the stream is back
+                    reviewSourceService.setNotificationListenerActive(source.getId(), false);
+                    closeStream();
+                }
+
+                if (running) {
+                    metricsService.recordNotificationReconnect(source.getName());
+                    try {
+                        Thread.sleep(reconnectDelayMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    reconnectDelayMs = Math.min(reconnectDelayMs * 2, maxReconnectDelayMs);
+                }
+            }
+            log.info("MinIO notification listener stopped for source: {}", source.getName());
+        }
+
+        private MinIOStorageService connect() throws Exception {
+            Credential credentials = credentialService.decryptCredential(source.getCredentialJson());
+            if (credentials == null) {
+                throw new IllegalStateException("Failed to decrypt credentials for source: " + source.getName());
+            }
+            StorageService storageService = storageServiceFactory.createStorageService(source.getUri(), credentials);
+            if (!(storageService instanceof MinIOStorageService minioStorageService)) {
+                throw new IllegalStateException("Failed to create MinIO storage service for source: " + source.getName());
+            }
+            return minioStorageService;
+        }
+
+        void stop() {
+            running = false;
+            closeStream();
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        private void closeStream() {
+            CloseableIterator<Result<NotificationRecords>> current = stream;
+            stream = null;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (Exception e) {
+                    log.debug("Error closing MinIO notification stream for source: {} - {}",
+                            source.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -2,17 +2,19 @@ package com.reviewproducer.service;
 
 import com.reviewcore.model.BasicCredential;
 import com.reviewproducer.model.FileMetadata;
+import io.minio.CloseableIterator;
 import io.minio.MinioClient;
 import io.minio.ListObjectsArgs;
+import io.minio.ListenBucketNotificationArgs;
 import io.minio.GetObjectArgs;
 import io.minio.StatObjectArgs;
 import io.minio.Result;
 import io.minio.errors.*;
 import io.minio.messages.Item;
+import io.minio.messages.NotificationRecords;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.security.InvalidKeyException;
@@ -22,6 +24,7 @@ import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -29,15 +32,20 @@ import java.util.Set;
 @Service
 public class MinIOStorageService implements StorageService {
     
+    private static final int LIST_PAGE_SIZE = 1000;
+    
     private MinioClient minioClient;
     private String bucketName;
     private String endpoint;
+    private StorageRateLimiter rateLimiter;
     
     public MinIOStorageService() {}
     
-    public void initialize(String endpoint, String bucketName, BasicCredential credential) {
+    public void initialize(String endpoint, String bucketName, BasicCredential credential, 
+                           StorageRateLimiterRegistry rateLimiterRegistry) {
         this.endpoint = endpoint;
         this.bucketName = bucketName;
+        this.rateLimiter = rateLimiterRegistry.getLimiter(endpoint, MinIOStorageService::isThrottleError);
         
         try {
             log.info("Initializing MinIO client for endpoint: {} and bucket: {}", endpoint, bucketName);
@@ -48,11 +56,17 @@ public class MinIOStorageService implements StorageService {
                     .build();
             
             // Test connection
-            boolean bucketExists = minioClient.bucketExists(
-                    io.minio.BucketExistsArgs.builder()
-                            .bucket(bucketName)
-                            .build()
-            );
+            boolean bucketExists = rateLimiter.execute("bucketExists", () -> {
+                try {
+                    return minioClient.bucketExists(
+                            io.minio.BucketExistsArgs.builder()
+                                    .bucket(bucketName)
+                                    .build()
+                    );
+                } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
+                    throw new RuntimeException("Failed to check MinIO bucket: " + bucketName, e);
+                }
+            });
             
             if (!bucketExists) {
                 log.error("MinIO bucket does not exist: {}", bucketName);
@@ -61,7 +75,7 @@ public class MinIOStorageService implements StorageService {
             
             log.info("Successfully connected to MinIO bucket: {}", bucketName);
             
-        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
+        } catch (RuntimeException e) {
             log.error("Failed to initialize MinIO client for endpoint: {} and bucket: {} - {}", 
                     endpoint, bucketName, e.getMessage(), e);
             throw new RuntimeException("Failed to initialize MinIO client", e);
@@ -70,185 +84,178 @@ public class MinIOStorageService implements StorageService {
     
     @Override
     public List<String> listReviewFiles(String prefix) {
-        try {
-            log.debug("Listing MinIO objects in bucket: {} with prefix: {}", bucketName, prefix);
-            
-            Iterable<Result<Item>> objects = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(bucketName)
-                            .prefix(prefix)
-                            .recursive(false)
-                            .build()
-            );
-            
-            List<String> files = new ArrayList<>();
-            for (Result<Item> result : objects) {
-                Item item = result.get();
-                if (item.objectName().endsWith(".jl")) {
-                    files.add(item.objectName());
-                }
+        log.debug("Listing MinIO objects in bucket: {} with prefix: {}", bucketName, prefix);
+        
+        List<String> files = new ArrayList<>();
+        for (Item item : listObjects(prefix, false)) {
+            if (item.objectName().endsWith(".jl")) {
+                files.add(item.objectName());
             }
-            
-            log.info("Found {} .jl files in prefix: {}", files.size(), prefix);
-            return files;
-            
-        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
-            log.error("Error listing MinIO files in bucket: {} with prefix: {} - {}", 
-                    bucketName, prefix, e.getMessage(), e);
-            throw new RuntimeException("Failed to list MinIO files", e);
         }
+        
+        log.info("Found {} .jl files in prefix: {}", files.size(), prefix);
+        return files;
     }
     
     @Override
     public List<String> listReviewFilesRecursive(String prefix) {
-        try {
-            log.debug("Listing MinIO objects recursively in bucket: {} with prefix: {}", bucketName, prefix);
-            
-            Iterable<Result<Item>> objects = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(bucketName)
-                            .prefix(prefix)
-                            .recursive(true)
-                            .build()
-            );
-            
-            List<String> files = new ArrayList<>();
-            for (Result<Item> result : objects) {
-                Item item = result.get();
-                if (item.objectName().endsWith(".jl")) {
-                    files.add(item.objectName());
-                }
-            }
-            
-            log.info("Found {} .jl files recursively in prefix: {}", files.size(), prefix);
-            
-            // Log file names at DEBUG level
-            for (String file : files) {
-                log.debug("Found file: {}", file);
+        log.debug("Listing MinIO objects recursively in bucket: {} with prefix: {}", bucketName, prefix);
+        
+        List<String> files = new ArrayList<>();
+        for (Item item : listObjects(prefix, true)) {
+            if (item.objectName().endsWith(".jl")) {
+                files.add(item.objectName());
             }
-            
-            return files;
-            
-        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
-            log.error("Error listing MinIO files recursively in bucket: {} with prefix: {} - {}", 
-                    bucketName, prefix, e.getMessage(), e);
-            throw new RuntimeException("Failed to list MinIO files recursively", e);
         }
+        
+        log.info("Found {} .jl files recursively in prefix: {}", files.size(), prefix);
+        
+        // Log file names at DEBUG level
+        for (String file : files) {
+            log.debug("Found file: {}", file);
+        }
+        
+        return files;
     }
     
     @Override
     public List<FileMetadata> listReviewFilesWithMetadata(String prefix) {
-        try {
-            log.info("Listing MinIO objects with metadata in bucket: {} with prefix: {}", bucketName, prefix);
-            
-            Iterable<Result<Item>> objects = minioClient.listObjects(
-                    ListObjectsArgs.builder()
-                            .bucket(bucketName)
-                            .prefix(prefix)
-                            .recursive(true)
-                            .build()
-            );
-            
-            // First, let's count and print ALL objects found to understand the structure
-            List<Item> allItems = new ArrayList<>();
-            for (Result<Item> result : objects) {
-                allItems.add(result.get());
-            }
-            
-            log.info("Total objects found in bucket {} with prefix {}: {}", bucketName, prefix, allItems.size());
-            
-            if (allItems.isEmpty()) {
-                log.warn("No objects found in bucket {} with prefix {}", bucketName, prefix);
-                return new ArrayList<>();
-            }
-            
-            // Print all objects for debugging
-            for (Item item : allItems) {
-                log.info("Found object: {} (size: {} bytes, modified: {})", 
-                        item.objectName(), item.size(), item.lastModified());
-            }
-            
-            List<FileMetadata> files = new ArrayList<>();
-            
-            for (Item item : allItems) {
-                if (item.objectName().endsWith(".jl")) {
-                    String fileName = item.objectName().substring(item.objectName().lastIndexOf('/') + 1);
-                    ZonedDateTime lastModified = item.lastModified();
-                    
-                    FileMetadata metadata = new FileMetadata(
-                            fileName,
-                            item.objectName(),
-                            item.size(),
-                            lastModified.toInstant(),
-                            lastModified.toInstant(), // MinIO doesn't provide creation time, using lastModified
-                            item.etag(),
-                            "application/jsonl"
-                    );
-                    
-                    files.add(metadata);
-                    log.info("Found .jl file: {} (size: {} bytes, modified: {})", 
-                            item.objectName(), item.size(), lastModified);
-                }
-            }
-            
-            log.info("Found {} .jl files with metadata in prefix: {}", files.size(), prefix);
-            
-            // Log subfolder structure
-            Set<String> subfolders = new HashSet<>();
-            for (Item item : allItems) {
-                String key = item.objectName();
-                int lastSlash = key.lastIndexOf('/');
-                if (lastSlash > 0) {
-                    subfolders.add(key.substring(0, lastSlash));
-                }
+        log.info("Listing MinIO objects with metadata in bucket: {} with prefix: {}", bucketName, prefix);
+        
+        // First, let's count and print ALL objects found to understand the structure
+        List<Item> allItems = listObjects(prefix, true);
+        
+        log.info("Total objects found in bucket {} with prefix {}: {}", bucketName, prefix, allItems.size());
+        
+        if (allItems.isEmpty()) {
+            log.warn("No objects found in bucket {} with prefix {}", bucketName, prefix);
+            return new ArrayList<>();
+        }
+        
+        // Print all objects for debugging
+        for (Item item : allItems) {
+            log.info("Found object: {} (size: {} bytes, modified: {})", 
+                    item.objectName(), item.size(), item.lastModified());
+        }
+        
+        List<FileMetadata> files = new ArrayList<>();
+        
+        for (Item item : allItems) {
+            if (item.objectName().endsWith(".jl")) {
+                String fileName = item.objectName().substring(item.objectName().lastIndexOf('/') + 1);
+                ZonedDateTime lastModified = item.lastModified();
+                
+                FileMetadata metadata = new FileMetadata(
+                        fileName,
+                        item.objectName(),
+                        item.size(),
+                        lastModified.toInstant(),
+                        lastModified.toInstant(), // MinIO doesn't provide creation time, using lastModified
+                        item.etag(),
+                        "application/jsonl"
+                );
+                
+                files.add(metadata);
+                log.info("Found .jl file: {} (size: {} bytes, modified: {})", 
+                        item.objectName(), item.size(), lastModified);
             }
-            
-            log.info("Found {} subfolders:", subfolders.size());
-            for (String subfolder : subfolders) {
-                log.info("  - Subfolder: {}", subfolder);
+        }
+        
+        log.info("Found {} .jl files with metadata in prefix: {}", files.size(), prefix);
+        
+        // Log subfolder structure
+        Set<String> subfolders = new HashSet<>();
+        for (Item item : allItems) {
+            String key = item.objectName();
+            int lastSlash = key.lastIndexOf('/');
+            if (lastSlash > 0) {
+                subfolders.add(key.substring(0, lastSlash));
             }
+        }
+        
+        log.info("Found {} subfolders:", subfolders.size());
+        for (String subfolder : subfolders) {
+            log.info("  - Subfolder: {}", subfolder);
+        }
+        
+        return files;
+    }
+
+    @Override
+    public byte[] getFile(String key) {
+        log.debug("Getting MinIO file: {} from bucket: {}", key, bucketName);
+        
+        // Only the request is rate limited; the body is streamed once the object is open
+        try (InputStream stream = rateLimiter.execute("getObject", () -> openObject(key))) {
+            byte[] content = stream.readAllBytes();
             
-            return files;
+            log.debug("Successfully retrieved MinIO file: {} ({} bytes)", key, content.length);
+            return content;
             
-        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
-            log.error("Error listing MinIO files with metadata in bucket: {} with prefix: {} - {}", 
-                    bucketName, prefix, e.getMessage(), e);
-            throw new RuntimeException("Failed to list MinIO files with metadata", e);
+        } catch (IOException e) {
+            log.error("Error reading MinIO file {} from bucket: {} - {}", key, bucketName, e.getMessage(), e);
+            throw new RuntimeException("Failed to get MinIO file", e);
         }
     }
     
-    @Override
-    public byte[] getFile(String key) {
+    private InputStream openObject(String key) {
         try {
-            log.debug("Getting MinIO file: {} from bucket: {}", key, bucketName);
-            
-            InputStream stream = minioClient.getObject(
+            return minioClient.getObject(
                     GetObjectArgs.builder()
                             .bucket(bucketName)
                             .object(key)
                             .build()
             );
-            
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = stream.read(buffer)) != -1) {
-                baos.write(buffer, 0, bytesRead);
+        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
+            log.error("Error getting MinIO file {} from bucket: {} - {}", key, bucketName, e.getMessage(), e);
+            throw new RuntimeException("Failed to get MinIO file", e);
+        }
+    }
+    
+    /**
+     * List all objects under the prefix one page at a time, each page request under the rate limiter
+     */
+    private List<Item> listObjects(String prefix, boolean recursive) {
+        List<Item> items = new ArrayList<>();
+        String startAfter = null;
+        while (true) {
+            String pageStart = startAfter;
+            List<Item> page = rateLimiter.execute("listObjects", () -> listObjectsPage(prefix, recursive, pageStart));
+            items.addAll(page);
+            if (page.size() < LIST_PAGE_SIZE) {
+                return items;
+            }
+            Item last = page.get(page.size() - 1);
+            // A common prefix stands for every key under it, so the next page starts past all of them
+            startAfter = last.isDir() ? last.objectName() + Character.MAX_VALUE : last.objectName();
+        }
+    }
+    
+    /**
+     * Read one page of the listing; the client fetches a page per request and stops at maxKeys
+     */
+    private List<Item> listObjectsPage(String prefix, boolean recursive, String startAfter) {
+        try {
+            ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .recursive(recursive)
+                    .maxKeys(LIST_PAGE_SIZE);
+            if (startAfter != null) {
+                args.startAfter(startAfter);
             }
             
-            byte[] content = baos.toByteArray();
-            stream.close();
-            baos.close();
-            
-            log.debug("Successfully retrieved MinIO file: {} ({} bytes)", key, content.length);
-            return content;
+            Iterator<Result<Item>> objects = minioClient.listObjects(args.build()).iterator();
+            List<Item> page = new ArrayList<>();
+            while (page.size() < LIST_PAGE_SIZE && objects.hasNext()) {
+                page.add(objects.next().get());
+            }
+            return page;
             
         } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
-            log.error("Error getting MinIO file {} from bucket: {} - {}", key, bucketName, e.getMessage(), e);
-            throw new RuntimeException("Failed to get MinIO file", e);
-        } catch (Exception e) {
-            log.error("Unexpected error getting MinIO file {} from bucket: {} - {}", key, bucketName, e.getMessage(), e);
-            throw new RuntimeException("Failed to get MinIO file", e);
+            log.error("Error listing MinIO files in bucket: {} with prefix: {} - {}", 
+                    bucketName, prefix, e.getMessage(), e);
+            throw new RuntimeException("Failed to list MinIO files", e);
         }
     }
     
@@ -271,6 +278,10 @@ public class MinIOStorageService implements StorageService {
     
     @Override
     public FileMetadata getFileMetadata(String key) {
+        return rateLimiter.execute("statObject", () -> doGetFileMetadata(key));
+    }
+    
+    private FileMetadata doGetFileMetadata(String key) {
         try {
             log.debug("Getting metadata for MinIO file: {} from bucket: {}", key, bucketName);
             
@@ -308,6 +319,16 @@ public class MinIOStorageService implements StorageService {
     
     @Override
     public boolean fileExists(String key) {
+        try {
+            return rateLimiter.execute("statObject", () -> doFileExists(key));
+        } catch (RuntimeException e) {
+            log.error("Error checking if MinIO file exists: {} in bucket: {} - {}", 
+                    key, bucketName, e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    private boolean doFileExists(String key) {
         try {
             minioClient.statObject(
                     StatObjectArgs.builder()
@@ -321,18 +342,74 @@ public class MinIOStorageService implements StorageService {
             if (e.errorResponse().code().equals("NoSuchKey")) {
                 return false;
             }
+            if (isThrottleError(e)) {
+                // Let the rate limiter back off and retry
+                throw new RuntimeException("MinIO endpoint throttled stat request", e);
+            }
             log.error("Error checking if MinIO file exists: {} in bucket: {} - {}", 
                     key, bucketName, e.getMessage(), e);
             return false;
         } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
+            if (isThrottleError(e)) {
+                throw new RuntimeException("MinIO endpoint throttled stat request", e);
+            }
             log.error("Error checking if MinIO file exists: {} in bucket: {} - {}", 
                     key, bucketName, e.getMessage(), e);
             return false;
         }
     }
     
+    /**
+     * Subscribe to object-created notifications for .jl files under the prefix.
+     * The returned iterator blocks until events arrive; close it to end the subscription.
+     */
+    public CloseableIterator<Result<NotificationRecords>> listenForReviewFiles(String prefix) {
+        try {
+            log.info("Subscribing to MinIO bucket notifications for bucket: {} with prefix: {}", bucketName, prefix);
+            
+            return minioClient.listenBucketNotification(
+                    ListenBucketNotificationArgs.builder()
+                            .bucket(bucketName)
+                            .prefix(prefix != null ? prefix : "")
+                            .suffix(".jl")
+                            .events(new String[] {"s3:ObjectCreated:*"})
+                            .build()
+            );
+            
+        } catch (MinioException | InvalidKeyException | NoSuchAlgorithmException | IOException e) {
+            log.error("Error subscribing to MinIO bucket notifications for bucket: {} - {}", 
+                    bucketName, e.getMessage(), e);
+            throw new RuntimeException("Failed to listen for MinIO bucket notifications", e);
+        }
+    }
+    
+    public String getBucketName() {
+        return bucketName;
+    }
+    
     @Override
     public String getStorageType() {
         return "minio";
     }
+    
+    /**
+     * MinIO signals overload with 503 / SlowDown style error codes
+     */
+    static boolean isThrottleError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ErrorResponseException responseException) {
+                String code = responseException.errorResponse() != null ? responseException.errorResponse().code() : null;
+                int status = responseException.response() != null ? responseException.response().code() : 0;
+                if (status == 503 || status == 429 || "SlowDown".equals(code) || "SlowDownRead".equals(code) 
+                        || "ServiceUnavailable".equals(code) || "TooManyRequests".equals(code)) {
+                    return true;
+                }
+            }
+            if (cause instanceof ServerException serverException 
+                    && (serverException.statusCode() == 503 || serverException.statusCode() == 429)) {
+                return true;
+            }
+        }
+        return false;
+    }
 } 
\ No newline at end of file
@@ -2,8 +2,13 @@ package com.reviewproducer.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.reviewcore.kafka.ReviewKafkaHeaders;
+import com.reviewproducer.model.ProcessingLane;
+import com.reviewproducer.model.ReviewLineOrigin;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
@@ -20,6 +25,9 @@ public class ReviewKafkaProducerService {
     @Value("${kafka.topic.reviews:reviews}")
     private String reviewsTopic;
     
+    @Value("${kafka.topic.reviews-bulk:good_review_records_bulk}")
+    private String bulkReviewsTopic;
+    
     @Value("${kafka.topic.bad-reviews:bad_review_records}")
     private String badReviewsTopic;
     
@@ -27,12 +35,24 @@ public class ReviewKafkaProducerService {
     private String dlqTopic;
     
     /**
-     * Send a valid review to Kafka
+     * Send a valid review to Kafka on the realtime lane
      */
     public void sendValidReview(String reviewJson) {
+        sendValidReview(reviewJson, ProcessingLane.REALTIME);
+    }
+    
+    /**
+     * Send a valid review to the Kafka topic of the given lane
+     */
+    public void sendValidReview(String reviewJson, ProcessingLane lane) {
+        sendValidReview(reviewJson, parseQuietly(reviewJson), lane, ReviewLineOrigin.api());
+    }
+    
+    private void sendValidReview(String reviewJson, JsonNode reviewNode, ProcessingLane lane, ReviewLineOrigin origin) {
+        String topic = getReviewsTopic(lane);
         try {
-            kafkaTemplate.send(reviewsTopic, reviewJson);
-            log.debug("Sent valid review to Kafka topic: {}", reviewsTopic);
+            send(topic, reviewJson, buildHeaders(reviewJson, reviewNode, origin, null), hotelIdKey(reviewNode));
+            log.debug("Sent valid review to Kafka topic: {} (lane: {})", topic, lane.getTag());
         } catch (Exception e) {
             log.error("Failed to send valid review to Kafka: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to send valid review to Kafka", e);
@@ -43,8 +63,12 @@ public class ReviewKafkaProducerService {
      * Send a bad review record to Kafka
      */
     public void sendBadReview(String badReviewJson) {
+        sendBadReview(badReviewJson, null);
+    }
+    
+    private void sendBadReview(String badReviewJson, RecordHeaders headers) {
         try {
-            kafkaTemplate.send(badReviewsTopic, badReviewJson);
+            send(badReviewsTopic, badReviewJson, headers, null);
             log.debug("Sent bad review to Kafka topic: {}", badReviewsTopic);
         } catch (Exception e) {
             log.error("Failed to send bad review to Kafka: {}", e.getMessage(), e);
@@ -56,8 +80,12 @@ public class ReviewKafkaProducerService {
      * Send a record to Dead Letter Queue (DLQ)
      */
     public void sendToDLQ(String dlqRecordJson) {
+        sendToDLQ(dlqRecordJson, null);
+    }
+    
+    private void sendToDLQ(String dlqRecordJson, RecordHeaders headers) {
         try {
-            kafkaTemplate.send(dlqTopic, dlqRecordJson);
+            send(dlqTopic, dlqRecordJson, headers, null);
             log.debug("Sent record to DLQ topic: {}", dlqTopic);
         } catch (Exception e) {
             log.error("Failed to send record to DLQ: {}", e.getMessage(), e);
@@ -65,17 +93,40 @@ public class ReviewKafkaProducerService {
         }
     }
     
+    private void send(String topic, String payload, RecordHeaders headers, String key) {
+        kafkaTemplate.send(new ProducerRecord<>(topic, null, key, payload, headers));
+    }
+    
+    /**
+     * Get the reviews topic for a processing lane
+     */
+    public String getReviewsTopic(ProcessingLane lane) {
+        return lane == ProcessingLane.BULK ? bulkReviewsTopic : reviewsTopic;
+    }
+    
     /**
-     * Process a single review line with validation
+     * Process a single review line with validation on the realtime lane
      */
     public void processReviewLine(String reviewJson) {
+        processReviewLine(reviewJson, ProcessingLane.REALTIME, ReviewLineOrigin.api());
+    }
+    
+    /**
+     * Process a single review line with validation, routing valid reviews to the lane's topic
+     */
+    public void processReviewLine(String reviewJson, ProcessingLane lane, ReviewLineOrigin origin) {
         try {
+            // Parse once; the parsed tree feeds both validation and the record headers
+            JsonNode reviewNode = parseQuietly(reviewJson);
+            
             // Validate the review
-            ReviewValidationService.ValidationResult validationResult = validationService.validateReview(reviewJson);
+            ReviewValidationService.ValidationResult validationResult = reviewNode != null 
+                    ? validationService.validateReview(reviewNode) 
+                    : validationService.validateReview(reviewJson);
             
             if (validationResult.isValid()) {
                 // Send valid review to Kafka
-                sendValidReview(reviewJson);
+                sendValidReview(reviewJson, reviewNode, lane, origin);
                 log.debug("Valid review sent to Kafka");
             } else if (validationResult.shouldSendToDLQ()) {
                 // Extract platform and review ID info for DLQ record
@@ -84,7 +135,7 @@ public class ReviewKafkaProducerService {
                 
                 // Create and send DLQ record
                 String dlqRecord = createDLQRecord(reviewJson, platform, validationResult.getReason(), reviewIdInfo);
-                sendToDLQ(dlqRecord);
+                sendToDLQ(dlqRecord, buildHeaders(reviewJson, reviewNode, origin, validationResult.getReason()));
                 
                 // Log the DLQ record
                 log.warn("Record sent to DLQ - Platform: {}, Reason: {}, ReviewId: {}, ProviderId: {}", 
@@ -96,7 +147,7 @@ public class ReviewKafkaProducerService {
                 
                 // Create and send bad review record
                 String badReviewRecord = createBadReviewRecord(reviewJson, platform, validationResult.getReason());
-                sendBadReview(badReviewRecord);
+                sendBadReview(badReviewRecord, buildHeaders(reviewJson, reviewNode, origin, validationResult.getReason()));
                 
                 // Log the bad record
                 log.warn("Bad review record detected - Platform: {}, Reason: {}, Record: {}", 
@@ -108,8 +159,59 @@ public class ReviewKafkaProducerService {
             
             // Create bad record for processing error
             String platform = validationService.extractPlatform(reviewJson);
-            String badReviewRecord = createBadReviewRecord(reviewJson, platform, "PROCESSING_ERROR: " + e.getMessage());
-            sendBadReview(badReviewRecord);
+            String reason = "PROCESSING_ERROR: " + e.getMessage();
+            String badReviewRecord = createBadReviewRecord(reviewJson, platform, reason);
+            sendBadReview(badReviewRecord, buildHeaders(reviewJson, parseQuietly(reviewJson), origin, reason));
+        }
+    }
+    
+    /**
+     * Build the routing headers for a review line; fields missing from the payload are left out
+     */
+    private RecordHeaders buildHeaders(String reviewJson, JsonNode reviewNode, ReviewLineOrigin origin, String reason) {
+        RecordHeaders headers = new RecordHeaders();
+        if (reviewNode != null) {
+            JsonNode commentNode = reviewNode.path("comment");
+            addHeader(headers, ReviewKafkaHeaders.PLATFORM, textValue(reviewNode.get("platform")));
+            addHeader(headers, ReviewKafkaHeaders.HOTEL_ID, textValue(reviewNode.get("hotelId")));
+            addHeader(headers, ReviewKafkaHeaders.REVIEW_ID, textValue(commentNode.get("hotelReviewId")));
+            addHeader(headers, ReviewKafkaHeaders.PROVIDER_ID, textValue(commentNode.get("providerId")));
+        }
+        if (origin != null) {
+            addHeader(headers, ReviewKafkaHeaders.SOURCE, origin.getSourceName());
+            addHeader(headers, ReviewKafkaHeaders.FILE_KEY, origin.getFileKey());
+            addHeader(headers, ReviewKafkaHeaders.LINE_NUMBER, origin.getLineNumber());
+        }
+        addHeader(headers, ReviewKafkaHeaders.INGEST_TIMESTAMP, System.currentTimeMillis());
+        addHeader(headers, ReviewKafkaHeaders.CONTENT_HASH, ReviewKafkaHeaders.contentHash(reviewJson));
+        addHeader(headers, ReviewKafkaHeaders.VALIDATION_REASON, reason);
+        return headers;
+    }
+    
+    private void addHeader(RecordHeaders headers, String name, Object value) {
+        byte[] encoded = ReviewKafkaHeaders.encode(value);
+        if (encoded != null) {
+            headers.add(name, encoded);
+        }
+    }
+    
+    private String textValue(JsonNode node) {
+        return node != null && !node.isNull() && !node.isMissingNode() ? node.asText() : null;
+    }
+    
+    /**
+     * Key valid reviews by hotel so all reviews of an entity land on the same partition in order
+     */
+    private String hotelIdKey(JsonNode reviewNode) {
+        return reviewNode != null ? textValue(reviewNode.get("hotelId")) : null;
+    }
+    
+    private JsonNode parseQuietly(String reviewJson) {
+        try {
+            JsonNode reviewNode = objectMapper.readTree(reviewJson);
+            return reviewNode != null && reviewNode.isObject() ? reviewNode : null;
+        } catch (Exception e) {
+            return null;
         }
     }
     
@@ -3,6 +3,8 @@ package com.reviewproducer.service;
 import com.reviewcore.model.ReviewSource;
 import com.reviewcore.model.Credential;
 import com.reviewproducer.model.FileMetadata;
+import com.reviewproducer.model.ProcessingLane;
+import com.reviewproducer.model.ReviewLineOrigin;
 import com.reviewproducer.repository.ReviewSourceRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,8 +12,15 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -23,34 +32,71 @@ public class ReviewSourceService {
     private final StorageServiceFactory storageServiceFactory;
     private final ReviewKafkaProducerService kafkaProducerService;
     private final MetricsService metricsService;
+    private final SourceLeaseService sourceLeaseService;
+    private final ConsumerLagThrottle consumerLagThrottle;
     
-    @Value("${review.producer.thread.pool.size:2}")
-    private int threadPoolSize;
+    @Value("${review.producer.lanes.realtime.thread-pool-size:${review.producer.thread.pool.size:2}}")
+    private int realtimeThreadPoolSize;
     
-    @Value("${review.producer.queue.capacity:100}")
-    private int queueCapacity;
+    @Value("${review.producer.lanes.realtime.queue-capacity:${review.producer.queue.capacity:100}}")
+    private int realtimeQueueCapacity;
     
-    private BlockingQueue<FileProcessingTask> fileQueue;
-    private ExecutorService executorService;
-    private final AtomicInteger activeThreads = new AtomicInteger(0);
+    @Value("${review.producer.lanes.realtime.window-hours:24}")
+    private long realtimeWindowHours;
+    
+    @Value("${review.producer.lanes.bulk.thread-pool-size:1}")
+    private int bulkThreadPoolSize;
+    
+    @Value("${review.producer.lanes.bulk.queue-capacity:1000}")
+    private int bulkQueueCapacity;
+    
+    @Value("${review.producer.lanes.bulk.max-lines-per-second:500}")
+    private int bulkMaxLinesPerSecond;
+    
+    @Value("${review.producer.minio-notifications.reconciliation-interval:3600000}")
+    private long reconciliationIntervalMs;
+    
+    // How often a lane paused by the consumer lag throttle checks whether it may resume
+    private static final long THROTTLE_PAUSE_CHECK_MS = 1000;
+    
+    private final Map<ProcessingLane, LaneWorkers> lanes = new EnumMap<>(ProcessingLane.class);
+    
+    // Sources with a live bucket-notification stream
+    private final Set<Integer> notifiedSources = ConcurrentHashMap.newKeySet();
+    
+    // When the poll last swept each source; kept across stream reconnects so they cannot postpone the sweep
+    private final Map<Integer, Long> lastSweeps = new ConcurrentHashMap<>();
+    
+    // Files currently queued or in progress, so overlapping polls and events do not queue them twice
+    private final Set<String> pendingFiles = ConcurrentHashMap.newKeySet();
+    
+    // Files swept but not yet processed, per source, which the watermark must not pass
+    private final Map<Integer, SourceWatermark> watermarks = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void initQueueAndExecutor() {
-        this.fileQueue = new LinkedBlockingQueue<>(queueCapacity);
-        this.executorService = Executors.newFixedThreadPool(threadPoolSize);
-        log.info("Initialized ReviewSourceService with {} threads and queue capacity {}", threadPoolSize, queueCapacity);
+        lanes.put(ProcessingLane.REALTIME, new LaneWorkers(ProcessingLane.REALTIME, 
+                realtimeThreadPoolSize, realtimeQueueCapacity, 0));
+        lanes.put(ProcessingLane.BULK, new LaneWorkers(ProcessingLane.BULK, 
+                bulkThreadPoolSize, bulkQueueCapacity, bulkMaxLinesPerSecond));
+        lanes.values().forEach(workers -> log.info("Initialized {} lane with {} threads, queue capacity {} and rate limit {} lines/s", 
+                workers.lane.getTag(), workers.threadPoolSize, workers.queueCapacity, workers.maxLinesPerSecond));
     }
 
     public ReviewSourceService(ReviewSourceRepository reviewSourceRepository, 
                              CredentialService credentialService,
                              StorageServiceFactory storageServiceFactory,
                              ReviewKafkaProducerService kafkaProducerService,
-                             MetricsService metricsService) {
+                             MetricsService metricsService,
+                             SourceLeaseService sourceLeaseService,
+                             ConsumerLagThrottle consumerLagThrottle) {
         this.reviewSourceRepository = reviewSourceRepository;
         this.credentialService = credentialService;
         this.storageServiceFactory = storageServiceFactory;
         this.kafkaProducerService = kafkaProducerService;
         this.metricsService = metricsService;
+        this.sourceLeaseService = sourceLeaseService;
+        this.consumerLagThrottle = consumerLagThrottle;
     }
 
     public List<ReviewSource> getActiveSources() {
@@ -76,10 +122,25 @@ public class ReviewSourceService {
         
         try {
             List<ReviewSource> activeSources = reviewSourceRepository.findAllActive();
+            log.info("Found {} active review sources", activeSources.size());
+            
+            // With several producer replicas, only ingest the sources leased to this instance
+            if (sourceLeaseService.isLeasingEnabled()) {
+                sourceLeaseService.heartbeat();
+                activeSources = activeSources.stream()
+                        .filter(source -> sourceLeaseService.ownsSource(source.getId()))
+                        .toList();
+                log.info("Instance {} owns {} of the active review sources", 
+                        sourceLeaseService.getInstanceId(), activeSources.size());
+            }
             totalSources = activeSources.size();
-            log.info("Found {} active review sources", totalSources);
             
             for (ReviewSource source : activeSources) {
+                if (!isReconciliationDue(source)) {
+                    log.debug("Skipping poll for source: {} (covered by bucket notifications)", source.getName());
+                    successCount++;
+                    continue;
+                }
                 try {
                     ProcessingMetrics metrics = processReviewSource(source);
                     successCount++;
@@ -105,6 +166,36 @@ public class ReviewSourceService {
         }
     }
 
+    /**
+     * Mark whether new files of a source are delivered by a live notification stream
+     */
+    public void setNotificationListenerActive(Integer sourceId, boolean active) {
+        if (active) {
+            notifiedSources.add(sourceId);
+        } else {
+            notifiedSources.remove(sourceId);
+        }
+    }
+    
+    /**
+     * Sources without a notification stream are polled on every run; the others only get a
+     * reconciliation sweep once per interval to catch events missed while reconnecting
+     */
+    boolean isReconciliationDue(ReviewSource source) {
+        long now = System.currentTimeMillis();
+        if (!notifiedSources.contains(source.getId())) {
+            lastSweeps.put(source.getId(), now);
+            return true;
+        }
+        Long lastSweep = lastSweeps.get(source.getId());
+        if (lastSweep != null && now - lastSweep < reconciliationIntervalMs) {
+            return false;
+        }
+        lastSweeps.put(source.getId(), now);
+        log.info("Running reconciliation sweep for notification-driven source: {}", source.getName());
+        return true;
+    }
+    
     private ProcessingMetrics processReviewSource(ReviewSource source) {
         log.info("Processing review source: {} (URI: {})", source.getName(), source.getUri());
         
@@ -163,20 +254,16 @@ public class ReviewSourceService {
                 return metrics;
             }
             
-            // Add files to processing queue
+            // Both lanes finish out of order, so the whole sweep is tracked before any file is queued
+            watermarkOf(source).startSweep(filesToProcess);
+            
+            // Add files to the processing queue of their lane
             int queuedFiles = 0;
             for (FileMetadata file : filesToProcess) {
-                FileProcessingTask task = new FileProcessingTask(source, file, storageService);
-                try {
-                    if (fileQueue.offer(task, 30, TimeUnit.SECONDS)) {
-                        log.debug("Added file to processing queue: {}", file.getName());
-                        queuedFiles++;
-                    } else {
-                        log.warn("Failed to add file to processing queue (timeout): {}", file.getName());
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    log.error("Interrupted while adding file to queue: {}", file.getName());
+                ProcessingLane lane = resolveLane(file);
+                if (submitFile(source, file, storageService, lane)) {
+                    queuedFiles++;
+                } else if (Thread.currentThread().isInterrupted()) {
                     break;
                 }
             }
@@ -185,9 +272,6 @@ public class ReviewSourceService {
             log.info("Successfully queued {} out of {} files for processing for source: {}", 
                     queuedFiles, filesToProcess.size(), source.getName());
             
-            // Start processing threads if not already running
-            startProcessingThreads();
-            
         } catch (Exception e) {
             log.error("Error processing review source: {} - {}", source.getName(), e.getMessage(), e);
         }
@@ -216,23 +300,143 @@ public class ReviewSourceService {
         return filteredFiles;
     }
     
-    private void startProcessingThreads() {
-        int currentActive = activeThreads.get();
-        if (currentActive < threadPoolSize) {
-            int threadsToStart = threadPoolSize - currentActive;
-            log.info("Starting {} processing threads (current active: {})", threadsToStart, currentActive);
-            
-            for (int i = 0; i < threadsToStart; i++) {
-                executorService.submit(new FileProcessor());
+    /**
+     * Resolve the lane for a discovered file: recent files are realtime, older ones are backfill
+     */
+    ProcessingLane resolveLane(FileMetadata file) {
+        Instant realtimeCutoff = Instant.now().minus(Duration.ofHours(realtimeWindowHours));
+        return file.getCreated() != null && file.getCreated().isBefore(realtimeCutoff) 
+                ? ProcessingLane.BULK : ProcessingLane.REALTIME;
+    }
+    
+    /**
+     * Queue a single file on the given lane and make sure the lane's workers are running.
+     * Blocks for up to 30 seconds when the lane queue is full.
+     */
+    public boolean submitFile(ReviewSource source, FileMetadata file, StorageService storageService, ProcessingLane lane) {
+        return enqueueFile(source, file, storageService, lane, true);
+    }
+    
+    /**
+     * Queue a single file, optionally without tracking it in the source's watermark. Files submitted
+     * from storage events pass false: the watermark bounds the polling sweep, and moving it past files
+     * the sweep has not reached yet would skip them for good.
+     */
+    public boolean submitFile(ReviewSource source, FileMetadata file, StorageService storageService,
+                              ProcessingLane lane, boolean advanceWatermark) {
+        return enqueueFile(source, file, storageService, lane, advanceWatermark);
+    }
+    
+    private boolean enqueueFile(ReviewSource source, FileMetadata file, StorageService storageService, 
+                                ProcessingLane lane, boolean advanceWatermark) {
+        LaneWorkers workers = lanes.get(lane);
+        FileProcessingTask task = new FileProcessingTask(source, file, storageService, lane);
+        if (advanceWatermark) {
+            watermarkOf(source).track(file);
+        }
+        if (!pendingFiles.add(task.getPendingKey())) {
+            // The task already queued reports the file to the watermark when it finishes
+            log.debug("File already queued or in progress, skipping: {}", file.getKey());
+            return false;
+        }
+        
+        boolean queued = false;
+        try {
+            queued = workers.queue.offer(task, 30, TimeUnit.SECONDS);
+            if (queued) {
+                log.debug("Added file to {} processing queue: {}", lane.getTag(), file.getName());
+            } else {
+                log.warn("Failed to add file to {} processing queue (timeout): {}", lane.getTag(), file.getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while adding file to {} queue: {}", lane.getTag(), file.getName());
+        } finally {
+            if (!queued) {
+                pendingFiles.remove(task.getPendingKey());
+                watermarkOf(source).abandon(file);
+            }
+        }
+        
+        startProcessingThreads(workers);
+        return queued;
+    }
+    
+    /**
+     * Replay all files of a source created in [from, to) through the throttled bulk lane.
+     * Backfills are not tracked in the source's last processed timestamp.
+     */
+    public int backfillSource(Integer sourceId, Instant from, Instant to) {
+        ReviewSource source = getActiveSources().stream()
+                .filter(candidate -> candidate.getId().equals(sourceId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No active review source with id: " + sourceId));
+        
+        log.info("Starting backfill for source: {} from {} to {} UTC", source.getName(), from, to);
+        
+        Credential credentials;
+        try {
+            credentials = credentialService.decryptCredential(source.getCredentialJson());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to decrypt credentials for source: " + source.getName(), e);
+        }
+        if (credentials == null) {
+            throw new IllegalStateException("Failed to decrypt credentials for source: " + source.getName());
+        }
+        StorageService storageService = storageServiceFactory.createStorageService(source.getUri(), credentials);
+        if (storageService == null) {
+            throw new IllegalStateException("Failed to create storage service for source: " + source.getName());
+        }
+        
+        List<FileMetadata> files = storageService.listReviewFilesWithMetadata(extractPrefixFromUri(source.getUri())).stream()
+                .filter(file -> file.getCreated() != null)
+                .filter(file -> (from == null || !file.getCreated().isBefore(from)) 
+                        && (to == null || file.getCreated().isBefore(to)))
+                .toList();
+        logFileMetrics(files, source.getName(), "BACKFILL_FILES");
+        
+        int queuedFiles = 0;
+        for (FileMetadata file : files) {
+            if (enqueueFile(source, file, storageService, ProcessingLane.BULK, false)) {
+                queuedFiles++;
+            } else if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+        
+        log.info("Backfill queued {} out of {} files for source: {}", queuedFiles, files.size(), source.getName());
+        return queuedFiles;
+    }
+    
+    private void startProcessingThreads(LaneWorkers workers) {
+        // Synchronized per lane so concurrent submitters cannot over-start workers
+        synchronized (workers) {
+            int currentActive = workers.activeThreads.get() + workers.startingThreads.get();
+            if (currentActive < workers.threadPoolSize) {
+                int threadsToStart = workers.threadPoolSize - currentActive;
+                log.info("Starting {} {} processing threads (current active: {})", 
+                        threadsToStart, workers.lane.getTag(), currentActive);
+                
+                for (int i = 0; i < threadsToStart; i++) {
+                    workers.startingThreads.incrementAndGet();
+                    workers.executorService.submit(new FileProcessor(workers));
+                }
             }
         }
         
         // Log queue and thread metrics
-        log.info("Processing metrics - Active threads: {}/{}, Queue depth: {}/{}", 
-                activeThreads.get(), threadPoolSize, fileQueue.size(), queueCapacity);
+        log.info("Processing metrics - Lane: {}, Active threads: {}/{}, Queue depth: {}/{}", 
+                workers.lane.getTag(), workers.activeThreads.get(), workers.threadPoolSize, 
+                workers.queue.size(), workers.queueCapacity);
         
         // Record queue and thread metrics
-        metricsService.recordQueueMetrics(activeThreads.get(), threadPoolSize, fileQueue.size(), queueCapacity);
+        metricsService.recordLaneQueueMetrics(workers.lane.getTag(), workers.activeThreads.get(), 
+                workers.threadPoolSize, workers.queue.size(), workers.queueCapacity);
+        metricsService.recordQueueMetrics(
+                lanes.values().stream().mapToInt(lane -> lane.activeThreads.get()).sum(),
+                lanes.values().stream().mapToInt(lane -> lane.threadPoolSize).sum(),
+                lanes.values().stream().mapToInt(lane -> lane.queue.size()).sum(),
+                lanes.values().stream().mapToInt(lane -> lane.queueCapacity).sum());
     }
 
     private String extractPrefixFromUri(String uri) {
@@ -253,42 +457,80 @@ public class ReviewSourceService {
         }
     }
     
+    // Inner class holding the queue and worker pool of a single lane
+    private static class LaneWorkers {
+        private final ProcessingLane lane;
+        private final int threadPoolSize;
+        private final int queueCapacity;
+        private final int maxLinesPerSecond;
+        private final BlockingQueue<FileProcessingTask> queue;
+        private final ExecutorService executorService;
+        private final AtomicInteger activeThreads = new AtomicInteger(0);
+        private final AtomicInteger startingThreads = new AtomicInteger(0);
+        
+        LaneWorkers(ProcessingLane lane, int threadPoolSize, int queueCapacity, int maxLinesPerSecond) {
+            this.lane = lane;
+            this.threadPoolSize = threadPoolSize;
+            this.queueCapacity = queueCapacity;
+            this.maxLinesPerSecond = maxLinesPerSecond;
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+            this.executorService = Executors.newFixedThreadPool(threadPoolSize);
+        }
+    }
+    
     // Inner class for file processing task
     private static class FileProcessingTask {
         private final ReviewSource source;
         private final FileMetadata file;
         private final StorageService storageService;
+        private final ProcessingLane lane;
         
-        public FileProcessingTask(ReviewSource source, FileMetadata file, StorageService storageService) {
+        public FileProcessingTask(ReviewSource source, FileMetadata file, StorageService storageService, 
+                                  ProcessingLane lane) {
             this.source = source;
             this.file = file;
             this.storageService = storageService;
+            this.lane = lane;
         }
         
         public ReviewSource getSource() { return source; }
         public FileMetadata getFile() { return file; }
         public StorageService getStorageService() { return storageService; }
+        public ProcessingLane getLane() { return lane; }
+        public String getPendingKey() { return source.getId() + ":" + file.getKey() + ":" + file.getEtag(); }
     }
     
     // Inner class for file processor thread
     private class FileProcessor implements Runnable {
+        private final LaneWorkers workers;
+        
+        FileProcessor(LaneWorkers workers) {
+            this.workers = workers;
+        }
+        
         @Override
         public void run() {
-            activeThreads.incrementAndGet();
-            log.info("File processor thread started. Active threads: {}", activeThreads.get());
+            workers.activeThreads.incrementAndGet();
+            workers.startingThreads.decrementAndGet();
+            log.info("File processor thread started for {} lane. Active threads: {}", 
+                    workers.lane.getTag(), workers.activeThreads.get());
             
             try {
                 while (!Thread.currentThread().isInterrupted()) {
                     try {
                         // Wait for task with timeout
-                        FileProcessingTask task = fileQueue.poll(60, TimeUnit.SECONDS);
+                        FileProcessingTask task = workers.queue.poll(60, TimeUnit.SECONDS);
                         
                         if (task == null) {
                             log.debug("No tasks in queue, continuing to wait...");
                             continue;
                         }
                         
-                        processFile(task);
+                        try {
+                            processFile(task);
+                        } finally {
+                            pendingFiles.remove(task.getPendingKey());
+                        }
                         
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
@@ -299,8 +541,9 @@ public class ReviewSourceService {
                     }
                 }
             } finally {
-                activeThreads.decrementAndGet();
-                log.info("File processor thread stopped. Active threads: {}", activeThreads.get());
+                workers.activeThreads.decrementAndGet();
+                log.info("File processor thread stopped for {} lane. Active threads: {}", 
+                        workers.lane.getTag(), workers.activeThreads.get());
             }
         }
         
@@ -308,8 +551,9 @@ public class ReviewSourceService {
             ReviewSource source = task.getSource();
             FileMetadata file = task.getFile();
             StorageService storageService = task.getStorageService();
+            ProcessingLane lane = task.getLane();
             
-            log.info("Processing file: {} from source: {}", file.getName(), source.getName());
+            log.info("Processing file: {} from source: {} on {} lane", file.getName(), source.getName(), lane.getTag());
             
             try {
                 // Download and process the file
@@ -317,15 +561,17 @@ public class ReviewSourceService {
                 log.info("Successfully downloaded file: {} ({} bytes)", file.getName(), fileContent.length());
                 
                 // Process each line in the JSONL file
-                processJsonlContent(fileContent, source.getName());
+                processJsonlContent(fileContent, source.getName(), file.getKey(), lane);
                 
-                // Update last processed timestamp
-                source.setLastProcessedTimestamp(file.getCreated().atZone(java.time.ZoneOffset.UTC).toLocalDateTime());
-                reviewSourceRepository.save(source);
-                log.info("Updated last processed timestamp for source: {} to {} UTC", 
-                        source.getName(), file.getCreated());
+                // Whichever task processes a swept file reports it, including event and backfill tasks
+                Instant watermark = watermarkOf(source).complete(file);
+                if (watermark != null) {
+                    advanceLastProcessedTimestamp(source, watermark);
+                }
                 
             } catch (Exception e) {
+                // The file holds the watermark back until a later sweep processes it
+                watermarkOf(source).abandon(file);
                 log.error("Failed to process file: {} from source: {} - {}", 
                         file.getName(), source.getName(), e.getMessage(), e);
             }
@@ -334,7 +580,7 @@ public class ReviewSourceService {
         /**
          * Process JSONL content line by line
          */
-        private void processJsonlContent(String fileContent, String sourceName) {
+        private void processJsonlContent(String fileContent, String sourceName, String fileKey, ProcessingLane lane) {
             String[] lines = fileContent.split("\n");
             int totalLines = lines.length;
             int processedLines = 0;
@@ -343,18 +589,21 @@ public class ReviewSourceService {
             int emptyLines = 0;
             long processingStartTime = System.currentTimeMillis();
             
-            log.info("Processing {} lines from file in source: {}", totalLines, sourceName);
+            log.info("Processing {} lines from file in source: {} on {} lane", totalLines, sourceName, lane.getTag());
             
-            for (String line : lines) {
-                line = line.trim();
+            long nextLineNanos = System.nanoTime();
+            for (int lineIndex = 0; lineIndex < lines.length; lineIndex++) {
+                String line = lines[lineIndex].trim();
                 if (line.isEmpty()) {
                     emptyLines++;
                     continue;
                 }
+                nextLineNanos = throttle(nextLineNanos);
                 
                 try {
                     // Process each review line with validation
-                    kafkaProducerService.processReviewLine(line);
+                    kafkaProducerService.processReviewLine(line, lane, 
+                            new ReviewLineOrigin(sourceName, fileKey, lineIndex + 1));
                     processedLines++;
                     validLines++; // We'll count valid ones, invalid ones are logged separately
                     
@@ -371,6 +620,119 @@ public class ReviewSourceService {
             // Record file processing metrics
             metricsService.recordFileProcessing(sourceName, "unknown", totalLines, validLines, invalidLines, emptyLines, processingDuration);
         }
+        
+        /**
+         * Pace the lane to its lines-per-second budget, lowered by the consumer lag throttle while
+         * review-consumer is behind, and wait while the throttle pauses the lane. The budget is
+         * re-read for every line so a file already in progress follows throttle changes.
+         *
+         * @return earliest time the following line may be sent
+         */
+        private long throttle(long nextLineNanos) {
+            try {
+                while (consumerLagThrottle.getState(workers.lane) == ConsumerLagThrottle.State.PAUSED) {
+                    Thread.sleep(THROTTLE_PAUSE_CHECK_MS);
+                    nextLineNanos = System.nanoTime();
+                }
+                int linesPerSecond = consumerLagThrottle.getLinesPerSecond(workers.lane, workers.maxLinesPerSecond);
+                if (linesPerSecond <= 0) {
+                    return System.nanoTime();
+                }
+                long waitNanos = nextLineNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+                return Math.max(nextLineNanos, System.nanoTime()) + TimeUnit.SECONDS.toNanos(1) / linesPerSecond;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return System.nanoTime();
+            }
+        }
+    }
+    
+    private SourceWatermark watermarkOf(ReviewSource source) {
+        return watermarks.computeIfAbsent(source.getId(), id -> new SourceWatermark());
+    }
+    
+    /**
+     * Move the source's last processed timestamp forward. Sweeps of other producer instances may
+     * have moved it already, so the row is updated with GREATEST in one statement instead of saving
+     * this task's copy of the source, which could move it back or overwrite other columns.
+     */
+    private void advanceLastProcessedTimestamp(ReviewSource source, Instant timestamp) {
+        java.time.LocalDateTime watermark = timestamp.atZone(java.time.ZoneOffset.UTC).toLocalDateTime();
+        reviewSourceRepository.advanceLastProcessedTimestamp(source.getId(), watermark);
+        log.debug("Advanced last processed timestamp for source: {} to at least {} UTC", 
+                source.getName(), timestamp);
+    }
+    
+    /**
+     * Swept files of one source that are not processed yet, across both lanes. The watermark may only
+     * move over the completed prefix of the files in creation order: moving it to a realtime file while
+     * an older bulk file is still queued, or failed, would skip that file after a restart.
+     *
+     * A failed or unqueued file keeps holding the watermark back until the next sweep, which lists it
+     * again if it still exists and is otherwise forgotten.
+     */
+    static class SourceWatermark {
+        // Tracked files by key and etag, mapped to whether a task is still expected to process them
+        private final Map<String, TrackedFile> trackedFiles = new HashMap<>();
+        // Creation times of processed files newer than the watermark
+        private final TreeSet<Instant> completed = new TreeSet<>();
+        
+        synchronized void startSweep(Collection<FileMetadata> files) {
+            trackedFiles.values().removeIf(tracked -> !tracked.outstanding);
+            files.forEach(this::track);
+        }
+        
+        synchronized void track(FileMetadata file) {
+            if (file.getCreated() != null) {
+                trackedFiles.computeIfAbsent(keyOf(file), key -> new TrackedFile(file.getCreated())).outstanding = true;
+            }
+        }
+        
+        synchronized void abandon(FileMetadata file) {
+            TrackedFile tracked = trackedFiles.get(keyOf(file));
+            if (tracked != null) {
+                tracked.outstanding = false;
+            }
+        }
+        
+        /**
+         * Record a processed file
+         *
+         * @return the timestamp the watermark may move to, or null when it cannot move
+         */
+        synchronized Instant complete(FileMetadata file) {
+            TrackedFile tracked = trackedFiles.remove(keyOf(file));
+            if (tracked == null) {
+                return null;
+            }
+            completed.add(tracked.created);
+            Instant oldestUnprocessed = trackedFiles.values().stream()
+                    .map(unprocessed -> unprocessed.created)
+                    .min(Instant::compareTo)
+                    .orElse(null);
+            // Strictly older: files created at the same instant are all done or none of them counts
+            Instant watermark = oldestUnprocessed != null ? completed.lower(oldestUnprocessed) : completed.last();
+            if (watermark != null) {
+                completed.headSet(watermark, true).clear();
+            }
+            return watermark;
+        }
+        
+        private static String keyOf(FileMetadata file) {
+            return file.getKey() + ":" + file.getEtag();
+        }
+        
+        private static class TrackedFile {
+            private final Instant created;
+            private boolean outstanding;
+            
+            TrackedFile(Instant created) {
+                this.created = created;
+            }
+        }
     }
     
     /**
@@ -51,56 +51,7 @@ public class ReviewValidationService {
         try {
             // Parse JSON to check if it's valid JSON format
             JsonNode reviewNode = objectMapper.readTree(reviewJson);
-            
-            // Check if hotelId is null
-            JsonNode hotelIdNode = reviewNode.get("hotelId");
-            if (hotelIdNode == null || hotelIdNode.isNull()) {
-                return ValidationResult.invalid("HOTEL_ID_NULL");
-            }
-            
-            // Check if hotelName is null
-            JsonNode hotelNameNode = reviewNode.get("hotelName");
-            if (hotelNameNode == null || hotelNameNode.isNull()) {
-                return ValidationResult.invalid("HOTEL_NAME_NULL");
-            }
-            
-            // Check for comment section
-            JsonNode commentNode = reviewNode.get("comment");
-            if (commentNode == null || commentNode.isNull()) {
-                return ValidationResult.invalidWithDLQ("COMMENT_SECTION_MISSING");
-            }
-            
-            // Check for review_id (hotelReviewId) - CRITICAL FIELD
-            JsonNode reviewIdNode = commentNode.get("hotelReviewId");
-            if (reviewIdNode == null || reviewIdNode.isNull()) {
-                return ValidationResult.invalidWithDLQ("REVIEW_ID_MISSING");
-            }
-            
-            // Check for provider_id - CRITICAL FIELD
-            JsonNode providerIdNode = commentNode.get("providerId");
-            if (providerIdNode == null || providerIdNode.isNull()) {
-                return ValidationResult.invalidWithDLQ("PROVIDER_ID_MISSING");
-            }
-            
-            // Validate that review_id and provider_id are valid numbers
-            try {
-                if (reviewIdNode.asLong() <= 0) {
-                    return ValidationResult.invalidWithDLQ("REVIEW_ID_INVALID_VALUE");
-                }
-            } catch (Exception e) {
-                return ValidationResult.invalidWithDLQ("REVIEW_ID_NOT_NUMBER");
-            }
-            
-            try {
-                if (providerIdNode.asInt() <= 0) {
-                    return ValidationResult.invalidWithDLQ("PROVIDER_ID_INVALID_VALUE");
-                }
-            } catch (Exception e) {
-                return ValidationResult.invalidWithDLQ("PROVIDER_ID_NOT_NUMBER");
-            }
-            
-            // If all validations pass
-            return ValidationResult.valid();
+            return validateReview(reviewNode);
             
         } catch (Exception e) {
             log.warn("Failed to parse or validate review JSON: {}", e.getMessage());
@@ -108,6 +59,61 @@ public class ReviewValidationService {
         }
     }
     
+    /**
+     * Validate an already parsed review
+     */
+    public ValidationResult validateReview(JsonNode reviewNode) {
+        // Check if hotelId is null
+        JsonNode hotelIdNode = reviewNode.get("hotelId");
+        if (hotelIdNode == null || hotelIdNode.isNull()) {
+            return ValidationResult.invalid("HOTEL_ID_NULL");
+        }
+        
+        // Check if hotelName is null
+        JsonNode hotelNameNode = reviewNode.get("hotelName");
+        if (hotelNameNode == null || hotelNameNode.isNull()) {
+            return ValidationResult.invalid("HOTEL_NAME_NULL");
+        }
+        
+        // Check for comment section
+        JsonNode commentNode = reviewNode.get("comment");
+        if (commentNode == null || commentNode.isNull()) {
+            return ValidationResult.invalidWithDLQ("COMMENT_SECTION_MISSING");
+        }
+        
+        // Check for review_id (hotelReviewId) - CRITICAL FIELD
+        JsonNode reviewIdNode = commentNode.get("hotelReviewId");
+        if (reviewIdNode == null || reviewIdNode.isNull()) {
+            return ValidationResult.invalidWithDLQ("REVIEW_ID_MISSING");
+        }
+        
+        // Check for provider_id - CRITICAL FIELD
+        JsonNode providerIdNode = commentNode.get("providerId");
+        if (providerIdNode == null || providerIdNode.isNull()) {
+            return ValidationResult.invalidWithDLQ("PROVIDER_ID_MISSING");
+        }
+        
+        // Validate that review_id and provider_id are valid numbers
+        try {
+            if (reviewIdNode.asLong() <= 0) {
+                return ValidationResult.invalidWithDLQ("REVIEW_ID_INVALID_VALUE");
+            }
+        } catch (Exception e) {
+            return ValidationResult.invalidWithDLQ("REVIEW_ID_NOT_NUMBER");
+        }
+        
+        try {
+            if (providerIdNode.asInt() <= 0) {
+                return ValidationResult.invalidWithDLQ("PROVIDER_ID_INVALID_VALUE");
+            }
+        } catch (Exception e) {
+            return ValidationResult.invalidWithDLQ("PROVIDER_ID_NOT_NUMBER");
+        }
+        
+        // If all validations pass
+        return ValidationResult.valid();
+    }
+    
     /**
      * Extract platform from review JSON
      */
@@ -6,11 +6,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 
+import java.io.IOException;
 import java.net.URI;
 import java.time.Duration;
 import java.time.Instant;
@@ -26,12 +29,15 @@ public class S3StorageService implements StorageService {
     private S3Client s3Client;
     private String bucketName;
     private String endpoint;
+    private StorageRateLimiter rateLimiter;
     
     public S3StorageService() {}
     
-    public void initialize(String endpoint, String bucketName, AwsCredential credential) {
+    public void initialize(String endpoint, String bucketName, AwsCredential credential, 
+                           StorageRateLimiterRegistry rateLimiterRegistry) {
         this.endpoint = endpoint;
         this.bucketName = bucketName;
+        this.rateLimiter = rateLimiterRegistry.getLimiter(endpoint, S3StorageService::isThrottleError);
         
         try {
             log.info("Initializing S3 client for endpoint: {} and bucket: {}", endpoint, bucketName);
@@ -50,7 +56,7 @@ public class S3StorageService implements StorageService {
             HeadBucketRequest headBucketRequest = HeadBucketRequest.builder()
                     .bucket(bucketName)
                     .build();
-            s3Client.headBucket(headBucketRequest);
+            rateLimiter.execute("headBucket", () -> s3Client.headBucket(headBucketRequest));
             
             log.info("Successfully connected to S3 bucket: {}", bucketName);
             
@@ -63,180 +69,181 @@ public class S3StorageService implements StorageService {
     
     @Override
     public List<String> listReviewFiles(String prefix) {
-        try {
-            log.debug("Listing S3 objects in bucket: {} with prefix: {}", bucketName, prefix);
-            
-            ListObjectsV2Request request = ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .prefix(prefix)
-                    .build();
-            
-            ListObjectsV2Response response = s3Client.listObjectsV2(request);
-            
-            List<String> files = response.contents().stream()
-                    .filter(obj -> obj.key().endsWith(".jl"))
-                    .map(S3Object::key)
-                    .collect(Collectors.toList());
-            
-            log.info("Found {} .jl files in prefix: {}", files.size(), prefix);
-            return files;
-            
-        } catch (SdkException e) {
-            log.error("Error listing S3 files in bucket: {} with prefix: {} - {}", 
-                    bucketName, prefix, e.getMessage(), e);
-            throw new RuntimeException("Failed to list S3 files", e);
-        }
+        log.debug("Listing S3 objects in bucket: {} with prefix: {}", bucketName, prefix);
+        
+        List<String> files = listObjects(prefix).stream()
+                .filter(obj -> obj.key().endsWith(".jl"))
+                .map(S3Object::key)
+                .collect(Collectors.toList());
+        
+        log.info("Found {} .jl files in prefix: {}", files.size(), prefix);
+        return files;
     }
     
     @Override
     public List<String> listReviewFilesRecursive(String prefix) {
-        try {
-            log.debug("Listing S3 objects recursively in bucket: {} with prefix: {}", bucketName, prefix);
-            
-            ListObjectsV2Request request = ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .prefix(prefix)
-                    .build();
-            
-            ListObjectsV2Response response = s3Client.listObjectsV2(request);
-            
-            List<String> files = response.contents().stream()
-                    .filter(obj -> obj.key().endsWith(".jl"))
-                    .map(S3Object::key)
-                    .collect(Collectors.toList());
-            
-            log.info("Found {} .jl files recursively in prefix: {}", files.size(), prefix);
-            
-            // Log file names at DEBUG level
-            for (String file : files) {
-                log.debug("Found file: {}", file);
-            }
-            
-            return files;
-            
-        } catch (SdkException e) {
-            log.error("Error listing S3 files recursively in bucket: {} with prefix: {} - {}", 
-                    bucketName, prefix, e.getMessage(), e);
-            throw new RuntimeException("Failed to list S3 files recursively", e);
+        log.debug("Listing S3 objects recursively in bucket: {} with prefix: {}", bucketName, prefix);
+        
+        List<String> files = listObjects(prefix).stream()
+                .filter(obj -> obj.key().endsWith(".jl"))
+                .map(S3Object::key)
+                .collect(Collectors.toList());
+        
+        log.info("Found {} .jl files recursively in prefix: {}", files.size(), prefix);
+        
+        // Log file names at DEBUG level
+        for (String file : files) {
+            log.debug("Found file: {}", file);
         }
+        
+        return files;
     }
     
     @Override
     public List<FileMetadata> listReviewFilesWithMetadata(String prefix) {
-        try {
-            log.info("Listing S3 objects with metadata recursively in bucket: {} with prefix: {}", bucketName, prefix);
-            
-            // Try listing without prefix first to see what's in the bucket
-            ListObjectsV2Request requestWithoutPrefix = ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .build();
-            
-            ListObjectsV2Response responseWithoutPrefix = s3Client.listObjectsV2(requestWithoutPrefix);
-            log.info("Total objects found in bucket {} (no prefix): {}", bucketName, responseWithoutPrefix.contents().size());
-            
-            // Print first few objects to understand bucket structure
-            int count = 0;
-            for (S3Object obj : responseWithoutPrefix.contents()) {
-                if (count < 10) { // Only log first 10 objects
-                    log.info("Found object (no prefix): {} (size: {} bytes, modified: {})", 
-                            obj.key(), obj.size(), obj.lastModified());
-                    count++;
-                } else {
-                    break;
-                }
-            }
-            
-            // Now try with the actual prefix
-            ListObjectsV2Request request = ListObjectsV2Request.builder()
-                    .bucket(bucketName)
-                    .prefix(prefix)
-                    .build();
-            
-            ListObjectsV2Response response = s3Client.listObjectsV2(request);
-            
-            // First, let's print ALL objects found to understand the structure
-            log.info("Total objects found in bucket {} with prefix {}: {}", bucketName, prefix, response.contents().size());
-            
-            if (response.contents().isEmpty()) {
-                log.warn("No objects found in bucket {} with prefix {}", bucketName, prefix);
-                return new ArrayList<>();
-            }
-            
-            // Print all objects for debugging
-            for (S3Object obj : response.contents()) {
-                log.info("Found object: {} (size: {} bytes, modified: {})", 
+        log.info("Listing S3 objects with metadata recursively in bucket: {} with prefix: {}", bucketName, prefix);
+        
+        // Try listing without prefix first to see what's in the bucket
+        ListObjectsV2Request requestWithoutPrefix = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .build();
+        
+        ListObjectsV2Response responseWithoutPrefix = rateLimiter.execute("listObjects",
+                () -> listObjectsPage(requestWithoutPrefix));
+        log.info("Total objects found in bucket {} (no prefix): {}", bucketName, responseWithoutPrefix.contents().size());
+        
+        // Print first few objects to understand bucket structure
+        int count = 0;
+        for (S3Object obj : responseWithoutPrefix.contents()) {
+            if (count < 10) { // Only log first 10 objects
+                log.info("Found object (no prefix): {} (size: {} bytes, modified: {})", 
                         obj.key(), obj.size(), obj.lastModified());
+                count++;
+            } else {
+                break;
             }
-            
-            List<FileMetadata> files = new ArrayList<>();
-            
-            for (S3Object obj : response.contents()) {
-                if (obj.key().endsWith(".jl")) {
-                    String fileName = obj.key().substring(obj.key().lastIndexOf('/') + 1);
-                    
-                    FileMetadata metadata = new FileMetadata(
-                            fileName,
-                            obj.key(),
-                            obj.size(),
-                            obj.lastModified(),
-                            obj.lastModified(), // S3 doesn't provide creation time, using lastModified
-                            obj.eTag(),
-                            "application/jsonl"
-                    );
-                    
-                    files.add(metadata);
-                    log.info("Found .jl file: {} (size: {} bytes, modified: {})", 
-                            obj.key(), obj.size(), obj.lastModified());
-                }
-            }
-            
-            log.info("Found {} .jl files with metadata recursively in prefix: {}", files.size(), prefix);
-            
-            // Log subfolder structure
-            Set<String> subfolders = response.contents().stream()
-                    .map(obj -> {
-                        String key = obj.key();
-                        int lastSlash = key.lastIndexOf('/');
-                        return lastSlash > 0 ? key.substring(0, lastSlash) : "";
-                    })
-                    .filter(folder -> !folder.isEmpty())
-                    .collect(Collectors.toSet());
-            
-            log.info("Found {} subfolders:", subfolders.size());
-            for (String subfolder : subfolders) {
-                log.info("  - Subfolder: {}", subfolder);
+        }
+        
+        // Now try with the actual prefix
+        List<S3Object> objects = listObjects(prefix);
+        
+        // First, let's print ALL objects found to understand the structure
+        log.info("Total objects found in bucket {} with prefix {}: {}", bucketName, prefix, objects.size());
+        
+        if (objects.isEmpty()) {
+            log.warn("No objects found in bucket {} with prefix {}", bucketName, prefix);
+            return new ArrayList<>();
+        }
+        
+        // Print all objects for debugging
+        for (S3Object obj : objects) {
+            log.info("Found object: {} (size: {} bytes, modified: {})", 
+                    obj.key(), obj.size(), obj.lastModified());
+        }
+        
+        List<FileMetadata> files = new ArrayList<>();
+        
+        for (S3Object obj : objects) {
+            if (obj.key().endsWith(".jl")) {
+                String fileName = obj.key().substring(obj.key().lastIndexOf('/') + 1);
+                
+                FileMetadata metadata = new FileMetadata(
+                        fileName,
+                        obj.key(),
+                        obj.size(),
+                        obj.lastModified(),
+                        obj.lastModified(), // S3 doesn't provide creation time, using lastModified
+                        obj.eTag(),
+                        "application/jsonl"
+                );
+                
+                files.add(metadata);
+                log.info("Found .jl file: {} (size: {} bytes, modified: {})", 
+                        obj.key(), obj.size(), obj.lastModified());
             }
-            
-            return files;
-            
-        } catch (SdkException e) {
-            log.error("Error listing S3 files with metadata in bucket: {} with prefix: {} - {}", 
-                    bucketName, prefix, e.getMessage(), e);
-            throw new RuntimeException("Failed to list S3 files with metadata", e);
         }
+        
+        log.info("Found {} .jl files with metadata recursively in prefix: {}", files.size(), prefix);
+        
+        // Log subfolder structure
+        Set<String> subfolders = objects.stream()
+                .map(obj -> {
+                    String key = obj.key();
+                    int lastSlash = key.lastIndexOf('/');
+                    return lastSlash > 0 ? key.substring(0, lastSlash) : "";
+                })
+                .filter(folder -> !folder.isEmpty())
+                .collect(Collectors.toSet());
+        
+        log.info("Found {} subfolders:", subfolders.size());
+        for (String subfolder : subfolders) {
+            log.info("  - Subfolder: {}", subfolder);
+        }
+        
+        return files;
     }
-    
+
     @Override
     public byte[] getFile(String key) {
-        try {
-            log.debug("Getting S3 file: {} from bucket: {}", key, bucketName);
-            
-            GetObjectRequest request = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
-            
-            byte[] content = s3Client.getObjectAsBytes(request).asByteArray();
+        log.debug("Getting S3 file: {} from bucket: {}", key, bucketName);
+        
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        
+        // Only the request is rate limited; the body is streamed once the object is open
+        try (ResponseInputStream<GetObjectResponse> stream = rateLimiter.execute("getObject", () -> openObject(request))) {
+            byte[] content = stream.readAllBytes();
             
             log.debug("Successfully retrieved S3 file: {} ({} bytes)", key, content.length);
             return content;
             
+        } catch (IOException | SdkException e) {
+            log.error("Error reading S3 file {} from bucket: {} - {}", key, bucketName, e.getMessage(), e);
+            throw new RuntimeException("Failed to get S3 file", e);
+        }
+    }
+    
+    private ResponseInputStream<GetObjectResponse> openObject(GetObjectRequest request) {
+        try {
+            return s3Client.getObject(request);
         } catch (SdkException e) {
-            log.error("Error getting S3 file {} from bucket: {} - {}", key, bucketName, e.getMessage(), e);
+            log.error("Error getting S3 file {} from bucket: {} - {}", request.key(), bucketName, e.getMessage(), e);
             throw new RuntimeException("Failed to get S3 file", e);
         }
     }
     
+    /**
+     * List all objects under the prefix, following continuation tokens with each page request
+     * under the rate limiter
+     */
+    private List<S3Object> listObjects(String prefix) {
+        List<S3Object> objects = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            ListObjectsV2Request request = ListObjectsV2Request.builder()
+                    .bucket(bucketName)
+                    .prefix(prefix)
+                    .continuationToken(continuationToken)
+                    .build();
+            ListObjectsV2Response response = rateLimiter.execute("listObjects", () -> listObjectsPage(request));
+            objects.addAll(response.contents());
+            continuationToken = Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
+        } while (continuationToken != null);
+        return objects;
+    }
+    
+    private ListObjectsV2Response listObjectsPage(ListObjectsV2Request request) {
+        try {
+            return s3Client.listObjectsV2(request);
+        } catch (SdkException e) {
+            log.error("Error listing S3 files in bucket: {} with prefix: {} - {}", 
+                    bucketName, request.prefix(), e.getMessage(), e);
+            throw new RuntimeException("Failed to list S3 files", e);
+        }
+    }
+    
     @Override
     public String downloadFile(String key) {
         try {
@@ -256,6 +263,10 @@ public class S3StorageService implements StorageService {
     
     @Override
     public FileMetadata getFileMetadata(String key) {
+        return rateLimiter.execute("headObject", () -> doGetFileMetadata(key));
+    }
+    
+    private FileMetadata doGetFileMetadata(String key) {
         try {
             log.debug("Getting metadata for S3 file: {} from bucket: {}", key, bucketName);
             
@@ -292,6 +303,16 @@ public class S3StorageService implements StorageService {
     
     @Override
     public boolean fileExists(String key) {
+        try {
+            return rateLimiter.execute("headObject", () -> doFileExists(key));
+        } catch (RuntimeException e) {
+            log.error("Error checking if S3 file exists: {} in bucket: {} - {}", 
+                    key, bucketName, e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    private boolean doFileExists(String key) {
         try {
             HeadObjectRequest request = HeadObjectRequest.builder()
                     .bucket(bucketName)
@@ -304,6 +325,10 @@ public class S3StorageService implements StorageService {
         } catch (NoSuchKeyException e) {
             return false;
         } catch (SdkException e) {
+            if (isThrottleError(e)) {
+                // Let the rate limiter back off and retry
+                throw e;
+            }
             log.error("Error checking if S3 file exists: {} in bucket: {} - {}", 
                     key, bucketName, e.getMessage(), e);
             return false;
@@ -314,4 +339,17 @@ public class S3StorageService implements StorageService {
     public String getStorageType() {
         return "s3";
     }
+    
+    /**
+     * S3 signals overload with 503 SlowDown or 429 responses
+     */
+    static boolean isThrottleError(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SdkServiceException serviceException 
+                    && (serviceException.isThrottlingException() || serviceException.statusCode() == 503)) {
+                return true;
+            }
+        }
+        return false;
+    }
 } 
\ No newline at end of file
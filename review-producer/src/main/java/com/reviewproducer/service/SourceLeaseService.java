@@ -0,0 +1,196 @@
+package com.reviewproducer.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distributes review sources across producer instances through the source_leases table.
+ *
+ * Every instance heartbeats into producer_instances, renews the leases it holds and
+ * grabs expired or unowned leases up to its fair share (active sources / live instances)
+ * using FOR UPDATE SKIP LOCKED, so instances never block on each other. Leases held by a
+ * crashed instance expire after the TTL and are picked up by the survivors; surplus leases
+ * are released when new instances join.
+ */
+@Slf4j
+@Service
+public class SourceLeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MetricsService metricsService;
+
+    @Value("${review.producer.leasing.enabled:false}")
+    private boolean leasingEnabled;
+
+    @Value("${review.producer.leasing.instance-id:${HOSTNAME:}}")
+    private String configuredInstanceId;
+
+    @Value("${review.producer.leasing.ttl-seconds:60}")
+    private int leaseTtlSeconds;
+
+    private String instanceId;
+    private final Set<Integer> ownedSourceIds = ConcurrentHashMap.newKeySet();
+
+    public SourceLeaseService(JdbcTemplate jdbcTemplate, MetricsService metricsService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metricsService = metricsService;
+    }
+
+    @PostConstruct
+    public void init() {
+        // Suffix keeps ids unique when a pod restarts with the same hostname before its old lease expired
+        String base = configuredInstanceId == null || configuredInstanceId.isBlank() ? "producer" : configuredInstanceId;
+        instanceId = base + "-" + UUID.randomUUID().toString().substring(0, 8);
+        if (leasingEnabled) {
+            log.info("Source leasing enabled for instance: {} (lease TTL: {}s)", instanceId, leaseTtlSeconds);
+        } else {
+            log.info("Source leasing disabled; this instance processes all active sources");
+        }
+    }
+
+    public boolean isLeasingEnabled() {
+        return leasingEnabled;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Whether this instance should ingest the given source in the scheduled job
+     */
+    public boolean ownsSource(Integer sourceId) {
+        return !leasingEnabled || ownedSourceIds.contains(sourceId);
+    }
+
+    public Set<Integer> getOwnedSourceIds() {
+        return Collections.unmodifiableSet(ownedSourceIds);
+    }
+
+    /**
+     * Heartbeat the instance, renew held leases and rebalance towards the fair share.
+     * Runs well inside the lease TTL so leases survive long processing cycles.
+     */
+    @Scheduled(fixedDelayString = "${review.producer.leasing.heartbeat-interval:15000}")
+    public synchronized void heartbeat() {
+        if (!leasingEnabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO producer_instances (instance_id) VALUES (?) " +
+                    "ON CONFLICT (instance_id) DO UPDATE SET heartbeat_at = CURRENT_TIMESTAMP", instanceId);
+
+            renewLeases();
+            
+            // Forget instances that have been gone for a long time
+            jdbcTemplate.update(
+                    "DELETE FROM producer_instances WHERE heartbeat_at < CURRENT_TIMESTAMP - make_interval(secs => ?)",
+                    leaseTtlSeconds * 10);
+
+            // Make sure every active source has a lease row to compete for
+            jdbcTemplate.update(
+                    "INSERT INTO source_leases (source_id) SELECT id FROM review_sources WHERE active = TRUE " +
+                    "ON CONFLICT (source_id) DO NOTHING");
+
+            Integer liveInstances = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM producer_instances " +
+                    "WHERE heartbeat_at > CURRENT_TIMESTAMP - make_interval(secs => ?)", Integer.class, leaseTtlSeconds);
+            Integer activeSources = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM review_sources WHERE active = TRUE", Integer.class);
+            int instances = Math.max(1, liveInstances != null ? liveInstances : 1);
+            int sources = activeSources != null ? activeSources : 0;
+            int fairShare = (sources + instances - 1) / instances;
+
+            if (ownedSourceIds.size() < fairShare) {
+                acquireLeases(fairShare - ownedSourceIds.size());
+            } else if (ownedSourceIds.size() > fairShare) {
+                releaseLeases(ownedSourceIds.size() - fairShare);
+            }
+
+            metricsService.recordSourceLeases(ownedSourceIds.size(), fairShare, instances);
+            log.debug("Lease heartbeat for {} - owned: {}, fair share: {}, live instances: {}",
+                    instanceId, ownedSourceIds, fairShare, instances);
+
+        } catch (Exception e) {
+            // Keep current leases; if the database stays unreachable they expire and are taken over
+            log.error("Source lease heartbeat failed for instance {}: {}", instanceId, e.getMessage(), e);
+        }
+    }
+
+    private void renewLeases() {
+        List<Integer> renewed = jdbcTemplate.queryForList(
+                "UPDATE source_leases SET lease_expires_at = CURRENT_TIMESTAMP + make_interval(secs => ?) " +
+                "WHERE owner_id = ? RETURNING source_id", Integer.class, leaseTtlSeconds, instanceId);
+
+        Set<Integer> lost = new HashSet<>(ownedSourceIds);
+        lost.removeAll(renewed);
+        if (!lost.isEmpty()) {
+            log.warn("Instance {} lost leases for sources: {}", instanceId, lost);
+        }
+        ownedSourceIds.retainAll(renewed);
+        ownedSourceIds.addAll(renewed);
+    }
+
+    private void acquireLeases(int count) {
+        List<Integer> acquired = jdbcTemplate.queryForList(
+                "UPDATE source_leases SET owner_id = ?, " +
+                "lease_expires_at = CURRENT_TIMESTAMP + make_interval(secs => ?), acquired_at = CURRENT_TIMESTAMP " +
+                "WHERE source_id IN (" +
+                "  SELECT l.source_id FROM source_leases l JOIN review_sources s ON s.id = l.source_id " +
+                "  WHERE s.active = TRUE AND (l.owner_id IS NULL OR l.lease_expires_at IS NULL " +
+                "    OR l.lease_expires_at < CURRENT_TIMESTAMP) " +
+                "  ORDER BY l.source_id LIMIT ? FOR UPDATE OF l SKIP LOCKED) " +
+                "RETURNING source_id", Integer.class, instanceId, leaseTtlSeconds, count);
+
+        if (!acquired.isEmpty()) {
+            ownedSourceIds.addAll(acquired);
+            log.info("Instance {} acquired leases for sources: {}", instanceId, acquired);
+        }
+    }
+
+    private void releaseLeases(int count) {
+        List<Integer> released = jdbcTemplate.queryForList(
+                "UPDATE source_leases SET owner_id = NULL, lease_expires_at = NULL " +
+                "WHERE source_id IN (" +
+                "  SELECT source_id FROM source_leases WHERE owner_id = ? " +
+                "  ORDER BY acquired_at DESC LIMIT ?) " +
+                "RETURNING source_id", Integer.class, instanceId, count);
+
+        if (!released.isEmpty()) {
+            released.forEach(ownedSourceIds::remove);
+            log.info("Instance {} released surplus leases for sources: {}", instanceId, released);
+        }
+    }
+
+    /**
+     * Hand all leases back on shutdown so other instances take over without waiting for expiry
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (!leasingEnabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("UPDATE source_leases SET owner_id = NULL, lease_expires_at = NULL WHERE owner_id = ?",
+                    instanceId);
+            jdbcTemplate.update("DELETE FROM producer_instances WHERE instance_id = ?", instanceId);
+            ownedSourceIds.clear();
+            log.info("Instance {} released all source leases", instanceId);
+        } catch (Exception e) {
+            log.warn("Failed to release source leases for instance {}: {}", instanceId, e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reviewproducer.model.StorageEvent;
 import com.reviewproducer.model.MinIOEvent;
 import com.reviewproducer.model.FileMetadata;
+import com.reviewproducer.model.ProcessingLane;
 import com.reviewcore.model.ReviewSource;
 import com.reviewcore.model.Credential;
 import com.reviewproducer.repository.ReviewSourceRepository;
@@ -21,7 +22,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class StorageEventService {
     
-    private final ReviewKafkaProducerService kafkaProducerService;
+    private final ReviewSourceService reviewSourceService;
     private final StorageServiceFactory storageServiceFactory;
     private final CredentialService credentialService;
     private final ReviewSourceRepository reviewSourceRepository;
@@ -157,7 +158,7 @@ public class StorageEventService {
     }
     
     /**
-     * Process the file content by downloading and processing the .jl file
+     * Resolve the source for the bucket and queue the .jl file on the realtime lane
      */
     private void processFileContent(FileMetadata fileMetadata, String bucketName) {
         log.info("Processing file content for: {} (size: {} bytes) from bucket: {}", 
@@ -187,19 +188,14 @@ public class StorageEventService {
                 throw new RuntimeException("Failed to create storage service for source: " + storageSource.getName());
             }
             
-            // Download the file content
-            log.info("Downloading file: {} from bucket: {}", fileMetadata.getKey(), bucketName);
-            String fileContent = storageService.downloadFile(fileMetadata.getKey());
-            
-            if (fileContent == null || fileContent.trim().isEmpty()) {
-                log.warn("Empty file content received for: {}", fileMetadata.getName());
+            // Hand the file to the realtime lane so webhook bursts share the worker pool; the watermark
+            // is left to the polling sweep so older files it has not reached are not skipped
+            if (!reviewSourceService.submitFile(storageSource, fileMetadata, storageService, ProcessingLane.REALTIME, false)) {
+                log.warn("File was not queued for processing (already pending or queue full): {}", fileMetadata.getKey());
                 return;
             }
             
-            log.info("Successfully downloaded file: {} ({} bytes)", fileMetadata.getName(), fileContent.length());
-            
-            // Process the file content
-            processJsonlContent(fileContent, storageSource.getName());
+            log.info("Queued file: {} from bucket: {} on realtime lane", fileMetadata.getName(), bucketName);
             
         } catch (Exception e) {
             log.error("Failed to process file content for: {} - {}", 
@@ -259,42 +255,6 @@ public class StorageEventService {
         }
     }
     
-
-    
-    /**
-     * Process a .jl file content line by line
-     */
-    private void processJsonlContent(String fileContent, String sourceName) {
-        if (fileContent == null || fileContent.trim().isEmpty()) {
-            log.warn("Empty file content received for source: {}", sourceName);
-            return;
-        }
-        
-        String[] lines = fileContent.split("\n");
-        int totalLines = lines.length;
-        int processedLines = 0;
-        int errorLines = 0;
-        
-        log.info("Processing {} lines from file for source: {}", totalLines, sourceName);
-        
-        for (String line : lines) {
-            if (line.trim().isEmpty()) {
-                continue;
-            }
-            
-            try {
-                kafkaProducerService.processReviewLine(line.trim());
-                processedLines++;
-            } catch (Exception e) {
-                log.error("Failed to process line from source: {} - {}", sourceName, e.getMessage());
-                errorLines++;
-            }
-        }
-        
-        log.info("File processing completed for source: {} - Processed: {}, Errors: {}", 
-                sourceName, processedLines, errorLines);
-    }
-    
     // Helper methods for MinIO event conversion
     private String getObjectKey(MinIOEvent.MinIORecord record) {
         if (record.getS3() != null && record.getS3().getObject() != null) {
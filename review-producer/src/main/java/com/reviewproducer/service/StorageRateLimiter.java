@@ -0,0 +1,234 @@
+package com.reviewproducer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Token bucket plus concurrency cap shared by all storage calls against one endpoint.
+ *
+ * The request rate adapts AIMD-style: every throttle response (503 / SlowDown / 429)
+ * halves the rate and is retried with exponential backoff, every success nudges the
+ * rate back up towards the configured maximum.
+ */
+@Slf4j
+public class StorageRateLimiter {
+
+    private final String endpoint;
+    private final Predicate<Throwable> throttleClassifier;
+    private final Settings settings;
+    private final Semaphore concurrencyPermits;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+
+    // Token bucket state, guarded by this
+    private double currentRate;
+    private double tokens;
+    private long lastRefillNanos;
+
+    private final Counter successCounter;
+    private final Counter throttledCounter;
+    private final Counter failedCounter;
+    private final Counter retryCounter;
+    private final Counter rateDecreaseCounter;
+    private final Timer permitWaitTimer;
+
+    public StorageRateLimiter(String endpoint, Settings settings, Predicate<Throwable> throttleClassifier,
+                              MeterRegistry meterRegistry) {
+        this.endpoint = endpoint;
+        this.settings = settings;
+        this.throttleClassifier = throttleClassifier;
+        this.concurrencyPermits = new Semaphore(settings.getMaxConcurrency(), true);
+        this.currentRate = settings.getRequestsPerSecond();
+        this.tokens = 1;
+        this.lastRefillNanos = System.nanoTime();
+
+        this.successCounter = requestCounter(meterRegistry, "success");
+        this.throttledCounter = requestCounter(meterRegistry, "throttled");
+        this.failedCounter = requestCounter(meterRegistry, "failed");
+        this.retryCounter = Counter.builder("review_producer_storage_retries_total")
+            .description("Storage requests retried after a throttle response")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        this.rateDecreaseCounter = Counter.builder("review_producer_storage_rate_decreases_total")
+            .description("Times the adaptive rate limit was lowered")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        this.permitWaitTimer = Timer.builder("review_producer_storage_permit_wait_duration")
+            .description("Time spent waiting for a rate limit token and concurrency slot")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+
+        Gauge.builder("review_producer_storage_rate_limit", this, StorageRateLimiter::getCurrentRate)
+            .description("Current adaptive request rate limit per second")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+        Gauge.builder("review_producer_storage_in_flight", inFlight, AtomicInteger::get)
+            .description("Storage requests currently in flight")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry);
+    }
+
+    private Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("review_producer_storage_requests_total")
+            .description("Storage requests by outcome")
+            .tag("endpoint", endpoint)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run a storage call under the rate and concurrency limits, retrying throttle responses
+     */
+    public <T> T execute(String operation, Supplier<T> call) {
+        int attempt = 0;
+        while (true) {
+            acquire(operation);
+            RuntimeException throttleError;
+            try {
+                T result = call.get();
+                onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!throttleClassifier.test(e)) {
+                    failedCounter.increment();
+                    throw e;
+                }
+                onThrottle();
+                throttleError = e;
+            } finally {
+                inFlight.decrementAndGet();
+                concurrencyPermits.release();
+            }
+
+            if (attempt >= settings.getMaxRetries()) {
+                log.error("Storage endpoint {} still throttling {} after {} retries", endpoint, operation, attempt);
+                throw throttleError;
+            }
+            long backoffMs = backoffMs(attempt++);
+            retryCounter.increment();
+            log.warn("Storage endpoint {} throttled {} - retry {}/{} in {} ms (rate now {}/s)",
+                    endpoint, operation, attempt, settings.getMaxRetries(), backoffMs, String.format("%.1f", getCurrentRate()));
+            sleep(backoffMs, throttleError);
+        }
+    }
+
+    private void acquire(String operation) {
+        long startNanos = System.nanoTime();
+        try {
+            concurrencyPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for storage permit: " + operation, e);
+        }
+        try {
+            takeToken();
+        } catch (InterruptedException e) {
+            concurrencyPermits.release();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for storage rate limit: " + operation, e);
+        }
+        inFlight.incrementAndGet();
+        permitWaitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void takeToken() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) ((1 - tokens) / currentRate * TimeUnit.SECONDS.toNanos(1));
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        // Bucket holds at most one second worth of requests
+        tokens = Math.min(Math.max(1, currentRate), tokens + elapsedSeconds * currentRate);
+        lastRefillNanos = now;
+    }
+
+    private synchronized void onSuccess() {
+        successCounter.increment();
+        if (currentRate < settings.getMaxRequestsPerSecond()) {
+            refill();
+            // Scaled by the rate so the limit grows by roughly increaseStep per second of successes
+            currentRate = Math.min(settings.getMaxRequestsPerSecond(), 
+                    currentRate + settings.getIncreaseStep() / currentRate);
+        }
+    }
+
+    private synchronized void onThrottle() {
+        throttledCounter.increment();
+        refill();
+        double previousRate = currentRate;
+        currentRate = Math.max(settings.getMinRequestsPerSecond(), currentRate * settings.getDecreaseFactor());
+        // Drop the burst so waiting threads do not immediately hit the endpoint again
+        tokens = Math.min(tokens, 0);
+        if (currentRate < previousRate) {
+            rateDecreaseCounter.increment();
+        }
+    }
+
+    private long backoffMs(int attempt) {
+        long exponential = settings.getInitialBackoffMs() << Math.min(attempt, 20);
+        long capped = Math.min(settings.getMaxBackoffMs(), exponential);
+        // Jitter spreads out threads that were throttled together
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private void sleep(long millis, RuntimeException cause) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    public synchronized double getCurrentRate() {
+        return currentRate;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Limits applied to a single storage endpoint
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Settings {
+        private final double requestsPerSecond;
+        private final double minRequestsPerSecond;
+        private final double maxRequestsPerSecond;
+        private final double increaseStep;
+        private final double decreaseFactor;
+        private final int maxConcurrency;
+        private final int maxRetries;
+        private final long initialBackoffMs;
+        private final long maxBackoffMs;
+    }
+}
@@ -0,0 +1,69 @@
+package com.reviewproducer.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Hands out one {@link StorageRateLimiter} per storage endpoint, so every storage
+ * service instance and worker thread talking to the same endpoint shares its limits.
+ */
+@Slf4j
+@Component
+public class StorageRateLimiterRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StorageRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Value("${review.producer.storage.rate-limit.requests-per-second:20}")
+    private double requestsPerSecond;
+
+    @Value("${review.producer.storage.rate-limit.min-requests-per-second:1}")
+    private double minRequestsPerSecond;
+
+    @Value("${review.producer.storage.rate-limit.max-requests-per-second:200}")
+    private double maxRequestsPerSecond;
+
+    @Value("${review.producer.storage.rate-limit.increase-step:1}")
+    private double increaseStep;
+
+    @Value("${review.producer.storage.rate-limit.decrease-factor:0.5}")
+    private double decreaseFactor;
+
+    @Value("${review.producer.storage.rate-limit.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${review.producer.storage.rate-limit.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${review.producer.storage.rate-limit.initial-backoff-ms:200}")
+    private long initialBackoffMs;
+
+    @Value("${review.producer.storage.rate-limit.max-backoff-ms:10000}")
+    private long maxBackoffMs;
+
+    public StorageRateLimiterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get the limiter for an endpoint, creating it on first use
+     */
+    public StorageRateLimiter getLimiter(String endpoint, Predicate<Throwable> throttleClassifier) {
+        return limiters.computeIfAbsent(endpoint, key -> {
+            log.info("Creating storage rate limiter for endpoint: {} ({} req/s, max {} concurrent)",
+                    key, requestsPerSecond, maxConcurrency);
+            return new StorageRateLimiter(key, currentSettings(), throttleClassifier, meterRegistry);
+        });
+    }
+
+    private StorageRateLimiter.Settings currentSettings() {
+        return new StorageRateLimiter.Settings(requestsPerSecond, minRequestsPerSecond, maxRequestsPerSecond,
+                increaseStep, decreaseFactor, maxConcurrency, maxRetries, initialBackoffMs, maxBackoffMs);
+    }
+}
@@ -13,6 +13,12 @@ import java.net.URISyntaxException;
 @Component
 public class StorageServiceFactory {
     
+    private final StorageRateLimiterRegistry rateLimiterRegistry;
+    
+    public StorageServiceFactory(StorageRateLimiterRegistry rateLimiterRegistry) {
+        this.rateLimiterRegistry = rateLimiterRegistry;
+    }
+    
     /**
      * Creates and configures a storage service based on the URI and credentials
      */
@@ -61,7 +67,7 @@ public class StorageServiceFactory {
         try {
             AwsCredential awsCredential = (AwsCredential) credential;
             S3StorageService s3Service = new S3StorageService();
-            s3Service.initialize(endpoint, bucket, awsCredential);
+            s3Service.initialize(endpoint, bucket, awsCredential, rateLimiterRegistry);
             return s3Service;
             
         } catch (Exception e) {
@@ -81,7 +87,7 @@ public class StorageServiceFactory {
         try {
             BasicCredential basicCredential = (BasicCredential) credential;
             MinIOStorageService minioService = new MinIOStorageService();
-            minioService.initialize(endpoint, bucket, basicCredential);
+            minioService.initialize(endpoint, bucket, basicCredential, rateLimiterRegistry);
             return minioService;
             
         } catch (Exception e) {
@@ -0,0 +1,77 @@
+package com.reviewproducer.service;
+
+import com.reviewproducer.model.ProcessingLane;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsumerLagThrottleTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsumerLagThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        throttle = new ConsumerLagThrottle(new KafkaAdmin(Map.of("bootstrap.servers", "localhost:9092")),
+                meterRegistry, "reviews", "reviews_bulk");
+        ReflectionTestUtils.setField(throttle, "enabled", true);
+        ReflectionTestUtils.setField(throttle, "intervalMs", 10000L);
+        ReflectionTestUtils.setField(throttle, "bulkSlowLag", 1000L);
+        ReflectionTestUtils.setField(throttle, "bulkPauseLag", 5000L);
+        ReflectionTestUtils.setField(throttle, "bulkSlowFactor", 0.25);
+        ReflectionTestUtils.setField(throttle, "realtimeSlowLag", 20000L);
+        ReflectionTestUtils.setField(throttle, "realtimeSlowedLinesPerSecond", 100);
+        ReflectionTestUtils.setField(throttle, "resumeRatio", 0.8);
+    }
+
+    @Test
+    void testBulkLaneIsSlowedBeforeRealtimeLane() {
+        throttle.applyLag(2000);
+
+        assertEquals(ConsumerLagThrottle.State.SLOWED, throttle.getState(ProcessingLane.BULK));
+        assertEquals(ConsumerLagThrottle.State.NORMAL, throttle.getState(ProcessingLane.REALTIME));
+        assertEquals(125, throttle.getLinesPerSecond(ProcessingLane.BULK, 500));
+        assertEquals(0, throttle.getLinesPerSecond(ProcessingLane.REALTIME, 0));
+        assertEquals(1.0, meterRegistry.get("review_producer_lag_throttle_state")
+                .tag("lane", ProcessingLane.BULK.getTag()).gauge().value());
+    }
+
+    @Test
+    void testBulkLaneIsPausedAndRealtimeSlowedUnderHighLag() {
+        throttle.applyLag(25000);
+
+        assertEquals(ConsumerLagThrottle.State.PAUSED, throttle.getState(ProcessingLane.BULK));
+        assertEquals(ConsumerLagThrottle.State.SLOWED, throttle.getState(ProcessingLane.REALTIME));
+        assertEquals(100, throttle.getLinesPerSecond(ProcessingLane.REALTIME, 0));
+        assertEquals(25000.0, meterRegistry.get("review_producer_consumer_lag").gauge().value());
+    }
+
+    @Test
+    void testLaneResumesOnlyBelowResumeRatio() {
+        throttle.applyLag(6000);
+        throttle.applyLag(4500);
+        assertEquals(ConsumerLagThrottle.State.PAUSED, throttle.getState(ProcessingLane.BULK));
+
+        throttle.applyLag(3000);
+        assertEquals(ConsumerLagThrottle.State.SLOWED, throttle.getState(ProcessingLane.BULK));
+
+        throttle.applyLag(900);
+        assertEquals(ConsumerLagThrottle.State.SLOWED, throttle.getState(ProcessingLane.BULK));
+
+        throttle.applyLag(500);
+        assertEquals(ConsumerLagThrottle.State.NORMAL, throttle.getState(ProcessingLane.BULK));
+    }
+
+    @Test
+    void testThrottleFailsOpenWithoutRecentLag() {
+        assertEquals(ConsumerLagThrottle.State.NORMAL, throttle.getState(ProcessingLane.BULK));
+        assertEquals(500, throttle.getLinesPerSecond(ProcessingLane.BULK, 500));
+    }
+}
@@ -0,0 +1,63 @@
+package com.reviewproducer.service;
+
+import com.reviewcore.model.ReviewSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewSourceServiceTest {
+
+    private static final long RECONCILIATION_INTERVAL_MS = 3600000;
+
+    private ReviewSourceService reviewSourceService;
+    private ReviewSource source;
+
+    @BeforeEach
+    void setUp() {
+        reviewSourceService = new ReviewSourceService(null, null, null, null, null, null, null);
+        ReflectionTestUtils.setField(reviewSourceService, "reconciliationIntervalMs", RECONCILIATION_INTERVAL_MS);
+        source = new ReviewSource();
+        source.setId(7);
+        source.setName("minio-reviews");
+    }
+
+    @Test
+    void testSourceWithoutNotificationStreamIsPolledEveryRun() {
+        assertTrue(reviewSourceService.isReconciliationDue(source));
+        assertTrue(reviewSourceService.isReconciliationDue(source));
+    }
+
+    @Test
+    void testNotifiedSourceIsSweptOncePerInterval() {
+        reviewSourceService.setNotificationListenerActive(source.getId(), true);
+
+        assertTrue(reviewSourceService.isReconciliationDue(source));
+        assertFalse(reviewSourceService.isReconciliationDue(source));
+
+        sweptAgo(RECONCILIATION_INTERVAL_MS + 1);
+        assertTrue(reviewSourceService.isReconciliationDue(source));
+    }
+
+    @Test
+    void testStreamReconnectsDoNotPostponeReconciliation() {
+        reviewSourceService.setNotificationListenerActive(source.getId(), true);
+        assertTrue(reviewSourceService.isReconciliationDue(source));
+        sweptAgo(RECONCILIATION_INTERVAL_MS + 1);
+
+        // The listener marks the stream down and up again on every reconnect
+        reviewSourceService.setNotificationListenerActive(source.getId(), false);
+        reviewSourceService.setNotificationListenerActive(source.getId(), true);
+
+        assertTrue(reviewSourceService.isReconciliationDue(source));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sweptAgo(long ms) {
+        Map<Integer, Long> lastSweeps = (Map<Integer, Long>) ReflectionTestUtils.getField(reviewSourceService, "lastSweeps");
+        lastSweeps.put(source.getId(), System.currentTimeMillis() - ms);
+    }
+}
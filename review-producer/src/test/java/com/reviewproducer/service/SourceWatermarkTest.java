@@ -0,0 +1,97 @@
+package com.reviewproducer.service;
+
+import com.reviewproducer.model.FileMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SourceWatermarkTest {
+
+    private static final Instant BASE = Instant.parse("2026-01-01T00:00:00Z");
+
+    private ReviewSourceService.SourceWatermark watermark;
+
+    @BeforeEach
+    void setUp() {
+        watermark = new ReviewSourceService.SourceWatermark();
+    }
+
+    @Test
+    void testRealtimeFileDoesNotMoveWatermarkPastQueuedBulkFile() {
+        FileMetadata bulk = file("bulk.jl", 0);
+        FileMetadata realtime = file("realtime.jl", 48);
+        watermark.startSweep(List.of(bulk, realtime));
+
+        assertNull(watermark.complete(realtime));
+        assertEquals(at(48), watermark.complete(bulk));
+    }
+
+    @Test
+    void testWatermarkMovesOverCompletedPrefixOnly() {
+        FileMetadata first = file("a.jl", 1);
+        FileMetadata second = file("b.jl", 2);
+        FileMetadata third = file("c.jl", 3);
+        watermark.startSweep(List.of(first, second, third));
+
+        assertEquals(at(1), watermark.complete(first));
+        assertNull(watermark.complete(third));
+        assertEquals(at(3), watermark.complete(second));
+    }
+
+    @Test
+    void testFailedFileHoldsWatermarkUntilProcessed() {
+        FileMetadata failed = file("a.jl", 1);
+        FileMetadata later = file("b.jl", 2);
+        watermark.startSweep(List.of(failed, later));
+
+        watermark.abandon(failed);
+        assertNull(watermark.complete(later));
+
+        // The next sweep lists it again since the watermark never passed it
+        watermark.startSweep(List.of(failed));
+        assertEquals(at(2), watermark.complete(failed));
+    }
+
+    @Test
+    void testFailedFileNoLongerListedIsForgottenBySweep() {
+        FileMetadata deleted = file("a.jl", 1);
+        FileMetadata later = file("b.jl", 2);
+        watermark.startSweep(List.of(deleted, later));
+        watermark.abandon(deleted);
+        assertNull(watermark.complete(later));
+
+        FileMetadata next = file("c.jl", 3);
+        watermark.startSweep(List.of(next));
+        assertEquals(at(3), watermark.complete(next));
+    }
+
+    @Test
+    void testFilesCreatedAtSameInstantMoveWatermarkTogether() {
+        FileMetadata first = file("a.jl", 1);
+        FileMetadata sameInstant = file("b.jl", 1);
+        watermark.startSweep(List.of(first, sameInstant));
+
+        assertNull(watermark.complete(first));
+        assertEquals(at(1), watermark.complete(sameInstant));
+    }
+
+    @Test
+    void testUntrackedFileDoesNotMoveWatermark() {
+        watermark.startSweep(List.of(file("a.jl", 1)));
+
+        assertNull(watermark.complete(file("event.jl", 5)));
+    }
+
+    private static Instant at(int hours) {
+        return BASE.plusSeconds(hours * 3600L);
+    }
+
+    private static FileMetadata file(String key, int createdHours) {
+        Instant created = at(createdHours);
+        return new FileMetadata(key, key, 100, created, created, "etag-" + key, "application/jsonl");
+    }
+}
@@ -0,0 +1,136 @@
+package com.reviewproducer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private StorageRateLimiter limiter(double rate, int maxConcurrency, int maxRetries) {
+        StorageRateLimiter.Settings settings = new StorageRateLimiter.Settings(
+                rate, 1, 1000, 1, 0.5, maxConcurrency, maxRetries, 1, 5);
+        return new StorageRateLimiter("http://minio:9000", settings,
+                error -> error instanceof ThrottleException, meterRegistry);
+    }
+
+    @Test
+    void testThrottledCallIsRetriedAndRateIsLowered() {
+        StorageRateLimiter limiter = limiter(100, 4, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = limiter.execute("getObject", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ThrottleException();
+            }
+            return "content";
+        });
+
+        assertEquals("content", result);
+        assertEquals(3, attempts.get());
+        assertTrue(limiter.getCurrentRate() < 100);
+        assertEquals(2.0, meterRegistry.get("review_producer_storage_retries_total").counter().count());
+        assertEquals(2.0, meterRegistry.get("review_producer_storage_requests_total")
+                .tag("outcome", "throttled").counter().count());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testThrottleErrorIsRethrownWhenRetriesAreExhausted() {
+        StorageRateLimiter limiter = limiter(100, 4, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ThrottleException.class, () -> limiter.execute("listObjects", () -> {
+            attempts.incrementAndGet();
+            throw new ThrottleException();
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testOtherErrorsAreNotRetried() {
+        StorageRateLimiter limiter = limiter(100, 4, 5);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> limiter.execute("getObject", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("NoSuchKey");
+        }));
+        assertEquals(1, attempts.get());
+        assertEquals(1.0, meterRegistry.get("review_producer_storage_requests_total")
+                .tag("outcome", "failed").counter().count());
+        assertEquals(100, limiter.getCurrentRate());
+    }
+
+    @Test
+    void testConcurrencyIsCapped() throws Exception {
+        StorageRateLimiter limiter = limiter(1000, 2, 0);
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        int calls = 8;
+        CountDownLatch done = new CountDownLatch(calls);
+        ExecutorService executor = Executors.newFixedThreadPool(calls);
+
+        try {
+            for (int i = 0; i < calls; i++) {
+                executor.submit(() -> {
+                    limiter.execute("getObject", () -> {
+                        peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+                        sleepQuietly(20);
+                        current.decrementAndGet();
+                        return null;
+                    });
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(peak.get() <= 2, "peak concurrency was " + peak.get());
+    }
+
+    @Test
+    void testRequestRateIsLimited() {
+        StorageRateLimiter limiter = limiter(20, 4, 0);
+        long start = System.nanoTime();
+
+        // One token is available up front, the remaining 10 calls are paced at 20/s
+        for (int i = 0; i < 11; i++) {
+            limiter.execute("listObjects", () -> null);
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 400, "11 calls at 20/s finished in " + elapsedMs + " ms");
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ThrottleException extends RuntimeException {
+        ThrottleException() {
+            super("SlowDown");
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.reviewservice.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.reviewservice.service.CacheInvalidationService;
+import com.reviewservice.service.ReviewSearchIndexService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -10,6 +13,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -52,6 +57,22 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Subscribes to the change events published by review-consumer for targeted cache eviction
+     * and for keeping the search index current
+     */
+    @Bean
+    public RedisMessageListenerContainer reviewChangeListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       CacheInvalidationService cacheInvalidationService,
+                                                                       ReviewSearchIndexService reviewSearchIndexService,
+                                                                       @Value("${review.change-events.channel:review-changes}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheInvalidationService, new ChannelTopic(channel));
+        container.addMessageListener(reviewSearchIndexService, new ChannelTopic(channel));
+        return container;
+    }
+
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
         // Define cache configurations with different TTLs
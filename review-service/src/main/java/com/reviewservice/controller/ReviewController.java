@@ -1,12 +1,14 @@
 package com.reviewservice.controller;
 
 import com.reviewcore.model.EntityReview;
+import com.reviewcore.model.OverallProviderScore;
 import com.reviewservice.service.EntityReviewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,7 +22,11 @@ public class ReviewController {
     private final EntityReviewService entityReviewService;
     
     /**
-     * Get all good reviews with pagination
+     * Get all good reviews with pagination. Offset paging by default; pass paging=cursor for the
+     * first page and then each response's nextCursor as cursor to page by keyset instead.
+     * Searches are full-text by default; searchMode=like selects the substring match.
+     * paging=slice skips the total count and only tells hasNext; count=estimated adds an approximate
+     * totalItems to either offset or slice paging, flagged by totalItemsExact.
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllReviews(
@@ -31,9 +37,25 @@ public class ReviewController {
             @RequestParam(name = "platform", required = false) String platform,
             @RequestParam(name = "minRating", required = false) Double minRating,
             @RequestParam(name = "maxRating", required = false) Double maxRating,
-            @RequestParam(name = "search", required = false) String search
+            @RequestParam(name = "search", required = false) String search,
+            @RequestParam(name = "searchMode", required = false) String searchMode,
+            @RequestParam(name = "paging", defaultValue = "offset") String paging,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "count", required = false) String count
     ) {
-        return ResponseEntity.ok(entityReviewService.getAllReviewsBody(page, size, sortBy, sortDir, platform, minRating, maxRating, search));
+        try {
+            if (cursor != null || "cursor".equalsIgnoreCase(paging)) {
+                return ResponseEntity.ok(entityReviewService.getReviewsAfterCursorBody(cursor, size, sortBy, sortDir, platform, minRating, maxRating, search, searchMode));
+            }
+            String countMode = count != null ? count
+                    : "slice".equalsIgnoreCase(paging) ? EntityReviewService.COUNT_NONE : EntityReviewService.COUNT_EXACT;
+            return ResponseEntity.ok(entityReviewService.getAllReviewsBody(page, size, sortBy, sortDir, platform, minRating, maxRating, search, searchMode, countMode));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            error.put("timestamp", java.time.Instant.now());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
     
     /**
@@ -52,6 +74,14 @@ public class ReviewController {
         return ResponseEntity.ok(entityReviewService.getReviewsByEntityIdBody(entityId));
     }
     
+    /**
+     * Get review statistics for one entity (hotel ID)
+     */
+    @GetMapping("/entity/{entityId}/statistics")
+    public ResponseEntity<Map<String, Object>> getEntityStatistics(@PathVariable(name = "entityId") Integer entityId) {
+        return ResponseEntity.ok(entityReviewService.getEntityStatisticsBody(entityId));
+    }
+    
     /**
      * Get reviews by rating range
      */
@@ -71,6 +101,15 @@ public class ReviewController {
         return ResponseEntity.ok(entityReviewService.getReviewByIdBody(reviewId, providerId));
     }
     
+    /**
+     * Get overall provider scores of a review
+     */
+    @GetMapping("/{reviewId}/{providerId}/provider-scores")
+    public ResponseEntity<List<OverallProviderScore>> getProviderScores(@PathVariable(name = "reviewId") Long reviewId,
+                                                                        @PathVariable(name = "providerId") Integer providerId) {
+        return ResponseEntity.ok(entityReviewService.getProviderScoresBody(reviewId, providerId));
+    }
+    
     /**
      * Get review statistics (good reviews only)
      */
@@ -0,0 +1,76 @@
+package com.reviewservice.controller;
+
+import com.reviewservice.service.ReviewSearchIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/reviews/search")
+@CrossOrigin(origins = "*", allowedHeaders = "*", allowCredentials = "false")
+@RequiredArgsConstructor
+public class ReviewSearchController {
+
+    private final ReviewSearchIndexService reviewSearchIndexService;
+
+    /**
+     * Search the review index: top hits plus platform, ratingBucket, country and roomType counts
+     * over all matches. The facet parameters narrow the search to one label of that facet.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> search(
+            @RequestParam(name = "q", required = false) String text,
+            @RequestParam(name = "platform", required = false) String platform,
+            @RequestParam(name = "ratingBucket", required = false) String ratingBucket,
+            @RequestParam(name = "country", required = false) String country,
+            @RequestParam(name = "roomType", required = false) String roomType,
+            @RequestParam(name = "minRating", required = false) Double minRating,
+            @RequestParam(name = "maxRating", required = false) Double maxRating,
+            @RequestParam(name = "size", defaultValue = "20") int size,
+            @RequestParam(name = "facetLimit", defaultValue = "10") int facetLimit
+    ) {
+        try {
+            return ResponseEntity.ok(reviewSearchIndexService.search(text, platform, ratingBucket, country, roomType,
+                    minRating, maxRating, Math.min(Math.max(size, 1), 1000), Math.min(Math.max(facetLimit, 1), 100)));
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (Exception e) {
+            log.error("Review index search failed", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Search failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the index from the database in the background
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        log.info("Admin requested a search index rebuild");
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reviewSearchIndexService.submitRebuild());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    /**
+     * Index size, pending changes and the state of the last rebuild
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(reviewSearchIndexService.getStatus());
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", message);
+        error.put("timestamp", java.time.Instant.now());
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -3,16 +3,19 @@ package com.reviewservice.repository;
 import com.reviewcore.model.EntityReview;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 @Repository
-public interface EntityReviewRepository extends JpaRepository<EntityReview, EntityReview.EntityReviewId> {
+public interface EntityReviewRepository extends JpaRepository<EntityReview, EntityReview.EntityReviewId>,
+        EntityReviewRepositoryCustom {
     
     /**
      * Find reviews by platform
@@ -68,27 +71,148 @@ public interface EntityReviewRepository extends JpaRepository<EntityReview, Enti
     @Query("SELECT e FROM EntityReview e WHERE e.platform = :platform AND e.rating BETWEEN :minRating AND :maxRating AND (LOWER(e.reviewTitle) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(e.reviewComments) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<EntityReview> findByPlatformAndRatingRangeAndSearchTerm(@Param("platform") String platform, @Param("minRating") Double minRating, @Param("maxRating") Double maxRating, @Param("search") String search, Pageable pageable);
     
+    /*
+     * Slice variants of the paged listing queries: the same filters and sort, but one extra row is
+     * fetched to tell whether another page follows instead of running a COUNT query.
+     */
+    
+    Slice<EntityReview> findSliceBy(Pageable pageable);
+    
+    Slice<EntityReview> findSliceByPlatform(String platform, Pageable pageable);
+    
+    Slice<EntityReview> findSliceByRatingBetween(Double minRating, Double maxRating, Pageable pageable);
+    
+    Slice<EntityReview> findSliceByPlatformAndRatingBetween(String platform, Double minRating, Double maxRating, Pageable pageable);
+    
+    @Query("SELECT e FROM EntityReview e WHERE LOWER(e.reviewTitle) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(e.reviewComments) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Slice<EntityReview> findSliceBySearchTerm(@Param("search") String search, Pageable pageable);
+    
+    @Query("SELECT e FROM EntityReview e WHERE e.platform = :platform AND (LOWER(e.reviewTitle) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(e.reviewComments) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<EntityReview> findSliceByPlatformAndSearchTerm(@Param("platform") String platform, @Param("search") String search, Pageable pageable);
+    
+    @Query("SELECT e FROM EntityReview e WHERE e.rating BETWEEN :minRating AND :maxRating AND (LOWER(e.reviewTitle) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(e.reviewComments) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<EntityReview> findSliceByRatingRangeAndSearchTerm(@Param("minRating") Double minRating, @Param("maxRating") Double maxRating, @Param("search") String search, Pageable pageable);
+    
+    @Query("SELECT e FROM EntityReview e WHERE e.platform = :platform AND e.rating BETWEEN :minRating AND :maxRating AND (LOWER(e.reviewTitle) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(e.reviewComments) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<EntityReview> findSliceByPlatformAndRatingRangeAndSearchTerm(@Param("platform") String platform, @Param("minRating") Double minRating, @Param("maxRating") Double maxRating, @Param("search") String search, Pageable pageable);
+    
+    /**
+     * Full-text search over title, comments, positives and negatives, best matches first; a search
+     * without terms falls back to the substring match (see FULL_TEXT_MATCH), ordered by key.
+     * Platform and rating range are optional: a null platform or minRating skips that filter.
+     */
+    @Query(value = "SELECT e.* FROM entity_reviews e, websearch_to_tsquery('simple', :search) q " +
+            "WHERE " + FULL_TEXT_MATCH + " " +
+            "AND (CAST(:platform AS VARCHAR) IS NULL OR e.platform = :platform) " +
+            "AND (CAST(:minRating AS NUMERIC) IS NULL OR e.rating BETWEEN :minRating AND :maxRating) " +
+            "ORDER BY ts_rank_cd(e.search_vector, q) DESC, e.review_id DESC, e.provider_id DESC",
+           countQuery = "SELECT COUNT(*) FROM entity_reviews e " +
+            "WHERE " + FULL_TEXT_MATCH + " " +
+            "AND (CAST(:platform AS VARCHAR) IS NULL OR e.platform = :platform) " +
+            "AND (CAST(:minRating AS NUMERIC) IS NULL OR e.rating BETWEEN :minRating AND :maxRating)",
+           nativeQuery = true)
+    Page<EntityReview> findByFullTextSearch(@Param("search") String search, @Param("platform") String platform, @Param("minRating") Double minRating, @Param("maxRating") Double maxRating, Pageable pageable);
+    
+    @Query(value = "SELECT e.* FROM entity_reviews e, websearch_to_tsquery('simple', :search) q " +
+            "WHERE " + FULL_TEXT_MATCH + " " +
+            "AND (CAST(:platform AS VARCHAR) IS NULL OR e.platform = :platform) " +
+            "AND (CAST(:minRating AS NUMERIC) IS NULL OR e.rating BETWEEN :minRating AND :maxRating) " +
+            "ORDER BY ts_rank_cd(e.search_vector, q) DESC, e.review_id DESC, e.provider_id DESC",
+           nativeQuery = true)
+    Slice<EntityReview> findSliceByFullTextSearch(@Param("search") String search, @Param("platform") String platform, @Param("minRating") Double minRating, @Param("maxRating") Double maxRating, Pageable pageable);
+    
+    /**
+     * Review rows for the search index (ids, entity, platform, rating, text, review date in epoch
+     * millis, reviewer country and room type) after the given key in key order, for bulk indexing
+     */
+    @Query(value = SEARCH_DOCUMENT_SELECT +
+            "WHERE (e.review_id, e.provider_id) > (:afterReviewId, :afterProviderId) " +
+            "ORDER BY e.review_id, e.provider_id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findSearchDocumentsAfter(@Param("afterReviewId") Long afterReviewId, @Param("afterProviderId") Integer afterProviderId, @Param("limit") int limit);
+    
+    /**
+     * Review rows for the search index with any of the given review ids, for incremental updates
+     */
+    @Query(value = SEARCH_DOCUMENT_SELECT + "WHERE e.review_id IN (:reviewIds)", nativeQuery = true)
+    List<Object[]> findSearchDocumentsByReviewIds(@Param("reviewIds") Collection<Long> reviewIds);
+    
+    /**
+     * Keys of the reviews whose row or reviewer info was written after the given epoch millis,
+     * at most limit of them, for the search index catch-up
+     */
+    @Query(value = "SELECT review_id, provider_id FROM entity_reviews WHERE updated_at > to_timestamp(:sinceMs / 1000.0) " +
+            "UNION SELECT review_id, provider_id FROM reviewer_info WHERE updated_at > to_timestamp(:sinceMs / 1000.0) " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> findReviewKeysUpdatedSince(@Param("sinceMs") long sinceMs, @Param("limit") int limit);
+    
+    /**
+     * Current database time in epoch millis, the clock updated_at is stamped with
+     */
+    @Query(value = "SELECT CAST(EXTRACT(EPOCH FROM clock_timestamp()) * 1000 AS BIGINT)", nativeQuery = true)
+    long findDatabaseTimeMillis();
+    
+    String SEARCH_DOCUMENT_SELECT = "SELECT e.review_id, e.provider_id, e.entity_id, e.platform, " +
+            "CAST(e.rating AS DOUBLE PRECISION), e.review_title, e.review_comments, e.review_positives, e.review_negatives, " +
+            "CAST(EXTRACT(EPOCH FROM e.review_date) * 1000 AS BIGINT), r.country_name, r.room_type_name " +
+            "FROM entity_reviews e LEFT JOIN reviewer_info r ON r.review_id = e.review_id AND r.provider_id = e.provider_id ";
+    
     /**
      * Find distinct platforms
      */
-    @Query("SELECT DISTINCT e.platform FROM EntityReview e WHERE e.platform IS NOT NULL")
+    @Query(value = "SELECT DISTINCT platform FROM review_rating_aggregates WHERE platform <> '' AND review_count > 0", nativeQuery = true)
     List<String> findDistinctPlatforms();
     
     /**
      * Find average rating
      */
-    @Query("SELECT AVG(e.rating) FROM EntityReview e WHERE e.rating IS NOT NULL")
+    @Query(value = "SELECT CAST(SUM(rating_sum) / NULLIF(SUM(rated_count), 0) AS DOUBLE PRECISION) FROM review_rating_aggregates", nativeQuery = true)
     Double findAverageRating();
     
     /**
      * Find rating distribution
      */
-    @Query("SELECT e.rating, COUNT(e) FROM EntityReview e WHERE e.rating IS NOT NULL GROUP BY e.rating ORDER BY e.rating")
+    @Query(value = "SELECT CAST(rating AS DOUBLE PRECISION), SUM(review_count) FROM review_rating_histogram GROUP BY rating HAVING SUM(review_count) > 0 ORDER BY rating", nativeQuery = true)
     List<Object[]> findRatingDistribution();
     
     /**
      * Find review count by platform
      */
-    @Query("SELECT e.platform, COUNT(e) FROM EntityReview e WHERE e.platform IS NOT NULL GROUP BY e.platform")
+    @Query(value = "SELECT platform, SUM(review_count) FROM review_rating_aggregates WHERE platform <> '' GROUP BY platform HAVING SUM(review_count) > 0", nativeQuery = true)
     List<Object[]> findReviewCountByPlatform();
-} 
\ No newline at end of file
+    
+    /**
+     * Count all reviews from the rating aggregates instead of scanning entity_reviews
+     */
+    @Query(value = "SELECT COALESCE(SUM(review_count), 0) FROM review_rating_aggregates", nativeQuery = true)
+    long countFromAggregates();
+    
+    /**
+     * Count the reviews of one platform from the rating aggregates
+     */
+    @Query(value = "SELECT COALESCE(SUM(review_count), 0) FROM review_rating_aggregates WHERE platform = :platform", nativeQuery = true)
+    long countByPlatformFromAggregates(@Param("platform") String platform);
+    
+    /**
+     * Count the reviews in a rating range from the rating histogram
+     */
+    @Query(value = "SELECT COALESCE(SUM(review_count), 0) FROM review_rating_histogram WHERE rating BETWEEN :minRating AND :maxRating", nativeQuery = true)
+    long countByRatingRangeFromAggregates(@Param("minRating") Double minRating, @Param("maxRating") Double maxRating);
+    
+    /**
+     * Count the reviews of one platform in a rating range from the rating histogram
+     */
+    @Query(value = "SELECT COALESCE(SUM(review_count), 0) FROM review_rating_histogram WHERE platform = :platform AND rating BETWEEN :minRating AND :maxRating", nativeQuery = true)
+    long countByPlatformAndRatingRangeFromAggregates(@Param("platform") String platform, @Param("minRating") Double minRating, @Param("maxRating") Double maxRating);
+    
+    /**
+     * Find review count, rated count and rating sum per platform for one entity
+     */
+    @Query(value = "SELECT platform, SUM(review_count), SUM(rated_count), SUM(rating_sum) FROM review_rating_aggregates WHERE entity_id = :entityId GROUP BY platform HAVING SUM(review_count) > 0 ORDER BY platform", nativeQuery = true)
+    List<Object[]> findAggregatesByEntityId(@Param("entityId") Integer entityId);
+    
+    /**
+     * Find rating distribution for one entity
+     */
+    @Query(value = "SELECT CAST(rating AS DOUBLE PRECISION), SUM(review_count) FROM review_rating_histogram WHERE entity_id = :entityId GROUP BY rating HAVING SUM(review_count) > 0 ORDER BY rating", nativeQuery = true)
+    List<Object[]> findRatingDistributionByEntityId(@Param("entityId") Integer entityId);
+}
@@ -0,0 +1,36 @@
+package com.reviewservice.repository;
+
+import com.reviewcore.model.EntityReview;
+
+import java.util.List;
+
+/**
+ * Queries of entity_reviews built at runtime
+ */
+public interface EntityReviewRepositoryCustom {
+
+    /**
+     * Full-text match of :search, falling back to the substring match on title and comments when
+     * the search parses into no terms (e.g. only punctuation), since an empty tsquery matches
+     * nothing. The term count only depends on the parameter, so the planner folds it to a
+     * constant and keeps just one branch.
+     */
+    String FULL_TEXT_MATCH = "((numnode(websearch_to_tsquery('simple', :search)) > 0 " +
+            "AND search_vector @@ websearch_to_tsquery('simple', :search)) " +
+            "OR (numnode(websearch_to_tsquery('simple', :search)) = 0 " +
+            "AND (LOWER(review_title) LIKE LOWER(CONCAT('%', :search, '%')) " +
+            "OR LOWER(review_comments) LIKE LOWER(CONCAT('%', :search, '%')))))";
+
+    /**
+     * Keyset page of the reviews listing: reviews after the cursor (from the start when null) in the
+     * given sort, with the same optional filters as the paged listing. Null filters match everything;
+     * fullText matches the search with FULL_TEXT_MATCH instead of by substring.
+     */
+    List<EntityReview> findPageAfter(String sortBy, boolean descending, ReviewCursor after, String platform,
+                                     Double minRating, Double maxRating, String search, boolean fullText, int limit);
+
+    /**
+     * Planner estimate of the number of reviews matching the filters, without running the query
+     */
+    long estimateCount(String platform, Double minRating, Double maxRating, String search, boolean fullText);
+}
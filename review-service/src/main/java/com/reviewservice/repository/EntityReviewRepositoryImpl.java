@@ -0,0 +1,129 @@
+package com.reviewservice.repository;
+
+import com.reviewcore.model.EntityReview;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keyset pagination over entity_reviews. The sort key and the (review_id, provider_id) tiebreaker
+ * are compared as one row value, which Postgres answers with a range scan on the matching
+ * V9 index, so every page costs the same however deep it is and no COUNT(*) is run.
+ *
+ * Count estimates EXPLAIN the filtered listing and read the planner's row estimate of the scan, which
+ * comes from table statistics and costs about as much as planning the query.
+ */
+public class EntityReviewRepositoryImpl implements EntityReviewRepositoryCustom {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\\brows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<EntityReview> findPageAfter(String sortBy, boolean descending, ReviewCursor after, String platform,
+                                            Double minRating, Double maxRating, String search, boolean fullText, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String sql = buildPageAfterSql(sortBy, descending, after, platform, minRating, maxRating, search, fullText, parameters);
+        Query query = entityManager.createNativeQuery(sql, EntityReview.class);
+        parameters.forEach(query::setParameter);
+        query.setParameter("limit", limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public long estimateCount(String platform, Double minRating, Double maxRating, String search, boolean fullText) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        List<String> conditions = filterConditions(platform, minRating, maxRating, search, fullText, parameters);
+        StringBuilder sql = new StringBuilder("EXPLAIN SELECT review_id FROM entity_reviews");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        Query query = entityManager.createNativeQuery(sql.toString());
+        parameters.forEach(query::setParameter);
+        return parsePlanRows(query.getResultList());
+    }
+
+    /**
+     * Row estimate of the top plan node, the first line of the text EXPLAIN output
+     */
+    static long parsePlanRows(List<?> planLines) {
+        if (!planLines.isEmpty()) {
+            Matcher matcher = PLAN_ROWS.matcher(String.valueOf(planLines.get(0)));
+            if (matcher.find()) {
+                return Long.parseLong(matcher.group(1));
+            }
+        }
+        return 0;
+    }
+
+    static String buildPageAfterSql(String sortBy, boolean descending, ReviewCursor after, String platform,
+                                    Double minRating, Double maxRating, String search, boolean fullText,
+                                    Map<String, Object> parameters) {
+        String[] sortKey = ReviewCursor.SORT_KEYS.get(sortBy);
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Unsupported sort for cursor pagination: " + sortBy);
+        }
+        String keyExpression = sortKey[0];
+        String direction = descending ? "DESC" : "ASC";
+
+        List<String> conditions = filterConditions(platform, minRating, maxRating, search, fullText, parameters);
+        if (after != null) {
+            String comparison = descending ? "<" : ">";
+            if (keyExpression == null) {
+                conditions.add("(review_id, provider_id) " + comparison + " (:afterReviewId, :afterProviderId)");
+            } else {
+                conditions.add("(" + keyExpression + ", review_id, provider_id) " + comparison +
+                        " (CAST(:afterSortValue AS " + sortKey[1] + "), :afterReviewId, :afterProviderId)");
+                parameters.put("afterSortValue", after.getSortValue());
+            }
+            parameters.put("afterReviewId", after.getReviewId());
+            parameters.put("afterProviderId", after.getProviderId());
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM entity_reviews");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ");
+        if (keyExpression != null) {
+            sql.append(keyExpression).append(' ').append(direction).append(", ");
+        }
+        sql.append("review_id ").append(direction).append(", provider_id ").append(direction).append(" LIMIT :limit");
+        return sql.toString();
+    }
+
+    /**
+     * WHERE conditions of the listing filters, shared by paging and count estimates
+     */
+    private static List<String> filterConditions(String platform, Double minRating, Double maxRating, String search,
+                                                 boolean fullText, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (platform != null && !platform.isEmpty()) {
+            conditions.add("platform = :platform");
+            parameters.put("platform", platform);
+        }
+        if (minRating != null && maxRating != null) {
+            conditions.add("rating BETWEEN :minRating AND :maxRating");
+            parameters.put("minRating", minRating);
+            parameters.put("maxRating", maxRating);
+        }
+        if (search != null && !search.isEmpty() && fullText) {
+            conditions.add(FULL_TEXT_MATCH);
+            parameters.put("search", search);
+        } else if (search != null && !search.isEmpty()) {
+            conditions.add("(LOWER(review_title) LIKE LOWER(CONCAT('%', :search, '%')) " +
+                    "OR LOWER(review_comments) LIKE LOWER(CONCAT('%', :search, '%')))");
+            parameters.put("search", search);
+        }
+        return conditions;
+    }
+}
@@ -2,8 +2,18 @@ package com.reviewservice.repository;
 
 import com.reviewcore.model.OverallProviderScore;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface OverallProviderScoreRepository extends JpaRepository<OverallProviderScore, OverallProviderScore.OverallProviderScoreId> {
-} 
\ No newline at end of file
+    
+    /**
+     * Find the provider scores of a review, whether stored as rows or as shared snapshots
+     */
+    @Query(value = "SELECT * FROM overall_provider_scores_resolved WHERE review_id = :reviewId AND provider_id = :providerId", nativeQuery = true)
+    List<OverallProviderScore> findResolvedByReview(@Param("reviewId") Long reviewId, @Param("providerId") Integer providerId);
+}
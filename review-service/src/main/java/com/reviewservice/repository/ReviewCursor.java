@@ -0,0 +1,89 @@
+package com.reviewservice.repository;
+
+import com.reviewcore.model.EntityReview;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Keyset position in the reviews listing: the sort key of the last review returned plus its
+ * (review_id, provider_id) tiebreaker, encoded as an opaque URL-safe token.
+ *
+ * Nullable sort columns are compared through the same COALESCE expressions as their indexes,
+ * so the sort value held here is the coalesced one.
+ */
+public final class ReviewCursor {
+
+    /**
+     * Supported sorts: API sort name to the SQL key expression and its type; reviewId sorts on
+     * the tiebreaker alone
+     */
+    static final Map<String, String[]> SORT_KEYS = Map.of(
+            "reviewId", new String[]{null, null},
+            "reviewDate", new String[]{"COALESCE(review_date, CAST('-infinity' AS timestamp))", "timestamp"},
+            "rating", new String[]{"COALESCE(rating, -1)", "numeric"});
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final boolean descending;
+    private final String sortValue;
+    private final Long reviewId;
+    private final Integer providerId;
+
+    public ReviewCursor(String sortBy, boolean descending, String sortValue, Long reviewId, Integer providerId) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.sortValue = sortValue;
+        this.reviewId = reviewId;
+        this.providerId = providerId;
+    }
+
+    public static boolean isSupportedSort(String sortBy) {
+        return SORT_KEYS.containsKey(sortBy);
+    }
+
+    /**
+     * Position right after the given review in the given sort
+     */
+    public static ReviewCursor after(EntityReview review, String sortBy, boolean descending) {
+        String sortValue = switch (sortBy) {
+            case "reviewDate" -> review.getReviewDate() != null ? review.getReviewDate().toString() : "-infinity";
+            case "rating" -> review.getRating() != null ? BigDecimal.valueOf(review.getRating()).toPlainString() : "-1";
+            default -> null;
+        };
+        return new ReviewCursor(sortBy, descending, sortValue, review.getId().getReviewId(), review.getId().getProviderId());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortBy, descending ? "desc" : "asc",
+                sortValue != null ? sortValue : "", String.valueOf(reviewId), String.valueOf(providerId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token is malformed
+     */
+    public static ReviewCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 5 || !isSupportedSort(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ReviewCursor(parts[0], "desc".equals(parts[1]), parts[2].isEmpty() ? null : parts[2],
+                    Long.valueOf(parts[3]), Integer.valueOf(parts[4]));
+        } catch (IllegalArgumentException e) {
+            // Also covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String getSortBy() { return sortBy; }
+    public boolean isDescending() { return descending; }
+    public String getSortValue() { return sortValue; }
+    public Long getReviewId() { return reviewId; }
+    public Integer getProviderId() { return providerId; }
+}
@@ -0,0 +1,157 @@
+package com.reviewservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewChangeEvent;
+import com.reviewservice.config.RedisConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts the cache entries affected by review change events published by review-consumer.
+ *
+ * Events arriving within one window are merged and evicted together once the window closes,
+ * so a burst of ingestion turns into one eviction per affected key rather than one per record,
+ * and unrelated entries stay cached. Views that cannot be targeted by key (rating ranges,
+ * bad records after a date) are left to their TTL.
+ */
+@Slf4j
+@Service
+public class CacheInvalidationService implements MessageListener {
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService flushExecutor;
+    private final Counter eventsCounter;
+    private final Counter evictionsCounter;
+    private final long windowMs;
+
+    private Map<String, Set<String>> pendingEvictions = new LinkedHashMap<>();
+
+    public CacheInvalidationService(CacheManager cacheManager, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${review.cache.invalidation.window-ms:2000}") long windowMs) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.windowMs = windowMs;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.eventsCounter = Counter.builder("review_service_cache_change_events_total")
+                .description("Review change events received for cache invalidation")
+                .register(meterRegistry);
+        this.evictionsCounter = Counter.builder("review_service_cache_evictions_total")
+                .description("Cache entries evicted in response to review change events")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            ReviewChangeEvent event = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), ReviewChangeEvent.class);
+            eventsCounter.increment();
+            enqueue(event);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed review change event: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add the keys an event affects to the current window, opening a new window if none is pending
+     */
+    public void enqueue(ReviewChangeEvent event) {
+        Map<String, Set<String>> evictions = new LinkedHashMap<>();
+        if (!event.getEntityIds().isEmpty() || !event.getPlatforms().isEmpty() || !event.getReviewKeys().isEmpty()) {
+            event.getEntityIds().forEach(entityId -> {
+                add(evictions, RedisConfig.REVIEWS_CACHE, "entity_" + entityId);
+                add(evictions, RedisConfig.REVIEW_STATS_CACHE, "entity_statistics_" + entityId);
+            });
+            event.getPlatforms().forEach(platform -> add(evictions, RedisConfig.REVIEWS_CACHE, "platform_" + platform));
+            event.getReviewKeys().forEach(reviewKey -> {
+                add(evictions, RedisConfig.REVIEWS_CACHE, "review_" + reviewKey);
+                add(evictions, RedisConfig.REVIEWS_CACHE, "provider_scores_" + reviewKey);
+            });
+            add(evictions, RedisConfig.REVIEW_STATS_CACHE, "good_statistics");
+            add(evictions, RedisConfig.REVIEW_SUMMARY_CACHE, "summary");
+        }
+        if (!event.getBadReviewKeys().isEmpty() || !event.getBadPlatforms().isEmpty() || !event.getBadReasons().isEmpty()) {
+            event.getBadReviewKeys().forEach(reviewKey -> add(evictions, RedisConfig.BAD_REVIEWS_CACHE, "bad_id_" + reviewKey));
+            event.getBadPlatforms().forEach(platform -> {
+                add(evictions, RedisConfig.BAD_REVIEWS_CACHE, "bad_platform_" + platform);
+                add(evictions, RedisConfig.REVIEW_STATS_CACHE, "bad_statistics_platform_" + platform);
+            });
+            event.getBadReasons().forEach(reason -> add(evictions, RedisConfig.BAD_REVIEWS_CACHE, "bad_reason_" + reason));
+            add(evictions, RedisConfig.BAD_REVIEWS_CACHE, "all_bad");
+            add(evictions, RedisConfig.BAD_REVIEWS_CACHE, "bad_recent");
+            add(evictions, RedisConfig.REVIEW_STATS_CACHE, "bad_statistics");
+            add(evictions, RedisConfig.REVIEW_SUMMARY_CACHE, "summary");
+        }
+        if (evictions.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            boolean windowOpen = !pendingEvictions.isEmpty();
+            evictions.forEach((cacheName, keys) ->
+                    pendingEvictions.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).addAll(keys));
+            if (!windowOpen) {
+                flushExecutor.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Evict everything collected in the window that just closed
+     */
+    void flush() {
+        Map<String, Set<String>> evictions;
+        synchronized (this) {
+            evictions = pendingEvictions;
+            pendingEvictions = new LinkedHashMap<>();
+        }
+        int evicted = 0;
+        for (Map.Entry<String, Set<String>> entry : evictions.entrySet()) {
+            Cache cache = cacheManager.getCache(entry.getKey());
+            if (cache == null) {
+                continue;
+            }
+            for (String key : entry.getValue()) {
+                try {
+                    cache.evict(key);
+                    evicted++;
+                } catch (Exception e) {
+                    log.warn("Failed to evict {} from cache {}: {}", key, entry.getKey(), e.getMessage());
+                }
+            }
+        }
+        evictionsCounter.increment(evicted);
+        log.debug("Evicted {} cache entries for review changes", evicted);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+    }
+
+    private static void add(Map<String, Set<String>> evictions, String cacheName, String key) {
+        evictions.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key);
+    }
+}
@@ -1,17 +1,25 @@
 package com.reviewservice.service;
 
 import com.reviewcore.model.EntityReview;
+import com.reviewcore.model.OverallProviderScore;
 import com.reviewservice.repository.EntityReviewRepository;
+import com.reviewservice.repository.OverallProviderScoreRepository;
+import com.reviewservice.repository.ReviewCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,12 +29,70 @@ import java.util.Map;
 public class EntityReviewService {
     private final EntityReviewRepository entityReviewRepository;
     private final BadReviewRecordService badReviewRecordService;
+    private final OverallProviderScoreRepository overallProviderScoreRepository;
+
+    public static final String SEARCH_MODE_FULLTEXT = "fulltext";
+    public static final String SEARCH_MODE_LIKE = "like";
+
+    public static final String COUNT_EXACT = "exact";
+    public static final String COUNT_ESTIMATED = "estimated";
+    public static final String COUNT_NONE = "none";
+
+    // Effective sort reported for full-text offset pages, which ignore sortBy and sortDir
+    public static final String SORT_RELEVANCE = "relevance";
+
+    @Value("${review.search.mode:fulltext}")
+    private String defaultSearchMode = SEARCH_MODE_FULLTEXT;
 
     public Map<String, Object> getAllReviewsBody(
             int page, int size, String sortBy, String sortDir, String platform, Double minRating, Double maxRating, String search
     ) {
-        log.info("🔍 Fetching reviews from database - page: {}, size: {}, sortBy: {}, sortDir: {}, platform: {}, minRating: {}, maxRating: {}, search: {}", 
-                page, size, sortBy, sortDir, platform, minRating, maxRating, search);
+        return getAllReviewsBody(page, size, sortBy, sortDir, platform, minRating, maxRating, search, null, COUNT_EXACT);
+    }
+
+    /**
+     * Paged listing. A search is matched against the search_vector column and ordered by relevance
+     * instead of the requested sort, so the response reports sortBy=relevance; searchMode=like, or a
+     * search without any word to match, falls back to the substring match on title and comments.
+     *
+     * Only countMode=exact runs a COUNT query. Otherwise the page is fetched as a slice (one extra
+     * row tells hasNext), and with countMode=estimated totalItems comes from the trigger-maintained
+     * rating aggregates when there is no search (exact) or from the planner's row estimate of the
+     * search (approximate); totalItemsExact says which.
+     *
+     * @param searchMode fulltext or like, or null for review.search.mode
+     * @param countMode exact, estimated or none
+     * @throws IllegalArgumentException for an unsupported search or count mode
+     */
+    public Map<String, Object> getAllReviewsBody(
+            int page, int size, String sortBy, String sortDir, String platform, Double minRating, Double maxRating, String search,
+            String searchMode, String countMode
+    ) {
+        log.info("🔍 Fetching reviews from database - page: {}, size: {}, sortBy: {}, sortDir: {}, platform: {}, minRating: {}, maxRating: {}, search: {}, searchMode: {}, countMode: {}", 
+                page, size, sortBy, sortDir, platform, minRating, maxRating, search, searchMode, countMode);
+        
+        if (!COUNT_EXACT.equalsIgnoreCase(countMode) && !COUNT_ESTIMATED.equalsIgnoreCase(countMode)
+                && !COUNT_NONE.equalsIgnoreCase(countMode)) {
+            throw new IllegalArgumentException("Unsupported count mode: " + countMode);
+        }
+        boolean countTotal = COUNT_EXACT.equalsIgnoreCase(countMode);
+        boolean hasPlatform = platform != null && !platform.isEmpty();
+        boolean hasRatingRange = minRating != null && maxRating != null;
+        boolean hasSearch = search != null && !search.isEmpty();
+        
+        if (isFullTextSearch(search, searchMode)) {
+            Pageable pageable = PageRequest.of(page, size);
+            String platformFilter = hasPlatform ? platform : null;
+            Double minRatingFilter = hasRatingRange ? minRating : null;
+            Double maxRatingFilter = hasRatingRange ? maxRating : null;
+            Slice<EntityReview> reviews = countTotal
+                    ? entityReviewRepository.findByFullTextSearch(search, platformFilter, minRatingFilter, maxRatingFilter, pageable)
+                    : entityReviewRepository.findSliceByFullTextSearch(search, platformFilter, minRatingFilter, maxRatingFilter, pageable);
+            Map<String, Object> response = toPageResponse(reviews, countMode, platform, minRating, maxRating, search, true);
+            response.put("sortBy", SORT_RELEVANCE);
+            response.put("sortDir", "desc");
+            return response;
+        }
         
         // Fix sorting for composite key properties
         String actualSortBy = sortBy;
@@ -40,53 +106,179 @@ public class EntityReviewService {
             Sort.by(actualSortBy).descending() : Sort.by(actualSortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<EntityReview> reviewsPage;
+        Slice<EntityReview> reviews;
         
         // Apply filters based on provided parameters
-        if (platform != null && !platform.isEmpty()) {
-            if (minRating != null && maxRating != null) {
-                if (search != null && !search.isEmpty()) {
+        if (hasPlatform) {
+            if (hasRatingRange) {
+                if (hasSearch) {
                     // Platform + Rating Range + Search
-                    reviewsPage = entityReviewRepository.findByPlatformAndRatingRangeAndSearchTerm(platform, minRating, maxRating, search, pageable);
+                    reviews = countTotal
+                            ? entityReviewRepository.findByPlatformAndRatingRangeAndSearchTerm(platform, minRating, maxRating, search, pageable)
+                            : entityReviewRepository.findSliceByPlatformAndRatingRangeAndSearchTerm(platform, minRating, maxRating, search, pageable);
                 } else {
                     // Platform + Rating Range
-                    reviewsPage = entityReviewRepository.findByPlatformAndRatingBetween(platform, minRating, maxRating, pageable);
+                    reviews = countTotal
+                            ? entityReviewRepository.findByPlatformAndRatingBetween(platform, minRating, maxRating, pageable)
+                            : entityReviewRepository.findSliceByPlatformAndRatingBetween(platform, minRating, maxRating, pageable);
                 }
             } else {
-                if (search != null && !search.isEmpty()) {
+                if (hasSearch) {
                     // Platform + Search
-                    reviewsPage = entityReviewRepository.findByPlatformAndSearchTerm(platform, search, pageable);
+                    reviews = countTotal
+                            ? entityReviewRepository.findByPlatformAndSearchTerm(platform, search, pageable)
+                            : entityReviewRepository.findSliceByPlatformAndSearchTerm(platform, search, pageable);
                 } else {
                     // Platform only
-                    reviewsPage = entityReviewRepository.findByPlatform(platform, pageable);
+                    reviews = countTotal
+                            ? entityReviewRepository.findByPlatform(platform, pageable)
+                            : entityReviewRepository.findSliceByPlatform(platform, pageable);
                 }
             }
-        } else if (minRating != null && maxRating != null) {
-            if (search != null && !search.isEmpty()) {
+        } else if (hasRatingRange) {
+            if (hasSearch) {
                 // Rating Range + Search
-                reviewsPage = entityReviewRepository.findByRatingRangeAndSearchTerm(minRating, maxRating, search, pageable);
+                reviews = countTotal
+                        ? entityReviewRepository.findByRatingRangeAndSearchTerm(minRating, maxRating, search, pageable)
+                        : entityReviewRepository.findSliceByRatingRangeAndSearchTerm(minRating, maxRating, search, pageable);
             } else {
                 // Rating Range only
-                reviewsPage = entityReviewRepository.findByRatingBetween(minRating, maxRating, pageable);
+                reviews = countTotal
+                        ? entityReviewRepository.findByRatingBetween(minRating, maxRating, pageable)
+                        : entityReviewRepository.findSliceByRatingBetween(minRating, maxRating, pageable);
             }
-        } else if (search != null && !search.isEmpty()) {
+        } else if (hasSearch) {
             // Search only
-            reviewsPage = entityReviewRepository.findBySearchTerm(search, pageable);
+            reviews = countTotal
+                    ? entityReviewRepository.findBySearchTerm(search, pageable)
+                    : entityReviewRepository.findSliceBySearchTerm(search, pageable);
         } else {
             // No filters, get all reviews
-            reviewsPage = entityReviewRepository.findAll(pageable);
+            reviews = countTotal
+                    ? entityReviewRepository.findAll(pageable)
+                    : entityReviewRepository.findSliceBy(pageable);
         }
         
+        Map<String, Object> response = toPageResponse(reviews, countMode, platform, minRating, maxRating, search, false);
+        response.put("sortBy", sortBy);
+        response.put("sortDir", sortDir.equalsIgnoreCase("desc") ? "desc" : "asc");
+        return response;
+    }
+
+    private Map<String, Object> toPageResponse(Slice<EntityReview> reviews, String countMode, String platform,
+                                               Double minRating, Double maxRating, String search, boolean fullText) {
         Map<String, Object> response = new HashMap<>();
-        response.put("reviews", reviewsPage.getContent());
-        response.put("currentPage", reviewsPage.getNumber());
-        response.put("totalItems", reviewsPage.getTotalElements());
-        response.put("totalPages", reviewsPage.getTotalPages());
-        response.put("hasNext", reviewsPage.hasNext());
-        response.put("hasPrevious", reviewsPage.hasPrevious());
+        response.put("reviews", reviews.getContent());
+        response.put("currentPage", reviews.getNumber());
+        response.put("hasNext", reviews.hasNext());
+        response.put("hasPrevious", reviews.hasPrevious());
+        
+        if (reviews instanceof Page<EntityReview> reviewsPage) {
+            response.put("totalItems", reviewsPage.getTotalElements());
+            response.put("totalPages", reviewsPage.getTotalPages());
+            response.put("totalItemsExact", true);
+        } else if (COUNT_ESTIMATED.equalsIgnoreCase(countMode)) {
+            boolean exact = search == null || search.isEmpty();
+            long total = exact
+                    ? countFromAggregates(platform, minRating, maxRating)
+                    : entityReviewRepository.estimateCount(platform, minRating, maxRating, search, fullText);
+            // Never report fewer reviews than this page has already shown to exist
+            long seen = (long) reviews.getNumber() * reviews.getSize() + reviews.getNumberOfElements() + (reviews.hasNext() ? 1 : 0);
+            total = Math.max(total, seen);
+            response.put("totalItems", total);
+            response.put("totalPages", reviews.getSize() > 0 ? (int) ((total + reviews.getSize() - 1) / reviews.getSize()) : 0);
+            response.put("totalItemsExact", exact);
+        }
         
-        log.info("✅ Database query completed, returning {} reviews from page {} of {}", 
-                reviewsPage.getContent().size(), reviewsPage.getNumber(), reviewsPage.getTotalPages());
+        log.info("✅ Database query completed, returning {} reviews from page {}, totalItems: {}", 
+                reviews.getNumberOfElements(), reviews.getNumber(), response.get("totalItems"));
+        return response;
+    }
+
+    /**
+     * Exact review count of the platform and rating filters from the rating aggregates
+     */
+    private long countFromAggregates(String platform, Double minRating, Double maxRating) {
+        boolean hasPlatform = platform != null && !platform.isEmpty();
+        if (minRating != null && maxRating != null) {
+            return hasPlatform
+                    ? entityReviewRepository.countByPlatformAndRatingRangeFromAggregates(platform, minRating, maxRating)
+                    : entityReviewRepository.countByRatingRangeFromAggregates(minRating, maxRating);
+        }
+        return hasPlatform
+                ? entityReviewRepository.countByPlatformFromAggregates(platform)
+                : entityReviewRepository.countFromAggregates();
+    }
+
+    /**
+     * Whether a search runs against the full-text index. A search without terms is still sent as
+     * full-text: the query itself falls back to the substring match, without an extra round trip.
+     */
+    private boolean isFullTextSearch(String search, String searchMode) {
+        if (search == null || search.isBlank()) {
+            return false;
+        }
+        String mode = searchMode != null && !searchMode.isEmpty() ? searchMode : defaultSearchMode;
+        if (SEARCH_MODE_LIKE.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        if (!SEARCH_MODE_FULLTEXT.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unsupported search mode: " + mode);
+        }
+        return true;
+    }
+
+    /**
+     * Cursor-paged listing: seeks past the previous page's last review instead of skipping
+     * page * size rows, and returns no totals, so deep pages cost as much as the first one.
+     * Supported sorts are reviewId, reviewDate and rating. A search filters like in the paged
+     * listing, but results keep the requested sort rather than relevance order.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException for an unsupported sort or a cursor issued for another sort
+     */
+    public Map<String, Object> getReviewsAfterCursorBody(
+            String cursor, int size, String sortBy, String sortDir, String platform, Double minRating, Double maxRating, String search
+    ) {
+        return getReviewsAfterCursorBody(cursor, size, sortBy, sortDir, platform, minRating, maxRating, search, null);
+    }
+
+    public Map<String, Object> getReviewsAfterCursorBody(
+            String cursor, int size, String sortBy, String sortDir, String platform, Double minRating, Double maxRating, String search,
+            String searchMode
+    ) {
+        log.info("🔍 Fetching reviews from database by cursor - size: {}, sortBy: {}, sortDir: {}, platform: {}, minRating: {}, maxRating: {}, search: {}", 
+                size, sortBy, sortDir, platform, minRating, maxRating, search);
+        
+        if (!ReviewCursor.isSupportedSort(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort for cursor pagination: " + sortBy);
+        }
+        boolean descending = sortDir.equalsIgnoreCase("desc");
+        ReviewCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = ReviewCursor.decode(cursor);
+            if (!after.getSortBy().equals(sortBy) || after.isDescending() != descending) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort");
+            }
+        }
+        
+        // One extra row tells whether another page follows
+        List<EntityReview> reviews = new ArrayList<>(entityReviewRepository.findPageAfter(
+                sortBy, descending, after, platform, minRating, maxRating, search,
+                isFullTextSearch(search, searchMode), size + 1));
+        boolean hasNext = reviews.size() > size;
+        if (hasNext) {
+            reviews = reviews.subList(0, size);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("reviews", reviews);
+        response.put("size", size);
+        response.put("hasNext", hasNext);
+        response.put("nextCursor", hasNext
+                ? ReviewCursor.after(reviews.get(reviews.size() - 1), sortBy, descending).encode() : null);
+        
+        log.info("✅ Database query completed, returning {} reviews by cursor", reviews.size());
         return response;
     }
 
@@ -116,23 +308,54 @@ public class EntityReviewService {
                 .orElseThrow(() -> new RuntimeException("Review not found with ID: " + reviewId + " and provider ID: " + providerId));
     }
 
+    @Cacheable(value = "reviews", key = "'provider_scores_' + #reviewId + '_' + #providerId")
+    public List<OverallProviderScore> getProviderScoresBody(Long reviewId, Integer providerId) {
+        log.info("Fetching provider scores for review ID: {} and provider ID: {}", reviewId, providerId);
+        return overallProviderScoreRepository.findResolvedByReview(reviewId, providerId);
+    }
+
     @Cacheable(value = "review-stats", key = "'good_statistics'")
     public Map<String, Object> getReviewStatisticsBody() {
         log.info("Fetching good review statistics");
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalReviews", entityReviewRepository.count());
+        stats.put("totalReviews", entityReviewRepository.countFromAggregates());
         stats.put("platforms", entityReviewRepository.findDistinctPlatforms());
         stats.put("averageRating", entityReviewRepository.findAverageRating());
         stats.put("ratingDistribution", entityReviewRepository.findRatingDistribution());
         return stats;
     }
 
+    @Cacheable(value = "review-stats", key = "'entity_statistics_' + #entityId")
+    public Map<String, Object> getEntityStatisticsBody(Integer entityId) {
+        log.info("Fetching review statistics for entity ID: {}", entityId);
+        long totalReviews = 0;
+        long ratedReviews = 0;
+        BigDecimal ratingSum = BigDecimal.ZERO;
+        Map<String, Long> byPlatform = new LinkedHashMap<>();
+        for (Object[] row : entityReviewRepository.findAggregatesByEntityId(entityId)) {
+            long reviewCount = ((Number) row[1]).longValue();
+            totalReviews += reviewCount;
+            ratedReviews += ((Number) row[2]).longValue();
+            ratingSum = ratingSum.add(new BigDecimal(row[3].toString()));
+            if (!((String) row[0]).isEmpty()) {
+                byPlatform.put((String) row[0], reviewCount);
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entityId", entityId);
+        stats.put("totalReviews", totalReviews);
+        stats.put("averageRating", ratedReviews > 0 ? ratingSum.doubleValue() / ratedReviews : null);
+        stats.put("reviewsByPlatform", byPlatform);
+        stats.put("ratingDistribution", entityReviewRepository.findRatingDistributionByEntityId(entityId));
+        return stats;
+    }
+
     @Cacheable(value = "review-summary", key = "'summary'")
     public Map<String, Object> getReviewSummaryBody() {
         log.info("Fetching combined review summary");
         Map<String, Object> summary = new HashMap<>();
         // Good reviews summary
-        summary.put("totalGoodReviews", entityReviewRepository.count());
+        summary.put("totalGoodReviews", entityReviewRepository.countFromAggregates());
         summary.put("goodReviewsByPlatform", entityReviewRepository.findReviewCountByPlatform());
         // Bad reviews summary
         Map<String, Object> badStats = badReviewRecordService.getStatistics();
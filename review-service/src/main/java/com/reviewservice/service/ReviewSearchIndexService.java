@@ -0,0 +1,772 @@
+package com.reviewservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewcore.dto.ReviewChangeEvent;
+import com.reviewservice.repository.EntityReviewRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.DrillDownQuery;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded Lucene index of the good reviews for faceted search.
+ *
+ * Each review is one document with its text and with platform, rating bucket, reviewer country
+ * and room type as sorted-set facets, so a search returns its top hits and the facet counts of
+ * all matching reviews from one pass. The index lives on local disk and is kept current from the
+ * review change events review-consumer publishes after each commit: changed review keys are
+ * collected, re-read from Postgres and re-indexed every refresh interval, after which the
+ * searcher is reopened without a commit (near-real-time). Commits to disk run on a longer
+ * interval. Updates, reopens, commits and rebuilds all run on one thread, so a search never
+ * sees a rebuild half way.
+ *
+ * Change events are at-most-once, so they are only the fast path. Before every commit, and at
+ * startup, the index catches up from Postgres: reviews whose updated_at is past the watermark
+ * (less an overlap for transactions that commit after stamping their rows) are re-indexed, and
+ * the new watermark is committed in the index's commit user data. Events lost in transit,
+ * changes made while the service was down, writes that publish no events and updates lost in a
+ * crash before the commit are therefore all replayed. An index without a watermark, or too far
+ * behind, is rebuilt; deleted reviews are only removed by change events or a rebuild.
+ */
+@Slf4j
+@Service
+public class ReviewSearchIndexService implements MessageListener {
+
+    public static final String FACET_PLATFORM = "platform";
+    public static final String FACET_RATING = "ratingBucket";
+    public static final String FACET_COUNTRY = "country";
+    public static final String FACET_ROOM_TYPE = "roomType";
+    public static final List<String> FACETS = List.of(FACET_PLATFORM, FACET_RATING, FACET_COUNTRY, FACET_ROOM_TYPE);
+
+    private static final String UNRATED = "unrated";
+    private static final String WATERMARK = "watermarkMs";
+    private static final Map<String, Float> TEXT_FIELD_WEIGHTS = Map.of(
+            "title", 3.0f, "comments", 2.0f, "positives", 1.0f, "negatives", 1.0f);
+
+    private final EntityReviewRepository entityReviewRepository;
+    private final ObjectMapper objectMapper;
+    private final Counter indexedCounter;
+    private final Counter deletedCounter;
+    private final boolean enabled;
+    private final Path indexPath;
+    private final long refreshMs;
+    private final long commitMs;
+    private final int batchSize;
+    private final long catchUpOverlapMs;
+    private final int catchUpMaxReviews;
+    private final ScheduledExecutorService indexExecutor;
+    private final Analyzer analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+
+    private Directory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private volatile FacetSearcher facetSearcher;
+    private Set<String> pendingKeys = new LinkedHashSet<>();
+    private long droppedDuringRebuild;
+    // Database time up to which every review change is indexed; null when unknown
+    private volatile Long watermarkMs;
+
+    private volatile String rebuildState = "idle";
+    private volatile Instant rebuildStartedAt;
+    private volatile Instant rebuildFinishedAt;
+    private volatile long rebuildIndexed;
+    private volatile String rebuildError;
+    private volatile Instant lastCommitAt;
+
+    public ReviewSearchIndexService(EntityReviewRepository entityReviewRepository, ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${review.search.index.enabled:true}") boolean enabled,
+                                    @Value("${review.search.index.path:./data/review-search-index}") String indexPath,
+                                    @Value("${review.search.index.refresh-ms:1000}") long refreshMs,
+                                    @Value("${review.search.index.commit-ms:60000}") long commitMs,
+                                    @Value("${review.search.index.batch-size:1000}") int batchSize,
+                                    @Value("${review.search.index.catch-up-overlap-ms:60000}") long catchUpOverlapMs,
+                                    @Value("${review.search.index.catch-up-max-reviews:200000}") int catchUpMaxReviews) {
+        this.entityReviewRepository = entityReviewRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.indexPath = Paths.get(indexPath);
+        this.refreshMs = refreshMs;
+        this.commitMs = commitMs;
+        this.batchSize = batchSize;
+        this.catchUpOverlapMs = catchUpOverlapMs;
+        this.catchUpMaxReviews = catchUpMaxReviews;
+        this.indexExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "review-search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.indexedCounter = Counter.builder("review_service_search_index_updates_total")
+                .description("Reviews written to or removed from the search index")
+                .tag("outcome", "indexed")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("review_service_search_index_updates_total")
+                .description("Reviews written to or removed from the search index")
+                .tag("outcome", "deleted")
+                .register(meterRegistry);
+        Gauge.builder("review_service_search_index_documents", this, ReviewSearchIndexService::getDocumentCount)
+                .description("Reviews in the search index, including changes not yet committed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            openIndex();
+        } catch (IOException e) {
+            log.error("Failed to open search index at {}, search is unavailable", indexPath, e);
+            return;
+        }
+        indexExecutor.scheduleWithFixedDelay(this::applyPendingChanges, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        indexExecutor.scheduleWithFixedDelay(this::commit, commitMs, commitMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void openIndex() throws IOException {
+        Files.createDirectories(indexPath);
+        directory = FSDirectory.open(indexPath);
+        openWriter();
+    }
+
+    /**
+     * Open a writer on the last commit and swap it in with its searcher manager
+     */
+    private void openWriter() throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        IndexWriter newWriter = new IndexWriter(directory, config);
+        SearcherManager newSearcherManager;
+        try {
+            newSearcherManager = new SearcherManager(newWriter, null);
+            newSearcherManager.addListener(new FacetStateRefresher(newSearcherManager));
+            publishFacetSearcher(newSearcherManager);
+        } catch (IOException e) {
+            newWriter.close();
+            throw e;
+        }
+        searcherManager = newSearcherManager;
+        writer = newWriter;
+        watermarkMs = readWatermark(writer);
+        log.info("✅ Opened search index at {} with {} reviews, watermark {}", indexPath, writer.getDocStats().numDocs,
+                watermarkMs != null ? Instant.ofEpochMilli(watermarkMs) : "none");
+    }
+
+    private static Long readWatermark(IndexWriter indexWriter) {
+        Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (WATERMARK.equals(entry.getKey())) {
+                    return Long.parseLong(entry.getValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Store the watermark with the next commit
+     */
+    private void setWatermark(long timeMs) {
+        watermarkMs = timeMs;
+        writer.setLiveCommitData(Map.of(WATERMARK, Long.toString(timeMs)).entrySet());
+    }
+
+    /**
+     * Rebuild an empty index or one without a watermark; otherwise replay what changed since the
+     * last commit right away instead of at the first commit interval
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOnStartup() {
+        if (writer == null) {
+            return;
+        }
+        if (writer.getDocStats().maxDoc == 0 || watermarkMs == null) {
+            log.info("🔍 Search index is empty or has no watermark, rebuilding from the database");
+            submitRebuild();
+        } else {
+            indexExecutor.execute(this::commit);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            ReviewChangeEvent event = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), ReviewChangeEvent.class);
+            enqueue(event.getReviewKeys());
+        } catch (Exception e) {
+            log.warn("Ignoring malformed review change event: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Queue reviews ({@code <reviewId>_<providerId>} keys) to be re-read and re-indexed at the next refresh.
+     * While a rebuild runs the queue is capped at catch-up-max-reviews: the catch-up after the
+     * rebuild replays every change from its start, so the dropped keys only lose deletions.
+     */
+    public synchronized void enqueue(Set<String> reviewKeys) {
+        if (!"running".equals(rebuildState)) {
+            pendingKeys.addAll(reviewKeys);
+            return;
+        }
+        for (String key : reviewKeys) {
+            if (pendingKeys.size() < catchUpMaxReviews || pendingKeys.contains(key)) {
+                pendingKeys.add(key);
+            } else {
+                droppedDuringRebuild++;
+            }
+        }
+    }
+
+    /**
+     * Re-index the queued reviews and reopen the searcher so they become searchable; returns
+     * false when they were queued again after a failure
+     */
+    boolean applyPendingChanges() {
+        Set<String> keys;
+        synchronized (this) {
+            keys = pendingKeys;
+            pendingKeys = new LinkedHashSet<>();
+        }
+        try {
+            List<String> batch = new ArrayList<>(batchSize);
+            for (String key : keys) {
+                batch.add(key);
+                if (batch.size() == batchSize) {
+                    indexReviews(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                indexReviews(batch);
+            }
+            searcherManager.maybeRefresh();
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to index {} changed reviews, retrying at the next refresh: {}", keys.size(), e.getMessage());
+            enqueue(keys);
+            return false;
+        }
+    }
+
+    /**
+     * Update the documents of the given reviews from Postgres, removing those no longer there
+     */
+    private void indexReviews(List<String> keys) throws IOException {
+        Set<Long> reviewIds = new LinkedHashSet<>();
+        for (String key : keys) {
+            reviewIds.add(Long.parseLong(key.substring(0, key.indexOf('_'))));
+        }
+        Map<String, Object[]> rows = new HashMap<>();
+        for (Object[] row : entityReviewRepository.findSearchDocumentsByReviewIds(reviewIds)) {
+            rows.put(ReviewChangeEvent.reviewKey(((Number) row[0]).longValue(), ((Number) row[1]).intValue()), row);
+        }
+        for (String key : keys) {
+            Object[] row = rows.get(key);
+            if (row != null) {
+                writer.updateDocument(new Term("id", key), toDocument(row));
+                indexedCounter.increment();
+            } else {
+                writer.deleteDocuments(new Term("id", key));
+                deletedCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * Catch up from Postgres, then commit the index together with the new watermark
+     */
+    void commit() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            catchUp();
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+                lastCommitAt = Instant.now();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to commit search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-index the reviews written since the watermark, less the overlap, and advance the
+     * watermark once they are indexed; too many of them, or no watermark, rebuild instead
+     */
+    void catchUp() {
+        Long since = watermarkMs;
+        if (since == null) {
+            log.warn("Search index has no watermark, rebuilding from the database");
+            rebuild();
+            return;
+        }
+        long now = entityReviewRepository.findDatabaseTimeMillis();
+        List<Object[]> rows = entityReviewRepository.findReviewKeysUpdatedSince(since - catchUpOverlapMs, catchUpMaxReviews + 1);
+        if (rows.size() > catchUpMaxReviews) {
+            log.warn("More than {} reviews changed since {}, rebuilding the search index", catchUpMaxReviews,
+                    Instant.ofEpochMilli(since));
+            rebuild();
+            return;
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (Object[] row : rows) {
+            keys.add(ReviewChangeEvent.reviewKey(((Number) row[0]).longValue(), ((Number) row[1]).intValue()));
+        }
+        enqueue(keys);
+        if (applyPendingChanges()) {
+            setWatermark(now);
+            if (!keys.isEmpty()) {
+                log.info("🔍 Search index caught up {} reviews changed since {}", keys.size(), Instant.ofEpochMilli(since));
+            }
+        }
+    }
+
+    /**
+     * Rebuild the whole index from Postgres in the background
+     *
+     * @throws IllegalStateException when the index is unavailable or a rebuild is already running
+     */
+    public synchronized Map<String, Object> submitRebuild() {
+        if (writer == null) {
+            throw new IllegalStateException("Search index is not available");
+        }
+        if ("running".equals(rebuildState) || "queued".equals(rebuildState)) {
+            throw new IllegalStateException("Search index rebuild is already " + rebuildState);
+        }
+        rebuildState = "queued";
+        indexExecutor.execute(this::rebuild);
+        return getRebuildStatus();
+    }
+
+    /**
+     * Replace every document with the reviews read from Postgres in key order. The old documents
+     * stay searchable until the new ones are committed; a failed rebuild rolls back to them.
+     */
+    void rebuild() {
+        synchronized (this) {
+            rebuildState = "running";
+            // The rebuild re-reads every review, so what was queued before it is covered
+            pendingKeys = new LinkedHashSet<>();
+            droppedDuringRebuild = 0;
+        }
+        rebuildStartedAt = Instant.now();
+        rebuildFinishedAt = null;
+        rebuildIndexed = 0;
+        rebuildError = null;
+        try {
+            // Changes from here on are replayed by the next catch-up
+            long startedMs = entityReviewRepository.findDatabaseTimeMillis();
+            writer.commit();
+            writer.deleteAll();
+            Long afterReviewId = Long.MIN_VALUE;
+            Integer afterProviderId = Integer.MIN_VALUE;
+            List<Object[]> rows;
+            do {
+                rows = entityReviewRepository.findSearchDocumentsAfter(afterReviewId, afterProviderId, batchSize);
+                for (Object[] row : rows) {
+                    writer.addDocument(toDocument(row));
+                    afterReviewId = ((Number) row[0]).longValue();
+                    afterProviderId = ((Number) row[1]).intValue();
+                }
+                rebuildIndexed += rows.size();
+            } while (rows.size() == batchSize);
+            setWatermark(startedMs);
+            writer.commit();
+            lastCommitAt = Instant.now();
+            searcherManager.maybeRefresh();
+            rebuildState = "completed";
+            log.info("✅ Rebuilt search index with {} reviews", rebuildIndexed);
+        } catch (Exception e) {
+            rebuildState = "failed";
+            rebuildError = e.getMessage();
+            log.error("Search index rebuild failed after {} reviews, rolling back", rebuildIndexed, e);
+            reopenAfterRollback();
+        } finally {
+            rebuildFinishedAt = Instant.now();
+            synchronized (this) {
+                if (droppedDuringRebuild > 0) {
+                    log.warn("Dropped {} review changes queued during the rebuild, left to the next catch-up",
+                            droppedDuringRebuild);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the failed rebuild and reopen on the last commit. The old searcher manager keeps serving
+     * its pre-rebuild searcher until the new one is swapped in; closing it afterwards only stops new
+     * acquires, and searchers still held by running searches are released as those finish.
+     */
+    private void reopenAfterRollback() {
+        SearcherManager oldSearcherManager = searcherManager;
+        try {
+            writer.rollback();
+            openWriter();
+        } catch (IOException e) {
+            writer = null;
+            releaseFacetSearcher();
+            log.error("Failed to reopen search index at {}, search is unavailable", indexPath, e);
+        }
+        try {
+            oldSearcherManager.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the replaced searcher manager: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Top hits of a search, best first, with the counts of every facet over all matching reviews.
+     * Blank text matches every review; facet filters are exact facet labels.
+     *
+     * @param ratingBucket whole-point rating bucket, e.g. "8" for 8.0 to 8.9, or "unrated"
+     * @throws IllegalStateException when the index is unavailable
+     */
+    public Map<String, Object> search(String text, String platform, String ratingBucket, String country, String roomType,
+                                      Double minRating, Double maxRating, int size, int facetLimit) throws IOException {
+        if (writer == null) {
+            throw new IllegalStateException("Search index is not available");
+        }
+        log.info("🔍 Searching review index - text: {}, platform: {}, ratingBucket: {}, country: {}, roomType: {}, minRating: {}, maxRating: {}, size: {}",
+                text, platform, ratingBucket, country, roomType, minRating, maxRating, size);
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        if (text != null && !text.isBlank()) {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT_FIELD_WEIGHTS);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            Query textQuery = parser.parse(text);
+            query.add(textQuery != null ? textQuery : new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        } else {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (minRating != null && maxRating != null) {
+            query.add(DoublePoint.newRangeQuery("rating", minRating, maxRating), BooleanClause.Occur.FILTER);
+        }
+        DrillDownQuery drillDown = new DrillDownQuery(facetsConfig, query.build());
+        addDrillDown(drillDown, FACET_PLATFORM, platform);
+        addDrillDown(drillDown, FACET_RATING, ratingBucket);
+        addDrillDown(drillDown, FACET_COUNTRY, country);
+        addDrillDown(drillDown, FACET_ROOM_TYPE, roomType);
+
+        FacetSearcher current = acquireFacetSearcher();
+        IndexSearcher searcher = current.searcher;
+        try {
+            FacetsCollector facetsCollector = new FacetsCollector();
+            TopDocs topDocs = FacetsCollector.search(searcher, drillDown, size, facetsCollector);
+
+            List<Map<String, Object>> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            StoredFields storedFields = searcher.storedFields();
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                hits.add(toHit(storedFields.document(scoreDoc.doc), scoreDoc.score));
+            }
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            FACETS.forEach(facet -> facets.put(facet, new LinkedHashMap<>()));
+            if (topDocs.totalHits.value > 0) {
+                Facets counts = new SortedSetDocValuesFacetCounts(current.state, facetsCollector);
+                for (FacetResult result : counts.getAllDims(facetLimit)) {
+                    Map<String, Long> labels = facets.get(result.dim);
+                    for (LabelAndValue labelAndValue : result.labelValues) {
+                        labels.put(labelAndValue.label, labelAndValue.value.longValue());
+                    }
+                }
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("hits", hits);
+            response.put("totalHits", topDocs.totalHits.value);
+            response.put("facets", facets);
+            log.info("✅ Index search completed, returning {} of {} hits", hits.size(), topDocs.totalHits.value);
+            return response;
+        } finally {
+            current.release();
+        }
+    }
+
+    private void addDrillDown(DrillDownQuery drillDown, String facet, String value) {
+        if (value != null && !value.isEmpty()) {
+            drillDown.add(facet, value);
+        }
+    }
+
+    /**
+     * Take a reference on the latest searcher whose facet ordinals are built. A searcher replaced
+     * and fully released in between fails tryIncRef, and its replacement is taken instead.
+     */
+    private FacetSearcher acquireFacetSearcher() {
+        while (true) {
+            FacetSearcher current = facetSearcher;
+            if (current == null) {
+                throw new IllegalStateException("Search index is not available");
+            }
+            if (current.searcher.getIndexReader().tryIncRef()) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Build the facet ordinals of the manager's current searcher and publish them with it,
+     * releasing the searcher they replace; nothing to do when that searcher is already published
+     */
+    private void publishFacetSearcher(SearcherManager manager) throws IOException {
+        IndexSearcher searcher = manager.acquire();
+        FacetSearcher current = facetSearcher;
+        if (current != null && current.searcher == searcher) {
+            manager.release(searcher);
+            return;
+        }
+        FacetSearcher next;
+        try {
+            // An empty index has no facet doc values to build ordinals from, and no hits to count
+            next = new FacetSearcher(searcher, searcher.getIndexReader().maxDoc() > 0
+                    ? new DefaultSortedSetDocValuesReaderState(searcher.getIndexReader(), facetsConfig) : null);
+        } catch (IOException | RuntimeException e) {
+            manager.release(searcher);
+            throw e;
+        }
+        FacetSearcher previous = facetSearcher;
+        facetSearcher = next;
+        if (previous != null) {
+            previous.release();
+        }
+    }
+
+    private void releaseFacetSearcher() {
+        FacetSearcher previous = facetSearcher;
+        facetSearcher = null;
+        if (previous != null) {
+            try {
+                previous.release();
+            } catch (IOException e) {
+                log.warn("Failed to release the facet searcher: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Row layout of {@link EntityReviewRepository#SEARCH_DOCUMENT_SELECT}
+     */
+    private Document toDocument(Object[] row) throws IOException {
+        long reviewId = ((Number) row[0]).longValue();
+        int providerId = ((Number) row[1]).intValue();
+        Double rating = row[4] != null ? ((Number) row[4]).doubleValue() : null;
+
+        Document document = new Document();
+        document.add(new StringField("id", ReviewChangeEvent.reviewKey(reviewId, providerId), Field.Store.YES));
+        document.add(new StoredField("reviewId", reviewId));
+        document.add(new StoredField("providerId", providerId));
+        if (row[2] != null) {
+            document.add(new StoredField("entityId", ((Number) row[2]).intValue()));
+        }
+        addText(document, "title", (String) row[5], Field.Store.YES);
+        addText(document, "comments", (String) row[6], Field.Store.NO);
+        addText(document, "positives", (String) row[7], Field.Store.NO);
+        addText(document, "negatives", (String) row[8], Field.Store.NO);
+        if (row[9] != null) {
+            document.add(new StoredField("reviewDate", ((Number) row[9]).longValue()));
+        }
+        if (rating != null) {
+            document.add(new DoublePoint("rating", rating));
+            document.add(new StoredField("rating", rating));
+        }
+        addFacet(document, FACET_PLATFORM, (String) row[3]);
+        addFacet(document, FACET_RATING, rating != null ? String.valueOf((int) Math.floor(rating)) : UNRATED);
+        addFacet(document, FACET_COUNTRY, (String) row[10]);
+        addFacet(document, FACET_ROOM_TYPE, (String) row[11]);
+        return facetsConfig.build(document);
+    }
+
+    private static void addText(Document document, String field, String value, Field.Store store) {
+        if (value != null && !value.isEmpty()) {
+            document.add(new TextField(field, value, store));
+        }
+    }
+
+    private static void addFacet(Document document, String facet, String value) {
+        if (value != null && !value.isEmpty()) {
+            document.add(new SortedSetDocValuesFacetField(facet, value));
+            document.add(new StoredField(facet, value));
+        }
+    }
+
+    private static Map<String, Object> toHit(Document document, float score) {
+        Map<String, Object> hit = new LinkedHashMap<>();
+        hit.put("reviewId", document.getField("reviewId").numericValue());
+        hit.put("providerId", document.getField("providerId").numericValue());
+        hit.put("entityId", document.getField("entityId") != null ? document.getField("entityId").numericValue() : null);
+        hit.put("platform", document.get(FACET_PLATFORM));
+        hit.put("rating", document.getField("rating") != null ? document.getField("rating").numericValue() : null);
+        hit.put("reviewTitle", document.get("title"));
+        hit.put("reviewDate", document.getField("reviewDate") != null
+                ? Instant.ofEpochMilli(document.getField("reviewDate").numericValue().longValue()) : null);
+        hit.put("country", document.get(FACET_COUNTRY));
+        hit.put("roomType", document.get(FACET_ROOM_TYPE));
+        hit.put("score", score);
+        return hit;
+    }
+
+    public long getDocumentCount() {
+        IndexWriter current = writer;
+        try {
+            return current != null ? current.getDocStats().numDocs : 0;
+        } catch (AlreadyClosedException e) {
+            // Rolled back and about to be replaced
+            return 0;
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("enabled", enabled);
+        status.put("available", writer != null);
+        status.put("path", indexPath.toString());
+        status.put("documents", getDocumentCount());
+        synchronized (this) {
+            status.put("pendingChanges", pendingKeys.size());
+        }
+        status.put("lastCommitAt", lastCommitAt);
+        Long watermark = watermarkMs;
+        status.put("watermark", watermark != null ? Instant.ofEpochMilli(watermark) : null);
+        status.put("rebuild", getRebuildStatus());
+        return status;
+    }
+
+    private Map<String, Object> getRebuildStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", rebuildState);
+        status.put("startedAt", rebuildStartedAt);
+        status.put("finishedAt", rebuildFinishedAt);
+        status.put("indexed", rebuildIndexed);
+        status.put("error", rebuildError);
+        return status;
+    }
+
+    @PreDestroy
+    public void close() {
+        indexExecutor.shutdown();
+        try {
+            indexExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer == null) {
+            return;
+        }
+        releaseFacetSearcher();
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            log.warn("Failed to close search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the facet ordinals once per reopened reader on the refreshing thread, off the search path
+     */
+    private class FacetStateRefresher implements ReferenceManager.RefreshListener {
+        private final SearcherManager manager;
+
+        private FacetStateRefresher(SearcherManager manager) {
+            this.manager = manager;
+        }
+
+        @Override
+        public void beforeRefresh() {
+        }
+
+        // Also runs without a new reader, so a state that failed to build is retried at the next refresh
+        @Override
+        public void afterRefresh(boolean didRefresh) throws IOException {
+            publishFacetSearcher(manager);
+        }
+    }
+
+    /**
+     * A searcher together with the facet ordinals of its reader; holds one reference on the reader
+     * while published, and searches take their own
+     */
+    private static class FacetSearcher {
+        private final IndexSearcher searcher;
+        private final SortedSetDocValuesReaderState state;
+
+        private FacetSearcher(IndexSearcher searcher, SortedSetDocValuesReaderState state) {
+            this.searcher = searcher;
+            this.state = state;
+        }
+
+        private void release() throws IOException {
+            searcher.getIndexReader().decRef();
+        }
+    }
+}
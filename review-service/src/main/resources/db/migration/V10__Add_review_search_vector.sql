@@ -0,0 +1,15 @@
+-- Full-text search over reviews. search_vector is generated from the text columns, so every
+-- insert and upsert keeps it current without application changes; the title weighs most, then
+-- the comments, then positives and negatives. The 'simple' configuration lowercases without
+-- stemming or stop words because reviews come in many languages. Adding a stored generated
+-- column rewrites entity_reviews once.
+
+ALTER TABLE entity_reviews ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(review_title, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(review_comments, '')), 'B') ||
+        setweight(to_tsvector('simple', COALESCE(review_positives, '')), 'C') ||
+        setweight(to_tsvector('simple', COALESCE(review_negatives, '')), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_entity_reviews_search_vector ON entity_reviews USING GIN (search_vector);
@@ -0,0 +1,12 @@
+-- Completeness marker of the review-consumer latest-state topic. A row means every review in
+-- Postgres was published to the topic (by a seed job or a rebuild from it) and every write since
+-- was published before it committed, so the topic alone can rebuild the review tables.
+
+CREATE TABLE IF NOT EXISTS latest_state_seeds (
+    topic VARCHAR(255) PRIMARY KEY,
+    reviews BIGINT NOT NULL,
+    seeded_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE latest_state_seeds IS 'Latest-state topics known to hold every persisted review';
+COMMENT ON COLUMN latest_state_seeds.reviews IS 'Reviews published by the seed or loaded by the rebuild that completed the topic';
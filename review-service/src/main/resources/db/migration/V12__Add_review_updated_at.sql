@@ -0,0 +1,26 @@
+-- Last write time of every review and reviewer info row, so the review-service search index can
+-- replay the changes it missed (service down, lost change events, COPY bulk loads) from Postgres.
+-- Set by trigger on every insert and every update that actually changes a row, with the wall
+-- clock rather than the transaction start so a row is stamped as close to its commit as possible.
+-- Rows written before this migration keep NULL; the index is rebuilt once when it has no watermark.
+
+ALTER TABLE entity_reviews ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE reviewer_info ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE;
+
+CREATE OR REPLACE FUNCTION set_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER entity_reviews_set_updated_at
+    BEFORE INSERT OR UPDATE ON entity_reviews
+    FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+
+CREATE OR REPLACE TRIGGER reviewer_info_set_updated_at
+    BEFORE INSERT OR UPDATE ON reviewer_info
+    FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+
+COMMENT ON COLUMN entity_reviews.updated_at IS 'Last insert or update of the row, set by trigger';
+COMMENT ON COLUMN reviewer_info.updated_at IS 'Last insert or update of the row, set by trigger';
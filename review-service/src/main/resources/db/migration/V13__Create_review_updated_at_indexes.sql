@@ -0,0 +1,7 @@
+-- Indexes for the search index catch-up, which reads the review keys written since its
+-- watermark. Built CONCURRENTLY so writes continue; kept apart from V12 because Flyway runs a
+-- script with CONCURRENTLY outside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_reviews_updated_at ON entity_reviews(updated_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviewer_info_updated_at ON reviewer_info(updated_at);
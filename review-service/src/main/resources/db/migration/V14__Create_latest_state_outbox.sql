@@ -0,0 +1,20 @@
+-- Outbox of the review-consumer latest-state topic: the state of every persisted review is written
+-- here in the same transaction as its rows, and relayed to the topic after commit. One row per
+-- review; a later write replaces the state and takes a new sequence number.
+
+CREATE SEQUENCE IF NOT EXISTS latest_state_outbox_seq;
+
+CREATE TABLE IF NOT EXISTS latest_state_outbox (
+    review_id BIGINT NOT NULL,
+    provider_id INT NOT NULL,
+    seq BIGINT NOT NULL DEFAULT nextval('latest_state_outbox_seq'),
+    state TEXT NOT NULL,
+    PRIMARY KEY (review_id, provider_id)
+);
+
+-- The relay sends the oldest states first
+CREATE INDEX IF NOT EXISTS idx_latest_state_outbox_seq ON latest_state_outbox(seq);
+
+COMMENT ON TABLE latest_state_outbox IS 'Review states committed but not yet acknowledged by the latest-state topic';
+COMMENT ON COLUMN latest_state_outbox.seq IS 'Taken again on every write; a relayed row is only deleted while its seq is unchanged';
+COMMENT ON COLUMN latest_state_outbox.state IS 'Review message JSON, sent to the topic as is';
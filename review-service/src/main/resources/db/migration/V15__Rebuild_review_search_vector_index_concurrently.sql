@@ -0,0 +1,11 @@
+-- V10 built the search_vector GIN index inside its transaction, right after the column rewrite,
+-- so entity_reviews stayed locked for writes until the index was done. Build it again
+-- CONCURRENTLY under a new name and drop the old one the same way, so the table keeps taking
+-- writes and searches stay indexed throughout; V16 renames it back. Kept apart from V16 because
+-- Flyway runs a script with CONCURRENTLY outside a transaction. A failed build leaves an invalid
+-- idx_entity_reviews_search_vector_concurrent behind; drop it before repairing and re-running.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_reviews_search_vector_concurrent
+    ON entity_reviews USING GIN (search_vector);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_entity_reviews_search_vector;
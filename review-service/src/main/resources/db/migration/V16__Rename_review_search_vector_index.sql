@@ -0,0 +1,3 @@
+-- Give the index V15 built its original name back; a rename only locks the index briefly.
+
+ALTER INDEX IF EXISTS idx_entity_reviews_search_vector_concurrent RENAME TO idx_entity_reviews_search_vector;
@@ -0,0 +1,28 @@
+-- Lease-based ownership of review sources across producer instances
+
+-- Table: producer_instances (live producer replicas, kept fresh by heartbeats)
+CREATE TABLE IF NOT EXISTS producer_instances (
+    instance_id VARCHAR(200) PRIMARY KEY,
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    heartbeat_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Table: source_leases (which producer instance currently ingests a source)
+CREATE TABLE IF NOT EXISTS source_leases (
+    source_id INT PRIMARY KEY,
+    owner_id VARCHAR(200),
+    lease_expires_at TIMESTAMP WITH TIME ZONE,
+    acquired_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT fk_source_leases_source
+        FOREIGN KEY (source_id)
+        REFERENCES review_sources(id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_source_leases_owner ON source_leases(owner_id);
+CREATE INDEX IF NOT EXISTS idx_source_leases_expires ON source_leases(lease_expires_at);
+
+COMMENT ON TABLE producer_instances IS 'Producer replicas taking part in source lease distribution';
+COMMENT ON TABLE source_leases IS 'Time-bound ownership of review sources by producer instances';
+COMMENT ON COLUMN source_leases.owner_id IS 'Instance id of the current owner, NULL when released';
+COMMENT ON COLUMN source_leases.lease_expires_at IS 'Lease is free to take over once this time has passed';
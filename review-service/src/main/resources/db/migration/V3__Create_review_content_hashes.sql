@@ -0,0 +1,15 @@
+-- Idempotency store for the review consumer: content hash of the last review message written per review
+
+CREATE TABLE IF NOT EXISTS review_content_hashes (
+    review_id BIGINT NOT NULL,
+    provider_id INT NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (review_id, provider_id)
+);
+
+-- Used to warm the consumer cache with the most recently written reviews
+CREATE INDEX IF NOT EXISTS idx_review_content_hashes_updated ON review_content_hashes(updated_at DESC);
+
+COMMENT ON TABLE review_content_hashes IS 'SHA-256 of the last review message persisted per review, used to skip unchanged redeliveries';
+COMMENT ON COLUMN review_content_hashes.content_hash IS 'Hex SHA-256 of the review message as serialized by the consumer';
@@ -0,0 +1,13 @@
+-- Kafka offsets stored by review-consumer in the same transaction as the review rows (exactly-once listener mode)
+
+CREATE TABLE IF NOT EXISTS consumer_offsets (
+    group_id VARCHAR(255) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    partition_id INT NOT NULL,
+    next_offset BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (group_id, topic, partition_id)
+);
+
+COMMENT ON TABLE consumer_offsets IS 'Next Kafka offset to consume per group and partition, committed atomically with the data it covers';
+COMMENT ON COLUMN consumer_offsets.next_offset IS 'Offset of the first record not yet persisted; the consumer seeks here on assignment';
@@ -0,0 +1,120 @@
+-- Rating aggregates per entity, platform and provider, maintained incrementally from entity_reviews
+-- so statistics read a few rows per entity instead of scanning every review.
+
+-- Block review writes while the triggers are installed and the backfill runs, so no change is missed
+LOCK TABLE entity_reviews IN SHARE ROW EXCLUSIVE MODE;
+
+-- Table: review_rating_aggregates (review counts and rating sums)
+CREATE TABLE IF NOT EXISTS review_rating_aggregates (
+    entity_id INT NOT NULL,
+    platform VARCHAR NOT NULL,
+    provider_id INT NOT NULL,
+    review_count BIGINT NOT NULL DEFAULT 0,
+    rated_count BIGINT NOT NULL DEFAULT 0,
+    rating_sum NUMERIC(18,1) NOT NULL DEFAULT 0,
+    PRIMARY KEY (entity_id, platform, provider_id)
+);
+
+-- Table: review_rating_histogram (review count per rating value)
+CREATE TABLE IF NOT EXISTS review_rating_histogram (
+    entity_id INT NOT NULL,
+    platform VARCHAR NOT NULL,
+    provider_id INT NOT NULL,
+    rating NUMERIC(3,1) NOT NULL,
+    review_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (entity_id, platform, provider_id, rating)
+);
+
+CREATE INDEX IF NOT EXISTS idx_review_rating_aggregates_platform ON review_rating_aggregates(platform);
+CREATE INDEX IF NOT EXISTS idx_review_rating_histogram_rating ON review_rating_histogram(rating);
+
+-- One +1 / -1 contribution of a review row to the aggregates
+CREATE TYPE review_rating_delta AS (
+    entity_id INT,
+    platform VARCHAR,
+    provider_id INT,
+    rating NUMERIC(3,1),
+    n INT
+);
+
+-- Apply the net deltas of one statement. Rows are written in key order so concurrent consumers
+-- lock aggregate rows in the same order, and groups whose changes cancel out are not touched.
+CREATE OR REPLACE FUNCTION apply_review_rating_deltas(deltas review_rating_delta[]) RETURNS void AS $$
+    INSERT INTO review_rating_aggregates AS a (entity_id, platform, provider_id, review_count, rated_count, rating_sum)
+    SELECT entity_id, platform, provider_id,
+           SUM(n),
+           COALESCE(SUM(n) FILTER (WHERE rating IS NOT NULL), 0),
+           COALESCE(SUM(n * rating), 0)
+    FROM unnest(deltas)
+    GROUP BY entity_id, platform, provider_id
+    HAVING SUM(n) <> 0
+        OR COALESCE(SUM(n) FILTER (WHERE rating IS NOT NULL), 0) <> 0
+        OR COALESCE(SUM(n * rating), 0) <> 0
+    ORDER BY entity_id, platform, provider_id
+    ON CONFLICT (entity_id, platform, provider_id) DO UPDATE SET
+        review_count = a.review_count + EXCLUDED.review_count,
+        rated_count = a.rated_count + EXCLUDED.rated_count,
+        rating_sum = a.rating_sum + EXCLUDED.rating_sum;
+
+    INSERT INTO review_rating_histogram AS h (entity_id, platform, provider_id, rating, review_count)
+    SELECT entity_id, platform, provider_id, rating, SUM(n)
+    FROM unnest(deltas)
+    WHERE rating IS NOT NULL
+    GROUP BY entity_id, platform, provider_id, rating
+    HAVING SUM(n) <> 0
+    ORDER BY entity_id, platform, provider_id, rating
+    ON CONFLICT (entity_id, platform, provider_id, rating) DO UPDATE SET
+        review_count = h.review_count + EXCLUDED.review_count;
+$$ LANGUAGE sql;
+
+-- Statement-level trigger: the transition tables hold the rows actually inserted, updated (old and
+-- new versions) or deleted, so the deltas are exact even when concurrent upserts race on a key.
+CREATE OR REPLACE FUNCTION entity_reviews_rating_aggregates() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM apply_review_rating_deltas(ARRAY(
+            SELECT ROW(entity_id, COALESCE(platform, ''), provider_id, rating, 1)::review_rating_delta FROM new_rows));
+    ELSIF TG_OP = 'UPDATE' THEN
+        PERFORM apply_review_rating_deltas(ARRAY(
+            SELECT ROW(entity_id, COALESCE(platform, ''), provider_id, rating, 1)::review_rating_delta FROM new_rows
+            UNION ALL
+            SELECT ROW(entity_id, COALESCE(platform, ''), provider_id, rating, -1)::review_rating_delta FROM old_rows));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM apply_review_rating_deltas(ARRAY(
+            SELECT ROW(entity_id, COALESCE(platform, ''), provider_id, rating, -1)::review_rating_delta FROM old_rows));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER entity_reviews_aggregates_insert
+    AFTER INSERT ON entity_reviews
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION entity_reviews_rating_aggregates();
+
+CREATE OR REPLACE TRIGGER entity_reviews_aggregates_update
+    AFTER UPDATE ON entity_reviews
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION entity_reviews_rating_aggregates();
+
+CREATE OR REPLACE TRIGGER entity_reviews_aggregates_delete
+    AFTER DELETE ON entity_reviews
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION entity_reviews_rating_aggregates();
+
+-- Backfill from the existing reviews
+INSERT INTO review_rating_aggregates (entity_id, platform, provider_id, review_count, rated_count, rating_sum)
+SELECT entity_id, COALESCE(platform, ''), provider_id, COUNT(*), COUNT(rating), COALESCE(SUM(rating), 0)
+FROM entity_reviews
+GROUP BY entity_id, COALESCE(platform, ''), provider_id;
+
+INSERT INTO review_rating_histogram (entity_id, platform, provider_id, rating, review_count)
+SELECT entity_id, COALESCE(platform, ''), provider_id, rating, COUNT(*)
+FROM entity_reviews
+WHERE rating IS NOT NULL
+GROUP BY entity_id, COALESCE(platform, ''), provider_id, rating;
+
+COMMENT ON TABLE review_rating_aggregates IS 'Review count and rating sum per entity, platform and provider; maintained by triggers on entity_reviews';
+COMMENT ON TABLE review_rating_histogram IS 'Review count per rating value, entity, platform and provider; maintained by triggers on entity_reviews';
+COMMENT ON COLUMN review_rating_aggregates.platform IS 'Empty string for reviews without a platform';
+COMMENT ON COLUMN review_rating_aggregates.rated_count IS 'Reviews with a non-null rating, the denominator of the average';
@@ -0,0 +1,64 @@
+-- Snapshot storage for overall provider scores: every review of a hotel carries the same
+-- hotel-level score snapshot, so each distinct snapshot is stored once per entity and provider
+-- and reviews only reference it.
+
+-- Table: provider_score_snapshots (one row per distinct snapshot)
+CREATE TABLE IF NOT EXISTS provider_score_snapshots (
+    snapshot_id BIGSERIAL PRIMARY KEY,
+    entity_id INT NOT NULL,
+    provider_id INT NOT NULL,
+    content_hash BYTEA NOT NULL,
+    provider VARCHAR,
+    overall_score DECIMAL(3,1),
+    review_count INT,
+    cleanliness DECIMAL(3,1),
+    facilities DECIMAL(3,1),
+    location DECIMAL(3,1),
+    room_comfort_quality DECIMAL(3,1),
+    service DECIMAL(3,1),
+    value_for_money DECIMAL(3,1),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_provider_score_snapshot UNIQUE (entity_id, provider_id, content_hash),
+    CONSTRAINT fk_entity_snapshot FOREIGN KEY (entity_id) REFERENCES entities (entity_id) ON DELETE CASCADE
+);
+
+-- Table: review_provider_scores (review -> snapshot reference)
+CREATE TABLE IF NOT EXISTS review_provider_scores (
+    provider_id INT NOT NULL,
+    review_id BIGINT NOT NULL,
+    snapshot_id BIGINT NOT NULL,
+    PRIMARY KEY (provider_id, review_id),
+    CONSTRAINT fk_snapshot FOREIGN KEY (snapshot_id) REFERENCES provider_score_snapshots (snapshot_id),
+    CONSTRAINT fk_review_score FOREIGN KEY (review_id, provider_id)
+        REFERENCES entity_reviews (review_id, provider_id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_review_provider_scores_snapshot_id ON review_provider_scores(snapshot_id);
+
+-- Content hash of a snapshot's values; the entity and provider are part of the unique key instead
+CREATE OR REPLACE FUNCTION provider_score_hash(
+    provider VARCHAR, overall_score NUMERIC, review_count INT, cleanliness NUMERIC, facilities NUMERIC,
+    location NUMERIC, room_comfort_quality NUMERIC, service NUMERIC, value_for_money NUMERIC) RETURNS BYTEA AS $$
+    SELECT sha256(convert_to(ROW(provider, overall_score, review_count, cleanliness, facilities, location,
+                                 room_comfort_quality, service, value_for_money)::text, 'UTF8'));
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Read path with the shape of overall_provider_scores. Snapshot writes remove the review's legacy
+-- row, and a legacy row written later in rows mode takes precedence over a stale reference.
+CREATE OR REPLACE VIEW overall_provider_scores_resolved AS
+SELECT o.entity_id, o.provider_id, o.review_id, o.provider, o.overall_score, o.review_count,
+       o.cleanliness, o.facilities, o.location, o.room_comfort_quality, o.service, o.value_for_money
+FROM overall_provider_scores o
+UNION ALL
+SELECT s.entity_id, r.provider_id, r.review_id, s.provider, s.overall_score, s.review_count,
+       s.cleanliness, s.facilities, s.location, s.room_comfort_quality, s.service, s.value_for_money
+FROM review_provider_scores r
+JOIN provider_score_snapshots s ON s.snapshot_id = r.snapshot_id
+WHERE NOT EXISTS (
+    SELECT 1 FROM overall_provider_scores o WHERE o.provider_id = r.provider_id AND o.review_id = r.review_id
+);
+
+COMMENT ON TABLE provider_score_snapshots IS 'Distinct overall provider score snapshots per entity and provider, keyed by content hash';
+COMMENT ON TABLE review_provider_scores IS 'Snapshot referenced by each review when review.consumer.provider-scores.storage=snapshots';
+COMMENT ON VIEW overall_provider_scores_resolved IS 'overall_provider_scores rows from either storage mode';
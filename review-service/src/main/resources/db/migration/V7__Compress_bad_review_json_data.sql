@@ -0,0 +1,6 @@
+-- Compress large bad review payloads with lz4 instead of the default pglz. Values above the TOAST
+-- threshold (about 2 kB) are compressed when written; smaller ones stay inline. Existing rows keep
+-- their current compression until they are rewritten.
+ALTER TABLE bad_review_records ALTER COLUMN json_data SET COMPRESSION lz4;
+
+COMMENT ON COLUMN bad_review_records.json_data IS 'The original JSON data that failed validation (lz4 compressed when large)';
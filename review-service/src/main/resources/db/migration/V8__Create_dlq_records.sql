@@ -0,0 +1,51 @@
+-- Records the producer sent to the dlq topic (review lines missing critical ids), stored by
+-- review-consumer for querying and replay. Partitioned by month of the Kafka record timestamp so
+-- old months can be dropped instead of deleted row by row.
+
+-- Table: dlq_records
+CREATE TABLE IF NOT EXISTS dlq_records (
+    received_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    kafka_partition INT NOT NULL,
+    kafka_offset BIGINT NOT NULL,
+    review_id BIGINT,
+    provider_id INT,
+    platform VARCHAR(100),
+    reason VARCHAR(500),
+    original_json TEXT NOT NULL,
+    source VARCHAR(255),
+    file_key VARCHAR(1024),
+    line_number INT,
+    replay_count INT NOT NULL DEFAULT 0,
+    replayed_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- The Kafka position identifies a record, so redelivered batches are not stored twice
+    PRIMARY KEY (received_at, kafka_partition, kafka_offset)
+) PARTITION BY RANGE (received_at);
+
+-- Catches records outside the monthly partitions created so far
+CREATE TABLE IF NOT EXISTS dlq_records_default PARTITION OF dlq_records DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_dlq_records_platform ON dlq_records(platform, received_at);
+CREATE INDEX IF NOT EXISTS idx_dlq_records_reason ON dlq_records(reason, received_at);
+
+-- Create the monthly partitions from the current month to months_ahead months ahead
+CREATE OR REPLACE FUNCTION create_dlq_partitions(months_ahead INT) RETURNS void AS $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := (date_trunc('month', CURRENT_DATE) + make_interval(months => i))::date;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF dlq_records FOR VALUES FROM (%L) TO (%L)',
+            'dlq_records_' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::date);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_dlq_partitions(2);
+
+COMMENT ON TABLE dlq_records IS 'Review lines routed to the dlq topic, partitioned by month of the Kafka record timestamp';
+COMMENT ON COLUMN dlq_records.received_at IS 'Kafka record timestamp (partition key)';
+COMMENT ON COLUMN dlq_records.replay_count IS 'How many times the record was replayed through validation';
@@ -0,0 +1,21 @@
+-- Indexes backing cursor (keyset) pagination of GET /api/reviews. Each supported sort is
+-- (sort key, review_id, provider_id); nullable sort keys are indexed through the same COALESCE
+-- expressions the listing query compares, so NULLs sort first ascending and last descending.
+-- reviewId sorts use the primary key. Built CONCURRENTLY so writes to entity_reviews continue;
+-- Flyway runs this script outside a transaction because of that.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_reviews_review_date_keyset
+    ON entity_reviews ((COALESCE(review_date, CAST('-infinity' AS timestamp))), review_id, provider_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_reviews_rating_keyset
+    ON entity_reviews ((COALESCE(rating, -1)), review_id, provider_id);
+
+-- Same sorts within one platform
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_reviews_platform_keyset
+    ON entity_reviews (platform, review_id, provider_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_reviews_platform_review_date_keyset
+    ON entity_reviews (platform, (COALESCE(review_date, CAST('-infinity' AS timestamp))), review_id, provider_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_entity_reviews_platform_rating_keyset
+    ON entity_reviews (platform, (COALESCE(rating, -1)), review_id, provider_id);
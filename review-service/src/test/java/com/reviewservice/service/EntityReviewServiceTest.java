@@ -1,6 +1,9 @@
 package com.reviewservice.service;
 
+import com.reviewcore.model.EntityReview;
 import com.reviewservice.repository.EntityReviewRepository;
+import com.reviewservice.repository.OverallProviderScoreRepository;
+import com.reviewservice.repository.ReviewCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -8,25 +11,42 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 
+import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class EntityReviewServiceTest {
     private EntityReviewRepository entityReviewRepository;
     private BadReviewRecordService badReviewRecordService;
+    private OverallProviderScoreRepository overallProviderScoreRepository;
     private EntityReviewService entityReviewService;
 
     @BeforeEach
     void setup() {
         entityReviewRepository = Mockito.mock(EntityReviewRepository.class);
         badReviewRecordService = Mockito.mock(BadReviewRecordService.class);
-        entityReviewService = new EntityReviewService(entityReviewRepository, badReviewRecordService);
+        overallProviderScoreRepository = Mockito.mock(OverallProviderScoreRepository.class);
+        entityReviewService = new EntityReviewService(entityReviewRepository, badReviewRecordService,
+                overallProviderScoreRepository);
     }
 
     @Test
@@ -36,4 +56,112 @@ public class EntityReviewServiceTest {
         Map<String, Object> result = entityReviewService.getAllReviewsBody(0, 1, "reviewId", "desc", null, null, null, null);
         assertNotNull(result);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getAllReviewsBody_searchesFullTextWithFilters() {
+        Page<EntityReview> page = new PageImpl<>(List.of(review(1L, 1, 9.0)), PageRequest.of(0, 20), 1);
+        when(entityReviewRepository.findByFullTextSearch(eq("clean room"), eq("Agoda"), eq(8.0), eq(10.0), any(Pageable.class)))
+                .thenReturn(page);
+        Map<String, Object> result = entityReviewService.getAllReviewsBody(0, 20, "reviewId", "desc", "Agoda", 8.0, 10.0, "clean room");
+        assertEquals(1L, result.get("totalItems"));
+        assertEquals(1, ((List<?>) result.get("reviews")).size());
+        assertEquals(EntityReviewService.SORT_RELEVANCE, result.get("sortBy"));
+        assertEquals("desc", result.get("sortDir"));
+    }
+
+    @Test
+    void getAllReviewsBody_leavesTermlessSearchFallbackToTheQuery() {
+        Page<EntityReview> page = new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 20), 0);
+        when(entityReviewRepository.findByFullTextSearch(eq("!!"), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(page);
+        Map<String, Object> result = entityReviewService.getAllReviewsBody(0, 20, "reviewId", "desc", null, null, null, "!!");
+        assertEquals(0L, result.get("totalItems"));
+        verify(entityReviewRepository, never()).findBySearchTerm(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllReviewsBody_likeSearchReportsRequestedSort() {
+        Page<EntityReview> page = new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 20), 0);
+        when(entityReviewRepository.findBySearchTerm(eq("wifi"), any(Pageable.class))).thenReturn(page);
+        Map<String, Object> result = entityReviewService.getAllReviewsBody(0, 20, "rating", "ASC", null, null, null, "wifi",
+                EntityReviewService.SEARCH_MODE_LIKE, EntityReviewService.COUNT_EXACT);
+        assertEquals("rating", result.get("sortBy"));
+        assertEquals("asc", result.get("sortDir"));
+    }
+
+    @Test
+    void getAllReviewsBody_sliceSkipsCount() {
+        when(entityReviewRepository.findSliceByPlatform(eq("Agoda"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(review(1L, 1, 9.0)), PageRequest.of(0, 1), true));
+        Map<String, Object> result = entityReviewService.getAllReviewsBody(0, 1, "reviewId", "desc", "Agoda", null, null, null,
+                null, EntityReviewService.COUNT_NONE);
+        assertTrue((Boolean) result.get("hasNext"));
+        assertFalse(result.containsKey("totalItems"));
+        verify(entityReviewRepository, never()).findByPlatform(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllReviewsBody_estimatedCountFlagsSource() {
+        when(entityReviewRepository.findSliceByPlatform(eq("Agoda"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(review(1L, 1, 9.0)), PageRequest.of(0, 1), true));
+        when(entityReviewRepository.countByPlatformFromAggregates("Agoda")).thenReturn(42L);
+        Map<String, Object> counted = entityReviewService.getAllReviewsBody(0, 1, "reviewId", "desc", "Agoda", null, null, null,
+                null, EntityReviewService.COUNT_ESTIMATED);
+        assertEquals(42L, counted.get("totalItems"));
+        assertEquals(true, counted.get("totalItemsExact"));
+
+        when(entityReviewRepository.findSliceBySearchTerm(eq("wifi"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(review(2L, 1, 7.0)), PageRequest.of(0, 1), false));
+        when(entityReviewRepository.estimateCount(isNull(), isNull(), isNull(), eq("wifi"), eq(false))).thenReturn(500L);
+        Map<String, Object> estimated = entityReviewService.getAllReviewsBody(0, 1, "reviewId", "desc", null, null, null, "wifi",
+                EntityReviewService.SEARCH_MODE_LIKE, EntityReviewService.COUNT_ESTIMATED);
+        assertEquals(500L, estimated.get("totalItems"));
+        assertEquals(false, estimated.get("totalItemsExact"));
+    }
+
+    @Test
+    void getEntityStatisticsBody_combinesPlatformAggregates() {
+        when(entityReviewRepository.findAggregatesByEntityId(1)).thenReturn(List.of(
+                new Object[]{"", BigDecimal.valueOf(1), BigDecimal.valueOf(0), BigDecimal.ZERO},
+                new Object[]{"Agoda", BigDecimal.valueOf(2), BigDecimal.valueOf(2), new BigDecimal("15.0")},
+                new Object[]{"Booking", BigDecimal.valueOf(1), BigDecimal.valueOf(1), new BigDecimal("6.0")}));
+        Map<String, Object> result = entityReviewService.getEntityStatisticsBody(1);
+        assertEquals(4L, result.get("totalReviews"));
+        assertEquals(7.0, (Double) result.get("averageRating"), 1e-9);
+        assertEquals(Map.of("Agoda", 2L, "Booking", 1L), result.get("reviewsByPlatform"));
+    }
+
+    @Test
+    void getReviewsAfterCursorBody_returnsCursorOfLastReviewWhenMoreFollow() {
+        when(entityReviewRepository.findPageAfter(eq("rating"), eq(true), isNull(), eq("Agoda"), isNull(), isNull(), isNull(), eq(false), eq(3)))
+                .thenReturn(List.of(review(3L, 1, 9.0), review(2L, 1, 8.5), review(1L, 1, 8.5)));
+        Map<String, Object> first = entityReviewService.getReviewsAfterCursorBody(null, 2, "rating", "desc", "Agoda", null, null, null);
+        assertTrue((Boolean) first.get("hasNext"));
+        assertEquals(2, ((List<?>) first.get("reviews")).size());
+
+        String cursor = (String) first.get("nextCursor");
+        ReviewCursor decoded = ReviewCursor.decode(cursor);
+        assertEquals("8.5", decoded.getSortValue());
+        assertEquals(2L, decoded.getReviewId());
+
+        when(entityReviewRepository.findPageAfter(eq("rating"), eq(true), argThat(after -> after != null && after.getReviewId() == 2L),
+                eq("Agoda"), isNull(), isNull(), isNull(), eq(false), anyInt())).thenReturn(List.of(review(1L, 1, 8.5)));
+        Map<String, Object> second = entityReviewService.getReviewsAfterCursorBody(cursor, 2, "rating", "desc", "Agoda", null, null, null);
+        assertFalse((Boolean) second.get("hasNext"));
+        assertEquals(1, ((List<?>) second.get("reviews")).size());
+    }
+
+    @Test
+    void getReviewsAfterCursorBody_rejectsCursorOfAnotherSort() {
+        String cursor = ReviewCursor.after(review(1L, 1, 8.5), "rating", true).encode();
+        assertThrows(IllegalArgumentException.class, () ->
+                entityReviewService.getReviewsAfterCursorBody(cursor, 2, "reviewDate", "desc", null, null, null, null));
+    }
+
+    private static EntityReview review(Long reviewId, Integer providerId, Double rating) {
+        EntityReview review = new EntityReview();
+        review.setId(new EntityReview.EntityReviewId(reviewId, providerId));
+        review.setRating(rating);
+        return review;
+    }
+}
@@ -0,0 +1,123 @@
+package com.reviewservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reviewservice.repository.EntityReviewRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class ReviewSearchIndexServiceTest {
+    @TempDir
+    Path indexDir;
+
+    private EntityReviewRepository entityReviewRepository;
+    private ReviewSearchIndexService reviewSearchIndexService;
+
+    @BeforeEach
+    void setup() {
+        entityReviewRepository = Mockito.mock(EntityReviewRepository.class);
+        reviewSearchIndexService = new ReviewSearchIndexService(entityReviewRepository, new ObjectMapper(),
+                new SimpleMeterRegistry(), true, indexDir.toString(), 60000, 60000, 2, 60000, 100);
+        reviewSearchIndexService.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewSearchIndexService.close();
+    }
+
+    @Test
+    void search_returnsHitsWithFacetCountsOfAllMatches() throws Exception {
+        when(entityReviewRepository.findSearchDocumentsAfter(Long.MIN_VALUE, Integer.MIN_VALUE, 2)).thenReturn(List.of(
+                row(1L, "Agoda", 8.5, "Clean room", "Japan"),
+                row(2L, "Booking", 9.0, "Very clean and quiet", "Japan")));
+        when(entityReviewRepository.findSearchDocumentsAfter(2L, 1, 2)).thenReturn(Collections.singletonList(
+                row(3L, "Agoda", 6.0, "Noisy street", "France")));
+        reviewSearchIndexService.rebuild();
+
+        Map<String, Object> result = reviewSearchIndexService.search("clean", null, null, null, null, null, null, 10, 10);
+        assertEquals(2L, result.get("totalHits"));
+        assertEquals(2, ((List<?>) result.get("hits")).size());
+        Map<?, ?> facets = (Map<?, ?>) result.get("facets");
+        assertEquals(Map.of("Agoda", 1L, "Booking", 1L), facets.get("platform"));
+        assertEquals(Map.of("8", 1L, "9", 1L), facets.get("ratingBucket"));
+        assertEquals(Map.of("Japan", 2L), facets.get("country"));
+
+        Map<String, Object> agoda = reviewSearchIndexService.search(null, "Agoda", null, null, null, null, null, 10, 10);
+        assertEquals(2L, agoda.get("totalHits"));
+    }
+
+    @Test
+    void applyPendingChanges_updatesChangedAndRemovesDeletedReviews() throws Exception {
+        when(entityReviewRepository.findSearchDocumentsAfter(Long.MIN_VALUE, Integer.MIN_VALUE, 2)).thenReturn(List.of(
+                row(1L, "Agoda", 8.5, "Clean room", "Japan"),
+                row(2L, "Booking", 9.0, "Quiet", "Japan")));
+        reviewSearchIndexService.rebuild();
+
+        when(entityReviewRepository.findSearchDocumentsByReviewIds(any())).thenReturn(Collections.singletonList(
+                row(1L, "Agoda", 4.0, "Dirty room", "Japan")));
+        reviewSearchIndexService.enqueue(Set.of("1_1", "2_1"));
+        reviewSearchIndexService.applyPendingChanges();
+
+        Map<String, Object> result = reviewSearchIndexService.search(null, null, null, null, null, null, null, 10, 10);
+        assertEquals(1L, result.get("totalHits"));
+        Map<?, ?> hit = (Map<?, ?>) ((List<?>) result.get("hits")).get(0);
+        assertEquals("Dirty room", hit.get("reviewTitle"));
+        assertEquals(Map.of("4", 1L), ((Map<?, ?>) result.get("facets")).get("ratingBucket"));
+    }
+
+    @Test
+    void commit_catchesUpReviewsChangedSinceTheWatermark() throws Exception {
+        when(entityReviewRepository.findDatabaseTimeMillis()).thenReturn(1_000_000L, 2_000_000L);
+        when(entityReviewRepository.findSearchDocumentsAfter(Long.MIN_VALUE, Integer.MIN_VALUE, 2)).thenReturn(
+                Collections.singletonList(row(1L, "Agoda", 8.5, "Clean room", "Japan")));
+        reviewSearchIndexService.rebuild();
+
+        when(entityReviewRepository.findReviewKeysUpdatedSince(1_000_000L - 60000, 101)).thenReturn(
+                Collections.singletonList(new Object[]{2L, 1}));
+        when(entityReviewRepository.findSearchDocumentsByReviewIds(any())).thenReturn(Collections.singletonList(
+                row(2L, "Booking", 9.0, "Quiet", "Japan")));
+        reviewSearchIndexService.commit();
+
+        Map<String, Object> result = reviewSearchIndexService.search(null, null, null, null, null, null, null, 10, 10);
+        assertEquals(2L, result.get("totalHits"));
+        assertEquals(Instant.ofEpochMilli(2_000_000L), reviewSearchIndexService.getStatus().get("watermark"));
+    }
+
+    @Test
+    void rebuild_dropsQueuedChangesAndCapsThoseArrivingMeanwhile() throws Exception {
+        reviewSearchIndexService.close();
+        reviewSearchIndexService = new ReviewSearchIndexService(entityReviewRepository, new ObjectMapper(),
+                new SimpleMeterRegistry(), true, indexDir.toString(), 60000, 60000, 2, 60000, 2);
+        reviewSearchIndexService.open();
+        reviewSearchIndexService.enqueue(Set.of("7_1", "8_1", "9_1"));
+
+        when(entityReviewRepository.findSearchDocumentsAfter(Long.MIN_VALUE, Integer.MIN_VALUE, 2)).thenAnswer(invocation -> {
+            reviewSearchIndexService.enqueue(Set.of("4_1", "5_1", "6_1"));
+            return Collections.singletonList(row(1L, "Agoda", 8.5, "Clean room", "Japan"));
+        });
+        reviewSearchIndexService.rebuild();
+
+        assertEquals(2, reviewSearchIndexService.getStatus().get("pendingChanges"));
+        reviewSearchIndexService.enqueue(Set.of("4_1", "5_1", "6_1"));
+        assertEquals(3, reviewSearchIndexService.getStatus().get("pendingChanges"));
+    }
+
+    private static Object[] row(Long reviewId, String platform, Double rating, String title, String country) {
+        return new Object[]{reviewId, 1, 100, platform, rating, title, null, null, null, 1700000000000L, country, "Double Room"};
+    }
+}